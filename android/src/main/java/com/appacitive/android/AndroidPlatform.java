@@ -8,6 +8,7 @@ import com.appacitive.core.model.Platform;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 /**
  * Created by sathley.
@@ -35,6 +36,17 @@ public class AndroidPlatform implements Platform {
                 return new StaticUserContextProvider();
             }
         });
+
+        //  Volley delivers on the main thread, so callbacks that need no response, such as cache hits, run there too.
+        final Executor mainThread = OkHttpAsyncHttp.mainThread();
+        if (mainThread != null) {
+            put(Executor.class, new ObjectFactory<Executor>() {
+                @Override
+                public Executor get() {
+                    return mainThread;
+                }
+            });
+        }
     }};
 
     public synchronized Map<Class<?>, ObjectFactory<?>> getRegistrations() {
@@ -4,6 +4,8 @@ import android.content.Context;
 import com.appacitive.core.AppacitiveContextBase;
 import com.appacitive.core.model.Environment;
 
+import java.io.File;
+
 /**
  * Created by sathley.
  */
@@ -16,6 +18,17 @@ public class AppacitiveContext extends AppacitiveContextBase {
         AppacitiveContext.applicationContext = applicationContext;
     }
 
+    /**
+     * Initializes the context to send requests through a shared OkHttp client instead of Volley.
+     * When caching is enabled without a cache directory, responses are cached in the application's cache directory.
+     */
+    public synchronized static void initialize(String apiKey, Environment environment, Context applicationContext, OkHttpSettings settings) {
+        if (settings.getCacheSizeInBytes() > 0 && settings.getCacheDirectory() == null && applicationContext != null)
+            settings.withCache(new File(applicationContext.getCacheDir(), "appacitive-http"), settings.getCacheSizeInBytes());
+        AppacitiveContextBase.initialize(apiKey, environment, new OkHttpPlatform(settings));
+        AppacitiveContext.applicationContext = applicationContext;
+    }
+
     public synchronized static Context getApplicationContext() {
         return AppacitiveContext.applicationContext;
     }
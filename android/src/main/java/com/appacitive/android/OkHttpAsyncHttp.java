@@ -0,0 +1,251 @@
+package com.appacitive.android;
+
+import android.os.Handler;
+import android.os.Looper;
+import com.appacitive.core.AppacitiveContextBase;
+import com.appacitive.core.infra.APCallback;
+import com.appacitive.core.infra.APContainer;
+import com.appacitive.core.infra.APDispatcher;
+import com.appacitive.core.infra.APFuture;
+import com.appacitive.core.infra.Gzip;
+import com.appacitive.core.infra.JsonResponse;
+import com.appacitive.core.interfaces.AsyncHttp;
+import com.appacitive.core.interfaces.Logger;
+import okhttp3.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * {@link AsyncHttp} backed by a single shared OkHttp client.
+ * <p/>
+ * Every request goes through the client's dispatcher and connection pool, so connections (and HTTP/2 sessions
+ * where the server supports them) are reused across calls. Responses are cached on disk when a cache is configured
+ * in {@link OkHttpSettings}. Responses are parsed on the dispatcher's threads and callbacks run on the main thread,
+ * as with Volley, or on the executor set with {@link AppacitiveContextBase#setCallbackExecutor(Executor)}.
+ */
+public class OkHttpAsyncHttp implements AsyncHttp, Closeable {
+
+    private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+
+    private final OkHttpClient client;
+
+    private final Executor mainThread;
+
+    public OkHttpAsyncHttp() {
+        this(new OkHttpSettings());
+    }
+
+    public OkHttpAsyncHttp(OkHttpSettings settings) {
+        this(settings.toClientBuilder().build());
+    }
+
+    public OkHttpAsyncHttp(OkHttpClient client) {
+        this(client, mainThread());
+    }
+
+    //  Callbacks run on mainThread, or on the dispatcher thread when it is null.
+    public OkHttpAsyncHttp(OkHttpClient client, Executor mainThread) {
+        this.client = client;
+        this.mainThread = mainThread;
+    }
+
+    //  Null off-device, where android.os is only stubbed out.
+    static Executor mainThread() {
+        final Handler handler;
+        try {
+            handler = new Handler(Looper.getMainLooper());
+        } catch (RuntimeException e) {
+            return null;
+        }
+        return new Executor() {
+            @Override
+            public void execute(Runnable runnable) {
+                if (handler.post(runnable) == false)
+                    throw new RejectedExecutionException("The main looper is quitting.");
+            }
+        };
+    }
+
+    public OkHttpClient getClient() {
+        return client;
+    }
+
+    Executor getMainThread() {
+        return mainThread;
+    }
+
+    @Override
+    public void close() throws IOException {
+        client.dispatcher().cancelAll();
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+        if (client.cache() != null)
+            client.cache().close();
+    }
+
+    //  OkHttp inflates gzipped responses itself and drops the Content-Encoding header when it does.
+    private static Reader openBody(Response response) throws IOException {
+        ResponseBody body = response.body();
+        if (body == null)
+            throw new IOException("Unexpected response with status code " + response.code() + ".");
+        return JsonResponse.open(body.byteStream(), response.header(Gzip.CONTENT_ENCODING));
+    }
+
+    private static Request newRequest(String url, Map<String, String> headers, String method, String payload) {
+        if (payload != null && AppacitiveContextBase.isGzipRequestsEnabled() && Gzip.shouldCompress(payload))
+            return newRequest(url, headers, method, RequestBody.create(JSON, Gzip.compress(payload)), true);
+        return newRequest(url, headers, method, payload == null ? null : RequestBody.create(JSON, payload), false);
+    }
+
+    private static Request newRequest(String url, Map<String, String> headers, String method, byte[] payload) {
+        if (payload != null && AppacitiveContextBase.isGzipRequestsEnabled() && Gzip.shouldCompress(payload))
+            return newRequest(url, headers, method, RequestBody.create(JSON, Gzip.compress(payload)), true);
+        return newRequest(url, headers, method, payload == null ? null : RequestBody.create(JSON, payload), false);
+    }
+
+    private static Request newRequest(String url, Map<String, String> headers, String method, RequestBody body, boolean gzipped) {
+        Request.Builder builder = new Request.Builder().url(url);
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            //  OkHttp sets the content type from the request body.
+            if (header.getKey().equalsIgnoreCase("Content-Type") == false)
+                builder.header(header.getKey(), header.getValue());
+        }
+        if (gzipped)
+            builder.header(Gzip.CONTENT_ENCODING, Gzip.GZIP);
+        if (body == null && (method.equals("PUT") || method.equals("POST")))
+            body = RequestBody.create(JSON, "");
+        return builder.method(method, body).build();
+    }
+
+    private void fail(final APCallback callback, final Exception e) {
+        APDispatcher.dispatch(mainThread, new Runnable() {
+            @Override
+            public void run() {
+                callback.failure(e);
+            }
+        }, callback);
+    }
+
+    private Call execute(Request request, final APCallback callback) {
+        final Call call = client.newCall(request);
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                fail(callback, e);
+            }
+
+            //  The body is read and bound here, so only the callback itself runs on the main thread.
+            @Override
+            public void onResponse(Call call, Response response) {
+                Runnable delivery;
+                try {
+                    Reader body;
+                    try {
+                        body = openBody(response);
+                    } catch (IOException e) {
+                        fail(callback, e);
+                        return;
+                    }
+                    delivery = callback.prepare(body);
+                } finally {
+                    response.close();
+                }
+                APDispatcher.dispatch(mainThread, delivery, callback);
+            }
+        });
+        callback.cancelWith(new Runnable() {
+            @Override
+            public void run() {
+                call.cancel();
+            }
+        });
+        return call;
+    }
+
+    private APFuture<String> executeForFuture(Request request) {
+        final APFuture<String> future = new APFuture<String>();
+        final Call call = execute(request, APCallback.completing(future));
+        future.onCancel(new Runnable() {
+            @Override
+            public void run() {
+                call.cancel();
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public APFuture<String> get(String url, Map<String, String> headers) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("GET " + url);
+        return executeForFuture(newRequest(url, headers, "GET", (String) null));
+    }
+
+    @Override
+    public void get(String url, Map<String, String> headers, APCallback callback) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("GET " + url);
+        execute(newRequest(url, headers, "GET", (String) null), callback);
+    }
+
+    @Override
+    public APFuture<String> delete(String url, Map<String, String> headers) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("DELETE " + url);
+        return executeForFuture(newRequest(url, headers, "DELETE", (String) null));
+    }
+
+    @Override
+    public void delete(String url, Map<String, String> headers, APCallback callback) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("DELETE " + url);
+        execute(newRequest(url, headers, "DELETE", (String) null), callback);
+    }
+
+    @Override
+    public APFuture<String> put(String url, Map<String, String> headers, String payload) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("PUT " + url);
+        return executeForFuture(newRequest(url, headers, "PUT", payload));
+    }
+
+    @Override
+    public void put(String url, Map<String, String> headers, String payload, APCallback callback) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("PUT " + url);
+        execute(newRequest(url, headers, "PUT", payload), callback);
+    }
+
+    @Override
+    public void put(String url, Map<String, String> headers, byte[] payload, APCallback callback) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("PUT " + url);
+        execute(newRequest(url, headers, "PUT", payload), callback);
+    }
+
+    @Override
+    public APFuture<String> post(String url, Map<String, String> headers, String payload) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("POST " + url);
+        return executeForFuture(newRequest(url, headers, "POST", payload));
+    }
+
+    @Override
+    public void post(String url, Map<String, String> headers, String payload, APCallback callback) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("POST " + url);
+        execute(newRequest(url, headers, "POST", payload), callback);
+    }
+
+    @Override
+    public void post(String url, Map<String, String> headers, byte[] payload, APCallback callback) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("POST " + url);
+        execute(newRequest(url, headers, "POST", payload), callback);
+    }
+}
@@ -0,0 +1,71 @@
+package com.appacitive.android;
+
+import com.appacitive.core.infra.ObjectFactory;
+import com.appacitive.core.interfaces.AsyncHttp;
+import com.appacitive.core.interfaces.UserContextProvider;
+import com.appacitive.core.model.Platform;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Platform that sends requests through one shared {@link OkHttpAsyncHttp} client instead of Volley.
+ */
+public class OkHttpPlatform implements Platform, Closeable {
+
+    private final OkHttpAsyncHttp asyncHttp;
+
+    public OkHttpPlatform() {
+        this(new OkHttpSettings());
+    }
+
+    public OkHttpPlatform(OkHttpSettings settings) {
+        this.asyncHttp = new OkHttpAsyncHttp(settings);
+        //  Callbacks that need no response, such as cache hits, run on the main thread as well.
+        final Executor mainThread = asyncHttp.getMainThread();
+        if (mainThread != null) {
+            registrations.put(Executor.class, new ObjectFactory<Executor>() {
+                @Override
+                public Executor get() {
+                    return mainThread;
+                }
+            });
+        }
+    }
+
+    private final Map<Class<?>, ObjectFactory<?>> registrations = new ConcurrentHashMap<Class<?>, ObjectFactory<?>>() {{
+
+        put(AsyncHttp.class, new ObjectFactory<AsyncHttp>() {
+            @Override
+            public AsyncHttp get() {
+                return OkHttpPlatform.this.asyncHttp;
+            }
+        });
+
+        put(com.appacitive.core.interfaces.Logger.class, new ObjectFactory<com.appacitive.core.interfaces.Logger>() {
+            @Override
+            public com.appacitive.core.interfaces.Logger get() {
+                return new AndroidLogger();
+            }
+        });
+
+        put(UserContextProvider.class, new ObjectFactory<UserContextProvider>() {
+            @Override
+            public UserContextProvider get() {
+                return new StaticUserContextProvider();
+            }
+        });
+    }};
+
+    public synchronized Map<Class<?>, ObjectFactory<?>> getRegistrations() {
+        return registrations;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        this.asyncHttp.close();
+    }
+}
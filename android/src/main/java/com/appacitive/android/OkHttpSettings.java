@@ -0,0 +1,141 @@
+package com.appacitive.android;
+
+import okhttp3.*;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings for the shared {@link OkHttpAsyncHttp} client: dispatcher concurrency, connection pool,
+ * HTTP/2 and the on-disk response cache. One client is created per {@link AppacitiveContext} from these settings.
+ */
+public class OkHttpSettings implements Serializable {
+
+    public OkHttpSettings() {
+    }
+
+    private int maxRequests = 64;
+
+    private int maxRequestsPerHost = 16;
+
+    private int maxIdleConnections = 5;
+
+    private long keepAliveDurationInMs = 5 * 60 * 1000;
+
+    private long connectionTimeoutInMs = 10 * 1000;
+
+    private long readTimeoutInMs = 30 * 1000;
+
+    private long writeTimeoutInMs = 30 * 1000;
+
+    private boolean http2Enabled = true;
+
+    private File cacheDirectory = null;
+
+    private long cacheSizeInBytes = 0;
+
+    public OkHttpSettings withMaxRequests(int maxRequests) {
+        this.maxRequests = maxRequests;
+        return this;
+    }
+
+    public OkHttpSettings withMaxRequestsPerHost(int maxRequestsPerHost) {
+        this.maxRequestsPerHost = maxRequestsPerHost;
+        return this;
+    }
+
+    public OkHttpSettings withMaxIdleConnections(int maxIdleConnections) {
+        this.maxIdleConnections = maxIdleConnections;
+        return this;
+    }
+
+    public OkHttpSettings withKeepAliveDurationInMs(long keepAliveDurationInMs) {
+        this.keepAliveDurationInMs = keepAliveDurationInMs;
+        return this;
+    }
+
+    public OkHttpSettings withConnectionTimeoutInMs(long connectionTimeoutInMs) {
+        this.connectionTimeoutInMs = connectionTimeoutInMs;
+        return this;
+    }
+
+    public OkHttpSettings withReadTimeoutInMs(long readTimeoutInMs) {
+        this.readTimeoutInMs = readTimeoutInMs;
+        return this;
+    }
+
+    public OkHttpSettings withWriteTimeoutInMs(long writeTimeoutInMs) {
+        this.writeTimeoutInMs = writeTimeoutInMs;
+        return this;
+    }
+
+    public OkHttpSettings withHttp2Enabled(boolean http2Enabled) {
+        this.http2Enabled = http2Enabled;
+        return this;
+    }
+
+    public OkHttpSettings withCache(File cacheDirectory, long cacheSizeInBytes) {
+        this.cacheDirectory = cacheDirectory;
+        this.cacheSizeInBytes = cacheSizeInBytes;
+        return this;
+    }
+
+    public int getMaxRequests() {
+        return maxRequests;
+    }
+
+    public int getMaxRequestsPerHost() {
+        return maxRequestsPerHost;
+    }
+
+    public int getMaxIdleConnections() {
+        return maxIdleConnections;
+    }
+
+    public long getKeepAliveDurationInMs() {
+        return keepAliveDurationInMs;
+    }
+
+    public long getConnectionTimeoutInMs() {
+        return connectionTimeoutInMs;
+    }
+
+    public long getReadTimeoutInMs() {
+        return readTimeoutInMs;
+    }
+
+    public long getWriteTimeoutInMs() {
+        return writeTimeoutInMs;
+    }
+
+    public boolean isHttp2Enabled() {
+        return http2Enabled;
+    }
+
+    public File getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    public long getCacheSizeInBytes() {
+        return cacheSizeInBytes;
+    }
+
+    OkHttpClient.Builder toClientBuilder() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(this.maxRequests);
+        dispatcher.setMaxRequestsPerHost(this.maxRequestsPerHost);
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(this.maxIdleConnections, this.keepAliveDurationInMs, TimeUnit.MILLISECONDS))
+                .connectTimeout(this.connectionTimeoutInMs, TimeUnit.MILLISECONDS)
+                .readTimeout(this.readTimeoutInMs, TimeUnit.MILLISECONDS)
+                .writeTimeout(this.writeTimeoutInMs, TimeUnit.MILLISECONDS)
+                .protocols(this.http2Enabled ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1) : Collections.singletonList(Protocol.HTTP_1_1));
+        if (this.cacheDirectory != null && this.cacheSizeInBytes > 0)
+            builder.cache(new Cache(this.cacheDirectory, this.cacheSizeInBytes));
+        return builder;
+    }
+}
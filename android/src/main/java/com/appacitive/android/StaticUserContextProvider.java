@@ -8,19 +8,20 @@ import com.appacitive.core.interfaces.UserContextProvider;
  */
 public class StaticUserContextProvider implements UserContextProvider {
 
-    private static String userToken;
+    //  Read by every request for its headers, so it is volatile rather than guarded by the provider's monitor.
+    private static volatile String userToken;
 
     private static AppacitiveUser loggedInUser;
 
     private static double[] currentGeoCoordinates = new double[2];
 
     @Override
-    public synchronized String getCurrentlyLoggedInUserToken() {
+    public String getCurrentlyLoggedInUserToken() {
         return StaticUserContextProvider.userToken;
     }
 
     @Override
-    public synchronized void setCurrentlyLoggedInUserToken(String userToken) {
+    public void setCurrentlyLoggedInUserToken(String userToken) {
         //  write this user to storage
         StaticUserContextProvider.userToken = userToken;
     }
@@ -2,16 +2,23 @@ package com.appacitive.android;
 
 import android.content.Context;
 import com.android.volley.*;
-import com.android.volley.toolbox.StringRequest;
+import com.android.volley.toolbox.HttpHeaderParser;
 import com.android.volley.toolbox.Volley;
+import com.appacitive.core.AppacitiveContextBase;
 import com.appacitive.core.infra.APCallback;
 import com.appacitive.core.infra.APContainer;
+import com.appacitive.core.infra.APFuture;
+import com.appacitive.core.infra.Gzip;
+import com.appacitive.core.infra.JsonResponse;
 import com.appacitive.core.interfaces.AsyncHttp;
 import com.appacitive.core.interfaces.Logger;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.Future;
 
 /**
  * Created by sathley.
@@ -20,8 +27,6 @@ public class VolleyAsyncHttp implements AsyncHttp {
 
     private static RequestQueue requestQueue = null;
 
-    private static final String UTF8_BOM = "\uFEFF";
-
     private static RequestQueue getRequestQueue() {
         if (requestQueue == null) {
             Context context = AppacitiveContext.getApplicationContext();
@@ -32,148 +37,206 @@ public class VolleyAsyncHttp implements AsyncHttp {
         return requestQueue;
     }
 
-    private static Map<String, String> processHeaders(Map<String, String> headers)
-    {
-        headers.remove("Content-Type");
-        return headers;
+    //  Volley sets the content type from getBodyContentType, so it is left out of the headers. Worked out once per
+    //  header snapshot rather than per request.
+    private static volatile Stripped stripped = null;
+
+    private static class Stripped {
+
+        final Map<String, String> source;
+
+        final Map<String, String> headers;
+
+        Stripped(Map<String, String> source) {
+            this.source = source;
+            Map<String, String> headers = new HashMap<String, String>(source);
+            headers.remove("Content-Type");
+            this.headers = Collections.unmodifiableMap(headers);
+        }
     }
 
-    private static String processResponse(String response)
-    {
-        return response.substring(response.indexOf("{"), response.lastIndexOf("}") + 1);
+    private static Map<String, String> processHeaders(Map<String, String> headers) {
+        Stripped current = stripped;
+        if (current == null || current.source != headers) {
+            current = new Stripped(headers);
+            stripped = current;
+        }
+        return current.headers;
     }
 
-    @Override
-    public Future<String> get(String s, Map<String, String> stringStringMap) {
-        return null;
+    private static Request<Runnable> enqueue(int method, String url, final Map<String, String> headers, final String payload, final APCallback callback) {
+        return enqueue(method, url, headers, payload == null ? null : payload.getBytes(), callback);
     }
 
-    @Override
-    public void get(String url, final Map<String, String> headers, final APCallback callback) {
-        final Logger logger = APContainer.build(Logger.class);
-        logger.info("GET " + url);
-        StringRequest request = new StringRequest(Request.Method.GET, url, new Response.Listener<String>() {
-            @Override
-            public void onResponse(String response) {
-                if (callback != null)
-                    callback.success(processResponse(response));
+    private static Request<Runnable> enqueue(int method, String url, final Map<String, String> headers, final byte[] payload, final APCallback callback) {
+        final Request<Runnable> request = getRequestQueue().add(new AppacitiveRequest(method, url, headers, payload, callback));
+        if (callback != null) {
+            callback.cancelWith(new Runnable() {
+                @Override
+                public void run() {
+                    request.cancel();
+                }
+            });
+        }
+        return request;
+    }
+
+    /**
+     * Request that can gzip its body, and that inflates and parses the response on the network thread. Only what the
+     * callback has left once the entities are bound runs on the main thread.
+     */
+    private static class AppacitiveRequest extends Request<Runnable> {
+
+        private final Map<String, String> headers;
+
+        private final byte[] body;
+
+        private final APCallback callback;
+
+        AppacitiveRequest(int method, String url, Map<String, String> headers, byte[] payload, final APCallback callback) {
+            super(method, url, new Response.ErrorListener() {
+                @Override
+                public void onErrorResponse(VolleyError error) {
+                    if (callback != null)
+                        callback.failure(error);
+                }
+            });
+            this.callback = callback;
+            boolean compress = AppacitiveContextBase.isGzipRequestsEnabled() && Gzip.shouldCompress(payload);
+            this.body = compress ? Gzip.compress(payload) : payload;
+            Map<String, String> processed = processHeaders(headers);
+            //  Only requests that add headers of their own need a copy.
+            if (compress || AppacitiveContextBase.isGzipResponsesEnabled()) {
+                processed = new HashMap<String, String>(processed);
+                if (compress)
+                    processed.put(Gzip.CONTENT_ENCODING, Gzip.GZIP);
+                if (AppacitiveContextBase.isGzipResponsesEnabled())
+                    processed.put(Gzip.ACCEPT_ENCODING, Gzip.GZIP);
             }
-        }, new Response.ErrorListener() {
-            @Override
-            public void onErrorResponse(VolleyError error) {
-                if (callback != null)
-                    callback.failure(error);
+            this.headers = processed;
+            //  Volley resends timed out requests whatever their method, which could apply a create twice.
+            if (method != Method.GET)
+                setRetryPolicy(new DefaultRetryPolicy(DefaultRetryPolicy.DEFAULT_TIMEOUT_MS, 0, DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
+        }
+
+        @Override
+        public Map<String, String> getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public byte[] getBody() throws AuthFailureError {
+            return body;
+        }
+
+        @Override
+        protected Response<Runnable> parseNetworkResponse(NetworkResponse response) {
+            Runnable delivery;
+            try {
+                delivery = prepare(callback, response);
+            } catch (IOException e) {
+                return Response.error(new ParseError(e));
             }
+            return Response.success(delivery, HttpHeaderParser.parseCacheHeaders(response));
+        }
+
+        @Override
+        protected void deliverResponse(Runnable delivery) {
+            delivery.run();
+        }
+    }
+
+    //  Runs on volley's network thread. What it returns is run on the main thread.
+    static Runnable prepare(APCallback callback, NetworkResponse response) throws IOException {
+        Reader body = JsonResponse.open(new ByteArrayInputStream(response.data), response.headers.get(Gzip.CONTENT_ENCODING));
+        return callback == null ? NOTHING : callback.prepare(body);
+    }
+
+    private static final Runnable NOTHING = new Runnable() {
+        @Override
+        public void run() {
         }
-        ) {
+    };
+
+    private static APFuture<String> enqueueForFuture(int method, String url, final Map<String, String> headers, final String payload) {
+        final APFuture<String> future = new APFuture<String>();
+        final Request<Runnable> request = enqueue(method, url, headers, payload, APCallback.completing(future));
+        future.onCancel(new Runnable() {
             @Override
-            public HashMap<String, String> getHeaders() {
-                return new HashMap<String, String>(processHeaders(headers));
+            public void run() {
+                request.cancel();
             }
-        };
-        getRequestQueue().add(request);
+        });
+        return future;
     }
 
     @Override
-    public Future<String> delete(String s, Map<String, String> stringStringMap) {
-        return null;
+    public APFuture<String> get(String url, Map<String, String> headers) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("GET " + url);
+        return enqueueForFuture(Request.Method.GET, url, headers, null);
+    }
+
+    @Override
+    public void get(String url, final Map<String, String> headers, final APCallback callback) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("GET " + url);
+        enqueue(Request.Method.GET, url, headers, (String) null, callback);
+    }
+
+    @Override
+    public APFuture<String> delete(String url, Map<String, String> headers) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("DELETE " + url);
+        return enqueueForFuture(Request.Method.DELETE, url, headers, null);
     }
 
     @Override
     public void delete(String url, final Map<String, String> headers, final APCallback callback) {
         final Logger logger = APContainer.build(Logger.class);
         logger.info("DELETE " + url);
-        StringRequest request = new StringRequest(Request.Method.DELETE, url, new Response.Listener<String>() {
-            @Override
-            public void onResponse(String response) {
-                if (callback != null)
-                    callback.success(processResponse(response));
-            }
-        }, new Response.ErrorListener() {
-            @Override
-            public void onErrorResponse(VolleyError error) {
-                if (callback != null)
-                    callback.failure(error);
-            }
-        }
-        ) {
-            @Override
-            public HashMap<String, String> getHeaders() {
-                return new HashMap<String, String>(processHeaders(headers));
-            }
-        };
-        getRequestQueue().add(request);
+        enqueue(Request.Method.DELETE, url, headers, (String) null, callback);
     }
 
     @Override
-    public Future<String> put(String s, Map<String, String> stringStringMap, String jsonObject) {
-        return null;
+    public APFuture<String> put(String url, Map<String, String> headers, String payload) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("PUT " + url);
+        return enqueueForFuture(Request.Method.PUT, url, headers, payload);
     }
 
     @Override
     public void put(String url, final Map<String, String> headers, final String payload, final APCallback callback) {
         final Logger logger = APContainer.build(Logger.class);
         logger.info("PUT " + url);
-        StringRequest request = new StringRequest(Request.Method.PUT, url, new Response.Listener<String>() {
-            @Override
-            public void onResponse(String response) {
-                if (callback != null)
-                    callback.success(processResponse(response));
-            }
-        }, new Response.ErrorListener() {
-            @Override
-            public void onErrorResponse(VolleyError error) {
-                if (callback != null)
-                    callback.failure(error);
-            }
-        }
-        ) {
-            @Override
-            public HashMap<String, String> getHeaders() {
-                return new HashMap<String, String>(processHeaders(headers));
-            }
+        enqueue(Request.Method.PUT, url, headers, payload, callback);
+    }
 
-            @Override
-            public byte[] getBody() throws AuthFailureError {
-                return payload.getBytes();
-            }
-        };
-        getRequestQueue().add(request);
+    @Override
+    public void put(String url, final Map<String, String> headers, final byte[] payload, final APCallback callback) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("PUT " + url);
+        enqueue(Request.Method.PUT, url, headers, payload, callback);
     }
 
     @Override
-    public Future<String> post(String s, Map<String, String> stringStringMap, String jsonObject) {
-        return null;
+    public APFuture<String> post(String url, Map<String, String> headers, String payload) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("POST " + url);
+        return enqueueForFuture(Request.Method.POST, url, headers, payload);
     }
 
     @Override
     public void post(String url, final Map<String, String> headers, final String payload, final APCallback callback) {
         final Logger logger = APContainer.build(Logger.class);
         logger.info("POST " + url);
-        StringRequest request = new StringRequest(Request.Method.POST, url, new Response.Listener<String>() {
-            @Override
-            public void onResponse(String response) {
-                if (callback != null)
-                    callback.success(processResponse(response));
-            }
-        }, new Response.ErrorListener() {
-            @Override
-            public void onErrorResponse(VolleyError error) {
-                if (callback != null)
-                    callback.failure(error);
-            }
-        }
-        ) {
-            @Override
-            public HashMap<String, String> getHeaders() {
-                return new HashMap<String, String>(processHeaders(headers));
-            }
+        enqueue(Request.Method.POST, url, headers, payload, callback);
+    }
 
-            @Override
-            public byte[] getBody() throws AuthFailureError {
-                return payload.getBytes();
-            }
-        };
-        getRequestQueue().add(request);
+    @Override
+    public void post(String url, final Map<String, String> headers, final byte[] payload, final APCallback callback) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("POST " + url);
+        enqueue(Request.Method.POST, url, headers, payload, callback);
     }
 }
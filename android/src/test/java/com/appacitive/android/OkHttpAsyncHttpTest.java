@@ -0,0 +1,221 @@
+package com.appacitive.android;
+
+import com.appacitive.core.AppacitiveContextBase;
+import com.appacitive.core.apjson.APJSONException;
+import com.appacitive.core.apjson.APJSONReader;
+import com.appacitive.core.infra.APFuture;
+import com.appacitive.core.infra.Gzip;
+import com.appacitive.core.infra.ObjectFactory;
+import com.appacitive.core.infra.StreamingCallback;
+import com.appacitive.core.interfaces.LogLevel;
+import com.appacitive.core.interfaces.Logger;
+import com.appacitive.core.model.Environment;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs on the jvm against a local mock server.
+ */
+public class OkHttpAsyncHttpTest {
+
+    private static final String STATUS_OK = "{\"status\":{\"code\":\"200\"}}";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MockWebServer server;
+
+    private final Map<String, String> headers = new HashMap<String, String>();
+
+    @BeforeClass
+    public static void oneTimeSetUp() {
+        AppacitiveContextBase.initialize("key", Environment.sandbox, new OkHttpPlatform());
+        //  android.util.Log is not available off-device.
+        AppacitiveContextBase.register(Logger.class, new ObjectFactory<Logger>() {
+            @Override
+            public Logger get() {
+                return new SilentLogger();
+            }
+        });
+    }
+
+    @Before
+    public void beforeTest() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        headers.put("Appacitive-Apikey", "key");
+        headers.put("Content-Type", "application/json");
+    }
+
+    @After
+    public void afterTest() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void getAndPostTest() throws Exception {
+        OkHttpAsyncHttp http = new OkHttpAsyncHttp();
+        server.enqueue(new MockResponse().setBody("\uFEFF" + STATUS_OK));
+        server.enqueue(new MockResponse().setBody(STATUS_OK));
+
+        Assert.assertEquals(STATUS_OK, http.get(server.url("/object/player/1").toString(), headers).get(10, TimeUnit.SECONDS));
+        Assert.assertEquals(STATUS_OK, http.post(server.url("/object/player").toString(), headers, "{\"name\":\"x\"}").get(10, TimeUnit.SECONDS));
+
+        RecordedRequest get = server.takeRequest();
+        Assert.assertEquals("GET", get.getMethod());
+        Assert.assertEquals("key", get.getHeader("Appacitive-Apikey"));
+        RecordedRequest post = server.takeRequest();
+        Assert.assertEquals("POST", post.getMethod());
+        Assert.assertEquals("{\"name\":\"x\"}", post.getBody().readUtf8());
+        Assert.assertEquals("application/json; charset=utf-8", post.getHeader("Content-Type"));
+        Assert.assertEquals(1, post.getHeaders().values("Content-Type").size());
+        http.close();
+    }
+
+    @Test
+    public void settingsAreAppliedTest() throws Exception {
+        OkHttpAsyncHttp http = new OkHttpAsyncHttp(new OkHttpSettings().withMaxRequests(100).withMaxRequestsPerHost(50).withHttp2Enabled(false));
+        Assert.assertEquals(100, http.getClient().dispatcher().getMaxRequests());
+        Assert.assertEquals(50, http.getClient().dispatcher().getMaxRequestsPerHost());
+        Assert.assertEquals(Collections.singletonList(Protocol.HTTP_1_1), http.getClient().protocols());
+        http.close();
+    }
+
+    @Test
+    public void http2RequestsShareOneConnectionTest() throws Exception {
+        server.setProtocols(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE));
+        OkHttpClient client = new OkHttpSettings().toClientBuilder()
+                .protocols(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE))
+                .build();
+        OkHttpAsyncHttp http = new OkHttpAsyncHttp(client);
+        server.enqueue(new MockResponse().setBody(STATUS_OK));
+        http.get(server.url("/object/player/0").toString(), headers).get(10, TimeUnit.SECONDS);
+        List<APFuture<String>> futures = new ArrayList<APFuture<String>>();
+        for (int i = 1; i <= 20; i++) {
+            server.enqueue(new MockResponse().setBody(STATUS_OK).setBodyDelay(100, TimeUnit.MILLISECONDS));
+            futures.add(http.get(server.url("/object/player/" + i).toString(), headers));
+        }
+        Assert.assertEquals(20, APFuture.allOf(futures).get(10, TimeUnit.SECONDS).size());
+        Assert.assertEquals(1, client.connectionPool().connectionCount());
+        http.close();
+    }
+
+    @Test
+    public void responseCacheTest() throws Exception {
+        OkHttpAsyncHttp http = new OkHttpAsyncHttp(new OkHttpSettings().withCache(folder.newFolder(), 1024 * 1024));
+        server.enqueue(new MockResponse().setBody(STATUS_OK).addHeader("Cache-Control", "max-age=60"));
+        String url = server.url("/file/download/logo").toString();
+
+        Assert.assertEquals(STATUS_OK, http.get(url, headers).get(10, TimeUnit.SECONDS));
+        Assert.assertEquals(STATUS_OK, http.get(url, headers).get(10, TimeUnit.SECONDS));
+        Assert.assertEquals(1, server.getRequestCount());
+        Assert.assertEquals(1, http.getClient().cache().hitCount());
+        http.close();
+    }
+
+    @Test
+    public void cancelAbortsCallTest() throws Exception {
+        OkHttpAsyncHttp http = new OkHttpAsyncHttp();
+        server.enqueue(new MockResponse().setBody(STATUS_OK).setBodyDelay(2, TimeUnit.SECONDS));
+        APFuture<String> future = http.get(server.url("/object/player/1").toString(), headers);
+        server.takeRequest();
+        future.cancel(true);
+        long start = System.currentTimeMillis();
+        while (http.getClient().dispatcher().runningCallsCount() > 0 && System.currentTimeMillis() - start < 1000)
+            Thread.sleep(10);
+        Assert.assertEquals(0, http.getClient().dispatcher().runningCallsCount());
+        http.close();
+    }
+
+    @Test
+    public void deliveredOnMainThreadTest() throws Exception {
+        ExecutorService main = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                return new Thread(runnable, "main");
+            }
+        });
+        OkHttpAsyncHttp http = new OkHttpAsyncHttp(new OkHttpSettings().toClientBuilder().build(), main);
+        server.enqueue(new MockResponse().setBody("{\"object\":{\"__id\":\"1\",\"__type\":\"player\"},\"status\":{\"code\":\"200\"}}"));
+        final String[] threads = new String[2];
+        final CountDownLatch done = new CountDownLatch(1);
+        http.get(server.url("/object/player/1").toString(), headers, new StreamingCallback() {
+            @Override
+            protected boolean read(String name, APJSONReader reader) throws APJSONException, IOException {
+                threads[0] = Thread.currentThread().getName();
+                return false;
+            }
+
+            @Override
+            protected void success() {
+                threads[1] = Thread.currentThread().getName();
+                done.countDown();
+            }
+
+            @Override
+            public void failure(Exception e) {
+                done.countDown();
+            }
+        });
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        Assert.assertTrue(threads[0].startsWith("OkHttp"));
+        Assert.assertEquals("main", threads[1]);
+        http.close();
+        main.shutdown();
+    }
+
+    @Test
+    public void gzipRequestTest() throws Exception {
+        AppacitiveContextBase.setGzipEnabled(false, true);
+        try {
+            OkHttpAsyncHttp http = new OkHttpAsyncHttp();
+            server.enqueue(new MockResponse().setBody(STATUS_OK));
+            server.enqueue(new MockResponse().setBody(STATUS_OK));
+            StringBuilder payload = new StringBuilder("{\"name\":\"");
+            while (payload.length() < Gzip.MIN_REQUEST_SIZE)
+                payload.append("x");
+            payload.append("\"}");
+            http.post(server.url("/object/player").toString(), headers, payload.toString()).get(10, TimeUnit.SECONDS);
+            http.post(server.url("/object/player").toString(), headers, "{}").get(10, TimeUnit.SECONDS);
+
+            RecordedRequest large = server.takeRequest();
+            Assert.assertEquals(Gzip.GZIP, large.getHeader(Gzip.CONTENT_ENCODING));
+            Assert.assertTrue(large.getBodySize() < payload.length());
+            Assert.assertNull(server.takeRequest().getHeader(Gzip.CONTENT_ENCODING));
+            http.close();
+        } finally {
+            AppacitiveContextBase.setGzipEnabled(false, false);
+        }
+    }
+
+    static class SilentLogger implements Logger {
+        @Override
+        public void setLogLevel(LogLevel logLevel) {
+        }
+
+        @Override
+        public void error(String message) {
+        }
+
+        @Override
+        public void info(String message) {
+        }
+
+        @Override
+        public void verbose(String message) {
+        }
+
+        @Override
+        public void warn(String message) {
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.appacitive.android;
+
+import com.android.volley.NetworkResponse;
+import com.appacitive.core.AppacitiveContextBase;
+import com.appacitive.core.apjson.APJSONException;
+import com.appacitive.core.apjson.APJSONReader;
+import com.appacitive.core.infra.*;
+import com.appacitive.core.interfaces.AsyncHttp;
+import com.appacitive.core.interfaces.Logger;
+import com.appacitive.core.model.Environment;
+import org.junit.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Runs on the jvm. Volley's request queue cannot start off-device, so a stand-in queue hands responses to
+ * {@link VolleyAsyncHttp#prepare} on a network thread and runs what it returns on a main thread, as volley does.
+ */
+public class VolleyDeliveryTest {
+
+    private static final byte[] BODY = "{\"object\":{\"__id\":\"1\",\"__type\":\"player\",\"__revision\":\"1\"},\"status\":{\"code\":\"200\"}}".getBytes();
+
+    private static ExecutorService network;
+
+    private static ExecutorService main;
+
+    @BeforeClass
+    public static void oneTimeSetUp() {
+        network = Executors.newSingleThreadExecutor(named("network"));
+        main = Executors.newSingleThreadExecutor(named("main"));
+        AppacitiveContextBase.initialize("key", Environment.sandbox, new OkHttpPlatform());
+        AppacitiveContextBase.register(Logger.class, new ObjectFactory<Logger>() {
+            @Override
+            public Logger get() {
+                return new OkHttpAsyncHttpTest.SilentLogger();
+            }
+        });
+        final AsyncHttp queue = new StandInQueue();
+        AppacitiveContextBase.register(AsyncHttp.class, new ObjectFactory<AsyncHttp>() {
+            @Override
+            public AsyncHttp get() {
+                return queue;
+            }
+        });
+    }
+
+    @AfterClass
+    public static void oneTimeTearDown() {
+        network.shutdown();
+        main.shutdown();
+        AppacitiveContextBase.close();
+    }
+
+    @After
+    public void afterTest() {
+        AppacitiveContextBase.setRequestLimiter(null);
+        AppacitiveContextBase.setCircuitBreaker(null);
+        AppacitiveContextBase.setHedgePolicy(null);
+        AppacitiveContextBase.setRetryPolicy(null);
+        AppacitiveContextBase.setSingleFlightGets(false);
+        AppacitiveContextBase.setRequestTimeouts(null);
+    }
+
+    private static ThreadFactory named(final String name) {
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                return new Thread(runnable, name);
+            }
+        };
+    }
+
+    private static class StandInQueue implements AsyncHttp {
+
+        @Override
+        public void get(String url, Map<String, String> headers, final APCallback callback) {
+            network.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        main.execute(VolleyAsyncHttp.prepare(callback, new NetworkResponse(BODY)));
+                    } catch (final IOException e) {
+                        main.execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.failure(e);
+                            }
+                        });
+                    }
+                }
+            });
+        }
+
+        @Override
+        public APFuture<String> get(String url, Map<String, String> headers) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public APFuture<String> delete(String url, Map<String, String> headers) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void delete(String url, Map<String, String> headers, APCallback callback) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public APFuture<String> put(String url, Map<String, String> headers, String request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void put(String url, Map<String, String> headers, String request, APCallback callback) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void put(String url, Map<String, String> headers, byte[] request, APCallback callback) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public APFuture<String> post(String url, Map<String, String> headers, String request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void post(String url, Map<String, String> headers, String request, APCallback callback) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void post(String url, Map<String, String> headers, byte[] request, APCallback callback) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    //  Binds on the network thread and is called back on the main thread.
+    private static void assertDeliveredOnMainThread() throws Exception {
+        final String[] threads = new String[2];
+        final CountDownLatch done = new CountDownLatch(1);
+        AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
+        asyncHttp.get("https://apis.appacitive.com/v1.0/object/player/1", new HashMap<String, String>(), new StreamingCallback() {
+            @Override
+            protected boolean read(String name, APJSONReader reader) throws APJSONException, IOException {
+                threads[0] = Thread.currentThread().getName();
+                return false;
+            }
+
+            @Override
+            protected void success() {
+                threads[1] = Thread.currentThread().getName();
+                done.countDown();
+            }
+
+            @Override
+            public void failure(Exception e) {
+                done.countDown();
+            }
+        });
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals("network", threads[0]);
+        Assert.assertEquals("main", threads[1]);
+    }
+
+    @Test
+    public void noWrapperTest() throws Exception {
+        assertDeliveredOnMainThread();
+    }
+
+    @Test
+    public void everyWrapperTest() throws Exception {
+        AppacitiveContextBase.setRequestLimiter(new RequestLimiter(8, 8, RequestLimiter.Overflow.REJECT));
+        assertDeliveredOnMainThread();
+        AppacitiveContextBase.setCircuitBreaker(new CircuitBreaker(5, 1, TimeUnit.SECONDS));
+        assertDeliveredOnMainThread();
+        AppacitiveContextBase.setHedgePolicy(new HedgePolicy(95, 1, TimeUnit.SECONDS));
+        assertDeliveredOnMainThread();
+        AppacitiveContextBase.setRetryPolicy(new RetryPolicy(3, 10, 50, TimeUnit.MILLISECONDS));
+        assertDeliveredOnMainThread();
+        AppacitiveContextBase.setSingleFlightGets(true);
+        assertDeliveredOnMainThread();
+        AppacitiveContextBase.setRequestTimeouts(new RequestTimeouts(5, TimeUnit.SECONDS));
+        assertDeliveredOnMainThread();
+    }
+}
@@ -0,0 +1,126 @@
+package com.appacitive.android.benchmark;
+
+import com.appacitive.android.OkHttpAsyncHttp;
+import com.appacitive.android.OkHttpSettings;
+import com.appacitive.core.AppacitiveContextBase;
+import com.appacitive.core.infra.APFuture;
+import com.appacitive.core.infra.ObjectFactory;
+import com.appacitive.core.interfaces.LogLevel;
+import com.appacitive.core.interfaces.Logger;
+import com.appacitive.core.model.Platform;
+import com.appacitive.core.model.Environment;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Off-device throughput of bursts of concurrent requests through the OkHttp transport, against a local mock server
+ * that answers after a short delay. Compares a dispatcher limited to four requests per host, as many as Volley's
+ * default network threads, with a wider one, over HTTP/1.1 and over a single multiplexed HTTP/2 connection.
+ * <p/>
+ * Run the main method with the test classpath, e.g. from the ide.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OkHttpDispatcherBenchmark {
+
+    private static final int CONCURRENT_REQUESTS = 64;
+
+    @Param({"4", "64"})
+    public int maxRequestsPerHost;
+
+    @Param({"http1", "h2"})
+    public String protocol;
+
+    private MockWebServer server;
+
+    private OkHttpAsyncHttp http;
+
+    private String url;
+
+    private final Map<String, String> headers = new HashMap<String, String>();
+
+    @Setup
+    public void setUp() throws Exception {
+        AppacitiveContextBase.initialize("benchmark", Environment.sandbox, new Platform() {
+            @Override
+            public Map<Class<?>, ObjectFactory<?>> getRegistrations() {
+                return Collections.<Class<?>, ObjectFactory<?>>singletonMap(Logger.class, new ObjectFactory<Logger>() {
+                    @Override
+                    public Logger get() {
+                        return new NoLogger();
+                    }
+                });
+            }
+        });
+        List<Protocol> protocols = "h2".equals(protocol) ? Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE) : Collections.singletonList(Protocol.HTTP_1_1);
+        server = new MockWebServer();
+        server.setProtocols(protocols);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setBody("{\"status\":{\"code\":\"200\"}}").setBodyDelay(2, TimeUnit.MILLISECONDS);
+            }
+        });
+        server.start();
+        url = server.url("/object/player/1").toString();
+        OkHttpClient client = new OkHttpClient.Builder().protocols(protocols).build();
+        client.dispatcher().setMaxRequests(CONCURRENT_REQUESTS);
+        client.dispatcher().setMaxRequestsPerHost(maxRequestsPerHost);
+        http = new OkHttpAsyncHttp(client);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        http.close();
+        server.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONCURRENT_REQUESTS)
+    public List<String> concurrentRequests() throws Exception {
+        List<APFuture<String>> futures = new ArrayList<APFuture<String>>(CONCURRENT_REQUESTS);
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++)
+            futures.add(http.get(url, headers));
+        return APFuture.allOf(futures).get();
+    }
+
+    static class NoLogger implements Logger {
+        @Override
+        public void setLogLevel(LogLevel logLevel) {
+        }
+
+        @Override
+        public void error(String message) {
+        }
+
+        @Override
+        public void info(String message) {
+        }
+
+        @Override
+        public void verbose(String message) {
+        }
+
+        @Override
+        public void warn(String message) {
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(OkHttpDispatcherBenchmark.class.getSimpleName()).build()).run();
+    }
+}
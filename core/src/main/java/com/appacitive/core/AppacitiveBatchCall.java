@@ -23,17 +23,37 @@ public class AppacitiveBatchCall implements Serializable {
     public static void Fire(BatchCallRequest request, final Callback<BatchCallResponse> callback)
     {
         LOGGER.info("Multi call");
+        send(request, new Callback<APJSONObject>() {
+            @Override
+            public void success(APJSONObject jsonObject) {
+                BatchCallResponse response = new BatchCallResponse(jsonObject.optJSONArray("nodes"), jsonObject.optJSONArray("edges"), jsonObject.optJSONArray("nodedeletions"), jsonObject.optJSONArray("edgedeletions"));
+                if (callback != null) {
+                    callback.success(response);
+                }
+            }
+
+            @Override
+            public void failure(APJSONObject result, Exception e) {
+                if (callback != null)
+                    callback.failure(null, e);
+            }
+        });
+    }
+
+    //  Sends the request and hands back the whole response of a successful call.
+    static void send(BatchCallRequest request, final Callback<APJSONObject> callback)
+    {
         final String url = Urls.Misc.batchCallUrl().toString();
         final Map<String, String> headers = Headers.assemble();
-        final APJSONObject payload;
+        final byte[] payload;
         try {
-            payload = request.getMap();
+            payload = request.getMapBytes();
         } catch (APJSONException e) {
             throw new RuntimeException(e);
         }
 
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
-        asyncHttp.put(url, headers, payload.toString(), new APCallback() {
+        asyncHttp.put(url, headers, payload, new APCallback() {
             @Override
             public void success(String result) {
                 APJSONObject jsonObject;
@@ -44,21 +64,27 @@ public class AppacitiveBatchCall implements Serializable {
                 }
                 AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
                 if (status.isSuccessful()) {
-                    BatchCallResponse response = new BatchCallResponse(jsonObject.optJSONArray("nodes"), jsonObject.optJSONArray("edges"), jsonObject.optJSONArray("nodedeletions"), jsonObject.optJSONArray("edgedeletions"));
-                    if (callback != null) {
-                        callback.success(response);
-                    }
+                    callback.success(jsonObject);
                 } else {
-                    if (callback != null)
-                        callback.failure(null, new AppacitiveException(status));
+                    callback.failure(null, new AppacitiveException(status));
                 }
             }
 
             @Override
             public void failure(Exception e) {
-                if (callback != null)
-                    callback.failure(null, e);
+                callback.failure(null, e);
             }
         });
     }
+
+    public static APFuture<BatchCallResponse> FireAsync(BatchCallRequest request) {
+        APFuture<BatchCallResponse> future = new APFuture<BatchCallResponse>();
+        APCall call = future.beginCall();
+        try {
+            Fire(request, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
 }
@@ -0,0 +1,393 @@
+package com.appacitive.core;
+
+import com.appacitive.core.apjson.APJSONArray;
+import com.appacitive.core.apjson.APJSONObject;
+import com.appacitive.core.exceptions.AppacitiveException;
+import com.appacitive.core.infra.APMetrics;
+import com.appacitive.core.infra.APScheduler;
+import com.appacitive.core.model.BatchCallRequest;
+import com.appacitive.core.model.Callback;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers object and connection writes and sends them together through the batch endpoint, see
+ * {@link AppacitiveBatchCall}. Opt in with {@link AppacitiveContextBase#setBatchWriter(AppacitiveBatchWriter)}.
+ * <p/>
+ * Once enabled, {@code createInBackground}, {@code updateInBackground} and {@code deleteInBackground} of
+ * {@link AppacitiveObject} and {@link AppacitiveConnection} queue their write instead of calling the api. Writes are
+ * held for up to {@code window}, or until {@code maxOperations} are waiting, and then go out as one batch call. Each
+ * callback is completed from that call's response, and the entity is updated just as a direct call would update it.
+ * <p/>
+ * Batches are sent one at a time and in order, and a write to an entity that already has a write in the buffer
+ * starts a new batch, so writes to any one entity reach the api in the order they were made. An entity is only
+ * serialized when its batch is sent, so changes made to it in the meantime go out too. The batch endpoint applies
+ * a batch as a whole: if the call fails, every write in it fails with the same exception. Updates that carry access
+ * control entries are not batched, since batch entries have no place for them. The number of writes per call is
+ * recorded in {@link APMetrics} as {@link #BATCH_SIZE}.
+ */
+public class AppacitiveBatchWriter {
+
+    public static final String BATCH_SIZE = "batchwriter.batch.size";
+
+    private final long windowNanos;
+
+    private final int maxOperations;
+
+    private List<Operation> buffer = new ArrayList<Operation>();
+
+    private Set<Object> bufferKeys = new HashSet<Object>();
+
+    private final LinkedList<List<Operation>> ready = new LinkedList<List<Operation>>();
+
+    private boolean sending = false;
+
+    public AppacitiveBatchWriter(long window, TimeUnit unit, int maxOperations) {
+        if (window <= 0)
+            throw new IllegalArgumentException("window must be positive.");
+        if (maxOperations <= 0)
+            throw new IllegalArgumentException("maxOperations must be positive.");
+        this.windowNanos = unit.toNanos(window);
+        this.maxOperations = maxOperations;
+    }
+
+    public int getMaxOperations() {
+        return maxOperations;
+    }
+
+    /**
+     * Sends whatever is buffered without waiting for the window to close.
+     */
+    public void flush() {
+        synchronized (this) {
+            seal();
+        }
+        sendNext();
+    }
+
+    void create(AppacitiveObject object, Callback<AppacitiveObject> callback) {
+        enqueue(new ObjectWrite(object, false, callback));
+    }
+
+    void update(AppacitiveObject object, boolean withRevision, Callback<AppacitiveObject> callback) {
+        enqueue(new ObjectWrite(object, withRevision, callback));
+    }
+
+    void delete(AppacitiveObject object, String type, long objectId, boolean deleteConnections, Callback<Void> callback) {
+        enqueue(new ObjectDelete(object, type, objectId, deleteConnections, callback));
+    }
+
+    void create(AppacitiveConnection connection, Callback<AppacitiveConnection> callback) {
+        enqueue(new ConnectionWrite(connection, false, callback));
+    }
+
+    void update(AppacitiveConnection connection, boolean withRevision, Callback<AppacitiveConnection> callback) {
+        enqueue(new ConnectionWrite(connection, withRevision, callback));
+    }
+
+    void delete(AppacitiveConnection connection, String relationType, long connectionId, Callback<Void> callback) {
+        enqueue(new ConnectionDelete(connection, relationType, connectionId, callback));
+    }
+
+    private void enqueue(Operation operation) {
+        synchronized (this) {
+            for (Object key : operation.keys) {
+                if (bufferKeys.contains(key)) {
+                    seal();
+                    break;
+                }
+            }
+            if (buffer.isEmpty()) {
+                final List<Operation> scheduled = buffer;
+                APScheduler.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        synchronized (AppacitiveBatchWriter.this) {
+                            if (buffer != scheduled)
+                                return;
+                            seal();
+                        }
+                        sendNext();
+                    }
+                }, windowNanos, TimeUnit.NANOSECONDS);
+            }
+            buffer.add(operation);
+            bufferKeys.addAll(operation.keys);
+            if (buffer.size() >= maxOperations)
+                seal();
+        }
+        sendNext();
+    }
+
+    //  Moves the buffer to the send queue. Callers hold the lock.
+    private void seal() {
+        if (buffer.isEmpty())
+            return;
+        ready.add(buffer);
+        buffer = new ArrayList<Operation>();
+        bufferKeys = new HashSet<Object>();
+    }
+
+    private void sendNext() {
+        final List<Operation> batch;
+        synchronized (this) {
+            if (sending || ready.isEmpty())
+                return;
+            sending = true;
+            batch = ready.poll();
+        }
+        APMetrics.record(BATCH_SIZE, batch.size());
+        BatchCallRequest request = new BatchCallRequest();
+        try {
+            for (int i = 0; i < batch.size(); i++)
+                batch.get(i).addTo(request, "w" + i);
+        } catch (RuntimeException e) {
+            try {
+                for (Operation operation : batch)
+                    operation.failed(e);
+            } finally {
+                completed();
+            }
+            return;
+        }
+        //  The next batch is only serialized once this one's results are applied, so that a write following a create
+        //  goes out with the id the create was given.
+        AppacitiveBatchCall.send(request, new Callback<APJSONObject>() {
+            @Override
+            public void success(APJSONObject result) {
+                try {
+                    for (int i = 0; i < batch.size(); i++)
+                        batch.get(i).succeeded(result, "w" + i);
+                } finally {
+                    completed();
+                }
+            }
+
+            @Override
+            public void failure(APJSONObject result, Exception e) {
+                try {
+                    for (Operation operation : batch)
+                        operation.failed(e);
+                } finally {
+                    completed();
+                }
+            }
+        });
+    }
+
+    private void completed() {
+        synchronized (this) {
+            sending = false;
+        }
+        sendNext();
+    }
+
+    private static APJSONObject entry(APJSONObject result, String array, String name, String field) {
+        APJSONArray entries = result.optJSONArray(array);
+        if (entries == null)
+            return null;
+        for (int i = 0; i < entries.length(); i++) {
+            APJSONObject entry = entries.optJSONObject(i);
+            if (entry != null && name.equals(entry.optString("name", null)))
+                return entry.optJSONObject(field);
+        }
+        return null;
+    }
+
+    private static AppacitiveException missing() {
+        return new AppacitiveException("The batch response has no entry for this write.");
+    }
+
+    private abstract static class Operation {
+
+        //  Writes sharing a key are never sent in the same batch.
+        final List<Object> keys = new ArrayList<Object>(2);
+
+        Operation(Object entity, String key) {
+            if (entity != null)
+                keys.add(entity);
+            if (key != null)
+                keys.add(key);
+        }
+
+        abstract void addTo(BatchCallRequest request, String name);
+
+        abstract void succeeded(APJSONObject result, String name);
+
+        abstract void failed(Exception e);
+    }
+
+    private static class ObjectWrite extends Operation {
+
+        private final AppacitiveObject object;
+
+        private final boolean withRevision;
+
+        private final Callback<AppacitiveObject> callback;
+
+        ObjectWrite(AppacitiveObject object, boolean withRevision, Callback<AppacitiveObject> callback) {
+            super(object, object.getId() > 0 ? object.getType() + ":" + object.getId() : null);
+            this.object = object;
+            this.withRevision = withRevision;
+            this.callback = callback;
+        }
+
+        @Override
+        void addTo(BatchCallRequest request, String name) {
+            if (withRevision)
+                request.addNodeWithRevision(object, name);
+            else
+                request.addNode(object, name);
+        }
+
+        @Override
+        void succeeded(APJSONObject result, String name) {
+            APJSONObject json = entry(result, "nodes", name, "object");
+            if (json == null) {
+                failed(missing());
+                return;
+            }
+            object.setSelf(json);
+            AppacitiveEntityCache.store(object);
+            AppacitiveQueryCache.written(object.getType());
+            if (callback != null)
+                callback.success(object);
+        }
+
+        @Override
+        void failed(Exception e) {
+            if (callback != null)
+                callback.failure(null, e);
+        }
+    }
+
+    private static class ConnectionWrite extends Operation {
+
+        private final AppacitiveConnection connection;
+
+        private final boolean withRevision;
+
+        private final Callback<AppacitiveConnection> callback;
+
+        ConnectionWrite(AppacitiveConnection connection, boolean withRevision, Callback<AppacitiveConnection> callback) {
+            super(connection, connection.getId() > 0 ? "relation:" + connection.getRelationType() + ":" + connection.getId() : null);
+            this.connection = connection;
+            this.withRevision = withRevision;
+            this.callback = callback;
+        }
+
+        @Override
+        void addTo(BatchCallRequest request, String name) {
+            if (withRevision)
+                request.addEdgeWithRevision(connection, name, null, null, null, null);
+            else
+                request.addEdge(connection, name, null, null, null, null);
+        }
+
+        @Override
+        void succeeded(APJSONObject result, String name) {
+            APJSONObject json = entry(result, "edges", name, "connection");
+            if (json == null) {
+                failed(missing());
+                return;
+            }
+            connection.setSelf(json);
+            AppacitiveEntityCache.store(connection);
+            AppacitiveQueryCache.connectionWritten(connection.getRelationType());
+            if (connection.endpointA.object != null)
+                AppacitiveQueryCache.written(connection.endpointA.type);
+            if (connection.endpointB.object != null)
+                AppacitiveQueryCache.written(connection.endpointB.type);
+            if (callback != null)
+                callback.success(connection);
+        }
+
+        @Override
+        void failed(Exception e) {
+            if (callback != null)
+                callback.failure(null, e);
+        }
+    }
+
+    private static class ObjectDelete extends Operation {
+
+        private final String type;
+
+        private final long objectId;
+
+        private final boolean deleteConnections;
+
+        private final Callback<Void> callback;
+
+        ObjectDelete(AppacitiveObject object, String type, long objectId, boolean deleteConnections, Callback<Void> callback) {
+            super(object, type + ":" + objectId);
+            this.type = type;
+            this.objectId = objectId;
+            this.deleteConnections = deleteConnections;
+            this.callback = callback;
+        }
+
+        @Override
+        void addTo(BatchCallRequest request, String name) {
+            request.deleteNode(type, objectId, deleteConnections);
+        }
+
+        @Override
+        void succeeded(APJSONObject result, String name) {
+            AppacitiveEntityCache.deleted(type, objectId);
+            AppacitiveQueryCache.written(type);
+            if (deleteConnections) {
+                AppacitiveEntityCache.deletedConnectionsOf(type, objectId);
+                AppacitiveQueryCache.allConnectionsWritten();
+            }
+            if (callback != null)
+                callback.success(null);
+        }
+
+        @Override
+        void failed(Exception e) {
+            if (callback != null)
+                callback.failure(null, e);
+        }
+    }
+
+    private static class ConnectionDelete extends Operation {
+
+        private final String relationType;
+
+        private final long connectionId;
+
+        private final Callback<Void> callback;
+
+        ConnectionDelete(AppacitiveConnection connection, String relationType, long connectionId, Callback<Void> callback) {
+            super(connection, "relation:" + relationType + ":" + connectionId);
+            this.relationType = relationType;
+            this.connectionId = connectionId;
+            this.callback = callback;
+        }
+
+        @Override
+        void addTo(BatchCallRequest request, String name) {
+            request.deleteEdge(relationType, connectionId);
+        }
+
+        @Override
+        void succeeded(APJSONObject result, String name) {
+            AppacitiveEntityCache.deletedConnection(relationType, connectionId);
+            AppacitiveQueryCache.connectionWritten(relationType);
+            if (callback != null)
+                callback.success(null);
+        }
+
+        @Override
+        void failed(Exception e) {
+            if (callback != null)
+                callback.failure(null, e);
+        }
+    }
+}
@@ -3,17 +3,21 @@ package com.appacitive.core;
 import com.appacitive.core.apjson.APJSONArray;
 import com.appacitive.core.apjson.APJSONException;
 import com.appacitive.core.apjson.APJSONObject;
+import com.appacitive.core.apjson.APJSONReader;
+import com.appacitive.core.apjson.APJSONWriter;
 import com.appacitive.core.exceptions.AppacitiveException;
 import com.appacitive.core.exceptions.ValidationException;
 import com.appacitive.core.infra.*;
 import com.appacitive.core.interfaces.AsyncHttp;
 import com.appacitive.core.interfaces.Logger;
 import com.appacitive.core.model.AppacitiveEndpoint;
+import com.appacitive.core.model.AppacitiveObjectBase;
 import com.appacitive.core.model.AppacitiveStatus;
 import com.appacitive.core.model.Callback;
 import com.appacitive.core.model.PagedList;
 import com.appacitive.core.query.AppacitiveQuery;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -56,6 +60,50 @@ public class AppacitiveConnection extends AppacitiveEntity implements Serializab
         }
     }
 
+    @Override
+    public synchronized void setSelf(APJSONReader reader) throws APJSONException, IOException {
+        this.relationId = 0;
+        this.relationType = null;
+        super.setSelf(reader);
+    }
+
+    @Override
+    protected void readProperty(String name, APJSONReader reader) throws APJSONException, IOException {
+        if (name.equals(SystemDefinedPropertiesHelper.relationId))
+            this.relationId = reader.nextLong();
+        else if (name.equals(SystemDefinedPropertiesHelper.relationType))
+            this.relationType = reader.nextString();
+        else if (name.equals(SystemDefinedPropertiesHelper.endpointA))
+            this.endpointA.setSelf(reader);
+        else if (name.equals(SystemDefinedPropertiesHelper.endpointB))
+            this.endpointB.setSelf(reader);
+        else
+            super.readProperty(name, reader);
+    }
+
+    @Override
+    protected synchronized void replaceWith(AppacitiveEntity latest) {
+        super.replaceWith(latest);
+        AppacitiveConnection connection = (AppacitiveConnection) latest;
+        this.relationId = connection.relationId;
+        this.relationType = connection.relationType;
+        replace(this.endpointA, connection.endpointA);
+        replace(this.endpointB, connection.endpointB);
+    }
+
+    //  As AppacitiveEndpoint.setSelf(APJSONObject), an object already on the endpoint is updated in place.
+    private static void replace(AppacitiveEndpoint endpoint, AppacitiveEndpoint latest) {
+        endpoint.label = latest.label;
+        endpoint.type = latest.type;
+        endpoint.objectId = latest.objectId;
+        if (latest.object != null) {
+            if (endpoint.object == null)
+                endpoint.object = latest.object;
+            else
+                ((AppacitiveEntity) endpoint.object).replaceWith(latest.object);
+        }
+    }
+
     @Override
     public synchronized APJSONObject getMap() throws APJSONException {
         APJSONObject nativeMap = super.getMap();
@@ -66,6 +114,58 @@ public class AppacitiveConnection extends AppacitiveEntity implements Serializab
         return nativeMap;
     }
 
+    @Override
+    protected AppacitiveEntity newInstance() {
+        return new AppacitiveConnection();
+    }
+
+    @Override
+    protected void copyFrom(AppacitiveEntity source) {
+        super.copyFrom(source);
+        AppacitiveConnection connection = (AppacitiveConnection) source;
+        this.relationType = connection.relationType;
+        this.relationId = connection.relationId;
+        this.endpointA = copyOf(connection.endpointA);
+        this.endpointB = copyOf(connection.endpointB);
+    }
+
+    private static AppacitiveEndpoint copyOf(AppacitiveEndpoint endpoint) {
+        AppacitiveEndpoint copy = new AppacitiveEndpoint();
+        copy.label = endpoint.label;
+        copy.type = endpoint.type;
+        copy.objectId = endpoint.objectId;
+        if (endpoint.object != null)
+            copy.object = (AppacitiveObjectBase) endpoint.object.copy();
+        return copy;
+    }
+
+    @Override
+    protected void writeMapFields(APJSONWriter writer) throws APJSONException, IOException {
+        super.writeMapFields(writer);
+        if (this.relationType != null)
+            writer.name(SystemDefinedPropertiesHelper.relationType).value(this.relationType);
+        writer.name(SystemDefinedPropertiesHelper.relationId).value(String.valueOf(this.relationId));
+        writer.name(SystemDefinedPropertiesHelper.endpointA);
+        this.endpointA.writeMap(writer);
+        writer.name(SystemDefinedPropertiesHelper.endpointB);
+        this.endpointB.writeMap(writer);
+    }
+
+    @Override
+    protected void writeUpdateCommandFields(APJSONWriter writer) throws APJSONException, IOException {
+        super.writeUpdateCommandFields(writer);
+        if (this.relationType != null)
+            writer.name(SystemDefinedPropertiesHelper.relationType).value(this.relationType);
+        writer.name(SystemDefinedPropertiesHelper.relationId).value(String.valueOf(this.relationId));
+    }
+
+    @Override
+    protected boolean isWrittenBySubclass(String name, boolean updateCommand) {
+        return name.equals(SystemDefinedPropertiesHelper.relationType) || name.equals(SystemDefinedPropertiesHelper.relationId)
+                || (updateCommand == false && (name.equals(SystemDefinedPropertiesHelper.endpointA) || name.equals(SystemDefinedPropertiesHelper.endpointB)))
+                || super.isWrittenBySubclass(name, updateCommand);
+    }
+
     @Override
     public synchronized APJSONObject getUpdateCommand() throws APJSONException {
         APJSONObject updateCommand = super.getUpdateCommand();
@@ -173,39 +273,46 @@ public class AppacitiveConnection extends AppacitiveEntity implements Serializab
 
         if (this.endpointB == null || this.endpointB.label == null || this.endpointB.label.isEmpty() || (this.endpointB.object == null && this.endpointB.objectId <= 0))
             throw new ValidationException("Endpoint B is not correctly initialized.");
-
+        AppacitiveBatchWriter batchWriter = AppacitiveContextBase.getBatchWriter();
+        if (batchWriter != null) {
+            batchWriter.create(this, callback);
+            return;
+        }
 
         final String url = Urls.ForConnection.createConnectionUrl(this.relationType).toString();
         final Map<String, String> headers = Headers.assemble();
-        final APJSONObject payload;
+        final byte[] payload;
         try {
-            payload = this.getMap();
+            payload = this.getMapBytes();
         } catch (APJSONException e) {
             throw new RuntimeException(e);
         }
         final AppacitiveConnection connection = this;
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
-        asyncHttp.put(url, headers, payload.toString(), new APCallback() {
-            @Override
-            public void success(String result) {
+        asyncHttp.put(url, headers, payload, new StreamingCallback() {
+            private AppacitiveConnection latest = null;
 
-                APJSONObject jsonObject;
-                try {
-                    jsonObject = new APJSONObject(result);
-                } catch (APJSONException e) {
-                    throw new RuntimeException(e);
-                }
-                AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
-                if (status.isSuccessful()) {
-                    connection.setSelf(jsonObject.optJSONObject("connection"));
-                    if (callback != null) {
-                        callback.success(connection);
-                    }
-                } else {
-                    if (callback != null)
-                        callback.failure(null, new AppacitiveException(status));
-                }
+            @Override
+            protected boolean read(String name, APJSONReader reader) throws APJSONException, IOException {
+                if (name.equals("connection") == false)
+                    return false;
+                latest = new AppacitiveConnection();
+                latest.setSelf(reader);
+                return true;
+            }
 
+            @Override
+            protected void success() {
+                if (latest != null)
+                    connection.replaceWith(latest);
+                AppacitiveEntityCache.store(connection);
+                AppacitiveQueryCache.connectionWritten(connection.getRelationType());
+                if (connection.endpointA.object != null)
+                    AppacitiveQueryCache.written(connection.endpointA.type);
+                if (connection.endpointB.object != null)
+                    AppacitiveQueryCache.written(connection.endpointB.type);
+                if (callback != null)
+                    callback.success(connection);
             }
 
             @Override
@@ -216,37 +323,69 @@ public class AppacitiveConnection extends AppacitiveEntity implements Serializab
         });
     }
 
-    public static void getInBackground(String relationType, long id, List<String> fields, final Callback<AppacitiveConnection> callback) {
+    public APFuture<AppacitiveConnection> createAsync() {
+        APFuture<AppacitiveConnection> future = new APFuture<AppacitiveConnection>();
+        APCall call = future.beginCall();
+        try {
+            createInBackground(future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
+    public static void getInBackground(String relationType, long id, final List<String> fields, final Callback<AppacitiveConnection> callback) {
         LOGGER.info("Fetching connection of type " + relationType + "with id " + id);
+        AppacitiveConnection cached = AppacitiveEntityCache.cachedConnection(relationType, id, fields);
+        if (cached != null) {
+            AppacitiveEntityCache.deliver(callback, cached);
+            return;
+        }
+        AppacitiveReadCoalescer coalescer = AppacitiveContextBase.getReadCoalescer();
+        if (coalescer != null) {
+            coalescer.get(AppacitiveReadCoalescer.key("connection", relationType, fields), id, coalescerSource(relationType, fields), callback);
+            return;
+        }
+        getFromServer(relationType, id, fields, callback);
+    }
+
+    private static AppacitiveReadCoalescer.Source<AppacitiveConnection> coalescerSource(final String relationType, final List<String> fields) {
+        return new AppacitiveReadCoalescer.Source<AppacitiveConnection>() {
+            @Override
+            public void get(long id, Callback<AppacitiveConnection> callback) {
+                getFromServer(relationType, id, fields, callback);
+            }
+
+            @Override
+            public void multiGet(List<Long> ids, Callback<List<AppacitiveConnection>> callback) {
+                multiGetFromServer(relationType, ids, fields, callback);
+            }
+        };
+    }
+
+    private static void getFromServer(String relationType, long id, final List<String> fields, final Callback<AppacitiveConnection> callback) {
         final String url = Urls.ForConnection.getConnectionUrl(relationType, id, fields).toString();
         final Map<String, String> headers = Headers.assemble();
 
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
-        asyncHttp.get(url, headers, new APCallback() {
-            @Override
-            public void success(String result) {
+        asyncHttp.get(url, headers, new StreamingCallback() {
+            private AppacitiveConnection connection = null;
 
-                APJSONObject jsonObject;
-                try {
-                    jsonObject = new APJSONObject(result);
-                } catch (APJSONException e) {
-                    throw new RuntimeException(e);
-                }
-                AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
-                if (status.isSuccessful()) {
-                    AppacitiveConnection connection = null;
-                    APJSONObject connectionJson = jsonObject.optJSONObject("connection");
-                    if (connectionJson != null) {
-                        connection = new AppacitiveConnection();
-                        connection.setSelf(jsonObject.optJSONObject("connection"));
-                    }
-                    if (callback != null)
-                        callback.success(connection);
-                } else {
-                    if (callback != null)
-                        callback.failure(null, new AppacitiveException(status));
-                }
+            @Override
+            protected boolean read(String name, APJSONReader reader) throws APJSONException, IOException {
+                if (name.equals("connection") == false)
+                    return false;
+                connection = new AppacitiveConnection();
+                connection.setSelf(reader);
+                return true;
+            }
 
+            @Override
+            protected void success() {
+                if (connection != null && (fields == null || fields.isEmpty()))
+                    AppacitiveEntityCache.store(connection);
+                if (callback != null)
+                    callback.success(connection);
             }
 
             @Override
@@ -257,9 +396,27 @@ public class AppacitiveConnection extends AppacitiveEntity implements Serializab
         });
     }
 
+    public static APFuture<AppacitiveConnection> getAsync(String relationType, long id, List<String> fields) {
+        APFuture<AppacitiveConnection> future = new APFuture<AppacitiveConnection>();
+        APCall call = future.beginCall();
+        try {
+            getInBackground(relationType, id, fields, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public void deleteInBackground(final Callback<Void> callback) {
         LOGGER.info("Deleting connection of type " + this.getRelationType() + "with id " + this.getId());
+        AppacitiveBatchWriter batchWriter = AppacitiveContextBase.getBatchWriter();
+        if (batchWriter != null) {
+            batchWriter.delete(this, this.relationType, this.getId(), callback);
+            return;
+        }
         final String url = Urls.ForConnection.deleteConnectionUrl(this.relationType, this.getId()).toString();
+        final String relationType = this.relationType;
+        final long connectionId = this.getId();
         final Map<String, String> headers = Headers.assemble();
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
         asyncHttp.delete(url, headers, new APCallback() {
@@ -274,6 +431,8 @@ public class AppacitiveConnection extends AppacitiveEntity implements Serializab
                 }
                 AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
                 if (status.isSuccessful()) {
+                    AppacitiveEntityCache.deletedConnection(relationType, connectionId);
+                    AppacitiveQueryCache.connectionWritten(relationType);
                     if (callback != null)
                         callback.success(null);
                 } else {
@@ -291,8 +450,24 @@ public class AppacitiveConnection extends AppacitiveEntity implements Serializab
         });
     }
 
-    public static void deleteInBackground(String relationType, long connectionId, final Callback<Void> callback) {
+    public APFuture<Void> deleteAsync() {
+        APFuture<Void> future = new APFuture<Void>();
+        APCall call = future.beginCall();
+        try {
+            deleteInBackground(future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
+    public static void deleteInBackground(final String relationType, final long connectionId, final Callback<Void> callback) {
         LOGGER.info("Deleting connection of type " + relationType + "with id " + connectionId);
+        AppacitiveBatchWriter batchWriter = AppacitiveContextBase.getBatchWriter();
+        if (batchWriter != null) {
+            batchWriter.delete(null, relationType, connectionId, callback);
+            return;
+        }
         final String url = Urls.ForConnection.deleteConnectionUrl(relationType, connectionId).toString();
         final Map<String, String> headers = Headers.assemble();
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
@@ -308,6 +483,8 @@ public class AppacitiveConnection extends AppacitiveEntity implements Serializab
                 }
                 AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
                 if (status.isSuccessful()) {
+                    AppacitiveEntityCache.deletedConnection(relationType, connectionId);
+                    AppacitiveQueryCache.connectionWritten(relationType);
                     if (callback != null)
                         callback.success(null);
                 } else {
@@ -325,7 +502,18 @@ public class AppacitiveConnection extends AppacitiveEntity implements Serializab
         });
     }
 
-    public static void bulkDeleteInBackground(String relationType, List<Long> connectionIds, final Callback<Void> callback) {
+    public static APFuture<Void> deleteAsync(String relationType, long connectionId) {
+        APFuture<Void> future = new APFuture<Void>();
+        APCall call = future.beginCall();
+        try {
+            deleteInBackground(relationType, connectionId, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
+    public static void bulkDeleteInBackground(final String relationType, final List<Long> connectionIds, final Callback<Void> callback) {
         LOGGER.info("Bulk deleting connections of type " + relationType + "with ids " + StringUtils.joinLong(connectionIds, " , "));
         final String url = Urls.ForConnection.bulkDeleteConnectionUrl(relationType).toString();
         final Map<String, String> headers = Headers.assemble();
@@ -355,6 +543,9 @@ public class AppacitiveConnection extends AppacitiveEntity implements Serializab
                 }
                 AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
                 if (status.isSuccessful()) {
+                    for (long connectionId : connectionIds)
+                        AppacitiveEntityCache.deletedConnection(relationType, connectionId);
+                    AppacitiveQueryCache.connectionWritten(relationType);
                     if (callback != null)
                         callback.success(null);
                 } else {
@@ -372,39 +563,55 @@ public class AppacitiveConnection extends AppacitiveEntity implements Serializab
         });
     }
 
+    public static APFuture<Void> bulkDeleteAsync(String relationType, List<Long> connectionIds) {
+        APFuture<Void> future = new APFuture<Void>();
+        APCall call = future.beginCall();
+        try {
+            bulkDeleteInBackground(relationType, connectionIds, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public void updateInBackground(boolean withRevision, final Callback<AppacitiveConnection> callback) {
         LOGGER.info("Updating connection of type " + this.getRelationType() + "with id " + this.getId());
+        AppacitiveBatchWriter batchWriter = AppacitiveContextBase.getBatchWriter();
+        if (batchWriter != null) {
+            batchWriter.update(this, withRevision, callback);
+            return;
+        }
         final String url = Urls.ForConnection.updateConnectionUrl(this.relationType, this.getId(), withRevision, this.getRevision()).toString();
         final Map<String, String> headers = Headers.assemble();
-        final APJSONObject payload;
+        final byte[] payload;
         try {
-            payload = super.getUpdateCommand();
+            //  A direct update has never carried the relation fields, only the batch does.
+            payload = this.getEntityUpdateCommandBytes();
         } catch (APJSONException e) {
             throw new RuntimeException(e);
         }
         final AppacitiveConnection connection = this;
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
-        asyncHttp.post(url, headers, payload.toString(), new APCallback() {
-            @Override
-            public void success(String result) {
+        asyncHttp.post(url, headers, payload, new StreamingCallback() {
+            private AppacitiveConnection latest = null;
 
-                APJSONObject jsonObject;
-                try {
-                    jsonObject = new APJSONObject(result);
-                } catch (APJSONException e) {
-                    throw new RuntimeException(e);
-                }
-                AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
-                if (status.isSuccessful()) {
-                    connection.setSelf(jsonObject.optJSONObject("connection"));
-                    if (callback != null) {
-                        callback.success(connection);
-                    }
-                } else {
-                    if (callback != null)
-                        callback.failure(null, new AppacitiveException(status));
-                }
+            @Override
+            protected boolean read(String name, APJSONReader reader) throws APJSONException, IOException {
+                if (name.equals("connection") == false)
+                    return false;
+                latest = new AppacitiveConnection();
+                latest.setSelf(reader);
+                return true;
+            }
 
+            @Override
+            protected void success() {
+                if (latest != null)
+                    connection.replaceWith(latest);
+                AppacitiveEntityCache.store(connection);
+                AppacitiveQueryCache.connectionWritten(connection.getRelationType());
+                if (callback != null)
+                    callback.success(connection);
             }
 
             @Override
@@ -415,6 +622,17 @@ public class AppacitiveConnection extends AppacitiveEntity implements Serializab
         });
     }
 
+    public APFuture<AppacitiveConnection> updateAsync(boolean withRevision) {
+        APFuture<AppacitiveConnection> future = new APFuture<AppacitiveConnection>();
+        APCall call = future.beginCall();
+        try {
+            updateInBackground(withRevision, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public void fetchLatestInBackground(final Callback<Void> callback) {
         LOGGER.info("Fetching latest connection of type " + this.getRelationType() + "with id " + this.getId());
         final String url = Urls.ForConnection.getConnectionUrl(relationType, this.getId(), null).toString();
@@ -422,27 +640,25 @@ public class AppacitiveConnection extends AppacitiveEntity implements Serializab
 
         final AppacitiveConnection connection = this;
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
-        asyncHttp.get(url, headers, new APCallback() {
-            @Override
-            public void success(String result) {
+        asyncHttp.get(url, headers, new StreamingCallback() {
+            private AppacitiveConnection latest = null;
 
-                APJSONObject jsonObject;
-                try {
-                    jsonObject = new APJSONObject(result);
-                } catch (APJSONException e) {
-                    throw new RuntimeException(e);
-                }
-                AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
-                if (status.isSuccessful()) {
-                    connection.setSelf(jsonObject.optJSONObject("connection"));
-                    if (callback != null) {
-                        callback.success(null);
-                    }
-                } else {
-                    if (callback != null)
-                        callback.failure(null, new AppacitiveException(status));
-                }
+            @Override
+            protected boolean read(String name, APJSONReader reader) throws APJSONException, IOException {
+                if (name.equals("connection") == false)
+                    return false;
+                latest = new AppacitiveConnection();
+                latest.setSelf(reader);
+                return true;
+            }
 
+            @Override
+            protected void success() {
+                if (latest != null)
+                    connection.replaceWith(latest);
+                AppacitiveEntityCache.store(connection);
+                if (callback != null)
+                    callback.success(null);
             }
 
             @Override
@@ -453,36 +669,80 @@ public class AppacitiveConnection extends AppacitiveEntity implements Serializab
         });
     }
 
-    public static void multiGetInBackground(String relationType, List<Long> connectionIds, List<String> fields, final Callback<List<AppacitiveConnection>> callback) {
+    public APFuture<Void> fetchLatestAsync() {
+        APFuture<Void> future = new APFuture<Void>();
+        APCall call = future.beginCall();
+        try {
+            fetchLatestInBackground(future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
+    public static void multiGetInBackground(String relationType, final List<Long> connectionIds, List<String> fields, final Callback<List<AppacitiveConnection>> callback) {
         LOGGER.info("Bulk fetching connections of type " + relationType + "with ids " + StringUtils.joinLong(connectionIds, " , "));
+        final Map<Long, AppacitiveConnection> cached = new HashMap<Long, AppacitiveConnection>();
+        List<Long> missing = new ArrayList<Long>();
+        for (long connectionId : connectionIds) {
+            AppacitiveConnection connection = AppacitiveEntityCache.cachedConnection(relationType, connectionId, fields);
+            if (connection != null)
+                cached.put(connectionId, connection);
+            else
+                missing.add(connectionId);
+        }
+        if (cached.isEmpty()) {
+            multiGetFromServer(relationType, connectionIds, fields, callback);
+            return;
+        }
+        if (missing.isEmpty()) {
+            AppacitiveEntityCache.deliver(callback, AppacitiveEntityCache.inRequestOrder(connectionIds, cached, new ArrayList<AppacitiveConnection>()));
+            return;
+        }
+        multiGetFromServer(relationType, missing, fields, new Callback<List<AppacitiveConnection>>() {
+            @Override
+            public void success(List<AppacitiveConnection> result) {
+                if (callback != null)
+                    callback.success(AppacitiveEntityCache.inRequestOrder(connectionIds, cached, result));
+            }
+
+            @Override
+            public void failure(List<AppacitiveConnection> result, Exception e) {
+                if (callback != null)
+                    callback.failure(null, e);
+            }
+        });
+    }
+
+    private static void multiGetFromServer(String relationType, List<Long> connectionIds, final List<String> fields, final Callback<List<AppacitiveConnection>> callback) {
         final String url = Urls.ForConnection.multiGetConnectionUrl(relationType, connectionIds, fields).toString();
         final Map<String, String> headers = Headers.assemble();
 
         final List<AppacitiveConnection> appacitiveConnections = new ArrayList<AppacitiveConnection>();
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
-        asyncHttp.get(url, headers, new APCallback() {
+        asyncHttp.get(url, headers, new StreamingCallback() {
             @Override
-            public void success(String result) {
-
-                APJSONObject jsonObject;
-                try {
-                    jsonObject = new APJSONObject(result);
-                } catch (APJSONException e) {
-                    throw new RuntimeException(e);
+            protected boolean read(String name, APJSONReader reader) throws APJSONException, IOException {
+                if (name.equals("connections") == false)
+                    return false;
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    AppacitiveConnection connection = new AppacitiveConnection();
+                    connection.setSelf(reader);
+                    appacitiveConnections.add(connection);
                 }
-                AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
-                if (status.isSuccessful()) {
-                    APJSONArray connectionsArray = jsonObject.optJSONArray("connections");
-                    for (int i = 0; i < connectionsArray.length(); i++) {
-                        AppacitiveConnection connection = new AppacitiveConnection();
-                        connection.setSelf(connectionsArray.optJSONObject(i));
-                        appacitiveConnections.add(connection);
-                    }
-                    if (callback != null)
-                        callback.success(appacitiveConnections);
-                } else if (callback != null)
-                    callback.failure(null, new AppacitiveException(status));
+                reader.endArray();
+                return true;
+            }
 
+            @Override
+            protected void success() {
+                if (fields == null || fields.isEmpty()) {
+                    for (AppacitiveConnection connection : appacitiveConnections)
+                        AppacitiveEntityCache.store(connection);
+                }
+                if (callback != null)
+                    callback.success(appacitiveConnections);
             }
 
             @Override
@@ -493,39 +753,61 @@ public class AppacitiveConnection extends AppacitiveEntity implements Serializab
         });
     }
 
+    public static APFuture<List<AppacitiveConnection>> multiGetAsync(String relationType, List<Long> connectionIds, List<String> fields) {
+        APFuture<List<AppacitiveConnection>> future = new APFuture<List<AppacitiveConnection>>();
+        APCall call = future.beginCall();
+        try {
+            multiGetInBackground(relationType, connectionIds, fields, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void findInBackground(String relationType, AppacitiveQuery query, List<String> fields, final Callback<PagedList<AppacitiveConnection>> callback) {
         LOGGER.info("Searching connections of type " + relationType);
-        final String url = Urls.ForConnection.findConnectionsUrl(relationType, query, fields).toString();
+        final Url findUrl = Urls.ForConnection.findConnectionsUrl(relationType, query, fields);
+        final AppacitiveQueryCache.Lookup lookup = AppacitiveQueryCache.forConnections(relationType, findUrl);
+        if (lookup != null) {
+            PagedList<AppacitiveConnection> cached = lookup.cached();
+            if (cached != null) {
+                if (callback != null)
+                    callback.success(cached);
+                return;
+            }
+        }
+        final String url = findUrl.toString();
         final Map<String, String> headers = Headers.assemble();
 
         final List<AppacitiveConnection> appacitiveConnections = new ArrayList<AppacitiveConnection>();
         final PagedList<AppacitiveConnection> pagedResult = new PagedList<AppacitiveConnection>();
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
-        asyncHttp.get(url, headers, new APCallback() {
+        asyncHttp.get(url, headers, new StreamingCallback() {
             @Override
-            public void success(String result) {
-
-                APJSONObject jsonObject;
-                try {
-                    jsonObject = new APJSONObject(result);
-                } catch (APJSONException e) {
-                    throw new RuntimeException(e);
+            protected boolean read(String name, APJSONReader reader) throws APJSONException, IOException {
+                if (name.equals("paginginfo")) {
+                    pagedResult.pagingInfo.setSelf(reader.readObject());
+                    return true;
                 }
-                AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
-                if (status.isSuccessful()) {
-                    APJSONArray connectionsArray = jsonObject.optJSONArray("connections");
-                    for (int i = 0; i < connectionsArray.length(); i++) {
-                        AppacitiveConnection connection = new AppacitiveConnection();
-                        connection.setSelf(connectionsArray.optJSONObject(i));
-                        appacitiveConnections.add(connection);
-                    }
-                    pagedResult.results = appacitiveConnections;
-                    pagedResult.pagingInfo.setSelf(jsonObject.optJSONObject("paginginfo"));
-                    if (callback != null)
-                        callback.success(pagedResult);
-                } else if (callback != null)
-                    callback.failure(null, new AppacitiveException(status));
+                if (name.equals("connections") == false)
+                    return false;
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    AppacitiveConnection connection = new AppacitiveConnection();
+                    connection.setSelf(reader);
+                    appacitiveConnections.add(connection);
+                }
+                reader.endArray();
+                return true;
+            }
 
+            @Override
+            protected void success() {
+                pagedResult.results = appacitiveConnections;
+                if (lookup != null)
+                    lookup.store(pagedResult);
+                if (callback != null)
+                    callback.success(pagedResult);
             }
 
             @Override
@@ -536,6 +818,17 @@ public class AppacitiveConnection extends AppacitiveEntity implements Serializab
         });
     }
 
+    public static APFuture<PagedList<AppacitiveConnection>> findAsync(String relationType, AppacitiveQuery query, List<String> fields) {
+        APFuture<PagedList<AppacitiveConnection>> future = new APFuture<PagedList<AppacitiveConnection>>();
+        APCall call = future.beginCall();
+        try {
+            findInBackground(relationType, query, fields, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void findByObjectsInBackground(long objectId1, long objectId2, List<String> fields, final Callback<PagedList<AppacitiveConnection>> callback) {
         LOGGER.info("Searching connections by objects, with object ids " + objectId1 + " and " + objectId2);
         final String url = Urls.ForConnection.findForObjectsUrl(objectId1, objectId2, fields).toString();
@@ -581,6 +874,17 @@ public class AppacitiveConnection extends AppacitiveEntity implements Serializab
         });
     }
 
+    public static APFuture<PagedList<AppacitiveConnection>> findByObjectsAsync(long objectId1, long objectId2, List<String> fields) {
+        APFuture<PagedList<AppacitiveConnection>> future = new APFuture<PagedList<AppacitiveConnection>>();
+        APCall call = future.beginCall();
+        try {
+            findByObjectsInBackground(objectId1, objectId2, fields, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void findByObjectsAndRelationInBackground(String relationType, long objectId1, long objectId2, List<String> fields, final Callback<AppacitiveConnection> callback) {
         LOGGER.info("Searching connections by objects and relation, with object ids " + objectId1 + " and " + objectId2 + " and relation " + relationType);
         final String url = Urls.ForConnection.findForObjectsAndRelationUrl(relationType, objectId1, objectId2, fields).toString();
@@ -622,6 +926,17 @@ public class AppacitiveConnection extends AppacitiveEntity implements Serializab
         });
     }
 
+    public static APFuture<AppacitiveConnection> findByObjectsAndRelationAsync(String relationType, long objectId1, long objectId2, List<String> fields) {
+        APFuture<AppacitiveConnection> future = new APFuture<AppacitiveConnection>();
+        APCall call = future.beginCall();
+        try {
+            findByObjectsAndRelationInBackground(relationType, objectId1, objectId2, fields, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void findInterconnectsInBackground(Long object1Id, List<Long> object2Ids, List<String> fields, final Callback<PagedList<AppacitiveConnection>> callback) {
         LOGGER.info("Searching interconnects from objectid " + object1Id + " to object ids " + StringUtils.joinLong(object2Ids, ", "));
         final String url = Urls.ForConnection.findInterconnectsUrl(fields).toString();
@@ -673,10 +988,32 @@ public class AppacitiveConnection extends AppacitiveEntity implements Serializab
         });
     }
 
+    public static APFuture<PagedList<AppacitiveConnection>> findInterconnectsAsync(Long object1Id, List<Long> object2Ids, List<String> fields) {
+        APFuture<PagedList<AppacitiveConnection>> future = new APFuture<PagedList<AppacitiveConnection>>();
+        APCall call = future.beginCall();
+        try {
+            findInterconnectsInBackground(object1Id, object2Ids, fields, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public void findInterconnectsInBackground(List<Long> objectIds, List<String> fields, final Callback<PagedList<AppacitiveConnection>> callback) {
         findInterconnectsInBackground(this.getId(), objectIds, fields, callback);
     }
 
+    public APFuture<PagedList<AppacitiveConnection>> findInterconnectsAsync(List<Long> objectIds, List<String> fields) {
+        APFuture<PagedList<AppacitiveConnection>> future = new APFuture<PagedList<AppacitiveConnection>>();
+        APCall call = future.beginCall();
+        try {
+            findInterconnectsInBackground(objectIds, fields, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void findByObjectAndLabelInBackground(String relationType, long objectId, String label, List<String> fields, final Callback<PagedList<AppacitiveConnection>> callback) {
         LOGGER.info("Searching connections by object and label for relation type " + relationType + " with object id " + objectId + " and label " + label);
         final String url = Urls.ForConnection.findByObjectAndLabelUrl(relationType, objectId, label, fields).toString();
@@ -721,4 +1058,15 @@ public class AppacitiveConnection extends AppacitiveEntity implements Serializab
             }
         });
     }
+
+    public static APFuture<PagedList<AppacitiveConnection>> findByObjectAndLabelAsync(String relationType, long objectId, String label, List<String> fields) {
+        APFuture<PagedList<AppacitiveConnection>> future = new APFuture<PagedList<AppacitiveConnection>>();
+        APCall call = future.beginCall();
+        try {
+            findByObjectAndLabelInBackground(relationType, objectId, label, fields, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
 }
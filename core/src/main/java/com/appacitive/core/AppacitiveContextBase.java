@@ -1,37 +1,280 @@
 package com.appacitive.core;
 
 import com.appacitive.core.infra.APContainer;
+import com.appacitive.core.infra.CircuitBreaker;
+import com.appacitive.core.infra.CircuitBreakingAsyncHttp;
+import com.appacitive.core.infra.DeadlineAsyncHttp;
+import com.appacitive.core.infra.HedgePolicy;
+import com.appacitive.core.infra.HedgingAsyncHttp;
+import com.appacitive.core.infra.LimitedAsyncHttp;
 import com.appacitive.core.infra.ObjectFactory;
+import com.appacitive.core.infra.RequestLimiter;
+import com.appacitive.core.infra.RequestTimeouts;
+import com.appacitive.core.infra.RetryPolicy;
+import com.appacitive.core.infra.RetryingAsyncHttp;
+import com.appacitive.core.infra.SingleFlightAsyncHttp;
+import com.appacitive.core.interfaces.AsyncHttp;
+import com.appacitive.core.interfaces.Http;
 import com.appacitive.core.interfaces.LogLevel;
 import com.appacitive.core.interfaces.Logger;
 import com.appacitive.core.interfaces.UserContextProvider;
 import com.appacitive.core.model.Environment;
 import com.appacitive.core.model.Platform;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.io.Serializable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by sathley.
  */
 public class AppacitiveContextBase implements Serializable {
 
-    private static String apiKey;
-    private static String environment;
-    private static boolean isInitialized = false;
-    private static UserContextProvider userContextProvider = null;
+    //  Read on every request, so these are volatile rather than guarded by the class monitor.
+    private static volatile String apiKey;
+    private static volatile String environment;
+    private static volatile boolean isInitialized = false;
+    private static volatile UserContextProvider userContextProvider = null;
     private static Logger logger;
-    public static String baseUrl = "https://apis.appacitive.com/v1.0";
+    private static Platform platform = null;
+    public static volatile String baseUrl = "https://apis.appacitive.com/v1.0";
+    private static volatile boolean gzipResponses = false;
+    private static volatile boolean gzipRequests = false;
+    private static volatile AppacitiveEntityCache entityCache = null;
+    private static volatile AppacitiveQueryCache queryCache = null;
+    private static volatile AppacitiveReadCoalescer readCoalescer = null;
+    private static volatile AppacitiveBatchWriter batchWriter = null;
+    private static volatile Executor callbackExecutor = null;
+    private static boolean singleFlightGets = false;
+    private static RequestLimiter requestLimiter = null;
+    private static RetryPolicy retryPolicy = null;
+    private static HedgePolicy hedgePolicy = null;
+    private static CircuitBreaker circuitBreaker = null;
+    private static RequestTimeouts requestTimeouts = null;
+    private static final RequestTimeouts NO_TIMEOUTS = new RequestTimeouts(0, TimeUnit.MILLISECONDS);
 
     public synchronized static void setBaseUrl(String url)
     {
         AppacitiveContextBase.baseUrl = url;
     }
 
+    /**
+     * Opts in to gzip compressed responses (sends {@code Accept-Encoding: gzip}) and to gzip compressing
+     * large request bodies. Both are off by default.
+     */
+    public static void setGzipEnabled(boolean responses, boolean requests) {
+        AppacitiveContextBase.gzipResponses = responses;
+        AppacitiveContextBase.gzipRequests = requests;
+    }
+
+    public static boolean isGzipResponsesEnabled() {
+        return gzipResponses;
+    }
+
+    public static boolean isGzipRequestsEnabled() {
+        return gzipRequests;
+    }
+
+    /**
+     * Turns on caching of objects and connections read through the sdk, see {@link AppacitiveEntityCache}.
+     * Pass null to turn it off again. Off by default.
+     */
+    public static void setEntityCache(AppacitiveEntityCache cache) {
+        AppacitiveContextBase.entityCache = cache;
+    }
+
+    public static AppacitiveEntityCache getEntityCache() {
+        return entityCache;
+    }
+
+    /**
+     * Turns on caching of find results, see {@link AppacitiveQueryCache}. Pass null to turn it off again. Off by default.
+     */
+    public static void setQueryCache(AppacitiveQueryCache cache) {
+        AppacitiveContextBase.queryCache = cache;
+    }
+
+    public static AppacitiveQueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    /**
+     * Turns on gathering of lookups by id into multiget calls, see {@link AppacitiveReadCoalescer}.
+     * Pass null to turn it off again. Off by default.
+     */
+    public static void setReadCoalescer(AppacitiveReadCoalescer coalescer) {
+        AppacitiveContextBase.readCoalescer = coalescer;
+    }
+
+    public static AppacitiveReadCoalescer getReadCoalescer() {
+        return readCoalescer;
+    }
+
+    /**
+     * Turns on batching of object and connection writes, see {@link AppacitiveBatchWriter}. Pass null to turn it
+     * off again, after a {@link AppacitiveBatchWriter#flush()} if writes may still be buffered. Off by default.
+     */
+    public static void setBatchWriter(AppacitiveBatchWriter writer) {
+        AppacitiveContextBase.batchWriter = writer;
+    }
+
+    public static AppacitiveBatchWriter getBatchWriter() {
+        return batchWriter;
+    }
+
+    /**
+     * Parses responses and runs callbacks on {@code executor} instead of the transport's own worker pool, see
+     * {@link com.appacitive.core.infra.APDispatcher}. Any executor will do: a bounded pool, the application's own, or
+     * {@code Executors.newVirtualThreadPerTaskExecutor()} on java 21. Pass null to go back to the transport's pool.
+     */
+    public static void setCallbackExecutor(Executor executor) {
+        AppacitiveContextBase.callbackExecutor = executor;
+    }
+
+    public static Executor getCallbackExecutor() {
+        return callbackExecutor;
+    }
+
+    /**
+     * Lets identical GETs that are in flight at the same time share one call, see {@link SingleFlightAsyncHttp}.
+     * Wraps the registered {@link AsyncHttp}, and the one of any platform initialized later; the blocking
+     * {@link Http} is left as it is. Off by default.
+     */
+    public synchronized static void setSingleFlightGets(boolean enabled) {
+        AppacitiveContextBase.singleFlightGets = enabled;
+        wrapAsyncHttp();
+    }
+
+    public synchronized static boolean isSingleFlightGets() {
+        return singleFlightGets;
+    }
+
+    /**
+     * Bounds the requests in flight, see {@link RequestLimiter}. Wraps the registered {@link AsyncHttp}, and the one
+     * of any platform initialized later; calls made through the blocking {@link Http} are not counted. Pass null to
+     * turn it off again. Off by default.
+     */
+    public synchronized static void setRequestLimiter(RequestLimiter limiter) {
+        AppacitiveContextBase.requestLimiter = limiter;
+        wrapAsyncHttp();
+    }
+
+    public synchronized static RequestLimiter getRequestLimiter() {
+        return requestLimiter;
+    }
+
+    /**
+     * Sends requests that are safe to repeat again when they fail in transit, see {@link RetryPolicy}. Wraps the
+     * registered {@link AsyncHttp}, and the one of any platform initialized later; the blocking {@link Http} does not
+     * retry. Pass null to turn it off again. Off by default.
+     */
+    public synchronized static void setRetryPolicy(RetryPolicy policy) {
+        AppacitiveContextBase.retryPolicy = policy;
+        wrapAsyncHttp();
+    }
+
+    public synchronized static RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Sends a second copy of GETs that are slow to respond and takes whichever answers first, see {@link HedgePolicy}.
+     * Wraps the registered {@link AsyncHttp}, and the one of any platform initialized later; the blocking
+     * {@link Http} does not hedge. Pass null to turn it off again. Off by default.
+     */
+    public synchronized static void setHedgePolicy(HedgePolicy policy) {
+        AppacitiveContextBase.hedgePolicy = policy;
+        wrapAsyncHttp();
+    }
+
+    public synchronized static HedgePolicy getHedgePolicy() {
+        return hedgePolicy;
+    }
+
+    /**
+     * Fails requests to endpoints that keep failing without sending them, see {@link CircuitBreaker}. Wraps the
+     * registered {@link AsyncHttp}, and the one of any platform initialized later; the blocking {@link Http} neither
+     * passes the breaker nor counts towards it. Pass null to turn it off again. Off by default.
+     */
+    public synchronized static void setCircuitBreaker(CircuitBreaker breaker) {
+        AppacitiveContextBase.circuitBreaker = breaker;
+        wrapAsyncHttp();
+    }
+
+    public synchronized static CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Gives requests a deadline after which they are cancelled, see {@link RequestTimeouts}. Applies to the registered
+     * {@link AsyncHttp}, and the one of any platform initialized later; the blocking {@link Http} keeps the timeouts
+     * of its transport. Pass null to turn it off again. Off by default.
+     */
+    public synchronized static void setRequestTimeouts(RequestTimeouts timeouts) {
+        AppacitiveContextBase.requestTimeouts = timeouts;
+        wrapAsyncHttp();
+    }
+
+    public synchronized static RequestTimeouts getRequestTimeouts() {
+        return requestTimeouts;
+    }
+
+    //  Rebuilds the wrappers around the platform transport. Deadlines and calls are per caller, so they go around
+    //  merging identical GETs, and are always in place so that any request can be cancelled. Merged GETs are
+    //  retried as one, each attempt may be hedged, every copy sent passes the circuit breaker, and only copies it
+    //  lets through take a slot.
+    private static void wrapAsyncHttp() {
+        AsyncHttp current = APContainer.build(AsyncHttp.class);
+        if (current == null)
+            return;
+        AsyncHttp asyncHttp = current;
+        while (true) {
+            if (asyncHttp instanceof SingleFlightAsyncHttp)
+                asyncHttp = ((SingleFlightAsyncHttp) asyncHttp).getDelegate();
+            else if (asyncHttp instanceof LimitedAsyncHttp)
+                asyncHttp = ((LimitedAsyncHttp) asyncHttp).getDelegate();
+            else if (asyncHttp instanceof RetryingAsyncHttp)
+                asyncHttp = ((RetryingAsyncHttp) asyncHttp).getDelegate();
+            else if (asyncHttp instanceof HedgingAsyncHttp)
+                asyncHttp = ((HedgingAsyncHttp) asyncHttp).getDelegate();
+            else if (asyncHttp instanceof CircuitBreakingAsyncHttp)
+                asyncHttp = ((CircuitBreakingAsyncHttp) asyncHttp).getDelegate();
+            else if (asyncHttp instanceof DeadlineAsyncHttp)
+                asyncHttp = ((DeadlineAsyncHttp) asyncHttp).getDelegate();
+            else
+                break;
+        }
+        if (requestLimiter != null)
+            asyncHttp = new LimitedAsyncHttp(asyncHttp, requestLimiter);
+        if (circuitBreaker != null)
+            asyncHttp = new CircuitBreakingAsyncHttp(asyncHttp, circuitBreaker);
+        if (hedgePolicy != null)
+            asyncHttp = new HedgingAsyncHttp(asyncHttp, hedgePolicy);
+        if (retryPolicy != null)
+            asyncHttp = new RetryingAsyncHttp(asyncHttp, retryPolicy);
+        if (singleFlightGets)
+            asyncHttp = new SingleFlightAsyncHttp(asyncHttp);
+        asyncHttp = new DeadlineAsyncHttp(asyncHttp, requestTimeouts != null ? requestTimeouts : NO_TIMEOUTS);
+        if (asyncHttp != current)
+            registerAsyncHttp(asyncHttp);
+    }
+
+    private static void registerAsyncHttp(final AsyncHttp asyncHttp) {
+        APContainer.register(AsyncHttp.class, new ObjectFactory<AsyncHttp>() {
+            @Override
+            public AsyncHttp get() {
+                return asyncHttp;
+            }
+        });
+    }
+
     public synchronized static void setLogger(Logger logger) {
         AppacitiveContextBase.logger = logger;
     }
 
-    public synchronized static String getLoggedInUserToken() {
+    public static String getLoggedInUserToken() {
         return userContextProvider.getCurrentlyLoggedInUserToken();
     }
 
@@ -51,8 +294,14 @@ public class AppacitiveContextBase implements Serializable {
     public synchronized static void initialize(String apiKey, Environment environment, Platform platform) {
         AppacitiveContextBase.apiKey = apiKey;
         AppacitiveContextBase.environment = environment.name();
-        if (platform != null)
+        if (platform != null) {
+            //  Release the transport of the platform being replaced before switching over.
+            if (AppacitiveContextBase.platform != null && AppacitiveContextBase.platform != platform)
+                closePlatform(AppacitiveContextBase.platform);
+            AppacitiveContextBase.platform = platform;
             APContainer.registerAll(platform.getRegistrations());
+            wrapAsyncHttp();
+        }
 
 
         AppacitiveContextBase.logger = APContainer.build(Logger.class);
@@ -61,6 +310,24 @@ public class AppacitiveContextBase implements Serializable {
         isInitialized = true;
     }
 
+    public synchronized static void close() {
+        if (AppacitiveContextBase.platform != null)
+            closePlatform(AppacitiveContextBase.platform);
+        AppacitiveContextBase.platform = null;
+        isInitialized = false;
+    }
+
+    private static void closePlatform(Platform platform) {
+        if (platform instanceof Closeable) {
+            try {
+                ((Closeable) platform).close();
+            } catch (IOException e) {
+                if (logger != null)
+                    logger.error("Error while closing platform : " + e.getMessage());
+            }
+        }
+    }
+
     public synchronized static void register(Class<?> interfaceObject, ObjectFactory<?> objectFactory) {
         APContainer.register(interfaceObject, objectFactory);
     }
@@ -69,7 +336,7 @@ public class AppacitiveContextBase implements Serializable {
         setLoggedInUserToken(null);
     }
 
-    public synchronized static boolean isInitialized() {
+    public static boolean isInitialized() {
         return isInitialized;
     }
 
@@ -81,11 +348,11 @@ public class AppacitiveContextBase implements Serializable {
         userContextProvider.setCurrentLocation(latitude, longitude);
     }
 
-    public synchronized static String getApiKey() {
+    public static String getApiKey() {
         return apiKey;
     }
 
-    public synchronized static String getEnvironment() {
+    public static String getEnvironment() {
         return environment;
     }
 
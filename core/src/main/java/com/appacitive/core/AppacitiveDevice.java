@@ -3,6 +3,7 @@ package com.appacitive.core;
 import com.appacitive.core.apjson.APJSONArray;
 import com.appacitive.core.apjson.APJSONException;
 import com.appacitive.core.apjson.APJSONObject;
+import com.appacitive.core.apjson.APJSONReader;
 import com.appacitive.core.exceptions.AppacitiveException;
 import com.appacitive.core.exceptions.ValidationException;
 import com.appacitive.core.infra.*;
@@ -11,6 +12,7 @@ import com.appacitive.core.interfaces.Logger;
 import com.appacitive.core.model.*;
 import com.appacitive.core.query.AppacitiveQuery;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -36,6 +38,11 @@ public class AppacitiveDevice extends AppacitiveObjectBase implements Serializab
         super.setSelf(device);
     }
 
+    @Override
+    protected AppacitiveEntity newInstance() {
+        return new AppacitiveDevice();
+    }
+
     @Override
     public synchronized APJSONObject getMap() throws APJSONException {
         return super.getMap();
@@ -121,34 +128,32 @@ public class AppacitiveDevice extends AppacitiveObjectBase implements Serializab
 
         final String url = Urls.ForDevice.getRegisterUrl().toString();
         final Map<String, String> headers = Headers.assemble();
-        final APJSONObject payload;
+        final byte[] payload;
         try {
-            payload = this.getMap();
+            payload = this.getMapBytes();
         } catch (APJSONException e) {
             throw new RuntimeException(e);
         }
         final AppacitiveDevice device = this;
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
-        asyncHttp.put(url, headers, payload.toString(), new APCallback() {
+        asyncHttp.put(url, headers, payload, new StreamingCallback() {
+            private AppacitiveDevice latest = null;
+
             @Override
-            public void success(String result) {
-                APJSONObject jsonObject;
-                try {
-                    jsonObject = new APJSONObject(result);
-                } catch (APJSONException e) {
-                    throw new RuntimeException(e);
-                }
-                AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
-                if (status.isSuccessful()) {
-                    device.setSelf(jsonObject.optJSONObject("device"));
-                    if (callback != null) {
-                        callback.success(device);
-                    }
-                } else {
-                    if (callback != null)
-                        callback.failure(null, new AppacitiveException(status));
-                }
+            protected boolean read(String name, APJSONReader reader) throws APJSONException, IOException {
+                if (name.equals("device") == false)
+                    return false;
+                latest = new AppacitiveDevice();
+                latest.setSelf(reader);
+                return true;
+            }
 
+            @Override
+            protected void success() {
+                if (latest != null)
+                    device.replaceWith(latest);
+                if (callback != null)
+                    callback.success(device);
             }
 
             @Override
@@ -159,37 +164,61 @@ public class AppacitiveDevice extends AppacitiveObjectBase implements Serializab
         });
     }
 
+    public APFuture<AppacitiveDevice> registerAsync() {
+        APFuture<AppacitiveDevice> future = new APFuture<AppacitiveDevice>();
+        APCall call = future.beginCall();
+        try {
+            registerInBackground(future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void getInBackground(long deviceId, final Callback<AppacitiveDevice> callback) {
         LOGGER.info("Fetching device with id " + deviceId);
+        AppacitiveReadCoalescer coalescer = AppacitiveContextBase.getReadCoalescer();
+        if (coalescer != null) {
+            coalescer.get(AppacitiveReadCoalescer.key("device", "device", null), deviceId, coalescerSource(), callback);
+            return;
+        }
+        getFromServer(deviceId, callback);
+    }
+
+    private static AppacitiveReadCoalescer.Source<AppacitiveDevice> coalescerSource() {
+        return new AppacitiveReadCoalescer.Source<AppacitiveDevice>() {
+            @Override
+            public void get(long id, Callback<AppacitiveDevice> callback) {
+                getFromServer(id, callback);
+            }
+
+            @Override
+            public void multiGet(List<Long> ids, Callback<List<AppacitiveDevice>> callback) {
+                multiGetInBackground(ids, null, callback);
+            }
+        };
+    }
+
+    private static void getFromServer(long deviceId, final Callback<AppacitiveDevice> callback) {
         final String url = Urls.ForDevice.getDeviceUrl(String.valueOf(deviceId)).toString();
         final Map<String, String> headers = Headers.assemble();
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
-        asyncHttp.get(url, headers, new APCallback() {
-            @Override
-            public void success(String result) {
-
-                APJSONObject jsonObject;
-                try {
-                    jsonObject = new APJSONObject(result);
-                } catch (APJSONException e) {
-                    throw new RuntimeException(e);
-                }
-                AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
-                if (status.isSuccessful()) {
-                    AppacitiveDevice device = null;
-                    APJSONObject deviceJson = jsonObject.optJSONObject("device");
-                    if (deviceJson != null) {
-                        device = new AppacitiveDevice();
-                        device.setSelf(deviceJson);
-                    }
-                    if (callback != null)
-                        callback.success(device);
-                } else {
-                    if (callback != null)
-                        callback.failure(null, new AppacitiveException(status));
-                }
+        asyncHttp.get(url, headers, new StreamingCallback() {
+            private AppacitiveDevice device = null;
 
+            @Override
+            protected boolean read(String name, APJSONReader reader) throws APJSONException, IOException {
+                if (name.equals("device") == false)
+                    return false;
+                device = new AppacitiveDevice();
+                device.setSelf(reader);
+                return true;
+            }
 
+            @Override
+            protected void success() {
+                if (callback != null)
+                    callback.success(device);
             }
 
             @Override
@@ -200,31 +229,42 @@ public class AppacitiveDevice extends AppacitiveObjectBase implements Serializab
         });
     }
 
+    public static APFuture<AppacitiveDevice> getAsync(long deviceId) {
+        APFuture<AppacitiveDevice> future = new APFuture<AppacitiveDevice>();
+        APCall call = future.beginCall();
+        try {
+            getInBackground(deviceId, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public void fetchLatestInBackground(final Callback<Void> callback) {
         LOGGER.info("Fetching latest device with id " + this.getId());
         final String url = Urls.ForDevice.getDeviceUrl(String.valueOf(this.getId())).toString();
         final Map<String, String> headers = Headers.assemble();
         final AppacitiveDevice device = this;
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
-        asyncHttp.get(url, headers, new APCallback() {
+        asyncHttp.get(url, headers, new StreamingCallback() {
+            private AppacitiveDevice latest = null;
+
             @Override
-            public void success(String result) {
-                APJSONObject jsonObject;
-                try {
-                    jsonObject = new APJSONObject(result);
-                } catch (APJSONException e) {
-                    throw new RuntimeException(e);
-                }
-                AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
-                if (status.isSuccessful()) {
-                    device.setSelf(jsonObject.optJSONObject("device"));
-                    if (callback != null)
-                        callback.success(null);
-                } else {
-                    if (callback != null)
-                        callback.failure(null, new AppacitiveException(status));
-                }
+            protected boolean read(String name, APJSONReader reader) throws APJSONException, IOException {
+                if (name.equals("device") == false)
+                    return false;
+                latest = new AppacitiveDevice();
+                latest.setSelf(reader);
+                return true;
+            }
 
+            @Override
+            protected void success() {
+                if (latest != null)
+                    device.replaceWith(latest);
+                AppacitiveEntityCache.evict("device", device.getId());
+                if (callback != null)
+                    callback.success(null);
             }
 
             @Override
@@ -235,35 +275,42 @@ public class AppacitiveDevice extends AppacitiveObjectBase implements Serializab
         });
     }
 
+    public APFuture<Void> fetchLatestAsync() {
+        APFuture<Void> future = new APFuture<Void>();
+        APCall call = future.beginCall();
+        try {
+            fetchLatestInBackground(future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void multiGetInBackground(List<Long> deviceIds, List<String> fields, final Callback<List<AppacitiveDevice>> callback) {
         LOGGER.info("Bulk fetching devices with ids " + StringUtils.joinLong(deviceIds, " , "));
         final String url = Urls.ForObject.multiGetObjectUrl("device", deviceIds, fields).toString();
         final Map<String, String> headers = Headers.assemble();
         final List<AppacitiveDevice> returnDevices = new ArrayList<AppacitiveDevice>();
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
-        asyncHttp.get(url, headers, new APCallback() {
+        asyncHttp.get(url, headers, new StreamingCallback() {
             @Override
-            public void success(String result) {
-                APJSONObject jsonObject;
-                try {
-                    jsonObject = new APJSONObject(result);
-                } catch (APJSONException e) {
-                    throw new RuntimeException(e);
+            protected boolean read(String name, APJSONReader reader) throws APJSONException, IOException {
+                if (name.equals("objects") == false)
+                    return false;
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    AppacitiveDevice device = new AppacitiveDevice();
+                    device.setSelf(reader);
+                    returnDevices.add(device);
                 }
-                AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
-                if (status.isSuccessful()) {
-                    APJSONArray objectsArray = jsonObject.optJSONArray("objects");
-                    if (objectsArray != null)
-                        for (int i = 0; i < objectsArray.length(); i++) {
-                            AppacitiveDevice device = new AppacitiveDevice();
-                            device.setSelf(objectsArray.optJSONObject(i));
-                            returnDevices.add(device);
-                        }
-                    if (callback != null)
-                        callback.success(returnDevices);
-                } else if (callback != null)
-                    callback.failure(null, new AppacitiveException(status));
+                reader.endArray();
+                return true;
+            }
 
+            @Override
+            protected void success() {
+                if (callback != null)
+                    callback.success(returnDevices);
             }
 
             @Override
@@ -274,39 +321,49 @@ public class AppacitiveDevice extends AppacitiveObjectBase implements Serializab
         });
     }
 
+    public static APFuture<List<AppacitiveDevice>> multiGetAsync(List<Long> deviceIds, List<String> fields) {
+        APFuture<List<AppacitiveDevice>> future = new APFuture<List<AppacitiveDevice>>();
+        APCall call = future.beginCall();
+        try {
+            multiGetInBackground(deviceIds, fields, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public void updateInBackground(boolean withRevision, final Callback<AppacitiveDevice> callback) {
         LOGGER.info("Updating device with id " + this.getId());
         final String url = Urls.ForDevice.updateDeviceUrl(this.getId(), withRevision, this.getRevision()).toString();
         final Map<String, String> headers = Headers.assemble();
-        final APJSONObject payload;
+        final byte[] payload;
         try {
-            payload = super.getUpdateCommand();
-            payload.put("__acls", this.accessControl.getMap());
+            payload = this.getUpdateRequestBytes();
         } catch (APJSONException e) {
             throw new RuntimeException(e);
         }
         final AppacitiveDevice device = this;
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
-        asyncHttp.post(url, headers, payload.toString(), new APCallback() {
+        asyncHttp.post(url, headers, payload, new StreamingCallback() {
+            private AppacitiveDevice latest = null;
+
             @Override
-            public void success(String result) {
-                APJSONObject jsonObject;
-                try {
-                    jsonObject = new APJSONObject(result);
-                } catch (APJSONException e) {
-                    throw new RuntimeException(e);
-                }
-                AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
-                if (status.isSuccessful()) {
-                    device.setSelf(jsonObject.optJSONObject("device"));
-                    if (callback != null) {
-                        callback.success(device);
-                    }
-                } else {
-                    if (callback != null)
-                        callback.failure(null, new AppacitiveException(status));
-                }
+            protected boolean read(String name, APJSONReader reader) throws APJSONException, IOException {
+                if (name.equals("device") == false)
+                    return false;
+                latest = new AppacitiveDevice();
+                latest.setSelf(reader);
+                return true;
+            }
 
+            @Override
+            protected void success() {
+                if (latest != null)
+                    device.replaceWith(latest);
+                AppacitiveEntityCache.evict("device", device.getId());
+                AppacitiveQueryCache.written("device");
+                if (callback != null)
+                    callback.success(device);
             }
 
             @Override
@@ -317,8 +374,25 @@ public class AppacitiveDevice extends AppacitiveObjectBase implements Serializab
         });
     }
 
+    public APFuture<AppacitiveDevice> updateAsync(boolean withRevision) {
+        APFuture<AppacitiveDevice> future = new APFuture<AppacitiveDevice>();
+        APCall call = future.beginCall();
+        try {
+            updateInBackground(withRevision, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public void deleteInBackground(boolean deleteConnections, final Callback<Void> callback) {
         LOGGER.info("Deleting device with id " + this.getId());
+        AppacitiveEntityCache.deleted("device", this.getId());
+        AppacitiveQueryCache.written("device");
+        if (deleteConnections) {
+            AppacitiveEntityCache.deletedConnectionsOf("device", this.getId());
+            AppacitiveQueryCache.allConnectionsWritten();
+        }
         final String url = Urls.ForDevice.deleteDeviceUrl(this.getId(), deleteConnections).toString();
         final Map<String, String> headers = Headers.assemble();
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
@@ -350,6 +424,17 @@ public class AppacitiveDevice extends AppacitiveObjectBase implements Serializab
         });
     }
 
+    public APFuture<Void> deleteAsync(boolean deleteConnections) {
+        APFuture<Void> future = new APFuture<Void>();
+        APCall call = future.beginCall();
+        try {
+            deleteInBackground(deleteConnections, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void findInBackground(AppacitiveQuery query, List<String> fields, final Callback<PagedList<AppacitiveDevice>> callback) {
         LOGGER.info("Searching for devices.");
         final String url = Urls.ForObject.findObjectsUrl("device", query, fields).toString();
@@ -357,30 +442,30 @@ public class AppacitiveDevice extends AppacitiveObjectBase implements Serializab
         final List<AppacitiveDevice> returnDevices = new ArrayList<AppacitiveDevice>();
         final PagedList<AppacitiveDevice> pagedResult = new PagedList<AppacitiveDevice>();
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
-        asyncHttp.get(url, headers, new APCallback() {
+        asyncHttp.get(url, headers, new StreamingCallback() {
             @Override
-            public void success(String result) {
-                APJSONObject jsonObject;
-                try {
-                    jsonObject = new APJSONObject(result);
-                } catch (APJSONException e) {
-                    throw new RuntimeException(e);
+            protected boolean read(String name, APJSONReader reader) throws APJSONException, IOException {
+                if (name.equals("paginginfo")) {
+                    pagedResult.pagingInfo.setSelf(reader.readObject());
+                    return true;
                 }
-                AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
-                if (status.isSuccessful()) {
-                    APJSONArray objectsArray = jsonObject.optJSONArray("objects");
-                    for (int i = 0; i < objectsArray.length(); i++) {
-                        AppacitiveDevice device = new AppacitiveDevice();
-                        device.setSelf(objectsArray.optJSONObject(i));
-                        returnDevices.add(device);
-                    }
-                    pagedResult.results = returnDevices;
-                    pagedResult.pagingInfo.setSelf(jsonObject.optJSONObject("paginginfo"));
-                    if (callback != null)
-                        callback.success(pagedResult);
-                } else if (callback != null)
-                    callback.failure(null, new AppacitiveException(status));
+                if (name.equals("objects") == false)
+                    return false;
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    AppacitiveDevice device = new AppacitiveDevice();
+                    device.setSelf(reader);
+                    returnDevices.add(device);
+                }
+                reader.endArray();
+                return true;
+            }
 
+            @Override
+            protected void success() {
+                pagedResult.results = returnDevices;
+                if (callback != null)
+                    callback.success(pagedResult);
             }
 
             @Override
@@ -390,4 +475,15 @@ public class AppacitiveDevice extends AppacitiveObjectBase implements Serializab
             }
         });
     }
+
+    public static APFuture<PagedList<AppacitiveDevice>> findAsync(AppacitiveQuery query, List<String> fields) {
+        APFuture<PagedList<AppacitiveDevice>> future = new APFuture<PagedList<AppacitiveDevice>>();
+        APCall call = future.beginCall();
+        try {
+            findInBackground(query, fields, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
 }
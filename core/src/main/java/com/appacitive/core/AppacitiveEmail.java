@@ -181,6 +181,17 @@ public class AppacitiveEmail implements Serializable {
         });
     }
 
+    public APFuture<AppacitiveEmail> sendAsync() {
+        APFuture<AppacitiveEmail> future = new APFuture<AppacitiveEmail>();
+        APCall call = future.beginCall();
+        try {
+            sendInBackground(future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
 //    public Future<AppacitiveEmail> sendInBackground() {
 //        final String url = Urls.Misc.sendEmailUrl().toString();
 //        final Map<String, String> headers = Headers.assemble();
@@ -6,16 +6,17 @@ package com.appacitive.core;
 import com.appacitive.core.apjson.APJSONArray;
 import com.appacitive.core.apjson.APJSONException;
 import com.appacitive.core.apjson.APJSONObject;
+import com.appacitive.core.apjson.APJSONReader;
+import com.appacitive.core.apjson.APJSONToken;
+import com.appacitive.core.apjson.APJSONWriter;
 import com.appacitive.core.infra.APSerializable;
+import com.appacitive.core.infra.DateTimeHelper;
 import com.appacitive.core.infra.SystemDefinedPropertiesHelper;
 import org.joda.time.DateTime;
-import org.joda.time.format.DateTimeFormat;
-import org.joda.time.format.DateTimeFormatter;
 
+import java.io.IOException;
 import java.io.Serializable;
-import java.text.DateFormat;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -61,17 +62,8 @@ public abstract class AppacitiveEntity implements Serializable, APSerializable {
             this.createdBy = entity.optString(SystemDefinedPropertiesHelper.createdBy, null);
 
             this.lastModifiedBy = entity.optString(SystemDefinedPropertiesHelper.lastModifiedBy, null);
-            DateFormat dateTimeFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSSSSS'Z'");
-            try {
-                this.utcDateCreated = dateTimeFormat.parse(entity.optString(SystemDefinedPropertiesHelper.utcDateCreated, ""));
-            } catch (ParseException e) {
-                this.utcDateCreated = null;
-            }
-            try {
-                this.utcLastUpdated = dateTimeFormat.parse(entity.optString(SystemDefinedPropertiesHelper.utcLastUpdatedDate, ""));
-            } catch (ParseException e) {
-                this.utcLastUpdated = null;
-            }
+            this.utcDateCreated = parseSystemDate(entity.optString(SystemDefinedPropertiesHelper.utcDateCreated, ""));
+            this.utcLastUpdated = parseSystemDate(entity.optString(SystemDefinedPropertiesHelper.utcLastUpdatedDate, ""));
             if (entity.isNull(SystemDefinedPropertiesHelper.tags) == false) {
                 APJSONArray tagsArray = entity.optJSONArray(SystemDefinedPropertiesHelper.tags);
                 for (int i = 0; i < tagsArray.length(); i++) {
@@ -104,6 +96,143 @@ public abstract class AppacitiveEntity implements Serializable, APSerializable {
         }
     }
 
+    /**
+     * Fills this entity straight from the token stream, positioned at the start of the entity's json object,
+     * without building an intermediate {@link APJSONObject}. The result is the same as {@link #setSelf(APJSONObject)}.
+     */
+    public synchronized void setSelf(APJSONReader reader) throws APJSONException, IOException {
+        //  Freshly constructed entities, the common case when binding responses, have nothing to wipe out.
+        if (this.properties.isEmpty() == false)
+            this.properties = new ConcurrentHashMap<String, Object>();
+        if (this.attributes.isEmpty() == false)
+            this.attributes = new ConcurrentHashMap<String, String>();
+        if (this.tags.isEmpty() == false)
+            this.tags = new ArrayList<String>();
+        this.id = 0;
+        this.revision = 0;
+        this.createdBy = null;
+        this.lastModifiedBy = null;
+        this.utcDateCreated = null;
+        this.utcLastUpdated = null;
+
+        if (this.hasUpdateCommands())
+            this.resetUpdateCommands();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == APJSONToken.NULL)
+                reader.skipValue();
+            else
+                readProperty(name, reader);
+        }
+        reader.endObject();
+    }
+
+    /**
+     * Reads the value of one non null property of this entity's json object.
+     * Subclasses handle their own system properties and pass everything else on.
+     */
+    protected void readProperty(String name, APJSONReader reader) throws APJSONException, IOException {
+        if (name.equals(SystemDefinedPropertiesHelper.id))
+            this.id = reader.nextLong();
+        else if (name.equals(SystemDefinedPropertiesHelper.revision))
+            this.revision = reader.nextLong();
+        else if (name.equals(SystemDefinedPropertiesHelper.createdBy))
+            this.createdBy = reader.nextString();
+        else if (name.equals(SystemDefinedPropertiesHelper.lastModifiedBy))
+            this.lastModifiedBy = reader.nextString();
+        else if (name.equals(SystemDefinedPropertiesHelper.utcDateCreated))
+            this.utcDateCreated = parseSystemDate(reader.nextString());
+        else if (name.equals(SystemDefinedPropertiesHelper.utcLastUpdatedDate))
+            this.utcLastUpdated = parseSystemDate(reader.nextString());
+        else if (name.equals(SystemDefinedPropertiesHelper.tags)) {
+            reader.beginArray();
+            while (reader.hasNext())
+                this.tags.add(String.valueOf(reader.readValue()));
+            reader.endArray();
+        } else if (name.equals(SystemDefinedPropertiesHelper.attributes)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String key = reader.nextName();
+                this.attributes.put(key, String.valueOf(reader.readValue()));
+            }
+            reader.endObject();
+        } else if (SystemDefinedPropertiesHelper.ConnectionSystemProperties.contains(name) || SystemDefinedPropertiesHelper.ObjectSystemProperties.contains(name))
+            reader.skipValue();
+        else {
+            Object propertyValue = reader.readValue();
+            if (propertyValue instanceof APJSONArray)
+                this.properties.put(name, ((APJSONArray) propertyValue).values);
+            else this.properties.put(name, propertyValue);
+        }
+    }
+
+    /**
+     * Replaces this entity's state with that of {@code latest}, freshly bound from a response with
+     * {@link #setSelf(APJSONReader)}, as {@link #setSelf(APJSONObject)} would have from the same json. Lets a
+     * response for this entity be bound off the delivering thread and applied only once its status is known.
+     * {@code latest} is not to be used afterwards, as its collections are taken over rather than copied.
+     * Subclasses replace their own fields and pass on to this.
+     */
+    protected synchronized void replaceWith(AppacitiveEntity latest) {
+        this.properties = latest.properties;
+        this.attributes = latest.attributes;
+        this.tags = latest.tags;
+        this.id = latest.id;
+        this.revision = latest.revision;
+        this.createdBy = latest.createdBy;
+        this.lastModifiedBy = latest.lastModifiedBy;
+        this.utcDateCreated = latest.utcDateCreated;
+        this.utcLastUpdated = latest.utcLastUpdated;
+
+        if (this.hasUpdateCommands())
+            this.resetUpdateCommands();
+    }
+
+    /**
+     * Returns a detached copy of this entity's state, leaving out any changes pending an update.
+     */
+    protected synchronized AppacitiveEntity copy() {
+        AppacitiveEntity copy = newInstance();
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    /**
+     * Returns a new, empty instance of this entity's class for {@link #copy()}.
+     */
+    protected abstract AppacitiveEntity newInstance();
+
+    /**
+     * Copies the state of the given entity into this one, which is freshly constructed.
+     * Subclasses copy their own fields and pass on to this.
+     */
+    protected void copyFrom(AppacitiveEntity source) {
+        this.id = source.id;
+        this.revision = source.revision;
+        this.createdBy = source.createdBy;
+        this.lastModifiedBy = source.lastModifiedBy;
+        this.utcDateCreated = source.utcDateCreated == null ? null : new Date(source.utcDateCreated.getTime());
+        this.utcLastUpdated = source.utcLastUpdated == null ? null : new Date(source.utcLastUpdated.getTime());
+        this.tags.addAll(source.tags);
+        this.attributes.putAll(source.attributes);
+        for (Map.Entry<String, Object> property : source.properties.entrySet()) {
+            if (property.getValue() instanceof List)
+                this.properties.put(property.getKey(), new ArrayList<Object>((List<?>) property.getValue()));
+            else
+                this.properties.put(property.getKey(), property.getValue());
+        }
+    }
+
+    private static Date parseSystemDate(String date) {
+        try {
+            return DateTimeHelper.parseDate(date);
+        } catch (ParseException e) {
+            return null;
+        }
+    }
+
     public synchronized APJSONObject getMap() throws APJSONException {
         APJSONObject jsonObject = new APJSONObject();
 
@@ -139,6 +268,93 @@ public abstract class AppacitiveEntity implements Serializable, APSerializable {
         return jsonObject;
     }
 
+    /**
+     * Writes the same json as {@link #getMap()} straight to the writer, without building the tree.
+     */
+    public synchronized void writeMap(APJSONWriter writer) throws APJSONException, IOException {
+        writer.beginObject();
+        writeMapFields(writer);
+        writer.endObject();
+    }
+
+    /**
+     * Returns {@link #writeMap(APJSONWriter)} as utf-8 bytes, ready to be sent.
+     */
+    public synchronized byte[] getMapBytes() throws APJSONException {
+        APJSONWriter writer = new APJSONWriter();
+        try {
+            writeMap(writer);
+        } catch (IOException e) {
+            //  Only in-memory output is involved.
+            throw new RuntimeException(e);
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * Writes the fields of {@link #getMap()}, inside the entity's object. Subclasses append their own fields.
+     */
+    protected void writeMapFields(APJSONWriter writer) throws APJSONException, IOException {
+        if (this.id > 0 && isReplacedInMap(SystemDefinedPropertiesHelper.id) == false)
+            writer.name(SystemDefinedPropertiesHelper.id).value(String.valueOf(this.id));
+        if (this.revision > 0 && isReplacedInMap(SystemDefinedPropertiesHelper.revision) == false)
+            writer.name(SystemDefinedPropertiesHelper.revision).value(String.valueOf(this.revision));
+        if (this.createdBy != null && this.createdBy.isEmpty() == false && isReplacedInMap(SystemDefinedPropertiesHelper.createdBy) == false)
+            writer.name(SystemDefinedPropertiesHelper.createdBy).value(this.createdBy);
+        if (this.lastModifiedBy != null && this.lastModifiedBy.isEmpty() == false && isReplacedInMap(SystemDefinedPropertiesHelper.lastModifiedBy) == false)
+            writer.name(SystemDefinedPropertiesHelper.lastModifiedBy).value(this.lastModifiedBy);
+        if (this.utcDateCreated != null && isReplacedInMap(SystemDefinedPropertiesHelper.utcDateCreated) == false)
+            writer.name(SystemDefinedPropertiesHelper.utcDateCreated).value(this.utcDateCreated);
+        if (this.utcLastUpdated != null && isReplacedInMap(SystemDefinedPropertiesHelper.utcLastUpdatedDate) == false)
+            writer.name(SystemDefinedPropertiesHelper.utcLastUpdatedDate).value(this.utcLastUpdated);
+        if (this.tags != null && tags.size() != 0 && isReplacedInMap(SystemDefinedPropertiesHelper.tags) == false) {
+            writer.name(SystemDefinedPropertiesHelper.tags);
+            writeList(writer, this.tags);
+        }
+        if (this.attributes != null && this.attributes.size() > 0 && isReplacedInMap(SystemDefinedPropertiesHelper.attributes) == false) {
+            writer.name(SystemDefinedPropertiesHelper.attributes).beginObject();
+            for (Map.Entry<String, String> attribute : this.attributes.entrySet())
+                writer.name(attribute.getKey()).value(attribute.getValue());
+            writer.endObject();
+        }
+        if (this.properties != null)
+            for (Map.Entry<String, Object> property : this.properties.entrySet()) {
+                if (isWrittenBySubclass(property.getKey(), false))
+                    continue;
+                writer.name(property.getKey());
+                writeValue(writer, property.getValue());
+            }
+    }
+
+    /**
+     * Whether a subclass writes {@code name} itself after the base fields. In the tree its put replaced the base
+     * entry, so the base entry is left out of the stream.
+     */
+    protected boolean isWrittenBySubclass(String name, boolean updateCommand) {
+        return false;
+    }
+
+    //  A property of the same name, or a subclass field, replaced this base field in the tree.
+    private boolean isReplacedInMap(String name) {
+        return (this.properties != null && this.properties.containsKey(name)) || isWrittenBySubclass(name, false);
+    }
+
+    private static void writeValue(APJSONWriter writer, Object value) throws APJSONException, IOException {
+        if (value == null)
+            writer.nullValue();
+        else if (value instanceof List)
+            writeList(writer, (List) value);
+        else
+            writer.value(value);
+    }
+
+    private static void writeList(APJSONWriter writer, List<?> values) throws APJSONException, IOException {
+        writer.beginArray();
+        for (Object value : values)
+            writer.value(value);
+        writer.endArray();
+    }
+
     public synchronized void setId(long id) {
         this.id = id;
     }
@@ -252,13 +468,11 @@ public abstract class AppacitiveEntity implements Serializable, APSerializable {
 //    }
 
     public synchronized void setDateTimeProperty(String propertyName, Date propertyValue) {
-        DateFormat dateTimeFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSSSSS'Z'");
-        this.setStringProperty(propertyName, dateTimeFormat.format(propertyValue));
+        this.setStringProperty(propertyName, DateTimeHelper.format(propertyValue));
     }
 
     public synchronized void setJodaDateTimeProperty(String propertyName, DateTime propertyValue) {
-        DateTimeFormatter fmt = DateTimeFormat.forPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSSS'Z'");
-        this.setStringProperty(propertyName, propertyValue.toString(fmt));
+        this.setStringProperty(propertyName, DateTimeHelper.format(propertyValue));
     }
 
     public synchronized void setGeoProperty(String propertyName, double[] coordinates) {
@@ -323,9 +537,8 @@ public abstract class AppacitiveEntity implements Serializable, APSerializable {
         if (datetimeValue == null)
             return null;
 
-        DateFormat dateTimeFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSSSSS'Z'");
         try {
-            return dateTimeFormat.parse(datetimeValue);
+            return DateTimeHelper.parseDate(datetimeValue);
         } catch (ParseException e) {
             throw new RuntimeException(e.getMessage());
         }
@@ -336,8 +549,7 @@ public abstract class AppacitiveEntity implements Serializable, APSerializable {
         if (datetimeValue == null)
             return null;
 
-        DateTimeFormatter fmt = DateTimeFormat.forPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSSS'Z'");
-        return fmt.parseDateTime(datetimeValue);
+        return DateTimeHelper.parseDateTime(datetimeValue);
     }
 
     public synchronized double[] getPropertyAsGeo(String propertyName) {
@@ -585,6 +797,156 @@ public abstract class AppacitiveEntity implements Serializable, APSerializable {
         return updateCommand;
     }
 
+    /**
+     * Writes the same json as {@link #getUpdateCommand()} straight to the writer, without building the tree.
+     */
+    public synchronized void writeUpdateCommand(APJSONWriter writer) throws APJSONException, IOException {
+        writer.beginObject();
+        writeUpdateCommandFields(writer);
+        writer.endObject();
+    }
+
+    /**
+     * Returns {@link #writeUpdateCommand(APJSONWriter)} as utf-8 bytes, ready to be sent.
+     */
+    public synchronized byte[] getUpdateCommandBytes() throws APJSONException {
+        APJSONWriter writer = new APJSONWriter();
+        try {
+            writeUpdateCommand(writer);
+        } catch (IOException e) {
+            //  Only in-memory output is involved.
+            throw new RuntimeException(e);
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * Returns the update command as this class builds it, without the fields subclasses append, as utf-8 bytes.
+     */
+    protected synchronized byte[] getEntityUpdateCommandBytes() throws APJSONException {
+        APJSONWriter writer = new APJSONWriter();
+        try {
+            writer.beginObject();
+            writeEntityUpdateCommandFields(writer, false);
+            writer.endObject();
+        } catch (IOException e) {
+            //  Only in-memory output is involved.
+            throw new RuntimeException(e);
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * Writes the fields of {@link #getUpdateCommand()}, inside the entity's object. Subclasses append their own fields.
+     */
+    protected void writeUpdateCommandFields(APJSONWriter writer) throws APJSONException, IOException {
+        writeEntityUpdateCommandFields(writer, true);
+    }
+
+    private void writeEntityUpdateCommandFields(APJSONWriter writer, boolean withSubclassFields) throws APJSONException, IOException {
+        //  In the tree a later put of the same name replaced an earlier one, so only the last entry of each name is written.
+        boolean[] written = lastUpdates(withSubclassFields);
+        int index = 0;
+        if (this.id > 0 && written[index++])
+            writer.name(SystemDefinedPropertiesHelper.id).value(String.valueOf(this.id));
+        if (this.tagsAdded != null && this.tagsAdded.size() > 0 && written[index++]) {
+            writer.name("__addtags");
+            writeList(writer, this.tagsAdded);
+        }
+        if (this.tagsRemoved != null && this.tagsRemoved.size() > 0 && written[index++]) {
+            writer.name("__removetags");
+            writeList(writer, this.tagsRemoved);
+        }
+        if (this.attributesChanged.size() > 0 && written[index++]) {
+            writer.name(SystemDefinedPropertiesHelper.attributes).beginObject();
+            for (Map.Entry<String, String> attribute : this.attributesChanged.entrySet())
+                writer.name(attribute.getKey()).value(attribute.getValue());
+            writer.endObject();
+        }
+        for (Map.Entry<String, Object> property : this.propertiesChanged.entrySet()) {
+            if (written[index++] == false)
+                continue;
+            writer.name(property.getKey());
+            writeValue(writer, property.getValue() == null || property.getValue().equals(null) ? null : property.getValue());
+        }
+        for (IntegerPropertyIncrement incr : this.integerPropertyIncrements)
+            if (written[index++])
+                writer.name(incr.propertyName).beginObject().name("incrementby").value(incr.increment).endObject();
+        for (IntegerPropertyDecrement decr : this.integerPropertyDecrements)
+            if (written[index++])
+                writer.name(decr.propertyName).beginObject().name("decrementby").value(decr.decrement).endObject();
+        for (DecimalPropertyIncrement incr : this.decimalPropertyIncrements)
+            if (written[index++])
+                writer.name(incr.propertyName).beginObject().name("incrementby").value(incr.increment).endObject();
+        for (DecimalPropertyDecrement decr : this.decimalPropertyDecrements)
+            if (written[index++])
+                writer.name(decr.propertyName).beginObject().name("decrementby").value(decr.decrement).endObject();
+        index = writeItems(writer, this.addedItemses, "additems", written, index);
+        index = writeItems(writer, this.uniquelyAddedItemses, "adduniqueitems", written, index);
+        writeItems(writer, this.removedItemses, "removeitems", written, index);
+    }
+
+    private int writeItems(APJSONWriter writer, List<ItemsCollection> itemses, String operation, boolean[] written, int index) throws APJSONException, IOException {
+        for (ItemsCollection itemsCollection : itemses) {
+            if (written[index++] == false)
+                continue;
+            writer.name(itemsCollection.propertyName).beginObject().name(operation);
+            writeList(writer, itemsCollection.addedItems);
+            writer.endObject();
+        }
+        return index;
+    }
+
+    //  Names of the base update command entries, in the order getUpdateCommand() puts them.
+    private List<String> updateCommandNames() {
+        List<String> names = new ArrayList<String>();
+        if (this.id > 0)
+            names.add(SystemDefinedPropertiesHelper.id);
+        if (this.tagsAdded != null && this.tagsAdded.size() > 0)
+            names.add("__addtags");
+        if (this.tagsRemoved != null && this.tagsRemoved.size() > 0)
+            names.add("__removetags");
+        if (this.attributesChanged.size() > 0)
+            names.add(SystemDefinedPropertiesHelper.attributes);
+        names.addAll(this.propertiesChanged.keySet());
+        for (IntegerPropertyIncrement incr : this.integerPropertyIncrements)
+            names.add(incr.propertyName);
+        for (IntegerPropertyDecrement decr : this.integerPropertyDecrements)
+            names.add(decr.propertyName);
+        for (DecimalPropertyIncrement incr : this.decimalPropertyIncrements)
+            names.add(incr.propertyName);
+        for (DecimalPropertyDecrement decr : this.decimalPropertyDecrements)
+            names.add(decr.propertyName);
+        for (ItemsCollection itemsCollection : this.addedItemses)
+            names.add(itemsCollection.propertyName);
+        for (ItemsCollection itemsCollection : this.uniquelyAddedItemses)
+            names.add(itemsCollection.propertyName);
+        for (ItemsCollection itemsCollection : this.removedItemses)
+            names.add(itemsCollection.propertyName);
+        return names;
+    }
+
+    //  Whether each entry of updateCommandNames() is the last of its name, and so makes it into the command.
+    private boolean[] lastUpdates(boolean withSubclassFields) {
+        List<String> names = updateCommandNames();
+        Map<String, Integer> lastIndex = new HashMap<String, Integer>();
+        for (int i = 0; i < names.size(); i++)
+            lastIndex.put(names.get(i), i);
+        boolean[] written = new boolean[names.size()];
+        for (Map.Entry<String, Integer> last : lastIndex.entrySet())
+            written[last.getValue()] = withSubclassFields == false || isWrittenBySubclass(last.getKey(), true) == false;
+        return written;
+    }
+
+    private boolean hasUpdateCommands() {
+        return this.propertiesChanged.isEmpty() == false || this.attributesChanged.isEmpty() == false
+                || this.tagsAdded.isEmpty() == false || this.tagsRemoved.isEmpty() == false
+                || this.integerPropertyIncrements.isEmpty() == false || this.integerPropertyDecrements.isEmpty() == false
+                || this.decimalPropertyIncrements.isEmpty() == false || this.decimalPropertyDecrements.isEmpty() == false
+                || this.addedItemses.isEmpty() == false || this.uniquelyAddedItemses.isEmpty() == false
+                || this.removedItemses.isEmpty() == false;
+    }
+
     protected synchronized void resetUpdateCommands() {
         this.propertiesChanged = new HashMap<String, Object>();
         this.attributesChanged = new HashMap<String, String>();
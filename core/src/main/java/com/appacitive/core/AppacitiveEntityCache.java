@@ -0,0 +1,336 @@
+package com.appacitive.core;
+
+import com.appacitive.core.infra.APDispatcher;
+import com.appacitive.core.infra.APMetrics;
+import com.appacitive.core.model.AppacitiveEndpoint;
+import com.appacitive.core.model.AppacitiveObjectBase;
+import com.appacitive.core.model.Callback;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory cache of objects and connections, keyed by type (or relation type) and id. Opt in with
+ * {@link AppacitiveContextBase#setEntityCache(AppacitiveEntityCache)}.
+ * <p/>
+ * Once enabled, {@code getInBackground} and {@code multiGetInBackground} calls without a field list are served from
+ * the cache where possible. Successful creates, updates, fetches and gets store what the api returned, and deletes
+ * evict. An entry is never replaced by one with a lower {@code __revision}, so a response that was in flight while
+ * an update went through cannot bring back the older state. Likewise a delete leaves a marker behind for
+ * {@code timeToLive}, so that a get that was in flight cannot store the deleted entity, or a connection of an object
+ * deleted along with its connections, back. The cache holds detached copies: callers always get a fresh instance,
+ * and changes they make are not seen by the cache until saved.
+ * <p/>
+ * A hit is delivered like a response, through {@link APDispatcher#dispatch(Runnable)}, and never on the thread that
+ * made the call.
+ * <p/>
+ * Entries are evicted least recently used first once {@code maxEntries} is reached, and expire {@code timeToLive}
+ * after they were stored. Hits and misses are counted here and recorded in {@link APMetrics} as
+ * {@link #HITS} and {@link #MISSES}.
+ */
+public class AppacitiveEntityCache {
+
+    public static final String HITS = "cache.entity.hits";
+
+    public static final String MISSES = "cache.entity.misses";
+
+    private static final String CONNECTION_PREFIX = "relation:";
+
+    private static final String ENDPOINT_PREFIX = "endpoint:";
+
+    private final int maxEntries;
+
+    private final long timeToLiveNanos;
+
+    private final Map<String, Entry> entries;
+
+    //  When the marker of each deleted entity expires, see put(String, AppacitiveEntity).
+    private final Map<String, Long> deleted;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    private static class Entry {
+
+        final AppacitiveEntity entity;
+
+        final long expiresAt;
+
+        Entry(AppacitiveEntity entity, long expiresAt) {
+            this.entity = entity;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public AppacitiveEntityCache(int maxEntries, long timeToLive, TimeUnit unit) {
+        if (maxEntries <= 0)
+            throw new IllegalArgumentException("maxEntries must be positive.");
+        if (timeToLive <= 0)
+            throw new IllegalArgumentException("timeToLive must be positive.");
+        this.maxEntries = maxEntries;
+        this.timeToLiveNanos = unit.toNanos(timeToLive);
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= AppacitiveEntityCache.this.maxEntries)
+                    return false;
+                evictions.incrementAndGet();
+                return true;
+            }
+        };
+        this.deleted = new LinkedHashMap<String, Long>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > AppacitiveEntityCache.this.maxEntries;
+            }
+        };
+    }
+
+    private static String objectKey(String type, long id) {
+        return type + ":" + id;
+    }
+
+    private static String connectionKey(String relationType, long id) {
+        return CONNECTION_PREFIX + relationType + ":" + id;
+    }
+
+    AppacitiveObjectBase getObject(String type, long id) {
+        return (AppacitiveObjectBase) get(objectKey(type, id));
+    }
+
+    AppacitiveConnection getConnection(String relationType, long id) {
+        return (AppacitiveConnection) get(connectionKey(relationType, id));
+    }
+
+    void putObject(AppacitiveObjectBase object) {
+        if (object.getType() != null && object.getId() > 0)
+            put(objectKey(object.getType(), object.getId()), object);
+    }
+
+    void putConnection(AppacitiveConnection connection) {
+        if (connection.getRelationType() == null || connection.getId() <= 0)
+            return;
+        synchronized (this) {
+            if (isDeleted(endpointKey(connection.endpointA)) || isDeleted(endpointKey(connection.endpointB)))
+                return;
+        }
+        put(connectionKey(connection.getRelationType(), connection.getId()), connection);
+    }
+
+    //  Endpoints read without a type cannot be told apart from those of other types.
+    private static String endpointKey(AppacitiveEndpoint endpoint) {
+        return endpoint == null || endpoint.type == null ? null : ENDPOINT_PREFIX + objectKey(endpoint.type, endpoint.objectId);
+    }
+
+    private synchronized void markDeleted(String key) {
+        entries.remove(key);
+        deleted.put(key, System.nanoTime() + timeToLiveNanos);
+    }
+
+    private boolean isDeleted(String key) {
+        if (key == null)
+            return false;
+        Long expiresAt = deleted.get(key);
+        if (expiresAt == null)
+            return false;
+        if (expiresAt - System.nanoTime() > 0)
+            return true;
+        deleted.remove(key);
+        return false;
+    }
+
+    public void invalidate(String type, long id) {
+        remove(objectKey(type, id));
+    }
+
+    public void invalidateConnection(String relationType, long id) {
+        remove(connectionKey(relationType, id));
+    }
+
+    /**
+     * Drops the connections of any relation with the object of {@code type} and {@code id} as an endpoint, as
+     * deleting the object with its connections deletes them.
+     */
+    public synchronized void invalidateConnectionsOf(String type, long id) {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Entry> entry = iterator.next();
+            if (entry.getKey().startsWith(CONNECTION_PREFIX) == false)
+                continue;
+            AppacitiveConnection connection = (AppacitiveConnection) entry.getValue().entity;
+            if (isEndpoint(connection.endpointA, type, id) || isEndpoint(connection.endpointB, type, id))
+                iterator.remove();
+        }
+    }
+
+    //  Endpoints read without a type still match by id.
+    private static boolean isEndpoint(AppacitiveEndpoint endpoint, String type, long id) {
+        return endpoint != null && endpoint.objectId == id && (endpoint.type == null || endpoint.type.equals(type));
+    }
+
+    private AppacitiveEntity get(String key) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() <= 0) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            APMetrics.increment(MISSES);
+            return null;
+        }
+        hits.incrementAndGet();
+        APMetrics.increment(HITS);
+        return entry.entity.copy();
+    }
+
+    private void put(String key, AppacitiveEntity entity) {
+        Entry entry = new Entry(entity.copy(), System.nanoTime() + timeToLiveNanos);
+        synchronized (this) {
+            if (isDeleted(key))
+                return;
+            Entry existing = entries.get(key);
+            if (existing != null && existing.entity.getRevision() > entry.entity.getRevision())
+                return;
+            entries.put(key, entry);
+        }
+    }
+
+    private synchronized void remove(String key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Drops expired entries. Expired entries are otherwise only dropped when looked up or pushed out by new ones.
+     */
+    public synchronized void purgeExpired() {
+        long now = System.nanoTime();
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().expiresAt - now <= 0)
+                iterator.remove();
+        }
+        Iterator<Long> markers = deleted.values().iterator();
+        while (markers.hasNext()) {
+            if (markers.next() - now <= 0)
+                markers.remove();
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        deleted.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    //  Helpers for the entity classes, which do nothing while no cache is set.
+
+    //  Cached and fetched entities in the order their ids were asked for. Ids the api did not return are left out.
+    static <T extends AppacitiveEntity> List<T> inRequestOrder(List<Long> ids, Map<Long, T> cached, List<T> fetched) {
+        Map<Long, T> byId = new HashMap<Long, T>(cached);
+        for (T entity : fetched)
+            byId.put(entity.getId(), entity);
+        List<T> result = new ArrayList<T>(ids.size());
+        for (long id : ids) {
+            T entity = byId.get(id);
+            if (entity != null)
+                result.add(entity);
+        }
+        return result;
+    }
+
+    static AppacitiveObjectBase cachedObject(String type, long id, List<String> fields) {
+        AppacitiveEntityCache cache = AppacitiveContextBase.getEntityCache();
+        if (cache == null || (fields != null && fields.isEmpty() == false))
+            return null;
+        return cache.getObject(type, id);
+    }
+
+    static AppacitiveConnection cachedConnection(String relationType, long id, List<String> fields) {
+        AppacitiveEntityCache cache = AppacitiveContextBase.getEntityCache();
+        if (cache == null || (fields != null && fields.isEmpty() == false))
+            return null;
+        return cache.getConnection(relationType, id);
+    }
+
+    static void store(AppacitiveObjectBase object) {
+        AppacitiveEntityCache cache = AppacitiveContextBase.getEntityCache();
+        if (cache != null)
+            cache.putObject(object);
+    }
+
+    static void store(AppacitiveConnection connection) {
+        AppacitiveEntityCache cache = AppacitiveContextBase.getEntityCache();
+        if (cache != null)
+            cache.putConnection(connection);
+    }
+
+    static void evict(String type, long id) {
+        AppacitiveEntityCache cache = AppacitiveContextBase.getEntityCache();
+        if (cache != null)
+            cache.invalidate(type, id);
+    }
+
+    static void deleted(String type, long id) {
+        AppacitiveEntityCache cache = AppacitiveContextBase.getEntityCache();
+        if (cache != null)
+            cache.markDeleted(objectKey(type, id));
+    }
+
+    static void deletedConnection(String relationType, long id) {
+        AppacitiveEntityCache cache = AppacitiveContextBase.getEntityCache();
+        if (cache != null)
+            cache.markDeleted(connectionKey(relationType, id));
+    }
+
+    static void deletedConnectionsOf(String type, long id) {
+        AppacitiveEntityCache cache = AppacitiveContextBase.getEntityCache();
+        if (cache != null) {
+            cache.invalidateConnectionsOf(type, id);
+            cache.markDeleted(ENDPOINT_PREFIX + objectKey(type, id));
+        }
+    }
+
+    //  Hands a hit to the callback the way a response would be.
+    static <T> void deliver(final Callback<T> callback, final T result) {
+        if (callback == null)
+            return;
+        APDispatcher.dispatch(new Runnable() {
+            @Override
+            public void run() {
+                callback.success(result);
+            }
+        });
+    }
+}
@@ -3,8 +3,10 @@ package com.appacitive.core;
 import com.appacitive.core.apjson.APJSONException;
 import com.appacitive.core.apjson.APJSONObject;
 import com.appacitive.core.exceptions.AppacitiveException;
+import com.appacitive.core.infra.APCall;
 import com.appacitive.core.infra.APCallback;
 import com.appacitive.core.infra.APContainer;
+import com.appacitive.core.infra.APFuture;
 import com.appacitive.core.infra.Headers;
 import com.appacitive.core.infra.Urls;
 import com.appacitive.core.interfaces.AsyncHttp;
@@ -71,6 +73,17 @@ public class AppacitiveFile implements Serializable {
         });
     }
 
+    public static APFuture<FileUploadUrlResponse> getUploadUrlAsync(String contentType, String fileName, int expires) {
+        APFuture<FileUploadUrlResponse> future = new APFuture<FileUploadUrlResponse>();
+        APCall call = future.beginCall();
+        try {
+            getUploadUrlInBackground(contentType, fileName, expires, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void getDownloadUrlInBackground(String fileId, int expires, final Callback<String> callback) {
         LOGGER.info("Getting download URL.");
         String url = Urls.ForFile.getDownloadUrl(fileId).toString();
@@ -111,6 +124,17 @@ public class AppacitiveFile implements Serializable {
         });
     }
 
+    public static APFuture<String> getDownloadUrlAsync(String fileId, int expires) {
+        APFuture<String> future = new APFuture<String>();
+        APCall call = future.beginCall();
+        try {
+            getDownloadUrlInBackground(fileId, expires, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void deleteFileInBackground(String fileId, final Callback<Void> callback) {
         LOGGER.info("Deleting file.");
         final String url = Urls.ForFile.getDeleteUrl(fileId).toString();
@@ -144,4 +168,15 @@ public class AppacitiveFile implements Serializable {
             }
         });
     }
+
+    public static APFuture<Void> deleteFileAsync(String fileId) {
+        APFuture<Void> future = new APFuture<Void>();
+        APCall call = future.beginCall();
+        try {
+            deleteFileInBackground(fileId, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
 }
@@ -73,6 +73,17 @@ public class AppacitiveGraphSearch implements Serializable {
         });
     }
 
+    public static APFuture<List<Long>> filterQueryAsync(String queryName, final Map<String, String> placeHolders) {
+        APFuture<List<Long>> future = new APFuture<List<Long>>();
+        APCall call = future.beginCall();
+        try {
+            filterQueryInBackground(queryName, placeHolders, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void projectQueryInBackground(String queryName, final List<Long> ids, final Map<String, String> placeHolders, final Callback<List<AppacitiveGraphNode>> callback) {
         LOGGER.info("Executing project query with name " + queryName);
         final String url = Urls.Misc.projectQueryUrl(queryName).toString();
@@ -129,6 +140,17 @@ public class AppacitiveGraphSearch implements Serializable {
         });
     }
 
+    public static APFuture<List<AppacitiveGraphNode>> projectQueryAsync(String queryName, final List<Long> ids, final Map<String, String> placeHolders) {
+        APFuture<List<AppacitiveGraphNode>> future = new APFuture<List<AppacitiveGraphNode>>();
+        APCall call = future.beginCall();
+        try {
+            projectQueryInBackground(queryName, ids, placeHolders, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     private static List<AppacitiveGraphNode> parseProjectionResult(APJSONArray values) {
         List<AppacitiveGraphNode> nodes = new ArrayList<AppacitiveGraphNode>();
         for (int i = 0; i < values.length(); i++) {
@@ -3,6 +3,8 @@ package com.appacitive.core;
 import com.appacitive.core.apjson.APJSONArray;
 import com.appacitive.core.apjson.APJSONException;
 import com.appacitive.core.apjson.APJSONObject;
+import com.appacitive.core.apjson.APJSONReader;
+import com.appacitive.core.apjson.APJSONToken;
 import com.appacitive.core.exceptions.AppacitiveException;
 import com.appacitive.core.exceptions.ValidationException;
 import com.appacitive.core.infra.*;
@@ -11,8 +13,10 @@ import com.appacitive.core.interfaces.Logger;
 import com.appacitive.core.model.*;
 import com.appacitive.core.query.AppacitiveQuery;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -38,6 +42,11 @@ public class AppacitiveObject extends AppacitiveObjectBase implements Serializab
     protected AppacitiveObject() {
     }
 
+    @Override
+    protected AppacitiveEntity newInstance() {
+        return new AppacitiveObject();
+    }
+
     public synchronized APJSONObject getMap() throws APJSONException {
         return super.getMap();
     }
@@ -47,38 +56,42 @@ public class AppacitiveObject extends AppacitiveObjectBase implements Serializab
         if ((type == null || this.type.isEmpty()) && (typeId <= 0)) {
             throw new ValidationException("Type and TypeId, both cannot be missing while creating an object.");
         }
+        AppacitiveBatchWriter batchWriter = AppacitiveContextBase.getBatchWriter();
+        if (batchWriter != null) {
+            batchWriter.create(this, callback);
+            return;
+        }
 
         final String url = Urls.ForObject.createObjectUrl(this.type).toString();
         final Map<String, String> headers = Headers.assemble();
-        final APJSONObject payload;
+        final byte[] payload;
         try {
-            payload = this.getMap();
+            payload = this.getMapBytes();
         } catch (APJSONException e) {
             throw new RuntimeException(e);
         }
         final AppacitiveObject object = this;
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
-        asyncHttp.put(url, headers, payload.toString(), new APCallback() {
-            @Override
-            public void success(String result) {
+        asyncHttp.put(url, headers, payload, new StreamingCallback() {
+            private AppacitiveObject latest = null;
 
-                APJSONObject jsonObject;
-                try {
-                    jsonObject = new APJSONObject(result);
-                } catch (APJSONException e) {
-                    throw new RuntimeException(e);
-                }
-                AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
-                if (status.isSuccessful()) {
-                    object.setSelf(jsonObject.optJSONObject("object"));
-                    if (callback != null) {
-                        callback.success(object);
-                    }
-                } else {
-                    if (callback != null)
-                        callback.failure(null, new AppacitiveException(status));
-                }
+            @Override
+            protected boolean read(String name, APJSONReader reader) throws APJSONException, IOException {
+                if (name.equals("object") == false)
+                    return false;
+                latest = new AppacitiveObject();
+                latest.setSelf(reader);
+                return true;
+            }
 
+            @Override
+            protected void success() {
+                if (latest != null)
+                    object.replaceWith(latest);
+                AppacitiveEntityCache.store(object);
+                AppacitiveQueryCache.written(object.getType());
+                if (callback != null)
+                    callback.success(object);
             }
 
             @Override
@@ -89,36 +102,68 @@ public class AppacitiveObject extends AppacitiveObjectBase implements Serializab
         });
     }
 
-    public static void getInBackground(String type, long objectId, List<String> fields, final Callback<AppacitiveObject> callback) {
+    public APFuture<AppacitiveObject> createAsync() {
+        APFuture<AppacitiveObject> future = new APFuture<AppacitiveObject>();
+        APCall call = future.beginCall();
+        try {
+            createInBackground(future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
+    public static void getInBackground(String type, long objectId, final List<String> fields, final Callback<AppacitiveObject> callback) {
         LOGGER.info("Fetching object of type " + type + " and id " + objectId);
+        AppacitiveObject cached = (AppacitiveObject) AppacitiveEntityCache.cachedObject(type, objectId, fields);
+        if (cached != null) {
+            AppacitiveEntityCache.deliver(callback, cached);
+            return;
+        }
+        AppacitiveReadCoalescer coalescer = AppacitiveContextBase.getReadCoalescer();
+        if (coalescer != null) {
+            coalescer.get(AppacitiveReadCoalescer.key("object", type, fields), objectId, coalescerSource(type, fields), callback);
+            return;
+        }
+        getFromServer(type, objectId, fields, callback);
+    }
+
+    private static AppacitiveReadCoalescer.Source<AppacitiveObject> coalescerSource(final String type, final List<String> fields) {
+        return new AppacitiveReadCoalescer.Source<AppacitiveObject>() {
+            @Override
+            public void get(long id, Callback<AppacitiveObject> callback) {
+                getFromServer(type, id, fields, callback);
+            }
+
+            @Override
+            public void multiGet(List<Long> ids, Callback<List<AppacitiveObject>> callback) {
+                multiGetFromServer(type, ids, fields, callback);
+            }
+        };
+    }
+
+    private static void getFromServer(String type, long objectId, final List<String> fields, final Callback<AppacitiveObject> callback) {
         final String url = Urls.ForObject.getObjectUrl(type, objectId, fields).toString();
         final Map<String, String> headers = Headers.assemble();
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
-        asyncHttp.get(url, headers, new APCallback() {
-            @Override
-            public void success(String result) {
+        asyncHttp.get(url, headers, new StreamingCallback() {
+            private AppacitiveObject object = null;
 
-                APJSONObject jsonObject;
-                try {
-                    jsonObject = new APJSONObject(result);
-                } catch (APJSONException e) {
-                    throw new RuntimeException(e);
-                }
-                AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
-                if (status.isSuccessful()) {
-                    AppacitiveObject object = null;
-                    APJSONObject objectJson = jsonObject.optJSONObject("object");
-                    if (objectJson != null) {
-                        object = new AppacitiveObject();
-                        object.setSelf(objectJson);
-                    }
-                    if (callback != null)
-                        callback.success(object);
-                } else {
-                    if (callback != null)
-                        callback.failure(null, new AppacitiveException(status));
-                }
+            @Override
+            protected boolean read(String name, APJSONReader reader) throws APJSONException, IOException {
+                if (name.equals("object") == false)
+                    return false;
+                object = new AppacitiveObject();
+                object.setSelf(reader);
+                return true;
+            }
 
+            @Override
+            protected void success() {
+                if (object != null && (fields == null || fields.isEmpty()))
+                    AppacitiveEntityCache.store(object);
+                if (callback != null)
+                    callback.success(object);
             }
 
             @Override
@@ -129,9 +174,27 @@ public class AppacitiveObject extends AppacitiveObjectBase implements Serializab
         });
     }
 
-    public void deleteInBackground(boolean deleteConnections, final Callback<Void> callback) {
+    public static APFuture<AppacitiveObject> getAsync(String type, long objectId, List<String> fields) {
+        APFuture<AppacitiveObject> future = new APFuture<AppacitiveObject>();
+        APCall call = future.beginCall();
+        try {
+            getInBackground(type, objectId, fields, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
+    public void deleteInBackground(final boolean deleteConnections, final Callback<Void> callback) {
         LOGGER.info("Deleting object of type " + getType() + " and id " + getId());
+        AppacitiveBatchWriter batchWriter = AppacitiveContextBase.getBatchWriter();
+        if (batchWriter != null) {
+            batchWriter.delete(this, this.type, this.getId(), deleteConnections, callback);
+            return;
+        }
         final String url = Urls.ForObject.deleteObjectUrl(this.type, this.getId(), deleteConnections).toString();
+        final String type = this.type;
+        final long objectId = this.getId();
         final Map<String, String> headers = Headers.assemble();
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
         asyncHttp.delete(url, headers, new APCallback() {
@@ -146,6 +209,12 @@ public class AppacitiveObject extends AppacitiveObjectBase implements Serializab
                 }
                 AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
                 if (status.isSuccessful()) {
+                    AppacitiveEntityCache.deleted(type, objectId);
+                    AppacitiveQueryCache.written(type);
+                    if (deleteConnections) {
+                        AppacitiveEntityCache.deletedConnectionsOf(type, objectId);
+                        AppacitiveQueryCache.allConnectionsWritten();
+                    }
                     if (callback != null)
                         callback.success(null);
                 } else {
@@ -163,8 +232,24 @@ public class AppacitiveObject extends AppacitiveObjectBase implements Serializab
         });
     }
 
-    public static void deleteInBackground(String type, long objectId, boolean deleteConnections, final Callback<Void> callback) {
+    public APFuture<Void> deleteAsync(boolean deleteConnections) {
+        APFuture<Void> future = new APFuture<Void>();
+        APCall call = future.beginCall();
+        try {
+            deleteInBackground(deleteConnections, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
+    public static void deleteInBackground(final String type, final long objectId, final boolean deleteConnections, final Callback<Void> callback) {
         LOGGER.info("Deleting object of type " + type + " and id " + objectId);
+        AppacitiveBatchWriter batchWriter = AppacitiveContextBase.getBatchWriter();
+        if (batchWriter != null) {
+            batchWriter.delete(null, type, objectId, deleteConnections, callback);
+            return;
+        }
         final String url = Urls.ForObject.deleteObjectUrl(type, objectId, deleteConnections).toString();
         final Map<String, String> headers = Headers.assemble();
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
@@ -180,6 +265,12 @@ public class AppacitiveObject extends AppacitiveObjectBase implements Serializab
                 }
                 AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
                 if (status.isSuccessful()) {
+                    AppacitiveEntityCache.deleted(type, objectId);
+                    AppacitiveQueryCache.written(type);
+                    if (deleteConnections) {
+                        AppacitiveEntityCache.deletedConnectionsOf(type, objectId);
+                        AppacitiveQueryCache.allConnectionsWritten();
+                    }
                     if (callback != null)
                         callback.success(null);
                 } else {
@@ -197,7 +288,18 @@ public class AppacitiveObject extends AppacitiveObjectBase implements Serializab
         });
     }
 
-    public static void bulkDeleteInBackground(String type, List<Long> objectIds, final Callback<Void> callback) {
+    public static APFuture<Void> deleteAsync(String type, long objectId, boolean deleteConnections) {
+        APFuture<Void> future = new APFuture<Void>();
+        APCall call = future.beginCall();
+        try {
+            deleteInBackground(type, objectId, deleteConnections, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
+    public static void bulkDeleteInBackground(final String type, final List<Long> objectIds, final Callback<Void> callback) {
         LOGGER.info("Bulk deleting objects of type " + type + " and ids " + StringUtils.joinLong(objectIds, " , "));
         final String url = Urls.ForObject.bulkDeleteObjectUrl(type).toString();
         final Map<String, String> headers = Headers.assemble();
@@ -226,6 +328,9 @@ public class AppacitiveObject extends AppacitiveObjectBase implements Serializab
                 }
                 AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
                 if (status.isSuccessful()) {
+                    for (long objectId : objectIds)
+                        AppacitiveEntityCache.deleted(type, objectId);
+                    AppacitiveQueryCache.written(type);
                     if (callback != null)
                         callback.success(null);
                 } else {
@@ -243,40 +348,54 @@ public class AppacitiveObject extends AppacitiveObjectBase implements Serializab
         });
     }
 
+    public static APFuture<Void> bulkDeleteAsync(String type, List<Long> objectIds) {
+        APFuture<Void> future = new APFuture<Void>();
+        APCall call = future.beginCall();
+        try {
+            bulkDeleteInBackground(type, objectIds, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public void updateInBackground(boolean withRevision, final Callback<AppacitiveObject> callback) {
         LOGGER.info("Updating object of type " + getType() + " and id " + getId());
+        AppacitiveBatchWriter batchWriter = AppacitiveContextBase.getBatchWriter();
+        if (batchWriter != null && this.accessControl.isEmpty()) {
+            batchWriter.update(this, withRevision, callback);
+            return;
+        }
         final String url = Urls.ForObject.updateObjectUrl(this.type, this.getId(), withRevision, this.getRevision()).toString();
         final Map<String, String> headers = Headers.assemble();
-        final APJSONObject payload;
+        final byte[] payload;
         try {
-            payload = super.getUpdateCommand();
-            payload.put("__acls", this.accessControl.getMap());
+            payload = this.getUpdateRequestBytes();
         } catch (APJSONException e) {
             throw new RuntimeException(e);
         }
         final AppacitiveObject object = this;
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
-        asyncHttp.post(url, headers, payload.toString(), new APCallback() {
-            @Override
-            public void success(String result) {
+        asyncHttp.post(url, headers, payload, new StreamingCallback() {
+            private AppacitiveObject latest = null;
 
-                APJSONObject jsonObject;
-                try {
-                    jsonObject = new APJSONObject(result);
-                } catch (APJSONException e) {
-                    throw new RuntimeException(e);
-                }
-                AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
-                if (status.isSuccessful()) {
-                    object.setSelf(jsonObject.optJSONObject("object"));
-                    if (callback != null) {
-                        callback.success(object);
-                    }
-                } else {
-                    if (callback != null)
-                        callback.failure(null, new AppacitiveException(status));
-                }
+            @Override
+            protected boolean read(String name, APJSONReader reader) throws APJSONException, IOException {
+                if (name.equals("object") == false)
+                    return false;
+                latest = new AppacitiveObject();
+                latest.setSelf(reader);
+                return true;
+            }
 
+            @Override
+            protected void success() {
+                if (latest != null)
+                    object.replaceWith(latest);
+                AppacitiveEntityCache.store(object);
+                AppacitiveQueryCache.written(object.getType());
+                if (callback != null)
+                    callback.success(object);
             }
 
             @Override
@@ -287,33 +406,42 @@ public class AppacitiveObject extends AppacitiveObjectBase implements Serializab
         });
     }
 
+    public APFuture<AppacitiveObject> updateAsync(boolean withRevision) {
+        APFuture<AppacitiveObject> future = new APFuture<AppacitiveObject>();
+        APCall call = future.beginCall();
+        try {
+            updateInBackground(withRevision, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public void fetchLatestInBackground(final Callback<Void> callback) {
         LOGGER.info("Fetching latest object of type " + getType() + " and id " + getId());
         final String url = Urls.ForObject.getObjectUrl(type, this.getId(), null).toString();
         final Map<String, String> headers = Headers.assemble();
         final AppacitiveObject object = this;
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
-        asyncHttp.get(url, headers, new APCallback() {
-            @Override
-            public void success(String result) {
+        asyncHttp.get(url, headers, new StreamingCallback() {
+            private AppacitiveObject latest = null;
 
-                APJSONObject jsonObject;
-                try {
-                    jsonObject = new APJSONObject(result);
-                } catch (APJSONException e) {
-                    throw new RuntimeException(e);
-                }
-                AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
-                if (status.isSuccessful()) {
-                    object.setSelf(jsonObject.optJSONObject("object"));
-                    if (callback != null) {
-                        callback.success(null);
-                    }
-                } else {
-                    if (callback != null)
-                        callback.failure(null, new AppacitiveException(status));
-                }
+            @Override
+            protected boolean read(String name, APJSONReader reader) throws APJSONException, IOException {
+                if (name.equals("object") == false)
+                    return false;
+                latest = new AppacitiveObject();
+                latest.setSelf(reader);
+                return true;
+            }
 
+            @Override
+            protected void success() {
+                if (latest != null)
+                    object.replaceWith(latest);
+                AppacitiveEntityCache.store(object);
+                if (callback != null)
+                    callback.success(null);
             }
 
             @Override
@@ -324,35 +452,79 @@ public class AppacitiveObject extends AppacitiveObjectBase implements Serializab
         });
     }
 
-    public static void multiGetInBackground(String type, List<Long> objectIds, List<String> fields, final Callback<List<AppacitiveObject>> callback) {
+    public APFuture<Void> fetchLatestAsync() {
+        APFuture<Void> future = new APFuture<Void>();
+        APCall call = future.beginCall();
+        try {
+            fetchLatestInBackground(future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
+    public static void multiGetInBackground(String type, final List<Long> objectIds, List<String> fields, final Callback<List<AppacitiveObject>> callback) {
         LOGGER.info("Bulk fetching objects of type " + type + " and ids " + StringUtils.joinLong(objectIds, " , "));
+        final Map<Long, AppacitiveObject> cached = new HashMap<Long, AppacitiveObject>();
+        List<Long> missing = new ArrayList<Long>();
+        for (long objectId : objectIds) {
+            AppacitiveObject object = (AppacitiveObject) AppacitiveEntityCache.cachedObject(type, objectId, fields);
+            if (object != null)
+                cached.put(objectId, object);
+            else
+                missing.add(objectId);
+        }
+        if (cached.isEmpty()) {
+            multiGetFromServer(type, objectIds, fields, callback);
+            return;
+        }
+        if (missing.isEmpty()) {
+            AppacitiveEntityCache.deliver(callback, AppacitiveEntityCache.inRequestOrder(objectIds, cached, new ArrayList<AppacitiveObject>()));
+            return;
+        }
+        multiGetFromServer(type, missing, fields, new Callback<List<AppacitiveObject>>() {
+            @Override
+            public void success(List<AppacitiveObject> result) {
+                if (callback != null)
+                    callback.success(AppacitiveEntityCache.inRequestOrder(objectIds, cached, result));
+            }
+
+            @Override
+            public void failure(List<AppacitiveObject> result, Exception e) {
+                if (callback != null)
+                    callback.failure(null, e);
+            }
+        });
+    }
+
+    private static void multiGetFromServer(String type, List<Long> objectIds, final List<String> fields, final Callback<List<AppacitiveObject>> callback) {
         final String url = Urls.ForObject.multiGetObjectUrl(type, objectIds, fields).toString();
         final Map<String, String> headers = Headers.assemble();
         final List<AppacitiveObject> returnObjects = new ArrayList<AppacitiveObject>();
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
-        asyncHttp.get(url, headers, new APCallback() {
+        asyncHttp.get(url, headers, new StreamingCallback() {
             @Override
-            public void success(String result) {
-
-                APJSONObject jsonObject;
-                try {
-                    jsonObject = new APJSONObject(result);
-                } catch (APJSONException e) {
-                    throw new RuntimeException(e);
+            protected boolean read(String name, APJSONReader reader) throws APJSONException, IOException {
+                if (name.equals("objects") == false)
+                    return false;
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    AppacitiveObject object = new AppacitiveObject();
+                    object.setSelf(reader);
+                    returnObjects.add(object);
                 }
-                AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
-                if (status.isSuccessful()) {
-                    APJSONArray objectsArray = jsonObject.optJSONArray("objects");
-                    for (int i = 0; i < objectsArray.length(); i++) {
-                        AppacitiveObject object = new AppacitiveObject();
-                        object.setSelf(objectsArray.optJSONObject(i));
-                        returnObjects.add(object);
-                    }
-                    if (callback != null)
-                        callback.success(returnObjects);
-                } else if (callback != null)
-                    callback.failure(null, new AppacitiveException(status));
+                reader.endArray();
+                return true;
+            }
 
+            @Override
+            protected void success() {
+                if (fields == null || fields.isEmpty()) {
+                    for (AppacitiveObject object : returnObjects)
+                        AppacitiveEntityCache.store(object);
+                }
+                if (callback != null)
+                    callback.success(returnObjects);
             }
 
             @Override
@@ -363,38 +535,60 @@ public class AppacitiveObject extends AppacitiveObjectBase implements Serializab
         });
     }
 
+    public static APFuture<List<AppacitiveObject>> multiGetAsync(String type, List<Long> objectIds, List<String> fields) {
+        APFuture<List<AppacitiveObject>> future = new APFuture<List<AppacitiveObject>>();
+        APCall call = future.beginCall();
+        try {
+            multiGetInBackground(type, objectIds, fields, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void findInBackground(String type, AppacitiveQuery query, List<String> fields, final Callback<PagedList<AppacitiveObject>> callback) {
         LOGGER.info("Searching objects of type " + type);
-        final String url = Urls.ForObject.findObjectsUrl(type, query, fields).toString();
+        final Url findUrl = Urls.ForObject.findObjectsUrl(type, query, fields);
+        final AppacitiveQueryCache.Lookup lookup = AppacitiveQueryCache.forObjects(type, findUrl);
+        if (lookup != null) {
+            PagedList<AppacitiveObject> cached = lookup.cached();
+            if (cached != null) {
+                if (callback != null)
+                    callback.success(cached);
+                return;
+            }
+        }
+        final String url = findUrl.toString();
         final Map<String, String> headers = Headers.assemble();
         final List<AppacitiveObject> returnObjects = new ArrayList<AppacitiveObject>();
         final PagedList<AppacitiveObject> pagedResult = new PagedList<AppacitiveObject>();
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
-        asyncHttp.get(url, headers, new APCallback() {
+        asyncHttp.get(url, headers, new StreamingCallback() {
             @Override
-            public void success(String result) {
-
-                APJSONObject jsonObject;
-                try {
-                    jsonObject = new APJSONObject(result);
-                } catch (APJSONException e) {
-                    throw new RuntimeException(e);
+            protected boolean read(String name, APJSONReader reader) throws APJSONException, IOException {
+                if (name.equals("paginginfo")) {
+                    pagedResult.pagingInfo.setSelf(reader.readObject());
+                    return true;
                 }
-                AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
-                if (status.isSuccessful()) {
-                    APJSONArray objectsArray = jsonObject.optJSONArray("objects");
-                    for (int i = 0; i < objectsArray.length(); i++) {
-                        AppacitiveObject object = new AppacitiveObject();
-                        object.setSelf(objectsArray.optJSONObject(i));
-                        returnObjects.add(object);
-                    }
-                    pagedResult.results = returnObjects;
-                    pagedResult.pagingInfo.setSelf(jsonObject.optJSONObject("paginginfo"));
-                    if (callback != null)
-                        callback.success(pagedResult);
-                } else if (callback != null)
-                    callback.failure(null, new AppacitiveException(status));
+                if (name.equals("objects") == false)
+                    return false;
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    AppacitiveObject object = new AppacitiveObject();
+                    object.setSelf(reader);
+                    returnObjects.add(object);
+                }
+                reader.endArray();
+                return true;
+            }
 
+            @Override
+            protected void success() {
+                pagedResult.results = returnObjects;
+                if (lookup != null)
+                    lookup.store(pagedResult);
+                if (callback != null)
+                    callback.success(pagedResult);
             }
 
             @Override
@@ -405,6 +599,17 @@ public class AppacitiveObject extends AppacitiveObjectBase implements Serializab
         });
     }
 
+    public static APFuture<PagedList<AppacitiveObject>> findAsync(String type, AppacitiveQuery query, List<String> fields) {
+        APFuture<PagedList<AppacitiveObject>> future = new APFuture<PagedList<AppacitiveObject>>();
+        APCall call = future.beginCall();
+        try {
+            findInBackground(type, query, fields, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void findInBetweenTwoObjectsInBackground(String type, long objectAId, String relationA, String labelA, long objectBId, String relationB, String labelB, List<String> fields, final Callback<PagedList<AppacitiveObject>> callback) {
         LOGGER.info("Searching objects of type " + type + " between two objects " + objectAId + " and " + objectBId);
         final String url = Urls.ForObject.findBetweenTwoObjectsUrl(type, objectAId, relationA, labelA, objectBId, relationB, labelB, fields).toString();
@@ -412,32 +617,30 @@ public class AppacitiveObject extends AppacitiveObjectBase implements Serializab
         final List<AppacitiveObject> returnObjects = new ArrayList<AppacitiveObject>();
         final PagedList<AppacitiveObject> pagedResult = new PagedList<AppacitiveObject>();
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
-        asyncHttp.get(url, headers, new APCallback() {
+        asyncHttp.get(url, headers, new StreamingCallback() {
             @Override
-            public void success(String result) {
-
-                APJSONObject jsonObject;
-                try {
-                    jsonObject = new APJSONObject(result);
-                } catch (APJSONException e) {
-                    throw new RuntimeException(e);
+            protected boolean read(String name, APJSONReader reader) throws APJSONException, IOException {
+                if (name.equals("paginginfo")) {
+                    pagedResult.pagingInfo.setSelf(reader.readObject());
+                    return true;
                 }
-                AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
-                if (status.isSuccessful()) {
-                    APJSONArray objectsArray = jsonObject.optJSONArray("objects");
-                    if (objectsArray != null)
-                        for (int i = 0; i < objectsArray.length(); i++) {
-                            AppacitiveObject object = new AppacitiveObject();
-                            object.setSelf(objectsArray.optJSONObject(i));
-                            returnObjects.add(object);
-                        }
-                    pagedResult.results = returnObjects;
-                    pagedResult.pagingInfo.setSelf(jsonObject.optJSONObject("paginginfo"));
-                    if (callback != null)
-                        callback.success(pagedResult);
-                } else if (callback != null)
-                    callback.failure(null, new AppacitiveException(status));
+                if (name.equals("objects") == false)
+                    return false;
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    AppacitiveObject object = new AppacitiveObject();
+                    object.setSelf(reader);
+                    returnObjects.add(object);
+                }
+                reader.endArray();
+                return true;
+            }
 
+            @Override
+            protected void success() {
+                pagedResult.results = returnObjects;
+                if (callback != null)
+                    callback.success(pagedResult);
             }
 
             @Override
@@ -448,49 +651,48 @@ public class AppacitiveObject extends AppacitiveObjectBase implements Serializab
         });
     }
 
+    public static APFuture<PagedList<AppacitiveObject>> findInBetweenTwoObjectsAsync(String type, long objectAId, String relationA, String labelA, long objectBId, String relationB, String labelB, List<String> fields) {
+        APFuture<PagedList<AppacitiveObject>> future = new APFuture<PagedList<AppacitiveObject>>();
+        APCall call = future.beginCall();
+        try {
+            findInBetweenTwoObjectsInBackground(type, objectAId, relationA, labelA, objectBId, relationB, labelB, fields, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void  getConnectedObjectsInBackground(String relationType, String objectType, long objectId, AppacitiveQuery query, List<String> fields, final Callback<ConnectedObjectsResponse> callback) {
         LOGGER.info("Searching for connected objects of type " + relationType + "from " + objectId + " of type " + objectType);
         final String url = Urls.ForConnection.getConnectedObjectsUrl(relationType, objectType, objectId, query, fields).toString();
         final Map<String, String> headers = Headers.assemble();
+        final ConnectedObjectsResponse connectedObjectsResponse = new ConnectedObjectsResponse("");
+        connectedObjectsResponse.results = new ArrayList<ConnectedObject>();
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
-        asyncHttp.get(url, headers, new APCallback() {
+        asyncHttp.get(url, headers, new StreamingCallback() {
             @Override
-            public void success(String result) {
-
-                APJSONObject jsonObject;
-                try {
-                    jsonObject = new APJSONObject(result);
-                } catch (APJSONException e) {
-                    throw new RuntimeException(e);
+            protected boolean read(String name, APJSONReader reader) throws APJSONException, IOException {
+                if (name.equals("parent")) {
+                    connectedObjectsResponse.parent = String.valueOf(reader.readValue());
+                    return true;
                 }
-                AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
-                if (status.isSuccessful()) {
-                    ConnectedObjectsResponse connectedObjectsResponse = new ConnectedObjectsResponse(jsonObject.optString("parent"));
-                    connectedObjectsResponse.pagingInfo.setSelf(jsonObject.optJSONObject("paginginfo"));
-                    connectedObjectsResponse.results = new ArrayList<ConnectedObject>();
-                    APJSONArray nodesArray = jsonObject.optJSONArray("nodes");
-                    if (nodesArray != null) {
-                        for (int i = 0; i < nodesArray.length(); i++) {
-                            ConnectedObject connectedObject = new ConnectedObject();
-                            APJSONObject nodeObject = nodesArray.optJSONObject(i);
-                            if (nodeObject.isNull("__edge") == false) {
-                                connectedObject.connection = new AppacitiveConnection();
-                                connectedObject.connection.setSelf(nodeObject.optJSONObject("__edge"));
-                                nodeObject.remove("__edge");
-                            }
-                            connectedObject.object = new AppacitiveObject();
-                            connectedObject.object.setSelf(nodeObject);
-                            connectedObjectsResponse.results.add(connectedObject);
-                        }
-                    }
-                    if (callback != null)
-                        callback.success(connectedObjectsResponse);
-                } else {
-                    if (callback != null)
-                        callback.failure(null, new AppacitiveException(status));
+                if (name.equals("paginginfo")) {
+                    connectedObjectsResponse.pagingInfo.setSelf(reader.readObject());
+                    return true;
                 }
+                if (name.equals("nodes") == false)
+                    return false;
+                reader.beginArray();
+                while (reader.hasNext())
+                    connectedObjectsResponse.results.add(readNode(reader));
+                reader.endArray();
+                return true;
+            }
 
-
+            @Override
+            protected void success() {
+                if (callback != null)
+                    callback.success(connectedObjectsResponse);
             }
 
             @Override
@@ -547,8 +749,49 @@ public class AppacitiveObject extends AppacitiveObjectBase implements Serializab
 //        }
     }
 
+    //  A node is the connected object with the connection to it embedded under __edge.
+    private static ConnectedObject readNode(APJSONReader reader) throws APJSONException, IOException {
+        ConnectedObject connectedObject = new ConnectedObject();
+        connectedObject.object = new AppacitiveObject();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == APJSONToken.NULL)
+                reader.skipValue();
+            else if (name.equals("__edge")) {
+                connectedObject.connection = new AppacitiveConnection();
+                connectedObject.connection.setSelf(reader);
+            } else
+                connectedObject.object.readProperty(name, reader);
+        }
+        reader.endObject();
+        return connectedObject;
+    }
+
+    public static APFuture<ConnectedObjectsResponse> getConnectedObjectsAsync(String relationType, String objectType, long objectId, AppacitiveQuery query, List<String> fields) {
+        APFuture<ConnectedObjectsResponse> future = new APFuture<ConnectedObjectsResponse>();
+        APCall call = future.beginCall();
+        try {
+            getConnectedObjectsInBackground(relationType, objectType, objectId, query, fields, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public void getConnectedObjectsInBackground(String relationType, AppacitiveQuery query, List<String> fields, final Callback<ConnectedObjectsResponse> callback)
     {
         AppacitiveObject.getConnectedObjectsInBackground(relationType, this.getType(), this.getId(), query, fields, callback);
     }
+
+    public APFuture<ConnectedObjectsResponse> getConnectedObjectsAsync(String relationType, AppacitiveQuery query, List<String> fields) {
+        APFuture<ConnectedObjectsResponse> future = new APFuture<ConnectedObjectsResponse>();
+        APCall call = future.beginCall();
+        try {
+            getConnectedObjectsInBackground(relationType, query, fields, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
 }
@@ -197,6 +197,17 @@ public class AppacitivePushNotification implements Serializable, APSerializable
             }
         });
     }
+
+    public APFuture<String> sendAsync() {
+        APFuture<String> future = new APFuture<String>();
+        APCall call = future.beginCall();
+        try {
+            sendInBackground(future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
 }
 
 
@@ -0,0 +1,281 @@
+package com.appacitive.core;
+
+import com.appacitive.core.infra.APMetrics;
+import com.appacitive.core.infra.Url;
+import com.appacitive.core.model.PagedList;
+import com.appacitive.core.model.PagingInfo;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory cache of {@code findInBackground} results for objects and connections. Opt in with
+ * {@link AppacitiveContextBase#setQueryCache(AppacitiveQueryCache)}.
+ * <p/>
+ * Results are keyed by the find url, with its query string in a canonical order, and by the logged in user, since
+ * access control can make the same query return different results for different users. Each page is cached
+ * separately, along with its paging info. Entries expire after the time to live of their type, which falls back to
+ * the one given to the constructor. Any create, update or delete of a type made through the sdk drops the cached
+ * results for that type, including finds that were still in flight when the write went through. Writes made
+ * elsewhere are only seen once entries expire.
+ * <p/>
+ * Callers always get fresh instances. Hits and misses are recorded in {@link APMetrics} as {@link #HITS} and
+ * {@link #MISSES}.
+ */
+public class AppacitiveQueryCache {
+
+    public static final String HITS = "cache.query.hits";
+
+    public static final String MISSES = "cache.query.misses";
+
+    private static final String CONNECTION_PREFIX = "relation:";
+
+    private final int maxEntries;
+
+    private final long defaultTimeToLiveNanos;
+
+    private final Map<String, Long> timeToLiveNanos = new HashMap<String, Long>();
+
+    //  Bumped on every invalidation of a scope, so that results read before a write are not stored after it.
+    private final Map<String, Long> generations = new HashMap<String, Long>();
+
+    //  Bumped when every connection scope is invalidated at once, and added to the generation of each.
+    private long connectionsGeneration = 0;
+
+    private final Map<String, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private static class Entry {
+
+        final String scope;
+
+        final PagedList<? extends AppacitiveEntity> result;
+
+        final long expiresAt;
+
+        Entry(String scope, PagedList<? extends AppacitiveEntity> result, long expiresAt) {
+            this.scope = scope;
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public AppacitiveQueryCache(int maxEntries, long timeToLive, TimeUnit unit) {
+        if (maxEntries <= 0)
+            throw new IllegalArgumentException("maxEntries must be positive.");
+        if (timeToLive <= 0)
+            throw new IllegalArgumentException("timeToLive must be positive.");
+        this.maxEntries = maxEntries;
+        this.defaultTimeToLiveNanos = unit.toNanos(timeToLive);
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > AppacitiveQueryCache.this.maxEntries;
+            }
+        };
+    }
+
+    private static String objectScope(String type) {
+        return type;
+    }
+
+    private static String connectionScope(String relationType) {
+        return CONNECTION_PREFIX + relationType;
+    }
+
+    /**
+     * Sets how long find results for objects of {@code type} are kept.
+     */
+    public synchronized void setTimeToLive(String type, long timeToLive, TimeUnit unit) {
+        timeToLiveNanos.put(objectScope(type), unit.toNanos(timeToLive));
+    }
+
+    /**
+     * Sets how long find results for connections of {@code relationType} are kept.
+     */
+    public synchronized void setConnectionTimeToLive(String relationType, long timeToLive, TimeUnit unit) {
+        timeToLiveNanos.put(connectionScope(relationType), unit.toNanos(timeToLive));
+    }
+
+    public void invalidate(String type) {
+        invalidateScope(objectScope(type));
+    }
+
+    public void invalidateConnections(String relationType) {
+        invalidateScope(connectionScope(relationType));
+    }
+
+    /**
+     * Drops the find results for connections of every relation, as deleting an object with its connections may
+     * change any of them.
+     */
+    public synchronized void invalidateAllConnections() {
+        connectionsGeneration++;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().scope.startsWith(CONNECTION_PREFIX))
+                iterator.remove();
+        }
+    }
+
+    private synchronized void invalidateScope(String scope) {
+        Long generation = generations.get(scope);
+        generations.put(scope, generation == null ? 1L : generation + 1);
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().scope.equals(scope))
+                iterator.remove();
+        }
+    }
+
+    private synchronized long generation(String scope) {
+        Long generation = generations.get(scope);
+        long shared = scope.startsWith(CONNECTION_PREFIX) ? connectionsGeneration : 0;
+        return (generation == null ? 0 : generation) + shared;
+    }
+
+    private static String key(String scope, Url url) {
+        String token = AppacitiveContextBase.getLoggedInUserToken();
+        return scope + " " + (token == null ? "" : token) + " " + url.toCanonicalString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends AppacitiveEntity> PagedList<T> get(String key) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() <= 0) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            APMetrics.increment(MISSES);
+            return null;
+        }
+        hits.incrementAndGet();
+        APMetrics.increment(HITS);
+        return copy((PagedList<T>) entry.result);
+    }
+
+    private void put(String scope, String key, long generation, PagedList<? extends AppacitiveEntity> result) {
+        PagedList<? extends AppacitiveEntity> copy = copy(result);
+        synchronized (this) {
+            if (generation(scope) != generation)
+                return;
+            Long timeToLive = timeToLiveNanos.get(scope);
+            entries.put(key, new Entry(scope, copy, System.nanoTime() + (timeToLive == null ? defaultTimeToLiveNanos : timeToLive)));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends AppacitiveEntity> PagedList<T> copy(PagedList<T> source) {
+        PagedList<T> copy = new PagedList<T>();
+        for (T entity : source.results)
+            copy.results.add((T) entity.copy());
+        PagingInfo pagingInfo = new PagingInfo();
+        pagingInfo.pageNumber = source.pagingInfo.pageNumber;
+        pagingInfo.pageSize = source.pagingInfo.pageSize;
+        pagingInfo.totalRecords = source.pagingInfo.totalRecords;
+        copy.pagingInfo = pagingInfo;
+        return copy;
+    }
+
+    /**
+     * Drops expired entries. Expired entries are otherwise only dropped when looked up or pushed out by new ones.
+     */
+    public synchronized void purgeExpired() {
+        long now = System.nanoTime();
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().expiresAt - now <= 0)
+                iterator.remove();
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    //  Helpers for the entity classes, which do nothing while no cache is set.
+
+    //  A find against the cache. Remembers the generation of its scope when created, so its result is only
+    //  stored if no write to that type went through while the request was out.
+    static class Lookup {
+
+        private final AppacitiveQueryCache cache;
+
+        private final String scope;
+
+        private final String key;
+
+        private final long generation;
+
+        private Lookup(AppacitiveQueryCache cache, String scope, Url url) {
+            this.cache = cache;
+            this.scope = scope;
+            this.key = key(scope, url);
+            this.generation = cache.generation(scope);
+        }
+
+        <T extends AppacitiveEntity> PagedList<T> cached() {
+            return cache.get(key);
+        }
+
+        void store(PagedList<? extends AppacitiveEntity> result) {
+            cache.put(scope, key, generation, result);
+        }
+    }
+
+    static Lookup forObjects(String type, Url url) {
+        AppacitiveQueryCache cache = AppacitiveContextBase.getQueryCache();
+        return cache == null ? null : new Lookup(cache, objectScope(type), url);
+    }
+
+    static Lookup forConnections(String relationType, Url url) {
+        AppacitiveQueryCache cache = AppacitiveContextBase.getQueryCache();
+        return cache == null ? null : new Lookup(cache, connectionScope(relationType), url);
+    }
+
+    static void written(String type) {
+        AppacitiveQueryCache cache = AppacitiveContextBase.getQueryCache();
+        if (cache != null)
+            cache.invalidate(type);
+    }
+
+    static void connectionWritten(String relationType) {
+        AppacitiveQueryCache cache = AppacitiveContextBase.getQueryCache();
+        if (cache != null)
+            cache.invalidateConnections(relationType);
+    }
+
+    static void allConnectionsWritten() {
+        AppacitiveQueryCache cache = AppacitiveContextBase.getQueryCache();
+        if (cache != null)
+            cache.invalidateAllConnections();
+    }
+}
@@ -0,0 +1,222 @@
+package com.appacitive.core;
+
+import com.appacitive.core.apjson.APJSONException;
+import com.appacitive.core.apjson.APJSONObject;
+import com.appacitive.core.exceptions.AppacitiveException;
+import com.appacitive.core.infra.APCall;
+import com.appacitive.core.infra.APFuture;
+import com.appacitive.core.infra.APMetrics;
+import com.appacitive.core.infra.APScheduler;
+import com.appacitive.core.infra.BoundCallback;
+import com.appacitive.core.infra.ErrorCodes;
+import com.appacitive.core.infra.StringUtils;
+import com.appacitive.core.model.AppacitiveStatus;
+import com.appacitive.core.model.Callback;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gathers lookups by id that are made close together into multiget calls. Opt in with
+ * {@link AppacitiveContextBase#setReadCoalescer(AppacitiveReadCoalescer)}.
+ * <p/>
+ * Once enabled, {@code AppacitiveObject.getInBackground}, {@code AppacitiveConnection.getInBackground},
+ * {@code AppacitiveUser.getByIdInBackground} and {@code AppacitiveDevice.getInBackground} do not call the api
+ * right away. Lookups for the same type and field list are held for up to {@code window}, or until
+ * {@code maxBatchSize} distinct ids are waiting, and then fetched with a single multiget. Each callback gets its own
+ * instance. Ids the multiget does not return fail with a {@link ErrorCodes#NOT_FOUND} {@link AppacitiveException},
+ * and a failed multiget fails every lookup in it. A batch holding a single id is fetched with a plain get.
+ * <p/>
+ * Batches are sent from the sdk's own threads, so a lookup made inside an {@link APCall}, including every
+ * {@code *Async} one, is bound to its call with a {@link BoundCallback}: cancelling the call or its {@link APFuture},
+ * or passing the call's deadline, fails that lookup right away. The batch it joined is still sent for the others,
+ * and ids none of whose lookups are still waiting are left out of it.
+ * <p/>
+ * The window adds up to that much latency to every lookup, so keep it to a few milliseconds. The number of ids per
+ * call is recorded in {@link APMetrics} as {@link #BATCH_SIZE}.
+ */
+public class AppacitiveReadCoalescer {
+
+    public static final String BATCH_SIZE = "coalescer.batch.size";
+
+    private final long windowNanos;
+
+    private final int maxBatchSize;
+
+    private final Map<String, Batch<?>> pending = new HashMap<String, Batch<?>>();
+
+    //  How the entity classes fetch one or many ids of a single type, bypassing the coalescer.
+    interface Source<T extends AppacitiveEntity> {
+
+        void get(long id, Callback<T> callback);
+
+        void multiGet(List<Long> ids, Callback<List<T>> callback);
+    }
+
+    private static class Batch<T extends AppacitiveEntity> {
+
+        final String key;
+
+        final Source<T> source;
+
+        final Map<Long, List<Callback<T>>> callbacks = new LinkedHashMap<Long, List<Callback<T>>>();
+
+        Batch(String key, Source<T> source) {
+            this.key = key;
+            this.source = source;
+        }
+    }
+
+    public AppacitiveReadCoalescer(long window, TimeUnit unit, int maxBatchSize) {
+        if (window <= 0)
+            throw new IllegalArgumentException("window must be positive.");
+        if (maxBatchSize <= 0)
+            throw new IllegalArgumentException("maxBatchSize must be positive.");
+        this.windowNanos = unit.toNanos(window);
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T extends AppacitiveEntity> void get(String key, long id, Source<T> source, Callback<T> callback) {
+        callback = BoundCallback.bind(callback, key.substring(0, key.indexOf(':')));
+        if (isFinished(callback))
+            return;
+        Batch<T> full = null;
+        synchronized (this) {
+            Batch<T> batch = (Batch<T>) pending.get(key);
+            if (batch == null) {
+                batch = new Batch<T>(key, source);
+                pending.put(key, batch);
+                final Batch<T> scheduled = batch;
+                APScheduler.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        flush(scheduled);
+                    }
+                }, windowNanos, TimeUnit.NANOSECONDS);
+            }
+            List<Callback<T>> callbacks = batch.callbacks.get(id);
+            if (callbacks == null) {
+                callbacks = new ArrayList<Callback<T>>(1);
+                batch.callbacks.put(id, callbacks);
+            }
+            callbacks.add(callback);
+            if (batch.callbacks.size() >= maxBatchSize) {
+                pending.remove(key);
+                full = batch;
+            }
+        }
+        if (full != null)
+            dispatch(full);
+    }
+
+    private void flush(Batch<?> batch) {
+        synchronized (this) {
+            //  Already sent if it filled up before the window closed.
+            if (pending.get(batch.key) != batch)
+                return;
+            pending.remove(batch.key);
+        }
+        dispatch(batch);
+    }
+
+    private static <T extends AppacitiveEntity> void dispatch(final Batch<T> batch) {
+        final List<Long> ids = new ArrayList<Long>();
+        for (Map.Entry<Long, List<Callback<T>>> entry : batch.callbacks.entrySet()) {
+            if (isWaiting(entry.getValue()))
+                ids.add(entry.getKey());
+        }
+        if (ids.isEmpty())
+            return;
+        APMetrics.record(BATCH_SIZE, ids.size());
+        if (ids.size() == 1) {
+            final List<Callback<T>> callbacks = batch.callbacks.get(ids.get(0));
+            batch.source.get(ids.get(0), new Callback<T>() {
+                @Override
+                public void success(T result) {
+                    deliver(callbacks, result);
+                }
+
+                @Override
+                public void failure(T result, Exception e) {
+                    fail(callbacks, e);
+                }
+            });
+            return;
+        }
+        batch.source.multiGet(ids, new Callback<List<T>>() {
+            @Override
+            public void success(List<T> result) {
+                Map<Long, T> byId = new HashMap<Long, T>();
+                for (T entity : result)
+                    byId.put(entity.getId(), entity);
+                for (Long id : ids) {
+                    List<Callback<T>> callbacks = batch.callbacks.get(id);
+                    T entity = byId.get(id);
+                    if (entity != null)
+                        deliver(callbacks, entity);
+                    else
+                        fail(callbacks, notFound(id));
+                }
+            }
+
+            @Override
+            public void failure(List<T> result, Exception e) {
+                for (Long id : ids)
+                    fail(batch.callbacks.get(id), e);
+            }
+        });
+    }
+
+    private static boolean isFinished(Callback<?> callback) {
+        return callback instanceof BoundCallback && ((BoundCallback<?>) callback).isFinished();
+    }
+
+    //  Whether any lookup of the id is still waiting for it.
+    private static <T extends AppacitiveEntity> boolean isWaiting(List<Callback<T>> callbacks) {
+        for (Callback<T> callback : callbacks) {
+            if (isFinished(callback) == false)
+                return true;
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends AppacitiveEntity> void deliver(List<Callback<T>> callbacks, T entity) {
+        for (int i = 0; i < callbacks.size(); i++) {
+            Callback<T> callback = callbacks.get(i);
+            if (callback != null)
+                callback.success(i == 0 || entity == null ? entity : (T) entity.copy());
+        }
+    }
+
+    private static <T extends AppacitiveEntity> void fail(List<Callback<T>> callbacks, Exception e) {
+        for (Callback<T> callback : callbacks) {
+            if (callback != null)
+                callback.failure(null, e);
+        }
+    }
+
+    private static AppacitiveException notFound(long id) {
+        APJSONObject status = new APJSONObject();
+        try {
+            status.put("code", ErrorCodes.NOT_FOUND);
+            status.put("message", "No entity with id " + id + " was found.");
+        } catch (APJSONException e) {
+            throw new RuntimeException(e);
+        }
+        return new AppacitiveException(new AppacitiveStatus(status));
+    }
+
+    static String key(String kind, String type, List<String> fields) {
+        return kind + ":" + type + ":" + (fields == null ? "" : StringUtils.join(fields, ","));
+    }
+}
@@ -3,6 +3,7 @@ package com.appacitive.core;
 import com.appacitive.core.apjson.APJSONArray;
 import com.appacitive.core.apjson.APJSONException;
 import com.appacitive.core.apjson.APJSONObject;
+import com.appacitive.core.apjson.APJSONReader;
 import com.appacitive.core.exceptions.AppacitiveException;
 import com.appacitive.core.exceptions.UserAuthException;
 import com.appacitive.core.exceptions.ValidationException;
@@ -11,6 +12,7 @@ import com.appacitive.core.interfaces.AsyncHttp;
 import com.appacitive.core.interfaces.Logger;
 import com.appacitive.core.model.*;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.text.ParseException;
 import java.util.*;
@@ -38,6 +40,11 @@ public class AppacitiveUser extends AppacitiveObjectBase implements Serializable
         super.setSelf(user);
     }
 
+    @Override
+    protected AppacitiveEntity newInstance() {
+        return new AppacitiveUser();
+    }
+
     @Override
     public synchronized APJSONObject getMap() throws APJSONException {
         return super.getMap();
@@ -152,47 +159,56 @@ public class AppacitiveUser extends AppacitiveObjectBase implements Serializable
 
         final String url = Urls.ForUser.createUserUrl().toString();
         final Map<String, String> headers = Headers.assemble();
-        final APJSONObject payload;
+        final byte[] payload;
         try {
-            payload = this.getMap();
+            payload = this.getMapBytes();
         } catch (APJSONException e) {
             throw new RuntimeException(e);
         }
 
         final AppacitiveUser user = this;
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
-        asyncHttp.put(url, headers, payload.toString(), new APCallback() {
-            @Override
-            public void success(String result) {
+        asyncHttp.put(url, headers, payload, new StreamingCallback() {
+            private AppacitiveUser latest = null;
 
-                APJSONObject jsonObject;
-                try {
-                    jsonObject = new APJSONObject(result);
-                } catch (APJSONException e) {
-                    throw new RuntimeException(e);
-                }
-                AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
-                if (status.isSuccessful()) {
-                    user.setSelf(jsonObject.optJSONObject("user"));
-                    AppacitiveContextBase.setLoggedInUser(user);
-                    if (callback != null) {
-                        callback.success(user);
-                    }
-                } else {
-                    if (callback != null)
-                        callback.failure(null, new AppacitiveException(status));
-                }
+            @Override
+            protected boolean read(String name, APJSONReader reader) throws APJSONException, IOException {
+                if (name.equals("user") == false)
+                    return false;
+                latest = new AppacitiveUser();
+                latest.setSelf(reader);
+                return true;
+            }
 
+            @Override
+            protected void success() {
+                if (latest != null)
+                    user.replaceWith(latest);
+                AppacitiveContextBase.setLoggedInUser(user);
+                if (callback != null)
+                    callback.success(user);
             }
 
+            //  An unsuccessful status already comes as an AppacitiveException.
             @Override
             public void failure(Exception e) {
                 if (callback != null)
-                    callback.failure(null, new AppacitiveException(e));
+                    callback.failure(null, e instanceof AppacitiveException ? e : new AppacitiveException(e));
             }
         });
     }
 
+    public APFuture<AppacitiveUser> signupAsync() {
+        APFuture<AppacitiveUser> future = new APFuture<AppacitiveUser>();
+        APCall call = future.beginCall();
+        try {
+            signupInBackground(future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void signupWithFacebookInBackground(final String facebookAccessToken, final Callback<AppacitiveUser> callback) {
         LOGGER.info("Signing up new user with facebook.");
         final String url = Urls.ForUser.authenticateUserUrl().toString();
@@ -240,6 +256,17 @@ public class AppacitiveUser extends AppacitiveObjectBase implements Serializable
         });
     }
 
+    public static APFuture<AppacitiveUser> signupWithFacebookAsync(final String facebookAccessToken) {
+        APFuture<AppacitiveUser> future = new APFuture<AppacitiveUser>();
+        APCall call = future.beginCall();
+        try {
+            signupWithFacebookInBackground(facebookAccessToken, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void signupWithTwitterInBackground(final String oauthToken, final String oauthTokenSecret, String consumerKey, String consumerSecret, final Callback<AppacitiveUser> callback) {
         LOGGER.info("Signing up new user with twitter.");
         final String url = Urls.ForUser.authenticateUserUrl().toString();
@@ -292,20 +319,75 @@ public class AppacitiveUser extends AppacitiveObjectBase implements Serializable
         });
     }
 
+    public static APFuture<AppacitiveUser> signupWithTwitterAsync(final String oauthToken, final String oauthTokenSecret, String consumerKey, String consumerSecret) {
+        APFuture<AppacitiveUser> future = new APFuture<AppacitiveUser>();
+        APCall call = future.beginCall();
+        try {
+            signupWithTwitterInBackground(oauthToken, oauthTokenSecret, consumerKey, consumerSecret, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void signupWithTwitterInBackground(final String oauthToken, final String oauthTokenSecret, final Callback<AppacitiveUser> callback)
     {
         signupWithTwitterInBackground(oauthToken, oauthTokenSecret, null, null, callback);
     }
 
+    public static APFuture<AppacitiveUser> signupWithTwitterAsync(final String oauthToken, final String oauthTokenSecret) {
+        APFuture<AppacitiveUser> future = new APFuture<AppacitiveUser>();
+        APCall call = future.beginCall();
+        try {
+            signupWithTwitterInBackground(oauthToken, oauthTokenSecret, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void getByIdInBackground(long userId, List<String> fields, final Callback<AppacitiveUser> callback) {
         LOGGER.info("Fetch user with id " + userId);
-        final String url = Urls.ForUser.getUserUrl(String.valueOf(userId), UserIdType.id, fields).toString();
-        final Map<String, String> headers = Headers.assemble();
         AssertUserAuth();
+        AppacitiveReadCoalescer coalescer = AppacitiveContextBase.getReadCoalescer();
+        if (coalescer != null) {
+            coalescer.get(AppacitiveReadCoalescer.key("user", "user", fields), userId, coalescerSource(fields), callback);
+            return;
+        }
+        getByIdFromServer(userId, fields, callback);
+    }
 
+    private static AppacitiveReadCoalescer.Source<AppacitiveUser> coalescerSource(final List<String> fields) {
+        return new AppacitiveReadCoalescer.Source<AppacitiveUser>() {
+            @Override
+            public void get(long id, Callback<AppacitiveUser> callback) {
+                getByIdFromServer(id, fields, callback);
+            }
+
+            @Override
+            public void multiGet(List<Long> ids, Callback<List<AppacitiveUser>> callback) {
+                multiGetInBackground(ids, fields, callback);
+            }
+        };
+    }
+
+    private static void getByIdFromServer(long userId, List<String> fields, final Callback<AppacitiveUser> callback) {
+        final String url = Urls.ForUser.getUserUrl(String.valueOf(userId), UserIdType.id, fields).toString();
+        final Map<String, String> headers = Headers.assemble();
         getInBackgroundHelper(url, headers, callback);
     }
 
+    public static APFuture<AppacitiveUser> getByIdAsync(long userId, List<String> fields) {
+        APFuture<AppacitiveUser> future = new APFuture<AppacitiveUser>();
+        APCall call = future.beginCall();
+        try {
+            getByIdInBackground(userId, fields, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     private static void AssertUserAuth() {
         String token = AppacitiveContextBase.getLoggedInUserToken();
         if (token == null || token.isEmpty() == true)
@@ -320,6 +402,17 @@ public class AppacitiveUser extends AppacitiveObjectBase implements Serializable
         getInBackgroundHelper(url, headers, callback);
     }
 
+    public static APFuture<AppacitiveUser> getByUsernameAsync(String username, List<String> fields) {
+        APFuture<AppacitiveUser> future = new APFuture<AppacitiveUser>();
+        APCall call = future.beginCall();
+        try {
+            getByUsernameInBackground(username, fields, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void getLoggedInUserInBackground(List<String> fields, Callback<AppacitiveUser> callback) {
         LOGGER.info("Fetch user with token.");
         final String url = Urls.ForUser.getUserUrl("me", UserIdType.token, fields).toString();
@@ -329,33 +422,35 @@ public class AppacitiveUser extends AppacitiveObjectBase implements Serializable
         getInBackgroundHelper(url, headers, callback);
     }
 
+    public static APFuture<AppacitiveUser> getLoggedInUserAsync(List<String> fields) {
+        APFuture<AppacitiveUser> future = new APFuture<AppacitiveUser>();
+        APCall call = future.beginCall();
+        try {
+            getLoggedInUserInBackground(fields, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     private static void getInBackgroundHelper(String url, Map<String, String> headers, final Callback<AppacitiveUser> callback) {
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
-        asyncHttp.get(url, headers, new APCallback() {
-            @Override
-            public void success(String result) {
+        asyncHttp.get(url, headers, new StreamingCallback() {
+            private AppacitiveUser user = null;
 
-                APJSONObject jsonObject;
-                try {
-                    jsonObject = new APJSONObject(result);
-                } catch (APJSONException e) {
-                    throw new RuntimeException(e);
-                }
-                AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
-                if (status.isSuccessful()) {
-                    AppacitiveUser user = null;
-                    APJSONObject userJson = jsonObject.optJSONObject("user");
-                    if (userJson != null) {
-                        user = new AppacitiveUser();
-                        user.setSelf(userJson);
-                    }
-                    if (callback != null)
-                        callback.success(user);
-                } else {
-                    if (callback != null)
-                        callback.failure(null, new AppacitiveException(status));
-                }
+            @Override
+            protected boolean read(String name, APJSONReader reader) throws APJSONException, IOException {
+                if (name.equals("user") == false)
+                    return false;
+                user = new AppacitiveUser();
+                user.setSelf(reader);
+                return true;
+            }
 
+            @Override
+            protected void success() {
+                if (callback != null)
+                    callback.success(user);
             }
 
             @Override
@@ -424,6 +519,17 @@ public class AppacitiveUser extends AppacitiveObjectBase implements Serializable
         loginInBackgroundHelper(url, headers, payload, callback);
     }
 
+    public static APFuture<AppacitiveUser> loginAsync(final String username, final String password, long expiry, int attempts) {
+        APFuture<AppacitiveUser> future = new APFuture<AppacitiveUser>();
+        APCall call = future.beginCall();
+        try {
+            loginInBackground(username, password, expiry, attempts, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void loginWithFacebookInBackground(final String facebookAccessToken, Callback<AppacitiveUser> callback) {
         LOGGER.info("Logging in with facebook.");
         final String url = Urls.ForUser.authenticateUserUrl().toString();
@@ -438,6 +544,17 @@ public class AppacitiveUser extends AppacitiveObjectBase implements Serializable
 
     }
 
+    public static APFuture<AppacitiveUser> loginWithFacebookAsync(final String facebookAccessToken) {
+        APFuture<AppacitiveUser> future = new APFuture<AppacitiveUser>();
+        APCall call = future.beginCall();
+        try {
+            loginWithFacebookInBackground(facebookAccessToken, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void loginWithTwitterInBackground(final String oauthToken, final String oauthTokenSecret, String consumerKey, String consumerSecret, Callback<AppacitiveUser> callback) {
         LOGGER.info("Logging in with twitter.");
         final String url = Urls.ForUser.authenticateUserUrl().toString();
@@ -457,14 +574,47 @@ public class AppacitiveUser extends AppacitiveObjectBase implements Serializable
         loginInBackgroundHelper(url, headers, payload, callback);
     }
 
+    public static APFuture<AppacitiveUser> loginWithTwitterAsync(final String oauthToken, final String oauthTokenSecret, String consumerKey, String consumerSecret) {
+        APFuture<AppacitiveUser> future = new APFuture<AppacitiveUser>();
+        APCall call = future.beginCall();
+        try {
+            loginWithTwitterInBackground(oauthToken, oauthTokenSecret, consumerKey, consumerSecret, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void loginWithTwitterInBackground(final String oauthToken, final String oauthTokenSecret, Callback<AppacitiveUser> callback) {
         loginWithTwitterInBackground(oauthToken, oauthTokenSecret, null, null, callback);
     }
 
+    public static APFuture<AppacitiveUser> loginWithTwitterAsync(final String oauthToken, final String oauthTokenSecret) {
+        APFuture<AppacitiveUser> future = new APFuture<AppacitiveUser>();
+        APCall call = future.beginCall();
+        try {
+            loginWithTwitterInBackground(oauthToken, oauthTokenSecret, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public void loginInBackground(final String password, Callback<String> callback) {
         this.loginInBackground(password, Integer.MAX_VALUE, callback);
     }
 
+    public APFuture<String> loginAsync(final String password) {
+        APFuture<String> future = new APFuture<String>();
+        APCall call = future.beginCall();
+        try {
+            loginInBackground(password, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public void loginInBackground(final String password, int expiry, final Callback<String> callback) {
         LOGGER.info("Logging in.");
         final String url = Urls.ForUser.authenticateUserUrl().toString();
@@ -511,39 +661,43 @@ public class AppacitiveUser extends AppacitiveObjectBase implements Serializable
         });
     }
 
+    public APFuture<String> loginAsync(final String password, int expiry) {
+        APFuture<String> future = new APFuture<String>();
+        APCall call = future.beginCall();
+        try {
+            loginInBackground(password, expiry, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void multiGetInBackground(List<Long> ids, List<String> fields, final Callback<List<AppacitiveUser>> callback) {
         LOGGER.info("Bulk fetching users with ids " + StringUtils.joinLong(ids, " , "));
         final String url = Urls.ForUser.multiGetUserUrl(ids, fields).toString();
         final Map<String, String> headers = Headers.assemble();
 //        AssertUserAuth();
+        final List<AppacitiveUser> returnUsers = new ArrayList<AppacitiveUser>();
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
-        asyncHttp.get(url, headers, new APCallback() {
+        asyncHttp.get(url, headers, new StreamingCallback() {
             @Override
-            public void success(String result) {
-
-                APJSONObject jsonObject;
-                try {
-                    jsonObject = new APJSONObject(result);
-                } catch (APJSONException e) {
-                    throw new RuntimeException(e);
-                }
-                AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
-                if (status.isSuccessful()) {
-                    List<AppacitiveUser> returnUsers = new ArrayList<AppacitiveUser>();
-                    APJSONArray objectsArray = jsonObject.optJSONArray("objects");
-                    for (int i = 0; i < objectsArray.length(); i++) {
-                        APJSONObject userObject = objectsArray.optJSONObject(i);
-                        AppacitiveUser user = new AppacitiveUser();
-                        user.setSelf(userObject);
-                        returnUsers.add(user);
-                    }
-                    if (callback != null)
-                        callback.success(returnUsers);
-                } else {
-                    if (callback != null)
-                        callback.failure(null, new AppacitiveException(status));
+            protected boolean read(String name, APJSONReader reader) throws APJSONException, IOException {
+                if (name.equals("objects") == false)
+                    return false;
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    AppacitiveUser user = new AppacitiveUser();
+                    user.setSelf(reader);
+                    returnUsers.add(user);
                 }
+                reader.endArray();
+                return true;
+            }
 
+            @Override
+            protected void success() {
+                if (callback != null)
+                    callback.success(returnUsers);
             }
 
             @Override
@@ -554,6 +708,17 @@ public class AppacitiveUser extends AppacitiveObjectBase implements Serializable
         });
     }
 
+    public static APFuture<List<AppacitiveUser>> multiGetAsync(List<Long> ids, List<String> fields) {
+        APFuture<List<AppacitiveUser>> future = new APFuture<List<AppacitiveUser>>();
+        APCall call = future.beginCall();
+        try {
+            multiGetInBackground(ids, fields, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     private static void deleteInBackgroundHelper(String url, Map<String, String> headers, final Callback<Void> callback) {
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
         asyncHttp.delete(url, headers, new APCallback() {
@@ -587,12 +752,29 @@ public class AppacitiveUser extends AppacitiveObjectBase implements Serializable
 
     public static void deleteInBackground(long userId, boolean deleteConnections, Callback<Void> callback) {
         LOGGER.info("Deleting user with id " + userId);
+        AppacitiveEntityCache.deleted("user", userId);
+        AppacitiveQueryCache.written("user");
+        if (deleteConnections) {
+            AppacitiveEntityCache.deletedConnectionsOf("user", userId);
+            AppacitiveQueryCache.allConnectionsWritten();
+        }
         final String url = Urls.ForUser.deleteObjectUrl(String.valueOf(userId), UserIdType.id, deleteConnections).toString();
         final Map<String, String> headers = Headers.assemble();
         AssertUserAuth();
         deleteInBackgroundHelper(url, headers, callback);
     }
 
+    public static APFuture<Void> deleteAsync(long userId, boolean deleteConnections) {
+        APFuture<Void> future = new APFuture<Void>();
+        APCall call = future.beginCall();
+        try {
+            deleteInBackground(userId, deleteConnections, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void deleteInBackground(String username, boolean deleteConnections, Callback<Void> callback) {
         LOGGER.info("Deleting user with username " + username);
         final String url = Urls.ForUser.deleteObjectUrl(username, UserIdType.username, deleteConnections).toString();
@@ -601,6 +783,17 @@ public class AppacitiveUser extends AppacitiveObjectBase implements Serializable
         deleteInBackgroundHelper(url, headers, callback);
     }
 
+    public static APFuture<Void> deleteAsync(String username, boolean deleteConnections) {
+        APFuture<Void> future = new APFuture<Void>();
+        APCall call = future.beginCall();
+        try {
+            deleteInBackground(username, deleteConnections, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void deleteLoggedInUserInBackground(boolean deleteConnections, Callback<Void> callback) {
         LOGGER.info("Deleting logged-in user.");
         final String url = Urls.ForUser.deleteObjectUrl("me", UserIdType.token, deleteConnections).toString();
@@ -609,48 +802,75 @@ public class AppacitiveUser extends AppacitiveObjectBase implements Serializable
         deleteInBackgroundHelper(url, headers, callback);
     }
 
+    public static APFuture<Void> deleteLoggedInUserAsync(boolean deleteConnections) {
+        APFuture<Void> future = new APFuture<Void>();
+        APCall call = future.beginCall();
+        try {
+            deleteLoggedInUserInBackground(deleteConnections, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public void deleteInBackground(boolean deleteConnections, Callback<Void> callback) {
         LOGGER.info("Deleting user with username " + this.getUsername());
+        AppacitiveEntityCache.deleted("user", this.getId());
+        AppacitiveQueryCache.written("user");
+        if (deleteConnections) {
+            AppacitiveEntityCache.deletedConnectionsOf("user", this.getId());
+            AppacitiveQueryCache.allConnectionsWritten();
+        }
         final String url = Urls.ForUser.deleteObjectUrl(this.getUsername(), UserIdType.username, deleteConnections).toString();
         final Map<String, String> headers = Headers.assemble();
         AssertUserAuth();
         deleteInBackgroundHelper(url, headers, callback);
     }
 
+    public APFuture<Void> deleteAsync(boolean deleteConnections) {
+        APFuture<Void> future = new APFuture<Void>();
+        APCall call = future.beginCall();
+        try {
+            deleteInBackground(deleteConnections, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public void updateInBackground(boolean withRevision, final Callback<AppacitiveUser> callback) {
         LOGGER.info("Updating user with id " + this.getId());
         final String url = Urls.ForUser.updateUserUrl(this.getId(), withRevision, this.getRevision()).toString();
         final Map<String, String> headers = Headers.assemble();
         AssertUserAuth();
         final AppacitiveUser user = this;
-        APJSONObject payload;
+        byte[] payload;
         try {
-            payload = super.getUpdateCommand();
-            payload.put("__acls", this.accessControl.getMap());
+            payload = this.getUpdateRequestBytes();
         } catch (APJSONException e) {
             throw new RuntimeException(e);
         }
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
-        asyncHttp.post(url, headers, payload.toString(), new APCallback() {
-            @Override
-            public void success(String result) {
+        asyncHttp.post(url, headers, payload, new StreamingCallback() {
+            private AppacitiveUser latest = null;
 
-                APJSONObject jsonObject;
-                try {
-                    jsonObject = new APJSONObject(result);
-                } catch (APJSONException e) {
-                    throw new RuntimeException(e);
-                }
-                AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
-                if (status.isSuccessful()) {
-                    user.setSelf(jsonObject.optJSONObject("user"));
-                    if (callback != null)
-                        callback.success(user);
-                } else {
-                    if (callback != null)
-                        callback.failure(null, new AppacitiveException(status));
-                }
+            @Override
+            protected boolean read(String name, APJSONReader reader) throws APJSONException, IOException {
+                if (name.equals("user") == false)
+                    return false;
+                latest = new AppacitiveUser();
+                latest.setSelf(reader);
+                return true;
+            }
 
+            @Override
+            protected void success() {
+                if (latest != null)
+                    user.replaceWith(latest);
+                AppacitiveEntityCache.evict("user", user.getId());
+                AppacitiveQueryCache.written("user");
+                if (callback != null)
+                    callback.success(user);
             }
 
             @Override
@@ -661,6 +881,17 @@ public class AppacitiveUser extends AppacitiveObjectBase implements Serializable
         });
     }
 
+    public APFuture<AppacitiveUser> updateAsync(boolean withRevision) {
+        APFuture<AppacitiveUser> future = new APFuture<AppacitiveUser>();
+        APCall call = future.beginCall();
+        try {
+            updateInBackground(withRevision, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public void updatePasswordInBackground(final String oldPassword, final String newPassword, final Callback<Void> callback) {
         LOGGER.info("Updating password.");
         final String url = Urls.ForUser.updatePasswordUrl(this.getId()).toString();
@@ -674,6 +905,17 @@ public class AppacitiveUser extends AppacitiveObjectBase implements Serializable
         postWithVoidCallbackHelper(url, headers, payload, callback);
     }
 
+    public APFuture<Void> updatePasswordAsync(final String oldPassword, final String newPassword) {
+        APFuture<Void> future = new APFuture<Void>();
+        APCall call = future.beginCall();
+        try {
+            updatePasswordInBackground(oldPassword, newPassword, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void sendResetPasswordEmailInBackground(final String username, final String subjectForEmail, Callback<Void> callback) {
         LOGGER.info("Sending reset password email for " + username + " with subject " + subjectForEmail);
         final String url = Urls.ForUser.sendResetPasswordEmailUrl().toString();
@@ -687,6 +929,17 @@ public class AppacitiveUser extends AppacitiveObjectBase implements Serializable
         postWithVoidCallbackHelper(url, headers, payload, callback);
     }
 
+    public static APFuture<Void> sendResetPasswordEmailAsync(final String username, final String subjectForEmail) {
+        APFuture<Void> future = new APFuture<Void>();
+        APCall call = future.beginCall();
+        try {
+            sendResetPasswordEmailInBackground(username, subjectForEmail, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void validateCurrentlyLoggedInUserSessionInBackground(Callback<Void> callback) {
         LOGGER.info("Validating currently logged in user.");
         final String url = Urls.ForUser.validateSessionUrl().toString();
@@ -703,6 +956,17 @@ public class AppacitiveUser extends AppacitiveObjectBase implements Serializable
         postWithVoidCallbackHelper(url, headers, payload, callback);
     }
 
+    public static APFuture<Void> validateCurrentlyLoggedInUserSessionAsync() {
+        APFuture<Void> future = new APFuture<Void>();
+        APCall call = future.beginCall();
+        try {
+            validateCurrentlyLoggedInUserSessionInBackground(future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void invalidateCurrentlyLoggedInUserSessionInBackground(Callback<Void> callback) {
         LOGGER.info("Invalidating currently logged in user.");
         final String url = Urls.ForUser.invalidateSessionUrl().toString();
@@ -719,6 +983,17 @@ public class AppacitiveUser extends AppacitiveObjectBase implements Serializable
         postWithVoidCallbackHelper(url, headers, payload, callback);
     }
 
+    public static APFuture<Void> invalidateCurrentlyLoggedInUserSessionAsync() {
+        APFuture<Void> future = new APFuture<Void>();
+        APCall call = future.beginCall();
+        try {
+            invalidateCurrentlyLoggedInUserSessionInBackground(future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public void checkinInBackground(final double[] coordinates, final Callback<Void> callback) {
         LOGGER.info("Checking in currently logged in user.");
         final String url = Urls.ForUser.checkInUserUrl(this.getId(), coordinates).toString();
@@ -760,6 +1035,17 @@ public class AppacitiveUser extends AppacitiveObjectBase implements Serializable
         });
     }
 
+    public APFuture<Void> checkinAsync(final double[] coordinates) {
+        APFuture<Void> future = new APFuture<Void>();
+        APCall call = future.beginCall();
+        try {
+            checkinInBackground(coordinates, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public void linkFacebookInBackground(String facebookAccessToken, Callback<Void> callback) {
         LOGGER.info("Linking facebook account.");
         final String url = Urls.ForUser.linkAccountUrl(this.getId()).toString();
@@ -773,6 +1059,17 @@ public class AppacitiveUser extends AppacitiveObjectBase implements Serializable
         postWithVoidCallbackHelper(url, headers, payload, callback);
     }
 
+    public APFuture<Void> linkFacebookAsync(String facebookAccessToken) {
+        APFuture<Void> future = new APFuture<Void>();
+        APCall call = future.beginCall();
+        try {
+            linkFacebookInBackground(facebookAccessToken, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public void linkTwitterInBackground(String oauthToken, String oauthTokenSecret, String consumerKey, String consumerSecret, Callback<Void> callback) {
         LOGGER.info("Linking twitter account.");
         final String url = Urls.ForUser.linkAccountUrl(this.getId()).toString();
@@ -794,6 +1091,17 @@ public class AppacitiveUser extends AppacitiveObjectBase implements Serializable
         postWithVoidCallbackHelper(url, headers, payload, callback);
     }
 
+    public APFuture<Void> linkTwitterAsync(String oauthToken, String oauthTokenSecret, String consumerKey, String consumerSecret) {
+        APFuture<Void> future = new APFuture<Void>();
+        APCall call = future.beginCall();
+        try {
+            linkTwitterInBackground(oauthToken, oauthTokenSecret, consumerKey, consumerSecret, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public void delinkAccountInBackground(String linkName, Callback<Void> callback) {
         LOGGER.info("Delinking account " + linkName);
         final String url = Urls.ForUser.delinkAccountUrl(this.getId(), linkName).toString();
@@ -805,6 +1113,17 @@ public class AppacitiveUser extends AppacitiveObjectBase implements Serializable
         postWithVoidCallbackHelper(url, headers, payload, callback);
     }
 
+    public APFuture<Void> delinkAccountAsync(String linkName) {
+        APFuture<Void> future = new APFuture<Void>();
+        APCall call = future.beginCall();
+        try {
+            delinkAccountInBackground(linkName, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     private static void postWithVoidCallbackHelper(String url, Map<String, String> headers, APJSONObject payload, final Callback<Void> callback) {
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
         asyncHttp.post(url, headers, payload.toString(), new APCallback() {
@@ -877,6 +1196,17 @@ public class AppacitiveUser extends AppacitiveObjectBase implements Serializable
         });
     }
 
+    public APFuture<Link> getLinkedAccountAsync(String linkName) {
+        APFuture<Link> future = new APFuture<Link>();
+        APCall call = future.beginCall();
+        try {
+            getLinkedAccountInBackground(linkName, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public void getAllLinkedAccountsInBackground(final Callback<List<Link>> callback) {
         LOGGER.info("Fetching all linked accounts");
         final String url = Urls.ForUser.getAllLinkAccountUrl(this.getId()).toString();
@@ -921,33 +1251,42 @@ public class AppacitiveUser extends AppacitiveObjectBase implements Serializable
 
     }
 
+    public APFuture<List<Link>> getAllLinkedAccountsAsync() {
+        APFuture<List<Link>> future = new APFuture<List<Link>>();
+        APCall call = future.beginCall();
+        try {
+            getAllLinkedAccountsInBackground(future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public void fetchLatestInBackground(final Callback<Void> callback) {
         LOGGER.info("Fetching latest user with id " + this.getId());
         final String url = Urls.ForUser.getUserUrl(String.valueOf(this.getId()), UserIdType.id, null).toString();
         final Map<String, String> headers = Headers.assemble();
         final AppacitiveUser user = this;
         AsyncHttp asyncHttp = APContainer.build(AsyncHttp.class);
-        asyncHttp.get(url, headers, new APCallback() {
-            @Override
-            public void success(String result) {
+        asyncHttp.get(url, headers, new StreamingCallback() {
+            private AppacitiveUser latest = null;
 
-                APJSONObject jsonObject;
-                try {
-                    jsonObject = new APJSONObject(result);
-                } catch (APJSONException e) {
-                    throw new RuntimeException(e);
-                }
-                AppacitiveStatus status = new AppacitiveStatus(jsonObject.optJSONObject("status"));
-                if (status.isSuccessful()) {
-                    user.setSelf(jsonObject.optJSONObject("user"));
-                    if (callback != null) {
-                        callback.success(null);
-                    }
-                } else {
-                    if (callback != null)
-                        callback.failure(null, new AppacitiveException(status));
-                }
+            @Override
+            protected boolean read(String name, APJSONReader reader) throws APJSONException, IOException {
+                if (name.equals("user") == false)
+                    return false;
+                latest = new AppacitiveUser();
+                latest.setSelf(reader);
+                return true;
+            }
 
+            @Override
+            protected void success() {
+                if (latest != null)
+                    user.replaceWith(latest);
+                AppacitiveEntityCache.evict("user", user.getId());
+                if (callback != null)
+                    callback.success(null);
             }
 
             @Override
@@ -958,6 +1297,17 @@ public class AppacitiveUser extends AppacitiveObjectBase implements Serializable
         });
     }
 
+    public APFuture<Void> fetchLatestAsync() {
+        APFuture<Void> future = new APFuture<Void>();
+        APCall call = future.beginCall();
+        try {
+            fetchLatestInBackground(future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public void getFriends(SocialProvider provider, final Callback<List<AppacitiveUser>> callback)
     {
         LOGGER.info("Fetching friends for user with id " + this.getId());
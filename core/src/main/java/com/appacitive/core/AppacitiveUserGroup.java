@@ -4,8 +4,10 @@ import com.appacitive.core.apjson.APJSONArray;
 import com.appacitive.core.apjson.APJSONException;
 import com.appacitive.core.apjson.APJSONObject;
 import com.appacitive.core.exceptions.AppacitiveException;
+import com.appacitive.core.infra.APCall;
 import com.appacitive.core.infra.APCallback;
 import com.appacitive.core.infra.APContainer;
+import com.appacitive.core.infra.APFuture;
 import com.appacitive.core.infra.Headers;
 import com.appacitive.core.infra.Urls;
 import com.appacitive.core.interfaces.AsyncHttp;
@@ -30,24 +32,68 @@ public class AppacitiveUserGroup {
 
     }
 
+    public static APFuture<Void> addUserAsync(String groupName, final String username) {
+        APFuture<Void> future = new APFuture<Void>();
+        APCall call = future.beginCall();
+        try {
+            addUserInBackground(groupName, username, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void addUserInBackground(String groupName, final long userId, Callback<Void> callback) {
         addUsersInBackground(groupName, new ArrayList<String>() {{
             add(String.valueOf(userId));
         }}, callback);
     }
 
+    public static APFuture<Void> addUserAsync(String groupName, final long userId) {
+        APFuture<Void> future = new APFuture<Void>();
+        APCall call = future.beginCall();
+        try {
+            addUserInBackground(groupName, userId, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void removeUserInBackground(String groupName, final String username, Callback<Void> callback) {
         removeUsersInBackground(groupName, new ArrayList<String>() {{
             add(username);
         }}, callback);
     }
 
+    public static APFuture<Void> removeUserAsync(String groupName, final String username) {
+        APFuture<Void> future = new APFuture<Void>();
+        APCall call = future.beginCall();
+        try {
+            removeUserInBackground(groupName, username, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void removeUserInBackground(String groupName, final long userId, Callback<Void> callback) {
         removeUsersInBackground(groupName, new ArrayList<String>() {{
             add(String.valueOf(userId));
         }}, callback);
     }
 
+    public static APFuture<Void> removeUserAsync(String groupName, final long userId) {
+        APFuture<Void> future = new APFuture<Void>();
+        APCall call = future.beginCall();
+        try {
+            removeUserInBackground(groupName, userId, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void addUsersInBackground(String groupName, ArrayList<String> userIds, Callback<Void> callback) {
         APJSONArray array = new APJSONArray(userIds);
         APJSONObject payload = new APJSONObject();
@@ -60,6 +106,17 @@ public class AppacitiveUserGroup {
         fireCall(groupName, payload.toString(), callback);
     }
 
+    public static APFuture<Void> addUsersAsync(String groupName, ArrayList<String> userIds) {
+        APFuture<Void> future = new APFuture<Void>();
+        APCall call = future.beginCall();
+        try {
+            addUsersInBackground(groupName, userIds, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     public static void removeUsersInBackground(String groupName, ArrayList<String> userIds, Callback<Void> callback) {
         APJSONArray array = new APJSONArray(userIds);
         APJSONObject payload = new APJSONObject();
@@ -72,6 +129,17 @@ public class AppacitiveUserGroup {
         fireCall(groupName, payload.toString(), callback);
     }
 
+    public static APFuture<Void> removeUsersAsync(String groupName, ArrayList<String> userIds) {
+        APFuture<Void> future = new APFuture<Void>();
+        APCall call = future.beginCall();
+        try {
+            removeUsersInBackground(groupName, userIds, future.callback());
+        } finally {
+            call.end();
+        }
+        return future;
+    }
+
     private static void fireCall(String groupName, String payload, final Callback<Void> callback) {
         String url = Urls.ForUserGroup.getUpdateMembersUrl(groupName).toString();
         Map<String, String> headers = Headers.assemble();
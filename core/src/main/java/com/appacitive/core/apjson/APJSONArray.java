@@ -16,6 +16,7 @@
 
 package com.appacitive.core.apjson;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -575,6 +576,14 @@ public class APJSONArray {
         stringer.endArray();
     }
 
+    void writeTo(APJSONWriter writer) throws APJSONException, IOException {
+        writer.beginArray();
+        for (Object value : values) {
+            writer.value(value);
+        }
+        writer.endArray();
+    }
+
     @Override
     public boolean equals(Object o) {
         return o instanceof APJSONArray && ((APJSONArray) o).values.equals(values);
@@ -16,6 +16,7 @@
 
 package com.appacitive.core.apjson;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -673,6 +674,14 @@ public class APJSONObject {
         stringer.endObject();
     }
 
+    void writeTo(APJSONWriter writer) throws APJSONException, IOException {
+        writer.beginObject();
+        for (Map.Entry<String, Object> entry : nameValuePairs.entrySet()) {
+            writer.name(entry.getKey()).value(entry.getValue());
+        }
+        writer.endObject();
+    }
+
     /**
      * Encodes the number as a APJSON string.
      *
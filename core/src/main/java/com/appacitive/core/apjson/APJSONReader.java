@@ -0,0 +1,514 @@
+package com.appacitive.core.apjson;
+
+import java.io.*;
+
+/**
+ * Streaming pull parser for APJSON (<a href="http://www.ietf.org/rfc/rfc4627.txt">RFC 4627</a>)
+ * encoded input.
+ * <p/>
+ * Unlike {@link APJSONTokener}, which needs the whole document as a string and returns a complete tree,
+ * this reader pulls one token at a time from a {@link Reader} or {@link InputStream} through a small fixed
+ * buffer. Large documents, such as long result pages, can therefore be consumed with constant memory,
+ * building only the parts that are needed. Example usage: <pre>
+ * APJSONReader reader = new APJSONReader(inputStream);
+ * reader.beginObject();
+ * while (reader.hasNext()) {
+ *     String name = reader.nextName();
+ *     if (name.equals("objects")) {
+ *         reader.beginArray();
+ *         while (reader.hasNext()) {
+ *             APJSONObject object = reader.readObject();
+ *             ...
+ *         }
+ *         reader.endArray();
+ *     } else {
+ *         reader.skipValue();
+ *     }
+ * }
+ * reader.endObject();
+ * </pre>
+ * <p/>
+ * The reader is strict: names must be quoted and only standard literals are accepted. Numbers read through
+ * {@link #nextNumber()} or {@link #readValue()} get the same types as the tokener would give them.
+ * Instances are not thread safe.
+ */
+public class APJSONReader implements Closeable {
+
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    private static final int NONEMPTY_ARRAY = 3;
+    private static final int EMPTY_OBJECT = 4;
+    private static final int DANGLING_NAME = 5;
+    private static final int NONEMPTY_OBJECT = 6;
+
+    private final Reader in;
+
+    private final char[] buffer = new char[4096];
+
+    private int pos = 0;
+
+    private int limit = 0;
+
+    private int[] stack = new int[32];
+
+    private int stackSize = 0;
+
+    //  Names repeat across the objects of a result page, so each distinct name is only allocated once per reader.
+    private final String[] names = new String[128];
+
+    private APJSONToken peeked = null;
+
+    //  Text of the peeked name, string, number or boolean.
+    private String peekedText = null;
+
+    public APJSONReader(Reader in) {
+        if (in == null)
+            throw new NullPointerException("in == null");
+        this.in = in;
+        push(EMPTY_DOCUMENT);
+    }
+
+    public APJSONReader(InputStream in) throws UnsupportedEncodingException {
+        this(new InputStreamReader(in, "UTF-8"));
+    }
+
+    /**
+     * Returns the type of the next token without consuming it.
+     */
+    public APJSONToken peek() throws APJSONException, IOException {
+        if (peeked == null)
+            peeked = doPeek();
+        return peeked;
+    }
+
+    public void beginObject() throws APJSONException, IOException {
+        expect(APJSONToken.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() throws APJSONException, IOException {
+        expect(APJSONToken.END_OBJECT);
+        stackSize--;
+    }
+
+    public void beginArray() throws APJSONException, IOException {
+        expect(APJSONToken.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() throws APJSONException, IOException {
+        expect(APJSONToken.END_ARRAY);
+        stackSize--;
+    }
+
+    /**
+     * Returns true if the current object or array has more elements.
+     */
+    public boolean hasNext() throws APJSONException, IOException {
+        APJSONToken token = peek();
+        return token != APJSONToken.END_OBJECT && token != APJSONToken.END_ARRAY && token != APJSONToken.END_DOCUMENT;
+    }
+
+    public String nextName() throws APJSONException, IOException {
+        expect(APJSONToken.NAME);
+        return peekedText;
+    }
+
+    /**
+     * Returns the next string value. Numbers are returned in their textual form.
+     */
+    public String nextString() throws APJSONException, IOException {
+        APJSONToken token = peek();
+        if (token != APJSONToken.STRING && token != APJSONToken.NUMBER)
+            throw syntaxError("Expected a string but was " + token);
+        peeked = null;
+        return peekedText;
+    }
+
+    public boolean nextBoolean() throws APJSONException, IOException {
+        expect(APJSONToken.BOOLEAN);
+        return peekedText.equals("true");
+    }
+
+    public void nextNull() throws APJSONException, IOException {
+        expect(APJSONToken.NULL);
+    }
+
+    /**
+     * Returns the next number, or string holding a number, as a long.
+     */
+    public long nextLong() throws APJSONException, IOException {
+        String text = nextNumberText();
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            double value = parseDouble(text);
+            if (value != (long) value)
+                throw syntaxError("Expected a long but was " + text);
+            return (long) value;
+        }
+    }
+
+    public int nextInt() throws APJSONException, IOException {
+        long value = nextLong();
+        if (value != (int) value)
+            throw syntaxError("Expected an int but was " + value);
+        return (int) value;
+    }
+
+    public double nextDouble() throws APJSONException, IOException {
+        return parseDouble(nextNumberText());
+    }
+
+    /**
+     * Returns the next number as an Integer, Long or Double, the same way {@link APJSONTokener} does.
+     */
+    public Number nextNumber() throws APJSONException, IOException {
+        expect(APJSONToken.NUMBER);
+        String text = peekedText;
+        if (text.indexOf('.') == -1 && text.indexOf('e') == -1 && text.indexOf('E') == -1) {
+            try {
+                long value = Long.parseLong(text);
+                if (value <= Integer.MAX_VALUE && value >= Integer.MIN_VALUE)
+                    return (int) value;
+                return value;
+            } catch (NumberFormatException e) {
+                //  Larger than a long, fall through to double.
+            }
+        }
+        return parseDouble(text);
+    }
+
+    /**
+     * Skips the next value, including everything nested inside it.
+     */
+    public void skipValue() throws APJSONException, IOException {
+        int depth = 0;
+        do {
+            APJSONToken token = peek();
+            switch (token) {
+                case BEGIN_OBJECT:
+                    beginObject();
+                    depth++;
+                    break;
+                case BEGIN_ARRAY:
+                    beginArray();
+                    depth++;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    depth--;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    depth--;
+                    break;
+                case END_DOCUMENT:
+                    throw syntaxError("Unexpected end of input");
+                default:
+                    peeked = null;
+            }
+        } while (depth > 0);
+    }
+
+    /**
+     * Reads the next value into the same representation {@link APJSONTokener#nextValue()} returns:
+     * a {@link APJSONObject}, {@link APJSONArray}, String, Boolean, Integer, Long, Double or {@link APJSONObject#NULL}.
+     */
+    public Object readValue() throws APJSONException, IOException {
+        switch (peek()) {
+            case BEGIN_OBJECT:
+                return readObject();
+            case BEGIN_ARRAY:
+                return readArray();
+            case STRING:
+                return nextString();
+            case NUMBER:
+                return nextNumber();
+            case BOOLEAN:
+                return nextBoolean();
+            case NULL:
+                nextNull();
+                return APJSONObject.NULL;
+            default:
+                throw syntaxError("Expected a value but was " + peek());
+        }
+    }
+
+    public APJSONObject readObject() throws APJSONException, IOException {
+        APJSONObject object = new APJSONObject();
+        beginObject();
+        while (hasNext()) {
+            String name = nextName();
+            object.put(name, readValue());
+        }
+        endObject();
+        return object;
+    }
+
+    public APJSONArray readArray() throws APJSONException, IOException {
+        APJSONArray array = new APJSONArray();
+        beginArray();
+        while (hasNext())
+            array.put(readValue());
+        endArray();
+        return array;
+    }
+
+    @Override
+    public void close() throws IOException {
+        peeked = null;
+        stackSize = 0;
+        in.close();
+    }
+
+    private void expect(APJSONToken expected) throws APJSONException, IOException {
+        APJSONToken token = peek();
+        if (token != expected)
+            throw syntaxError("Expected " + expected + " but was " + token);
+        peeked = null;
+    }
+
+    private String nextNumberText() throws APJSONException, IOException {
+        APJSONToken token = peek();
+        if (token != APJSONToken.NUMBER && token != APJSONToken.STRING)
+            throw syntaxError("Expected a number but was " + token);
+        peeked = null;
+        return peekedText;
+    }
+
+    private double parseDouble(String text) throws APJSONException {
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw syntaxError("Expected a number but was " + text);
+        }
+    }
+
+    private void push(int scope) {
+        if (stackSize == stack.length) {
+            int[] larger = new int[stackSize * 2];
+            System.arraycopy(stack, 0, larger, 0, stackSize);
+            stack = larger;
+        }
+        stack[stackSize++] = scope;
+    }
+
+    private APJSONToken doPeek() throws APJSONException, IOException {
+        if (stackSize == 0)
+            throw new IllegalStateException("APJSONReader is closed");
+        int scope = stack[stackSize - 1];
+        switch (scope) {
+            case EMPTY_ARRAY:
+            case NONEMPTY_ARRAY: {
+                int c = nextNonWhitespace();
+                if (c == ']')
+                    return APJSONToken.END_ARRAY;
+                if (scope == NONEMPTY_ARRAY) {
+                    if (c != ',')
+                        throw syntaxError("Unterminated array");
+                } else {
+                    pos--;
+                }
+                stack[stackSize - 1] = NONEMPTY_ARRAY;
+                return readValueToken();
+            }
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT: {
+                int c = nextNonWhitespace();
+                if (c == '}')
+                    return APJSONToken.END_OBJECT;
+                if (scope == NONEMPTY_OBJECT) {
+                    if (c != ',')
+                        throw syntaxError("Unterminated object");
+                    c = nextNonWhitespace();
+                }
+                if (c != '"')
+                    throw syntaxError("Expected a quoted name");
+                stack[stackSize - 1] = DANGLING_NAME;
+                peekedText = readString(true);
+                return APJSONToken.NAME;
+            }
+            case DANGLING_NAME: {
+                if (nextNonWhitespace() != ':')
+                    throw syntaxError("Expected ':' after a name");
+                stack[stackSize - 1] = NONEMPTY_OBJECT;
+                return readValueToken();
+            }
+            case EMPTY_DOCUMENT: {
+                stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+                return readValueToken();
+            }
+            default: {
+                if (skipWhitespace() == false)
+                    return APJSONToken.END_DOCUMENT;
+                throw syntaxError("Expected end of input");
+            }
+        }
+    }
+
+    private APJSONToken readValueToken() throws APJSONException, IOException {
+        int c = nextNonWhitespace();
+        switch (c) {
+            case '{':
+                return APJSONToken.BEGIN_OBJECT;
+            case '[':
+                return APJSONToken.BEGIN_ARRAY;
+            case '"':
+                peekedText = readString(false);
+                return APJSONToken.STRING;
+            default:
+                pos--;
+                String literal = readLiteral();
+                if (literal.equals("true") || literal.equals("false")) {
+                    peekedText = literal;
+                    return APJSONToken.BOOLEAN;
+                }
+                if (literal.equals("null"))
+                    return APJSONToken.NULL;
+                if (isNumber(literal) == false)
+                    throw syntaxError("Unexpected literal " + literal);
+                peekedText = literal;
+                return APJSONToken.NUMBER;
+        }
+    }
+
+    private static boolean isNumber(String literal) {
+        char first = literal.charAt(0);
+        return first == '-' || (first >= '0' && first <= '9');
+    }
+
+    private boolean fill() throws IOException {
+        if (pos < limit)
+            return true;
+        int read = in.read(buffer, 0, buffer.length);
+        pos = 0;
+        limit = read == -1 ? 0 : read;
+        return limit > 0;
+    }
+
+    //  Leaves pos at the next non whitespace character and returns whether there is one.
+    private boolean skipWhitespace() throws IOException {
+        while (fill()) {
+            char c = buffer[pos];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t')
+                return true;
+            pos++;
+        }
+        return false;
+    }
+
+    private int nextNonWhitespace() throws APJSONException, IOException {
+        if (skipWhitespace() == false)
+            throw syntaxError("Unexpected end of input");
+        return buffer[pos++];
+    }
+
+    private String readLiteral() throws APJSONException, IOException {
+        StringBuilder builder = null;
+        while (true) {
+            int start = pos;
+            while (pos < limit) {
+                char c = buffer[pos];
+                if (c == ',' || c == ':' || c == ']' || c == '}' || c == '[' || c == '{' || c == '"'
+                        || c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                    String tail = new String(buffer, start, pos - start);
+                    return builder == null ? tail : builder.append(tail).toString();
+                }
+                pos++;
+            }
+            if (builder == null)
+                builder = new StringBuilder();
+            builder.append(buffer, start, pos - start);
+            if (fill() == false) {
+                if (builder.length() == 0)
+                    throw syntaxError("Unexpected end of input");
+                return builder.toString();
+            }
+        }
+    }
+
+    //  Reads up to and including the closing quote; the opening quote has been consumed.
+    private String readString(boolean name) throws APJSONException, IOException {
+        StringBuilder builder = null;
+        while (true) {
+            int start = pos;
+            while (pos < limit) {
+                char c = buffer[pos++];
+                if (c == '"') {
+                    if (builder == null)
+                        return name ? name(start, pos - start - 1) : new String(buffer, start, pos - start - 1);
+                    builder.append(buffer, start, pos - start - 1);
+                    return builder.toString();
+                }
+                if (c == '\\') {
+                    if (builder == null)
+                        builder = new StringBuilder();
+                    builder.append(buffer, start, pos - start - 1);
+                    builder.append(readEscape());
+                    start = pos;
+                }
+            }
+            if (builder == null)
+                builder = new StringBuilder();
+            builder.append(buffer, start, pos - start);
+            if (fill() == false)
+                throw syntaxError("Unterminated string");
+        }
+    }
+
+    private String name(int start, int length) {
+        int hash = 0;
+        for (int i = start; i < start + length; i++)
+            hash = 31 * hash + buffer[i];
+        int slot = hash & (names.length - 1);
+        String cached = names[slot];
+        if (cached != null && cached.length() == length) {
+            int i = 0;
+            while (i < length && cached.charAt(i) == buffer[start + i])
+                i++;
+            if (i == length)
+                return cached;
+        }
+        cached = new String(buffer, start, length);
+        names[slot] = cached;
+        return cached;
+    }
+
+    private char readEscape() throws APJSONException, IOException {
+        if (fill() == false)
+            throw syntaxError("Unterminated escape sequence");
+        char escaped = buffer[pos++];
+        switch (escaped) {
+            case 'u':
+                char[] hex = new char[4];
+                for (int i = 0; i < 4; i++) {
+                    if (fill() == false)
+                        throw syntaxError("Unterminated escape sequence");
+                    hex[i] = buffer[pos++];
+                }
+                try {
+                    return (char) Integer.parseInt(new String(hex), 16);
+                } catch (NumberFormatException e) {
+                    throw syntaxError("Invalid escape sequence: " + new String(hex));
+                }
+            case 't':
+                return '\t';
+            case 'b':
+                return '\b';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 'f':
+                return '\f';
+            default:
+                return escaped;
+        }
+    }
+
+    private APJSONException syntaxError(String message) {
+        return new APJSONException(message + " at depth " + stackSize);
+    }
+}
@@ -0,0 +1,58 @@
+package com.appacitive.core.apjson;
+
+/**
+ * The kinds of tokens reported by {@link APJSONReader#peek()}.
+ */
+public enum APJSONToken {
+
+    /**
+     * The opening of a json object, consumed with {@link APJSONReader#beginObject()}.
+     */
+    BEGIN_OBJECT,
+
+    /**
+     * The closing of a json object, consumed with {@link APJSONReader#endObject()}.
+     */
+    END_OBJECT,
+
+    /**
+     * The opening of a json array, consumed with {@link APJSONReader#beginArray()}.
+     */
+    BEGIN_ARRAY,
+
+    /**
+     * The closing of a json array, consumed with {@link APJSONReader#endArray()}.
+     */
+    END_ARRAY,
+
+    /**
+     * A property name, consumed with {@link APJSONReader#nextName()}.
+     */
+    NAME,
+
+    /**
+     * A string value.
+     */
+    STRING,
+
+    /**
+     * A number value, consumed with {@link APJSONReader#nextLong()}, {@link APJSONReader#nextDouble()}
+     * or {@link APJSONReader#nextNumber()}.
+     */
+    NUMBER,
+
+    /**
+     * {@code true} or {@code false}.
+     */
+    BOOLEAN,
+
+    /**
+     * The literal {@code null}.
+     */
+    NULL,
+
+    /**
+     * The end of the input.
+     */
+    END_DOCUMENT
+}
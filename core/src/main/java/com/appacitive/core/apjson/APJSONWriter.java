@@ -0,0 +1,322 @@
+package com.appacitive.core.apjson;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Streaming writer for APJSON (<a href="http://www.ietf.org/rfc/rfc4627.txt">RFC 4627</a>) encoded output.
+ * <p/>
+ * Where {@link APJSONStringer} needs a complete {@link APJSONObject} tree and produces a string, this writer
+ * encodes values as they are written, straight to utf-8 bytes. Output either goes to an {@link OutputStream}
+ * through a small buffer or, when no stream is given, accumulates in a byte buffer that is read back with
+ * {@link #toByteArray()}. Example usage: <pre>
+ * APJSONWriter writer = new APJSONWriter();
+ * writer.beginObject();
+ * writer.name("name").value("player 1");
+ * writer.name("tags").beginArray().value("red").value("blue").endArray();
+ * writer.endObject();
+ * byte[] body = writer.toByteArray();
+ * </pre>
+ * <p/>
+ * Values are encoded exactly as {@link APJSONStringer} encodes them, so a tree written through either gives the
+ * same text. Calls that would produce malformed output fail with a {@link APJSONException}.
+ * Instances are not thread safe.
+ */
+public class APJSONWriter {
+
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    private static final int NONEMPTY_ARRAY = 3;
+    private static final int EMPTY_OBJECT = 4;
+    private static final int DANGLING_NAME = 5;
+    private static final int NONEMPTY_OBJECT = 6;
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    private final OutputStream out;
+
+    private byte[] buffer;
+
+    private int count = 0;
+
+    private int[] stack = new int[32];
+
+    private int stackSize = 0;
+
+    /**
+     * Creates a writer that keeps its output in memory, see {@link #toByteArray()}.
+     */
+    public APJSONWriter() {
+        this.out = null;
+        this.buffer = new byte[1024];
+        push(EMPTY_DOCUMENT);
+    }
+
+    /**
+     * Creates a writer that encodes to the given stream. Call {@link #flush()} once done.
+     */
+    public APJSONWriter(OutputStream out) {
+        if (out == null)
+            throw new NullPointerException("out == null");
+        this.out = out;
+        this.buffer = new byte[4096];
+        push(EMPTY_DOCUMENT);
+    }
+
+    public APJSONWriter beginObject() throws APJSONException, IOException {
+        beforeValue();
+        write('{');
+        push(EMPTY_OBJECT);
+        return this;
+    }
+
+    public APJSONWriter endObject() throws APJSONException, IOException {
+        int scope = peek();
+        if (scope != EMPTY_OBJECT && scope != NONEMPTY_OBJECT)
+            throw new APJSONException("Nesting problem");
+        stackSize--;
+        write('}');
+        return this;
+    }
+
+    public APJSONWriter beginArray() throws APJSONException, IOException {
+        beforeValue();
+        write('[');
+        push(EMPTY_ARRAY);
+        return this;
+    }
+
+    public APJSONWriter endArray() throws APJSONException, IOException {
+        int scope = peek();
+        if (scope != EMPTY_ARRAY && scope != NONEMPTY_ARRAY)
+            throw new APJSONException("Nesting problem");
+        stackSize--;
+        write(']');
+        return this;
+    }
+
+    public APJSONWriter name(String name) throws APJSONException, IOException {
+        if (name == null)
+            throw new APJSONException("Names must be non-null");
+        int scope = peek();
+        if (scope == NONEMPTY_OBJECT)
+            write(',');
+        else if (scope != EMPTY_OBJECT)
+            throw new APJSONException("Nesting problem");
+        stack[stackSize - 1] = DANGLING_NAME;
+        string(name);
+        write(':');
+        return this;
+    }
+
+    /**
+     * Encodes {@code value} the way {@link APJSONStringer#value(Object)} does: trees are written out, null,
+     * booleans and {@link APJSONObject#NULL} as literals, numbers as numbers and anything else as its string form.
+     */
+    public APJSONWriter value(Object value) throws APJSONException, IOException {
+        if (value instanceof APJSONObject) {
+            ((APJSONObject) value).writeTo(this);
+            return this;
+        }
+        if (value instanceof APJSONArray) {
+            ((APJSONArray) value).writeTo(this);
+            return this;
+        }
+        if (value == null || value == APJSONObject.NULL)
+            return nullValue();
+        if (value instanceof Boolean)
+            return value(((Boolean) value).booleanValue());
+        if (value instanceof Number)
+            return number(APJSONObject.numberToString((Number) value));
+        return value(value.toString());
+    }
+
+    public APJSONWriter value(String value) throws APJSONException, IOException {
+        if (value == null)
+            return nullValue();
+        beforeValue();
+        string(value);
+        return this;
+    }
+
+    public APJSONWriter value(boolean value) throws APJSONException, IOException {
+        beforeValue();
+        ascii(value ? "true" : "false");
+        return this;
+    }
+
+    public APJSONWriter value(long value) throws APJSONException, IOException {
+        return number(Long.toString(value));
+    }
+
+    /**
+     * @param value a finite value. May not be {@link Double#isNaN() NaNs} or {@link Double#isInfinite() infinities}.
+     */
+    public APJSONWriter value(double value) throws APJSONException, IOException {
+        return number(APJSONObject.numberToString(value));
+    }
+
+    public APJSONWriter nullValue() throws APJSONException, IOException {
+        beforeValue();
+        ascii("null");
+        return this;
+    }
+
+    /**
+     * Writes any buffered output to the underlying stream.
+     */
+    public void flush() throws IOException {
+        if (out == null)
+            return;
+        out.write(buffer, 0, count);
+        count = 0;
+        out.flush();
+    }
+
+    /**
+     * Returns the output of an in-memory writer.
+     */
+    public byte[] toByteArray() {
+        if (out != null)
+            throw new IllegalStateException("Output goes to a stream");
+        return Arrays.copyOf(buffer, count);
+    }
+
+    /**
+     * Returns the number of bytes an in-memory writer holds.
+     */
+    public int size() {
+        return count;
+    }
+
+    private APJSONWriter number(String text) throws APJSONException, IOException {
+        beforeValue();
+        ascii(text);
+        return this;
+    }
+
+    private int peek() throws APJSONException {
+        if (stackSize == 0)
+            throw new APJSONException("Nesting problem");
+        return stack[stackSize - 1];
+    }
+
+    private void push(int scope) {
+        if (stackSize == stack.length)
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        stack[stackSize++] = scope;
+    }
+
+    private void beforeValue() throws APJSONException, IOException {
+        switch (peek()) {
+            case EMPTY_DOCUMENT:
+                stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+                break;
+            case EMPTY_ARRAY:
+                stack[stackSize - 1] = NONEMPTY_ARRAY;
+                break;
+            case NONEMPTY_ARRAY:
+                write(',');
+                break;
+            case DANGLING_NAME:
+                stack[stackSize - 1] = NONEMPTY_OBJECT;
+                break;
+            case NONEMPTY_DOCUMENT:
+                throw new APJSONException("APJSON must have only one top-level value.");
+            default:
+                throw new APJSONException("Nesting problem");
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (count + bytes <= buffer.length)
+            return;
+        if (out != null) {
+            out.write(buffer, 0, count);
+            count = 0;
+            if (bytes <= buffer.length)
+                return;
+        }
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + bytes));
+    }
+
+    private void write(char c) throws IOException {
+        ensure(1);
+        buffer[count++] = (byte) c;
+    }
+
+    private void ascii(String text) throws IOException {
+        int length = text.length();
+        ensure(length);
+        for (int i = 0; i < length; i++)
+            buffer[count++] = (byte) text.charAt(i);
+    }
+
+    //  Escapes as APJSONStringer does and encodes to utf-8 in the same pass.
+    private void string(String value) throws IOException {
+        write('"');
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c < 0x80) {
+                if (c == '"' || c == '\\' || c == '/') {
+                    ensure(2);
+                    buffer[count++] = '\\';
+                }
+                ensure(1);
+                buffer[count++] = (byte) c;
+            } else if (c < 0x20) {
+                escapeControl(c);
+            } else if (c < 0x800) {
+                ensure(2);
+                buffer[count++] = (byte) (0xc0 | (c >> 6));
+                buffer[count++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                ensure(4);
+                buffer[count++] = (byte) (0xf0 | (codePoint >> 18));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                buffer[count++] = (byte) (0x80 | (codePoint & 0x3f));
+            } else if (c >= 0xd800 && c <= 0xdfff) {
+                //  Unpaired surrogates have no utf-8 form, String.getBytes writes '?' for them too.
+                write('?');
+            } else {
+                ensure(3);
+                buffer[count++] = (byte) (0xe0 | (c >> 12));
+                buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                buffer[count++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        write('"');
+    }
+
+    private void escapeControl(char c) throws IOException {
+        switch (c) {
+            case '\t':
+                ascii("\\t");
+                break;
+            case '\b':
+                ascii("\\b");
+                break;
+            case '\n':
+                ascii("\\n");
+                break;
+            case '\r':
+                ascii("\\r");
+                break;
+            case '\f':
+                ascii("\\f");
+                break;
+            default:
+                ensure(6);
+                buffer[count++] = '\\';
+                buffer[count++] = 'u';
+                buffer[count++] = '0';
+                buffer[count++] = '0';
+                buffer[count++] = HEX[(c >> 4) & 0xf];
+                buffer[count++] = HEX[c & 0xf];
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.appacitive.core.exceptions;
+
+import java.io.Serializable;
+
+/**
+ * Thrown to a callback when its request was not sent because the {@link com.appacitive.core.infra.CircuitBreaker}
+ * for its endpoint is open.
+ */
+public class CircuitOpenException extends AppacitiveException implements Serializable {
+
+    private final String endpoint;
+
+    public CircuitOpenException(String endpoint) {
+        super("Requests to " + endpoint + " are failing, so this one was not sent.");
+        this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+}
@@ -0,0 +1,14 @@
+package com.appacitive.core.exceptions;
+
+import java.io.Serializable;
+
+/**
+ * Thrown to a callback when its request was turned away by the {@link com.appacitive.core.infra.RequestLimiter}
+ * without being sent.
+ */
+public class RequestRejectedException extends AppacitiveException implements Serializable {
+
+    public RequestRejectedException(String message) {
+        super(message);
+    }
+}
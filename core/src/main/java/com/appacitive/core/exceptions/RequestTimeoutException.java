@@ -0,0 +1,21 @@
+package com.appacitive.core.exceptions;
+
+import java.io.Serializable;
+
+/**
+ * Thrown to a callback when its request did not complete before its deadline, see
+ * {@link com.appacitive.core.infra.RequestTimeouts}. The request is cancelled in the transport.
+ */
+public class RequestTimeoutException extends AppacitiveException implements Serializable {
+
+    private final long timeoutInMs;
+
+    public RequestTimeoutException(String endpoint, long timeoutInMs) {
+        super("Request to " + endpoint + " did not complete within " + timeoutInMs + " ms.");
+        this.timeoutInMs = timeoutInMs;
+    }
+
+    public long getTimeoutInMs() {
+        return timeoutInMs;
+    }
+}
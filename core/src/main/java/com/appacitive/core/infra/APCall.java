@@ -0,0 +1,129 @@
+package com.appacitive.core.infra;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Groups the requests made by the calling thread between {@link #begin()} and {@link #end()}, so that they can be
+ * given a deadline of their own and be cancelled together:
+ * <pre>
+ * APCall call = APCall.begin(2, TimeUnit.SECONDS);
+ * try {
+ *     AppacitiveObject.getInBackground("player", id, null, callback);
+ * } finally {
+ *     call.end();
+ * }
+ * ...
+ * call.cancel();
+ * </pre>
+ * Cancelling aborts the requests still in flight and fails their callbacks with a {@link CancellationException};
+ * requests the call makes afterwards fail the same way without being sent. Requests the sdk sends later from its
+ * own threads, such as those of the {@link com.appacitive.core.AppacitiveBatchWriter}, are not part of the call;
+ * lookups the {@link com.appacitive.core.AppacitiveReadCoalescer} holds back still fail with it, see
+ * {@link BoundCallback}.
+ * Cancelling a call also cancels the calls started inside it, such as the one every {@code *Async} method makes so
+ * that cancelling its {@link APFuture} aborts the request.
+ */
+public class APCall {
+
+    interface Abortable {
+        void abort(Exception e);
+    }
+
+    private static final ThreadLocal<APCall> current = new ThreadLocal<APCall>();
+
+    private final APCall previous;
+
+    private final long deadline;
+
+    private final Set<Abortable> inFlight = new HashSet<Abortable>();
+
+    private boolean cancelled = false;
+
+    private APCall(APCall previous, long deadline) {
+        this.previous = previous;
+        this.deadline = deadline;
+    }
+
+    public static APCall begin() {
+        return begin(0, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Starts a call on this thread whose requests must all complete within {@code timeout}, or 0 for no deadline of
+     * its own. A call started inside another keeps the deadline of the outer one if that is sooner.
+     */
+    public static APCall begin(long timeout, TimeUnit unit) {
+        APCall previous = current.get();
+        long deadline = timeout > 0 ? System.nanoTime() + unit.toNanos(timeout) : 0;
+        if (previous != null && previous.deadline != 0 && (deadline == 0 || previous.deadline - deadline < 0))
+            deadline = previous.deadline;
+        APCall call = new APCall(previous, deadline);
+        current.set(call);
+        return call;
+    }
+
+    /**
+     * Stops adding this thread's requests to the call. Requests already made stay part of it.
+     */
+    public void end() {
+        if (current.get() == this)
+            current.set(previous);
+    }
+
+    public void cancel() {
+        List<Abortable> aborted;
+        synchronized (this) {
+            if (cancelled)
+                return;
+            cancelled = true;
+            aborted = new ArrayList<Abortable>(inFlight);
+            inFlight.clear();
+        }
+        for (Abortable abortable : aborted)
+            abortable.abort(new CancellationException("Request was cancelled."));
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    static APCall current() {
+        return current.get();
+    }
+
+    boolean hasDeadline() {
+        return deadline != 0;
+    }
+
+    long remainingNanos() {
+        return deadline - System.nanoTime();
+    }
+
+    //  Returns false if the call, or one it was started in, was already cancelled. Requests are also added to the
+    //  calls this one was started in, so that cancelling those aborts them too.
+    boolean add(Abortable abortable) {
+        synchronized (this) {
+            if (cancelled)
+                return false;
+            inFlight.add(abortable);
+        }
+        if (previous != null && previous.add(abortable) == false) {
+            remove(abortable);
+            return false;
+        }
+        return true;
+    }
+
+    void remove(Abortable abortable) {
+        synchronized (this) {
+            inFlight.remove(abortable);
+        }
+        if (previous != null)
+            previous.remove(abortable);
+    }
+}
@@ -1,6 +1,9 @@
 package com.appacitive.core.infra;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.io.Serializable;
+import java.util.concurrent.CancellationException;
 
 /**
  * Created by sathley.
@@ -10,6 +13,86 @@ public abstract class APCallback implements Serializable {
     public void success(String result) {
     }
 
+    /**
+     * Receives the response body as it arrives, positioned at the start of the json object.
+     * Override to parse straight from the stream; the reader is only valid for the duration of this call.
+     * By default the response is handled by {@link #prepare(Reader)}.
+     */
+    public void success(Reader response) {
+        prepare(response).run();
+    }
+
+    /**
+     * Does the part of handling the response that can run on any thread, such as parsing it, and returns the rest.
+     * Transports that deliver on a particular thread call this on a background thread first and run only what it
+     * returns on the delivering one. By default the body is read into a string, and {@link #success(String)} is
+     * what is left.
+     */
+    public Runnable prepare(Reader response) {
+        final String result;
+        try {
+            result = JsonResponse.read(response);
+        } catch (final IOException e) {
+            return new Runnable() {
+                @Override
+                public void run() {
+                    failure(e);
+                }
+            };
+        }
+        return new Runnable() {
+            @Override
+            public void run() {
+                success(result);
+            }
+        };
+    }
+
     public void failure(Exception e) {
     }
+
+    /**
+     * Called by the transport once the request is on its way, with a handler that aborts it. Callbacks that wrap
+     * another one pass it on.
+     */
+    public void cancelWith(Runnable cancel) {
+    }
+
+    /**
+     * A handler for {@link #cancelWith(Runnable)} that is told why the request is aborted, for wrappers that treat a
+     * request that timed out differently from one that was cancelled. Running it counts as a plain cancel.
+     */
+    public abstract static class Abort implements Runnable {
+
+        public abstract void abort(Exception reason);
+
+        @Override
+        public void run() {
+            abort(new CancellationException("Request was cancelled."));
+        }
+    }
+
+    /**
+     * Runs a handler passed to {@link #cancelWith(Runnable)}, telling it the reason if it is an {@link Abort}.
+     */
+    public static void abort(Runnable cancel, Exception reason) {
+        if (cancel instanceof Abort)
+            ((Abort) cancel).abort(reason);
+        else
+            cancel.run();
+    }
+
+    public static APCallback completing(final APFuture<String> future) {
+        return new APCallback() {
+            @Override
+            public void success(String result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void failure(Exception e) {
+                future.fail(e);
+            }
+        };
+    }
 }
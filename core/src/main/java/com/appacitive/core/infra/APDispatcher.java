@@ -0,0 +1,111 @@
+package com.appacitive.core.infra;
+
+import com.appacitive.core.AppacitiveContextBase;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands responses from the transport's i/o threads to the threads that parse them and run the callbacks. Responses go
+ * to the executor set with {@link AppacitiveContextBase#setCallbackExecutor(Executor)} if there is one, otherwise to
+ * the transport's own worker pool. How many responses are waiting and how long they waited, in milliseconds, are
+ * recorded in {@link APMetrics} as {@link #QUEUE_DEPTH} and {@link #QUEUE_WAIT}.
+ */
+public class APDispatcher {
+
+    public static final String QUEUE_DEPTH = "http.callback.queue.depth";
+
+    public static final String QUEUE_WAIT = "http.callback.queue.wait";
+
+    private static final AtomicInteger waiting = new AtomicInteger();
+
+    /**
+     * Runs {@code task} on the callback executor, or else on {@code workers}, or on the calling thread when there is
+     * neither. A task the callback executor turns down goes to {@code workers}; if they turn it down as well, the
+     * task is dropped and {@code callback} fails with the {@link RejectedExecutionException} instead, so that
+     * neither the parse nor the callback's work runs on the transport's i/o thread. Returns false when dropped, for
+     * the caller to release what the task would have.
+     */
+    public static boolean dispatch(Executor workers, final Runnable task, APCallback callback) {
+        Executor executor = AppacitiveContextBase.getCallbackExecutor();
+        if (executor == null)
+            executor = workers;
+        if (executor == null) {
+            task.run();
+            return true;
+        }
+        final long queuedAt = System.nanoTime();
+        APMetrics.record(QUEUE_DEPTH, waiting.incrementAndGet());
+        Runnable queued = new Runnable() {
+            @Override
+            public void run() {
+                waiting.decrementAndGet();
+                APMetrics.record(QUEUE_WAIT, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queuedAt));
+                task.run();
+            }
+        };
+        try {
+            executor.execute(queued);
+            return true;
+        } catch (RejectedExecutionException e) {
+            if (workers != null && workers != executor) {
+                try {
+                    workers.execute(queued);
+                    return true;
+                } catch (RejectedExecutionException ignored) {
+                    //  Fail with the first rejection, the one from the executor the application chose.
+                }
+            }
+            waiting.decrementAndGet();
+            callback.failure(e);
+            return false;
+        }
+    }
+
+    private static class Fallback {
+        private static final ThreadPoolExecutor POOL = newWorkerPool("appacitive-callback", Math.max(2, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Runs {@code task}, which completes a call without a response to wait for, such as a cache hit, where responses
+     * are delivered: on the callback executor if there is one, otherwise on the {@link Executor} the platform
+     * registers for its callbacks, or else on a pool of the sdk's own. Never on the calling thread, so the callback
+     * runs after the call that asked for it has returned, as it would for a response.
+     */
+    public static void dispatch(Runnable task) {
+        Executor executor = AppacitiveContextBase.getCallbackExecutor();
+        if (executor == null)
+            executor = APContainer.build(Executor.class);
+        if (executor != null) {
+            try {
+                executor.execute(task);
+                return;
+            } catch (RejectedExecutionException e) {
+                //  Such as the workers of a platform that was closed.
+            }
+        }
+        Fallback.POOL.execute(task);
+    }
+
+    /**
+     * A pool of {@code threads} daemon threads named after {@code name}, for a transport to parse responses on.
+     */
+    public static ThreadPoolExecutor newWorkerPool(final String name, int threads) {
+        final AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
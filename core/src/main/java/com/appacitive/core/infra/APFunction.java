@@ -0,0 +1,8 @@
+package com.appacitive.core.infra;
+
+/**
+ * Transformation applied to the result of an {@link APFuture}.
+ */
+public interface APFunction<T, R> {
+    public R apply(T value) throws Exception;
+}
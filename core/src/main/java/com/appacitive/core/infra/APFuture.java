@@ -1,27 +1,392 @@
 package com.appacitive.core.infra;
 
+import com.appacitive.core.exceptions.AppacitiveException;
+import com.appacitive.core.interfaces.Logger;
+import com.appacitive.core.model.Callback;
+
 import java.io.Serializable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Created by sathley.
+ * Non blocking future for results produced by the sdk.
+ * <p/>
+ * Listeners run on the thread that completes the future (or immediately on the registering thread
+ * when the future is already done), so composing futures with {@link #map}, {@link #flatMap} and
+ * {@link #allOf} does not need any extra threads. Cancelling a future, or letting it time out via
+ * {@link #withTimeout}, runs the handlers registered with {@link #onCancel} so the underlying request
+ * can be aborted. Cancelling a derived future cancels the future it was derived from.
+ * <p/>
+ * Written without {@code CompletableFuture} so that it also runs on older android releases.
  */
-public abstract class APFuture<T> implements Future<T>, Serializable {
+public class APFuture<T> implements Future<T>, Serializable {
+
+    private static final int PENDING = 0;
+    private static final int COMPLETING = 1;
+    private static final int SUCCEEDED = 2;
+    private static final int FAILED = 3;
+    private static final int CANCELLED = 4;
+
+    private final AtomicInteger state = new AtomicInteger(PENDING);
+
+    private final AtomicBoolean aborted = new AtomicBoolean(false);
+
+    private final transient CountDownLatch latch = new CountDownLatch(1);
+
+    private final transient Queue<Runnable> listeners = new ConcurrentLinkedQueue<Runnable>();
+
+    private final transient Queue<Runnable> cancellationHandlers = new ConcurrentLinkedQueue<Runnable>();
+
+    private volatile T result = null;
+
+    private volatile Exception exception = null;
+
+    public APFuture() {
+    }
+
+    public static <T> APFuture<T> completed(T result) {
+        APFuture<T> future = new APFuture<T>();
+        future.complete(result);
+        return future;
+    }
+
+    public static <T> APFuture<T> failed(Exception exception) {
+        APFuture<T> future = new APFuture<T>();
+        future.fail(exception);
+        return future;
+    }
+
+    public boolean complete(T result) {
+        if (state.compareAndSet(PENDING, COMPLETING) == false)
+            return false;
+        this.result = result;
+        state.set(SUCCEEDED);
+        finish();
+        return true;
+    }
+
+    public boolean fail(Exception exception) {
+        if (state.compareAndSet(PENDING, COMPLETING) == false)
+            return false;
+        this.exception = exception;
+        state.set(FAILED);
+        finish();
+        return true;
+    }
+
     @Override
-    public abstract boolean cancel(boolean mayInterruptIfRunning);
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (state.compareAndSet(PENDING, COMPLETING) == false)
+            return false;
+        this.exception = new CancellationException("Request was cancelled.");
+        state.set(CANCELLED);
+        abort();
+        finish();
+        return true;
+    }
+
+    //  Fails the future and aborts whatever is producing its result.
+    protected boolean abort(Exception exception) {
+        if (state.compareAndSet(PENDING, COMPLETING) == false)
+            return false;
+        this.exception = exception;
+        state.set(FAILED);
+        abort();
+        finish();
+        return true;
+    }
 
     @Override
-    public abstract boolean isCancelled();
+    public boolean isCancelled() {
+        return state.get() == CANCELLED;
+    }
 
     @Override
-    public abstract boolean isDone();
+    public boolean isDone() {
+        return state.get() > COMPLETING;
+    }
+
+    public boolean isSuccessful() {
+        return state.get() == SUCCEEDED;
+    }
+
+    public Exception getException() {
+        return isDone() ? exception : null;
+    }
 
     @Override
-    public abstract T get() throws InterruptedException, ExecutionException;
+    public T get() throws InterruptedException, ExecutionException {
+        if (isDone() == false)
+            latch.await();
+        return report();
+    }
 
     @Override
-    public abstract T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException;
+    public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        if (isDone() == false && latch.await(timeout, unit) == false)
+            throw new TimeoutException("Timed out waiting for result.");
+        return report();
+    }
+
+    /**
+     * Blocks until the result is available, for callers that prefer a plain blocking style.
+     * Failures are rethrown as {@link AppacitiveException}s. Waiting only parks the calling thread,
+     * so this is safe to call from virtual threads.
+     */
+    public T await() {
+        try {
+            return get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel(true);
+            throw new AppacitiveException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof AppacitiveException)
+                throw (AppacitiveException) cause;
+            throw new AppacitiveException(cause);
+        }
+    }
+
+    private T report() throws ExecutionException {
+        switch (state.get()) {
+            case SUCCEEDED:
+                return result;
+            case CANCELLED:
+                throw (CancellationException) exception;
+            default:
+                throw new ExecutionException(exception);
+        }
+    }
+
+    /**
+     * Registers a handler that runs when this future is cancelled or times out.
+     */
+    public APFuture<T> onCancel(Runnable handler) {
+        cancellationHandlers.add(handler);
+        if (aborted.get())
+            drain(cancellationHandlers);
+        return this;
+    }
+
+    /**
+     * Runs the listener once this future completes, successfully or not.
+     */
+    public APFuture<T> addListener(Runnable listener) {
+        listeners.add(listener);
+        if (isDone())
+            drain(listeners);
+        return this;
+    }
+
+    public APFuture<T> whenComplete(final Callback<T> callback) {
+        return addListener(new Runnable() {
+            @Override
+            public void run() {
+                if (isSuccessful())
+                    callback.success(result);
+                else
+                    callback.failure(null, exception);
+            }
+        });
+    }
+
+    /**
+     * Starts an {@link APCall} for the requests this thread makes until it is ended, and cancels it along with this
+     * future. The {@code *Async} apis make their request in one, so that cancelling their future aborts it.
+     */
+    public APCall beginCall() {
+        final APCall call = APCall.begin();
+        onCancel(new Runnable() {
+            @Override
+            public void run() {
+                call.cancel();
+            }
+        });
+        return call;
+    }
+
+    /**
+     * Returns a callback that completes this future, for use with the {@code *InBackground} apis.
+     */
+    public Callback<T> callback() {
+        return new Callback<T>() {
+            @Override
+            public void success(T result) {
+                complete(result);
+            }
+
+            @Override
+            public void failure(T result, Exception e) {
+                fail(e != null ? e : new AppacitiveException("Request failed."));
+            }
+        };
+    }
+
+    public <R> APFuture<R> map(final APFunction<? super T, ? extends R> function) {
+        final APFuture<R> derived = derive();
+        addListener(new Runnable() {
+            @Override
+            public void run() {
+                if (isSuccessful() == false) {
+                    derived.propagateFailure(APFuture.this);
+                    return;
+                }
+                R mapped;
+                try {
+                    mapped = function.apply(result);
+                } catch (Exception e) {
+                    derived.fail(e);
+                    return;
+                }
+                derived.complete(mapped);
+            }
+        });
+        return derived;
+    }
+
+    public <R> APFuture<R> flatMap(final APFunction<? super T, APFuture<R>> function) {
+        final APFuture<R> derived = derive();
+        addListener(new Runnable() {
+            @Override
+            public void run() {
+                if (isSuccessful() == false) {
+                    derived.propagateFailure(APFuture.this);
+                    return;
+                }
+                final APFuture<R> next;
+                try {
+                    next = function.apply(result);
+                } catch (Exception e) {
+                    derived.fail(e);
+                    return;
+                }
+                derived.onCancel(new Runnable() {
+                    @Override
+                    public void run() {
+                        next.cancel(true);
+                    }
+                });
+                next.addListener(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (next.isSuccessful())
+                            derived.complete(next.result);
+                        else
+                            derived.propagateFailure(next);
+                    }
+                });
+            }
+        });
+        return derived;
+    }
+
+    /**
+     * Fails this future with a {@link TimeoutException} and aborts the underlying request
+     * if it has not completed within the given time.
+     */
+    public APFuture<T> withTimeout(final long timeout, final TimeUnit unit) {
+        if (isDone())
+            return this;
+        final ScheduledFuture<?> timer = APScheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                abort(new TimeoutException("Request did not complete within " + unit.toMillis(timeout) + " ms."));
+            }
+        }, timeout, unit);
+        return addListener(new Runnable() {
+            @Override
+            public void run() {
+                timer.cancel(false);
+            }
+        });
+    }
+
+    /**
+     * Completes with the results of all the given futures, in order, or fails with the first failure.
+     * Cancelling the returned future cancels every future that is still pending.
+     */
+    public static <T> APFuture<List<T>> allOf(final List<APFuture<T>> futures) {
+        final APFuture<List<T>> combined = new APFuture<List<T>>();
+        if (futures.isEmpty()) {
+            combined.complete(new ArrayList<T>());
+            return combined;
+        }
+        final Object[] results = new Object[futures.size()];
+        final AtomicInteger remaining = new AtomicInteger(futures.size());
+        combined.onCancel(new Runnable() {
+            @Override
+            public void run() {
+                for (APFuture<T> future : futures)
+                    future.cancel(true);
+            }
+        });
+        for (int i = 0; i < futures.size(); i++) {
+            final int index = i;
+            final APFuture<T> future = futures.get(i);
+            future.addListener(new Runnable() {
+                @Override
+                public void run() {
+                    if (future.isSuccessful() == false) {
+                        combined.propagateFailure(future);
+                        return;
+                    }
+                    results[index] = future.result;
+                    if (remaining.decrementAndGet() == 0) {
+                        List<T> list = new ArrayList<T>(results.length);
+                        for (Object value : Arrays.asList(results))
+                            list.add((T) value);
+                        combined.complete(list);
+                    }
+                }
+            });
+        }
+        return combined;
+    }
+
+    private <R> APFuture<R> derive() {
+        APFuture<R> derived = new APFuture<R>();
+        derived.onCancel(new Runnable() {
+            @Override
+            public void run() {
+                APFuture.this.cancel(true);
+            }
+        });
+        return derived;
+    }
+
+    private void propagateFailure(APFuture<?> source) {
+        if (source.isCancelled())
+            cancel(true);
+        else
+            fail(source.exception);
+    }
+
+    private void abort() {
+        aborted.set(true);
+        drain(cancellationHandlers);
+    }
+
+    private void finish() {
+        latch.countDown();
+        drain(listeners);
+    }
+
+    private static void drain(Queue<Runnable> queue) {
+        Runnable runnable;
+        while ((runnable = queue.poll()) != null) {
+            try {
+                runnable.run();
+            } catch (RuntimeException e) {
+                Logger logger = APContainer.build(Logger.class);
+                if (logger != null)
+                    logger.error("Error in future listener : " + e.getMessage());
+            }
+        }
+    }
 }
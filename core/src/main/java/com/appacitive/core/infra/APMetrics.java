@@ -0,0 +1,118 @@
+package com.appacitive.core.infra;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Process wide metrics reported by the sdk.
+ * <p/>
+ * Every value recorded under a name is folded into a running {@link Stat} (count, sum, min and max), and is also
+ * passed on to the registered {@link Listener}s, so applications can forward individual measurements to their own
+ * monitoring. Counters are stats whose values are all 1. Recording is lock free.
+ */
+public class APMetrics {
+
+    public interface Listener {
+        public void onRecord(String name, double value);
+    }
+
+    public static class Stat implements Serializable {
+
+        private static final Stat EMPTY = new Stat(0, 0, Double.NaN, Double.NaN);
+
+        private final long count;
+
+        private final double sum;
+
+        private final double min;
+
+        private final double max;
+
+        private Stat(long count, double sum, double min, double max) {
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+        }
+
+        private Stat add(double value) {
+            return count == 0 ? new Stat(1, value, value, value) : new Stat(count + 1, sum + value, Math.min(min, value), Math.max(max, value));
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getSum() {
+            return sum;
+        }
+
+        public double getMin() {
+            return min;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return count == 0 ? Double.NaN : sum / count;
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + count + ", sum=" + sum + ", min=" + min + ", max=" + max;
+        }
+    }
+
+    private static final ConcurrentHashMap<String, AtomicReference<Stat>> stats = new ConcurrentHashMap<String, AtomicReference<Stat>>();
+
+    private static final List<Listener> listeners = new CopyOnWriteArrayList<Listener>();
+
+    public static void record(String name, double value) {
+        AtomicReference<Stat> stat = stats.get(name);
+        if (stat == null) {
+            stats.putIfAbsent(name, new AtomicReference<Stat>(Stat.EMPTY));
+            stat = stats.get(name);
+        }
+        Stat current;
+        do {
+            current = stat.get();
+        } while (stat.compareAndSet(current, current.add(value)) == false);
+        for (Listener listener : listeners)
+            listener.onRecord(name, value);
+    }
+
+    public static void increment(String name) {
+        record(name, 1);
+    }
+
+    public static Stat get(String name) {
+        AtomicReference<Stat> stat = stats.get(name);
+        return stat == null ? Stat.EMPTY : stat.get();
+    }
+
+    public static Map<String, Stat> snapshot() {
+        Map<String, Stat> snapshot = new TreeMap<String, Stat>();
+        for (Map.Entry<String, AtomicReference<Stat>> entry : stats.entrySet())
+            snapshot.put(entry.getKey(), entry.getValue().get());
+        return snapshot;
+    }
+
+    public static void reset() {
+        stats.clear();
+    }
+
+    public static void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+}
@@ -0,0 +1,96 @@
+package com.appacitive.core.infra;
+
+import com.appacitive.core.exceptions.RequestTimeoutException;
+import com.appacitive.core.model.Callback;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link Callback} that follows the {@link APCall} of the thread that made a lookup, for lookups the sdk holds back
+ * and sends later from its own threads, such as those of the {@link com.appacitive.core.AppacitiveReadCoalescer}.
+ * If the call is cancelled or its deadline passes first, the callback fails right away and whatever arrives for it
+ * afterwards is dropped. The shared request itself is left running, as other callbacks may still be waiting on it.
+ */
+public class BoundCallback<T> extends Callback<T> implements APCall.Abortable {
+
+    private final Callback<T> callback;
+
+    private final APCall call;
+
+    private final AtomicBoolean done = new AtomicBoolean(false);
+
+    private volatile ScheduledFuture<?> timer;
+
+    private BoundCallback(Callback<T> callback, APCall call) {
+        this.callback = callback;
+        this.call = call;
+    }
+
+    /**
+     * Binds {@code callback} to the call the current thread is in. Returns {@code callback} itself outside a call.
+     */
+    public static <T> Callback<T> bind(Callback<T> callback, final String endpoint) {
+        APCall call = APCall.current();
+        if (call == null || callback == null)
+            return callback;
+        final BoundCallback<T> bound = new BoundCallback<T>(callback, call);
+        if (call.add(bound) == false) {
+            bound.abort(new CancellationException("Request was cancelled."));
+            return bound;
+        }
+        if (call.hasDeadline()) {
+            final long timeoutNanos = call.remainingNanos();
+            if (timeoutNanos <= 0) {
+                bound.abort(new RequestTimeoutException(endpoint, 0));
+                return bound;
+            }
+            bound.timer = APScheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    bound.abort(new RequestTimeoutException(endpoint, TimeUnit.NANOSECONDS.toMillis(timeoutNanos)));
+                }
+            }, timeoutNanos, TimeUnit.NANOSECONDS);
+            if (bound.done.get())
+                bound.timer.cancel(false);
+        }
+        return bound;
+    }
+
+    /**
+     * Whether the callback was already called, or failed by its call.
+     */
+    public boolean isFinished() {
+        return done.get();
+    }
+
+    private boolean finish() {
+        if (done.compareAndSet(false, true) == false)
+            return false;
+        ScheduledFuture<?> timer = this.timer;
+        if (timer != null)
+            timer.cancel(false);
+        call.remove(this);
+        return true;
+    }
+
+    @Override
+    public void abort(Exception e) {
+        if (finish())
+            callback.failure(null, e);
+    }
+
+    @Override
+    public void success(T result) {
+        if (finish())
+            callback.success(result);
+    }
+
+    @Override
+    public void failure(T result, Exception e) {
+        if (finish())
+            callback.failure(result, e);
+    }
+}
@@ -0,0 +1,214 @@
+package com.appacitive.core.infra;
+
+import com.appacitive.core.exceptions.AppacitiveException;
+import com.appacitive.core.exceptions.RequestTimeoutException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stops sending requests to an endpoint family (see {@link Urls#endpointOf(String)}) that keeps failing, so callers
+ * fail at once instead of piling up behind calls that will time out. Turn it on with
+ * {@link com.appacitive.core.AppacitiveContextBase#setCircuitBreaker(CircuitBreaker)}.
+ * <p/>
+ * Every endpoint starts {@link State#CLOSED}. After {@code failureThreshold} transport failures in a row its circuit
+ * opens, and requests to it fail with a {@link com.appacitive.core.exceptions.CircuitOpenException} without being
+ * sent. Once {@code openDuration} has passed the circuit is half open: up to {@code probes} requests go through, and
+ * the first of them to come back closes the circuit if it got a response, or opens it again if it failed. Only
+ * failures to get a response count; a response carrying an error status shows the endpoint is up.
+ * <p/>
+ * State changes are passed to the registered {@link Listener}s, and circuits opening and requests failed fast are
+ * counted in {@link APMetrics} as {@link #OPENED} and {@link #FAILED_FAST}.
+ */
+public class CircuitBreaker {
+
+    public static final String OPENED = "http.breaker.opened";
+
+    public static final String FAILED_FAST = "http.breaker.failedfast";
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    public interface Listener {
+        public void onStateChange(String endpoint, State from, State to);
+    }
+
+    private final int failureThreshold;
+
+    private final long openNanos;
+
+    private final int probes;
+
+    private final Map<String, Circuit> circuits = new HashMap<String, Circuit>();
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<Listener>();
+
+    public CircuitBreaker(int failureThreshold, long openDuration, TimeUnit unit) {
+        this(failureThreshold, openDuration, unit, 1);
+    }
+
+    public CircuitBreaker(int failureThreshold, long openDuration, TimeUnit unit, int probes) {
+        if (failureThreshold <= 0)
+            throw new IllegalArgumentException("failureThreshold must be positive.");
+        if (openDuration <= 0)
+            throw new IllegalArgumentException("openDuration must be positive.");
+        if (probes <= 0)
+            throw new IllegalArgumentException("probes must be positive.");
+        this.failureThreshold = failureThreshold;
+        this.openNanos = unit.toNanos(openDuration);
+        this.probes = probes;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public synchronized State getState(String endpoint) {
+        Circuit circuit = circuits.get(endpoint);
+        return circuit == null ? State.CLOSED : circuit.state;
+    }
+
+    /**
+     * Closes the circuit of {@code endpoint} right away, e.g. once the application knows the backend is back.
+     */
+    public void reset(String endpoint) {
+        List<Change> changes = new ArrayList<Change>(1);
+        synchronized (this) {
+            Circuit circuit = circuits.get(endpoint);
+            if (circuit != null) {
+                move(endpoint, circuit, State.CLOSED, changes);
+                circuit.failures = 0;
+            }
+        }
+        publish(changes);
+    }
+
+    boolean counts(Exception e) {
+        //  A request that ran past its deadline is the endpoint hanging. Other sdk exceptions, like a request turned
+        //  away by the limiter, and cancelled requests say nothing about it.
+        if (e instanceof RequestTimeoutException)
+            return true;
+        return e instanceof AppacitiveException == false && e instanceof CancellationException == false;
+    }
+
+    /**
+     * Returns the ticket to report the request's outcome with, or -1 if it must fail fast.
+     */
+    long admit(String endpoint) {
+        List<Change> changes = new ArrayList<Change>(1);
+        long ticket;
+        synchronized (this) {
+            Circuit circuit = circuits.get(endpoint);
+            if (circuit == null) {
+                circuit = new Circuit();
+                circuits.put(endpoint, circuit);
+            }
+            if (circuit.state == State.OPEN && System.nanoTime() - circuit.openedAt >= openNanos)
+                move(endpoint, circuit, State.HALF_OPEN, changes);
+            if (circuit.state == State.OPEN || (circuit.state == State.HALF_OPEN && circuit.probes >= probes)) {
+                ticket = -1;
+            } else {
+                if (circuit.state == State.HALF_OPEN)
+                    circuit.probes++;
+                ticket = circuit.generation;
+            }
+        }
+        publish(changes);
+        if (ticket < 0)
+            APMetrics.increment(FAILED_FAST);
+        return ticket;
+    }
+
+    void succeeded(String endpoint, long ticket) {
+        List<Change> changes = new ArrayList<Change>(1);
+        synchronized (this) {
+            Circuit circuit = circuits.get(endpoint);
+            if (circuit == null || circuit.generation != ticket)
+                return;
+            if (circuit.state == State.HALF_OPEN)
+                move(endpoint, circuit, State.CLOSED, changes);
+            else
+                circuit.failures = 0;
+        }
+        publish(changes);
+    }
+
+    void failed(String endpoint, long ticket) {
+        List<Change> changes = new ArrayList<Change>(1);
+        synchronized (this) {
+            Circuit circuit = circuits.get(endpoint);
+            if (circuit == null || circuit.generation != ticket)
+                return;
+            if (circuit.state == State.HALF_OPEN || ++circuit.failures >= failureThreshold)
+                move(endpoint, circuit, State.OPEN, changes);
+        }
+        publish(changes);
+    }
+
+    //  The request told nothing about the endpoint, so only give back its probe.
+    synchronized void ignored(String endpoint, long ticket) {
+        Circuit circuit = circuits.get(endpoint);
+        if (circuit != null && circuit.generation == ticket && circuit.state == State.HALF_OPEN)
+            circuit.probes--;
+    }
+
+    //  Callers hold the lock. Outcomes of requests admitted before a change no longer count after it.
+    private void move(String endpoint, Circuit circuit, State to, List<Change> changes) {
+        if (circuit.state == to)
+            return;
+        changes.add(new Change(endpoint, circuit.state, to));
+        circuit.state = to;
+        circuit.generation++;
+        circuit.failures = 0;
+        circuit.probes = 0;
+        if (to == State.OPEN)
+            circuit.openedAt = System.nanoTime();
+    }
+
+    private void publish(List<Change> changes) {
+        for (Change change : changes) {
+            if (change.to == State.OPEN)
+                APMetrics.increment(OPENED);
+            for (Listener listener : listeners)
+                listener.onStateChange(change.endpoint, change.from, change.to);
+        }
+    }
+
+    private static class Circuit {
+
+        State state = State.CLOSED;
+
+        long generation = 0;
+
+        int failures = 0;
+
+        int probes = 0;
+
+        long openedAt;
+    }
+
+    private static class Change {
+
+        final String endpoint;
+
+        final State from;
+
+        final State to;
+
+        Change(String endpoint, State from, State to) {
+            this.endpoint = endpoint;
+            this.from = from;
+            this.to = to;
+        }
+    }
+}
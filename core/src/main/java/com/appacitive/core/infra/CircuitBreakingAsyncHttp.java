@@ -0,0 +1,198 @@
+package com.appacitive.core.infra;
+
+import com.appacitive.core.exceptions.CircuitOpenException;
+import com.appacitive.core.interfaces.AsyncHttp;
+
+import java.io.Reader;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link AsyncHttp} that fails requests to endpoints whose {@link CircuitBreaker} circuit is open instead of sending
+ * them, and reports the outcome of every request it does send back to the breaker.
+ */
+public class CircuitBreakingAsyncHttp implements AsyncHttp {
+
+    private final AsyncHttp delegate;
+
+    private final CircuitBreaker breaker;
+
+    public CircuitBreakingAsyncHttp(AsyncHttp delegate, CircuitBreaker breaker) {
+        if (delegate == null)
+            throw new NullPointerException("delegate == null");
+        if (breaker == null)
+            throw new NullPointerException("breaker == null");
+        this.delegate = delegate;
+        this.breaker = breaker;
+    }
+
+    public AsyncHttp getDelegate() {
+        return delegate;
+    }
+
+    public CircuitBreaker getBreaker() {
+        return breaker;
+    }
+
+    private interface Send {
+        void send(APCallback callback);
+    }
+
+    private void submit(String url, final APCallback callback, Send send) {
+        final String endpoint = Urls.endpointOf(url);
+        final long ticket = breaker.admit(endpoint);
+        if (ticket < 0) {
+            callback.failure(new CircuitOpenException(endpoint));
+            return;
+        }
+        //  The outcome is settled once, by the response or by whatever aborts the request first.
+        final AtomicBoolean settled = new AtomicBoolean(false);
+        try {
+            send.send(new APCallback() {
+                @Override
+                public void success(String result) {
+                    if (settled.compareAndSet(false, true))
+                        breaker.succeeded(endpoint, ticket);
+                    callback.success(result);
+                }
+
+                @Override
+                public void success(Reader response) {
+                    if (settled.compareAndSet(false, true))
+                        breaker.succeeded(endpoint, ticket);
+                    callback.success(response);
+                }
+
+                @Override
+                public Runnable prepare(Reader response) {
+                    final Runnable rest = callback.prepare(response);
+                    return new Runnable() {
+                        @Override
+                        public void run() {
+                            if (settled.compareAndSet(false, true))
+                                breaker.succeeded(endpoint, ticket);
+                            rest.run();
+                        }
+                    };
+                }
+
+                @Override
+                public void failure(Exception e) {
+                    settleFailed(e);
+                    callback.failure(e);
+                }
+
+                @Override
+                public void cancelWith(final Runnable cancel) {
+                    callback.cancelWith(new Abort() {
+                        @Override
+                        public void abort(Exception reason) {
+                            settleFailed(reason);
+                            APCallback.abort(cancel, reason);
+                        }
+                    });
+                }
+
+                private void settleFailed(Exception e) {
+                    if (settled.compareAndSet(false, true) == false)
+                        return;
+                    if (breaker.counts(e))
+                        breaker.failed(endpoint, ticket);
+                    else
+                        breaker.ignored(endpoint, ticket);
+                }
+            });
+        } catch (RuntimeException e) {
+            breaker.ignored(endpoint, ticket);
+            throw e;
+        }
+    }
+
+    @Override
+    public APFuture<String> get(String url, Map<String, String> headers) {
+        APFuture<String> future = new APFuture<String>();
+        get(url, headers, APCallback.completing(future));
+        return future;
+    }
+
+    @Override
+    public void get(final String url, final Map<String, String> headers, APCallback callback) {
+        submit(url, callback, new Send() {
+            @Override
+            public void send(APCallback callback) {
+                delegate.get(url, headers, callback);
+            }
+        });
+    }
+
+    @Override
+    public APFuture<String> delete(String url, Map<String, String> headers) {
+        APFuture<String> future = new APFuture<String>();
+        delete(url, headers, APCallback.completing(future));
+        return future;
+    }
+
+    @Override
+    public void delete(final String url, final Map<String, String> headers, APCallback callback) {
+        submit(url, callback, new Send() {
+            @Override
+            public void send(APCallback callback) {
+                delegate.delete(url, headers, callback);
+            }
+        });
+    }
+
+    @Override
+    public APFuture<String> put(String url, Map<String, String> headers, String request) {
+        APFuture<String> future = new APFuture<String>();
+        put(url, headers, request, APCallback.completing(future));
+        return future;
+    }
+
+    @Override
+    public void put(final String url, final Map<String, String> headers, final String request, APCallback callback) {
+        submit(url, callback, new Send() {
+            @Override
+            public void send(APCallback callback) {
+                delegate.put(url, headers, request, callback);
+            }
+        });
+    }
+
+    @Override
+    public void put(final String url, final Map<String, String> headers, final byte[] request, APCallback callback) {
+        submit(url, callback, new Send() {
+            @Override
+            public void send(APCallback callback) {
+                delegate.put(url, headers, request, callback);
+            }
+        });
+    }
+
+    @Override
+    public APFuture<String> post(String url, Map<String, String> headers, String request) {
+        APFuture<String> future = new APFuture<String>();
+        post(url, headers, request, APCallback.completing(future));
+        return future;
+    }
+
+    @Override
+    public void post(final String url, final Map<String, String> headers, final String request, APCallback callback) {
+        submit(url, callback, new Send() {
+            @Override
+            public void send(APCallback callback) {
+                delegate.post(url, headers, request, callback);
+            }
+        });
+    }
+
+    @Override
+    public void post(final String url, final Map<String, String> headers, final byte[] request, APCallback callback) {
+        submit(url, callback, new Send() {
+            @Override
+            public void send(APCallback callback) {
+                delegate.post(url, headers, request, callback);
+            }
+        });
+    }
+}
@@ -0,0 +1,190 @@
+package com.appacitive.core.infra;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.chrono.ISOChronology;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * Reads and writes appacitive datetime strings, like {@code 2014-05-12T10:24:11.0000000Z}, as {@link Date} and joda
+ * {@link DateTime} values. Safe to use from any thread.
+ * <p/>
+ * Results are the same as formatting or parsing with the {@link #PATTERN} formatters the sdk has always used.
+ * Values are read and written in the default time zone. For a {@link Date} the seven digits are milliseconds, as
+ * {@link SimpleDateFormat} reads them, while joda reads them as a fraction of a second. Well formed strings are
+ * handled with plain arithmetic. Everything else goes to the formatters themselves: lenient field values, years
+ * outside 1600 to 9999 and times within a daylight saving transition.
+ */
+public final class DateTimeHelper {
+
+    public static final String PATTERN = "yyyy-MM-dd'T'HH:mm:ss.SSSSSSS'Z'";
+
+    private static final int LENGTH = 28;
+
+    private static final long INVALID = Long.MIN_VALUE;
+
+    private static final long MILLIS_PER_DAY = 86400000L;
+
+    private static final DateTimeFormatter jodaFormatter = DateTimeFormat.forPattern(PATTERN);
+
+    //  SimpleDateFormat is expensive to build and not thread safe, so each thread keeps its own.
+    private static final ThreadLocal<DateFormat> dateFormat = new ThreadLocal<DateFormat>() {
+        @Override
+        protected DateFormat initialValue() {
+            return new SimpleDateFormat(PATTERN);
+        }
+    };
+
+    private DateTimeHelper() {
+    }
+
+    public static String format(Date date) {
+        TimeZone zone = TimeZone.getDefault();
+        long millis = date.getTime();
+        long local = millis + zone.getOffset(millis);
+        String formatted = print(local, (int) (local - floorDiv(local, 1000) * 1000));
+        if (formatted != null)
+            return formatted;
+        DateFormat format = dateFormat.get();
+        format.setTimeZone(zone);
+        return format.format(date);
+    }
+
+    public static Date parseDate(String text) throws ParseException {
+        TimeZone zone = TimeZone.getDefault();
+        long local = parseLocal(text, false);
+        if (local != INVALID) {
+            int offset = zone.getOffset(local - zone.getRawOffset());
+            long millis = local - offset;
+            if (zone.getOffset(millis) == offset)
+                return new Date(millis);
+        }
+        DateFormat format = dateFormat.get();
+        format.setTimeZone(zone);
+        return format.parse(text);
+    }
+
+    public static String format(DateTime value) {
+        if (value.getChronology() instanceof ISOChronology) {
+            long millis = value.getMillis();
+            long local = millis + value.getZone().getOffset(millis);
+            String formatted = print(local, (int) (local - floorDiv(local, 1000) * 1000) * 10000);
+            if (formatted != null)
+                return formatted;
+        }
+        return jodaFormatter.print(value);
+    }
+
+    public static DateTime parseDateTime(String text) {
+        long local = parseLocal(text, true);
+        if (local != INVALID) {
+            DateTimeZone zone = DateTimeZone.getDefault();
+            int offset = zone.getOffsetFromLocal(local);
+            long millis = local - offset;
+            if (zone.getOffset(millis) == offset)
+                return new DateTime(millis, zone);
+        }
+        return jodaFormatter.parseDateTime(text);
+    }
+
+    //  Returns null when the year is out of the range handled here.
+    private static String print(long local, int fraction) {
+        long days = floorDiv(local, MILLIS_PER_DAY);
+        int millisOfDay = (int) (local - days * MILLIS_PER_DAY);
+
+        //  Civil date from days since the epoch, see http://howardhinnant.github.io/date_algorithms.html
+        long z = days + 719468;
+        long era = floorDiv(z, 146097);
+        int dayOfEra = (int) (z - era * 146097);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        if (year < 1600 || year > 9999)
+            return null;
+
+        char[] chars = new char[LENGTH];
+        digits(chars, 0, (int) year, 4);
+        chars[4] = '-';
+        digits(chars, 5, month, 2);
+        chars[7] = '-';
+        digits(chars, 8, day, 2);
+        chars[10] = 'T';
+        digits(chars, 11, millisOfDay / 3600000, 2);
+        chars[13] = ':';
+        digits(chars, 14, millisOfDay / 60000 % 60, 2);
+        chars[16] = ':';
+        digits(chars, 17, millisOfDay / 1000 % 60, 2);
+        chars[19] = '.';
+        digits(chars, 20, fraction, 7);
+        chars[27] = 'Z';
+        return new String(chars);
+    }
+
+    private static void digits(char[] chars, int offset, int value, int count) {
+        for (int i = offset + count - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    //  Local millis of a well formed string with in-range fields, otherwise INVALID.
+    private static long parseLocal(String text, boolean fractionOfSecond) {
+        if (text == null || text.length() != LENGTH || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T'
+                || text.charAt(13) != ':' || text.charAt(16) != ':' || text.charAt(19) != '.' || text.charAt(27) != 'Z')
+            return INVALID;
+        int year = number(text, 0, 4);
+        int month = number(text, 5, 2);
+        int day = number(text, 8, 2);
+        int hour = number(text, 11, 2);
+        int minute = number(text, 14, 2);
+        int second = number(text, 17, 2);
+        int fraction = number(text, 20, 7);
+        if (year < 1600 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59 || fraction < 0)
+            return INVALID;
+        int millis = fractionOfSecond ? fraction / 10000 : fraction;
+        return daysFromCivil(year, month, day) * MILLIS_PER_DAY + hour * 3600000L + minute * 60000L + second * 1000L + millis;
+    }
+
+    //  The value of the digits, or -1 if any is not a digit.
+    private static int number(String text, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9')
+                return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        if (month == 2)
+            return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+        return (month == 4 || month == 6 || month == 9 || month == 11) ? 30 : 31;
+    }
+
+    private static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = y / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    private static long floorDiv(long x, long y) {
+        long q = x / y;
+        return (x % y != 0 && ((x < 0) != (y < 0))) ? q - 1 : q;
+    }
+}
@@ -0,0 +1,253 @@
+package com.appacitive.core.infra;
+
+import com.appacitive.core.exceptions.RequestTimeoutException;
+import com.appacitive.core.interfaces.AsyncHttp;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * {@link AsyncHttp} that gives every request a deadline from its {@link RequestTimeouts} or {@link APCall}. A request
+ * still running at its deadline, or whose call is cancelled, is aborted in the wrapped transport and its callback
+ * fails; whatever the transport reports for it afterwards is dropped.
+ */
+public class DeadlineAsyncHttp implements AsyncHttp {
+
+    private final AsyncHttp delegate;
+
+    private final RequestTimeouts timeouts;
+
+    public DeadlineAsyncHttp(AsyncHttp delegate, RequestTimeouts timeouts) {
+        if (delegate == null)
+            throw new NullPointerException("delegate == null");
+        if (timeouts == null)
+            throw new NullPointerException("timeouts == null");
+        this.delegate = delegate;
+        this.timeouts = timeouts;
+    }
+
+    public AsyncHttp getDelegate() {
+        return delegate;
+    }
+
+    public RequestTimeouts getTimeouts() {
+        return timeouts;
+    }
+
+    private interface Send {
+        void send(APCallback callback);
+    }
+
+    private void submit(String url, APCallback callback, Send send) {
+        final String endpoint = Urls.endpointOf(url);
+        APCall call = APCall.current();
+        long timeoutNanos = call != null && call.hasDeadline() ? call.remainingNanos() : timeouts.timeoutNanos(endpoint);
+        if (call == null && timeoutNanos <= 0) {
+            send.send(callback);
+            return;
+        }
+        Guarded guarded = new Guarded(callback, call);
+        if (call != null && call.add(guarded) == false) {
+            guarded.abort(new CancellationException("Request was cancelled."));
+            return;
+        }
+        if (call != null && call.hasDeadline() && timeoutNanos <= 0) {
+            guarded.abort(new RequestTimeoutException(endpoint, 0));
+            return;
+        }
+        if (timeoutNanos > 0)
+            guarded.expireAfter(endpoint, timeoutNanos);
+        try {
+            send.send(guarded);
+        } catch (RuntimeException e) {
+            guarded.finish(Guarded.COMPLETED);
+            throw e;
+        }
+    }
+
+    private static class Guarded extends APCallback implements APCall.Abortable {
+
+        static final Object COMPLETED = new Object();
+
+        private final APCallback callback;
+
+        private final APCall call;
+
+        //  COMPLETED once the transport reported the request, or the exception it was aborted with.
+        private final AtomicReference<Object> outcome = new AtomicReference<Object>();
+
+        private final List<Runnable> cancels = new CopyOnWriteArrayList<Runnable>();
+
+        private volatile ScheduledFuture<?> timer;
+
+        Guarded(APCallback callback, APCall call) {
+            this.callback = callback;
+            this.call = call;
+        }
+
+        void expireAfter(final String endpoint, final long timeoutNanos) {
+            timer = APScheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    abort(new RequestTimeoutException(endpoint, TimeUnit.NANOSECONDS.toMillis(timeoutNanos)));
+                }
+            }, timeoutNanos, TimeUnit.NANOSECONDS);
+            if (outcome.get() != null)
+                timer.cancel(false);
+        }
+
+        boolean finish(Object outcome) {
+            if (this.outcome.compareAndSet(null, outcome) == false)
+                return false;
+            ScheduledFuture<?> timer = this.timer;
+            if (timer != null)
+                timer.cancel(false);
+            if (call != null)
+                call.remove(this);
+            return true;
+        }
+
+        @Override
+        public void abort(Exception e) {
+            if (finish(e) == false)
+                return;
+            for (Runnable cancel : cancels)
+                APCallback.abort(cancel, e);
+            callback.failure(e);
+        }
+
+        @Override
+        public void success(String result) {
+            if (finish(COMPLETED))
+                callback.success(result);
+        }
+
+        @Override
+        public void success(Reader response) {
+            if (finish(COMPLETED))
+                callback.success(response);
+        }
+
+        @Override
+        public Runnable prepare(Reader response) {
+            final Runnable rest = callback.prepare(response);
+            return new Runnable() {
+                @Override
+                public void run() {
+                    if (finish(COMPLETED))
+                        rest.run();
+                }
+            };
+        }
+
+        @Override
+        public void failure(Exception e) {
+            if (finish(COMPLETED))
+                callback.failure(e);
+        }
+
+        @Override
+        public void cancelWith(Runnable cancel) {
+            cancels.add(cancel);
+            //  The deadline may have passed before the transport got the request out. A request the transport already
+            //  reported is left alone: cancelling it could close a connection that is back in the pool.
+            Object outcome = this.outcome.get();
+            if (outcome != null && cancels.remove(cancel) && outcome instanceof Exception)
+                APCallback.abort(cancel, (Exception) outcome);
+        }
+    }
+
+    @Override
+    public APFuture<String> get(String url, Map<String, String> headers) {
+        APFuture<String> future = new APFuture<String>();
+        get(url, headers, APCallback.completing(future));
+        return future;
+    }
+
+    @Override
+    public void get(final String url, final Map<String, String> headers, APCallback callback) {
+        submit(url, callback, new Send() {
+            @Override
+            public void send(APCallback callback) {
+                delegate.get(url, headers, callback);
+            }
+        });
+    }
+
+    @Override
+    public APFuture<String> delete(String url, Map<String, String> headers) {
+        APFuture<String> future = new APFuture<String>();
+        delete(url, headers, APCallback.completing(future));
+        return future;
+    }
+
+    @Override
+    public void delete(final String url, final Map<String, String> headers, APCallback callback) {
+        submit(url, callback, new Send() {
+            @Override
+            public void send(APCallback callback) {
+                delegate.delete(url, headers, callback);
+            }
+        });
+    }
+
+    @Override
+    public APFuture<String> put(String url, Map<String, String> headers, String request) {
+        APFuture<String> future = new APFuture<String>();
+        put(url, headers, request, APCallback.completing(future));
+        return future;
+    }
+
+    @Override
+    public void put(final String url, final Map<String, String> headers, final String request, APCallback callback) {
+        submit(url, callback, new Send() {
+            @Override
+            public void send(APCallback callback) {
+                delegate.put(url, headers, request, callback);
+            }
+        });
+    }
+
+    @Override
+    public void put(final String url, final Map<String, String> headers, final byte[] request, APCallback callback) {
+        submit(url, callback, new Send() {
+            @Override
+            public void send(APCallback callback) {
+                delegate.put(url, headers, request, callback);
+            }
+        });
+    }
+
+    @Override
+    public APFuture<String> post(String url, Map<String, String> headers, String request) {
+        APFuture<String> future = new APFuture<String>();
+        post(url, headers, request, APCallback.completing(future));
+        return future;
+    }
+
+    @Override
+    public void post(final String url, final Map<String, String> headers, final String request, APCallback callback) {
+        submit(url, callback, new Send() {
+            @Override
+            public void send(APCallback callback) {
+                delegate.post(url, headers, request, callback);
+            }
+        });
+    }
+
+    @Override
+    public void post(final String url, final Map<String, String> headers, final byte[] request, APCallback callback) {
+        submit(url, callback, new Send() {
+            @Override
+            public void send(APCallback callback) {
+                delegate.post(url, headers, request, callback);
+            }
+        });
+    }
+}
@@ -0,0 +1,160 @@
+package com.appacitive.core.infra;
+
+import java.io.*;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip support for the transports.
+ * <p/>
+ * Responses are inflated as they are read, without an intermediate copy of the inflated bytes. The compression ratio (uncompressed size / compressed size) and the time spent compressing or
+ * inflating each payload are recorded in {@link APMetrics}.
+ */
+public class Gzip {
+
+    public static final String ACCEPT_ENCODING = "Accept-Encoding";
+
+    public static final String CONTENT_ENCODING = "Content-Encoding";
+
+    public static final String GZIP = "gzip";
+
+    //  Smaller payloads rarely get any smaller.
+    public static final int MIN_REQUEST_SIZE = 1024;
+
+    public static final String REQUEST_RATIO = "http.request.gzip.ratio";
+
+    public static final String REQUEST_TIME = "http.request.gzip.time_ns";
+
+    public static final String RESPONSE_RATIO = "http.response.gzip.ratio";
+
+    public static final String RESPONSE_TIME = "http.response.gzip.time_ns";
+
+    private static final String UTF8 = "UTF-8";
+
+    public static boolean isGzipped(String contentEncoding) {
+        return contentEncoding != null && contentEncoding.toLowerCase(Locale.US).contains(GZIP);
+    }
+
+    public static boolean shouldCompress(String payload) {
+        return payload != null && payload.length() >= MIN_REQUEST_SIZE;
+    }
+
+    public static boolean shouldCompress(byte[] payload) {
+        return payload != null && payload.length >= MIN_REQUEST_SIZE;
+    }
+
+    public static byte[] compress(String payload) {
+        try {
+            return compress(payload.getBytes(UTF8));
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static byte[] compress(byte[] uncompressed) {
+        long start = System.nanoTime();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, uncompressed.length / 4));
+        try {
+            GZIPOutputStream gzip = new GZIPOutputStream(out);
+            gzip.write(uncompressed);
+            gzip.close();
+        } catch (IOException e) {
+            //  Only in-memory streams are involved.
+            throw new RuntimeException(e);
+        }
+        byte[] compressed = out.toByteArray();
+        APMetrics.record(REQUEST_TIME, System.nanoTime() - start);
+        APMetrics.record(REQUEST_RATIO, (double) uncompressed.length / compressed.length);
+        return compressed;
+    }
+
+    /**
+     * Wraps the compressed network stream in one that inflates it as it is read. The ratio and the time spent
+     * inflating are recorded once the stream is exhausted or closed.
+     */
+    public static InputStream inflate(InputStream compressed) throws IOException {
+        return new InflatingInputStream(new CountingInputStream(compressed));
+    }
+
+    private static class InflatingInputStream extends FilterInputStream {
+
+        private final CountingInputStream network;
+
+        private long inflated = 0;
+
+        private long nanos = 0;
+
+        private boolean recorded = false;
+
+        InflatingInputStream(CountingInputStream network) throws IOException {
+            super(null);
+            long start = System.nanoTime();
+            this.in = new GZIPInputStream(network, 8192);
+            this.network = network;
+            this.nanos = System.nanoTime() - start;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            long start = System.nanoTime();
+            int read = super.read(b, off, len);
+            nanos += System.nanoTime() - start;
+            if (read > 0)
+                inflated += read;
+            else if (read == -1)
+                record();
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            record();
+            super.close();
+        }
+
+        private void record() {
+            if (recorded)
+                return;
+            recorded = true;
+            APMetrics.record(RESPONSE_TIME, nanos);
+            if (network.getCount() > 0)
+                APMetrics.record(RESPONSE_RATIO, (double) inflated / network.getCount());
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+
+        private long count = 0;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1)
+                count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0)
+                count += read;
+            return read;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.appacitive.core.infra;
 import com.appacitive.core.AppacitiveContextBase;
 
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -11,21 +12,58 @@ import java.util.Map;
  */
 public class Headers implements Serializable {
 
+    //  The headers of the current api key, environment and user token, shared by every request until one of them
+    //  changes. Read and replaced without locking; a thread that races a change just builds an equal map.
+    private static volatile Snapshot snapshot = null;
+
+    private static class Snapshot {
+
+        final String apiKey;
+
+        final String environment;
+
+        final String userToken;
+
+        final Map<String, String> headers;
+
+        Snapshot(String apiKey, String environment, String userToken) {
+            this.apiKey = apiKey;
+            this.environment = environment;
+            this.userToken = userToken;
+            Map<String, String> headers = new HashMap<String, String>(8);
+            headers.put("Appacitive-Apikey", apiKey);
+            headers.put("Appacitive-Environment", environment);
+            headers.put("Content-Type", "application/json");
+            if (userToken != null && userToken.isEmpty() == false)
+                headers.put("Appacitive-User-Auth", userToken);
+            this.headers = Collections.unmodifiableMap(headers);
+        }
+
+        boolean isFor(String apiKey, String environment, String userToken) {
+            return same(this.apiKey, apiKey) && same(this.environment, environment) && same(this.userToken, userToken);
+        }
+
+        private static boolean same(String a, String b) {
+            return a == null ? b == null : a.equals(b);
+        }
+    }
+
+    /**
+     * The headers every request carries. The map is shared and cannot be modified; copy it to add headers.
+     */
     public static Map<String, String> assemble() {
-        Map<String, String> headers = new HashMap<String, String>();
         String apiKey = AppacitiveContextBase.getApiKey();
         String environment = AppacitiveContextBase.getEnvironment();
 
         if(apiKey == null || environment == null)
             throw new RuntimeException("Appacitive context is not initialized.");
 
-        headers.put("Appacitive-Apikey", apiKey);
-        headers.put("Appacitive-Environment", environment);
-        headers.put("Content-Type", "application/json");
-
-        if (AppacitiveContextBase.getLoggedInUserToken() != null && AppacitiveContextBase.getLoggedInUserToken().isEmpty() == false)
-            headers.put("Appacitive-User-Auth", AppacitiveContextBase.getLoggedInUserToken());
-
-        return headers;
+        String userToken = AppacitiveContextBase.getLoggedInUserToken();
+        Snapshot current = snapshot;
+        if (current == null || current.isFor(apiKey, environment, userToken) == false) {
+            current = new Snapshot(apiKey, environment, userToken);
+            snapshot = current;
+        }
+        return current.headers;
     }
 }
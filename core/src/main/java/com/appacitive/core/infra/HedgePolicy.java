@@ -0,0 +1,134 @@
+package com.appacitive.core.infra;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * When {@link HedgingAsyncHttp} sends a second copy of a slow GET. Turn it on with
+ * {@link com.appacitive.core.AppacitiveContextBase#setHedgePolicy(HedgePolicy)}.
+ * <p/>
+ * A GET that has had no response after the {@code percentile} latency of recent GETs to its endpoint (see
+ * {@link Urls#endpointOf(String)}) is sent again; the first response wins and the other copy is cancelled. Until an
+ * endpoint has seen enough responses, {@code initialDelay} is used instead. Hedges are drawn from a budget the same way
+ * {@link RetryPolicy} draws retries: every GET adds {@code budgetRatio} of a hedge to it, up to {@code budgetReserve},
+ * and every hedge takes one, so hedging adds at most that share of extra load. Hedges sent and hedges that won are
+ * counted in {@link APMetrics} as {@link #HEDGES} and {@link #WINS}.
+ */
+public class HedgePolicy {
+
+    public static final String HEDGES = "http.hedge.sent";
+
+    public static final String WINS = "http.hedge.wins";
+
+    private static final int WINDOW = 200;
+
+    private static final int MIN_SAMPLES = 20;
+
+    private final double percentile;
+
+    private final long initialDelayNanos;
+
+    private final Map<String, Window> windows = new HashMap<String, Window>();
+
+    private double budgetRatio = 0.05;
+
+    private double budgetReserve = 5;
+
+    private double budget = 5;
+
+    public HedgePolicy(double percentile, long initialDelay, TimeUnit unit) {
+        if (percentile <= 0 || percentile >= 100)
+            throw new IllegalArgumentException("percentile must be between 0 and 100.");
+        if (initialDelay <= 0)
+            throw new IllegalArgumentException("initialDelay must be positive.");
+        this.percentile = percentile;
+        this.initialDelayNanos = unit.toNanos(initialDelay);
+    }
+
+    /**
+     * Sets how much of a hedge each GET earns, and how many hedges can be saved up. The budget starts full.
+     * Defaults to 0.05 and 5.
+     */
+    public synchronized HedgePolicy setBudget(double ratio, double reserve) {
+        if (ratio < 0 || reserve < 0)
+            throw new IllegalArgumentException("ratio and reserve must not be negative.");
+        this.budgetRatio = ratio;
+        this.budgetReserve = reserve;
+        this.budget = reserve;
+        return this;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public synchronized double getBudget() {
+        return budget;
+    }
+
+    /**
+     * How long a GET to {@code endpoint} is given before it is hedged.
+     */
+    public long getDelay(String endpoint, TimeUnit unit) {
+        return unit.convert(delayNanos(endpoint), TimeUnit.NANOSECONDS);
+    }
+
+    synchronized long delayNanos(String endpoint) {
+        Window window = windows.get(endpoint);
+        return window == null || window.count < MIN_SAMPLES ? initialDelayNanos : window.percentile(percentile);
+    }
+
+    synchronized void record(String endpoint, long latencyNanos) {
+        Window window = windows.get(endpoint);
+        if (window == null) {
+            window = new Window();
+            windows.put(endpoint, window);
+        }
+        window.add(latencyNanos);
+    }
+
+    synchronized void requested() {
+        budget = Math.min(budgetReserve, budget + budgetRatio);
+    }
+
+    synchronized boolean withdraw() {
+        if (budget < 1)
+            return false;
+        budget -= 1;
+        APMetrics.increment(HEDGES);
+        return true;
+    }
+
+    //  The latest latencies of an endpoint. The percentile is worked out again every tenth of a window.
+    private static class Window {
+
+        final long[] samples = new long[WINDOW];
+
+        int next = 0;
+
+        int count = 0;
+
+        int sinceSorted = 0;
+
+        long cached = -1;
+
+        void add(long latencyNanos) {
+            samples[next] = latencyNanos;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+            sinceSorted++;
+        }
+
+        long percentile(double percentile) {
+            if (cached < 0 || sinceSorted >= WINDOW / 10) {
+                long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                cached = sorted[Math.min(count - 1, (int) Math.ceil(percentile / 100 * count) - 1)];
+                sinceSorted = 0;
+            }
+            return cached;
+        }
+    }
+}
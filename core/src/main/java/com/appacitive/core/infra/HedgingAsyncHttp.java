@@ -0,0 +1,273 @@
+package com.appacitive.core.infra;
+
+import com.appacitive.core.interfaces.AsyncHttp;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AsyncHttp} that sends a second copy of a GET that is slow to respond, as its {@link HedgePolicy} allows, and
+ * completes the callback from whichever copy answers first. The request fails only once every copy sent has failed.
+ * Everything other than GET goes straight to the wrapped transport.
+ */
+public class HedgingAsyncHttp implements AsyncHttp {
+
+    private final AsyncHttp delegate;
+
+    private final HedgePolicy policy;
+
+    public HedgingAsyncHttp(AsyncHttp delegate, HedgePolicy policy) {
+        if (delegate == null)
+            throw new NullPointerException("delegate == null");
+        if (policy == null)
+            throw new NullPointerException("policy == null");
+        this.delegate = delegate;
+        this.policy = policy;
+    }
+
+    public AsyncHttp getDelegate() {
+        return delegate;
+    }
+
+    public HedgePolicy getPolicy() {
+        return policy;
+    }
+
+    @Override
+    public APFuture<String> get(String url, Map<String, String> headers) {
+        APFuture<String> future = new APFuture<String>();
+        get(url, headers, APCallback.completing(future));
+        return future;
+    }
+
+    @Override
+    public void get(String url, Map<String, String> headers, APCallback callback) {
+        policy.requested();
+        final Race race = new Race(url, headers, callback);
+        callback.cancelWith(new APCallback.Abort() {
+            @Override
+            public void abort(Exception reason) {
+                race.finish(null, reason);
+            }
+        });
+        race.send(race.launch(false));
+        race.timer = APScheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                Copy hedge = race.hedge();
+                if (hedge == null)
+                    return;
+                try {
+                    race.send(hedge);
+                } catch (RuntimeException e) {
+                    hedge.failure(e);
+                }
+            }
+        }, policy.delayNanos(race.endpoint), TimeUnit.NANOSECONDS);
+    }
+
+    //  The copies of one GET. The first to answer wins, and only when none is left running does a failure count.
+    private class Race {
+
+        final String url;
+
+        final Map<String, String> headers;
+
+        final String endpoint;
+
+        final APCallback callback;
+
+        final List<Copy> copies = new ArrayList<Copy>(2);
+
+        Copy primary;
+
+        volatile ScheduledFuture<?> timer;
+
+        int running = 0;
+
+        boolean done = false;
+
+        Race(String url, Map<String, String> headers, APCallback callback) {
+            this.url = url;
+            this.headers = headers;
+            this.endpoint = Urls.endpointOf(url);
+            this.callback = callback;
+        }
+
+        synchronized Copy launch(boolean hedge) {
+            Copy copy = new Copy(this, hedge);
+            if (hedge == false)
+                primary = copy;
+            copies.add(copy);
+            running++;
+            return copy;
+        }
+
+        Copy hedge() {
+            synchronized (this) {
+                if (done)
+                    return null;
+            }
+            if (policy.withdraw() == false)
+                return null;
+            return launch(true);
+        }
+
+        void send(Copy copy) {
+            delegate.get(url, headers, copy);
+        }
+
+        //  Ends the race and cancels every copy other than the winner, if any.
+        boolean finish(Copy winner) {
+            return finish(winner, new CancellationException("Lost the race."));
+        }
+
+        boolean finish(Copy winner, Exception reason) {
+            List<Runnable> cancels = new ArrayList<Runnable>();
+            synchronized (this) {
+                if (done)
+                    return false;
+                done = true;
+                for (Copy copy : copies) {
+                    if (copy != winner)
+                        cancels.addAll(copy.cancels);
+                }
+            }
+            ScheduledFuture<?> timer = this.timer;
+            if (timer != null)
+                timer.cancel(false);
+            for (Runnable cancel : cancels)
+                APCallback.abort(cancel, reason);
+            return true;
+        }
+
+        boolean won(Copy copy) {
+            if (finish(copy) == false)
+                return false;
+            //  The delay is drawn from how long the primary takes. When a hedge won, the primary took at least this
+            //  long, so the sample is cut off there rather than replaced by the hedge's own, faster time.
+            long sentAt;
+            synchronized (this) {
+                sentAt = primary.sentAt;
+            }
+            policy.record(endpoint, System.nanoTime() - sentAt);
+            if (copy.hedge)
+                APMetrics.increment(HedgePolicy.WINS);
+            return true;
+        }
+
+        void failed(Copy copy, Exception e) {
+            synchronized (this) {
+                running--;
+                if (running > 0 || done)
+                    return;
+            }
+            if (finish(null))
+                callback.failure(e);
+        }
+
+        //  Returns false if the copy has lost, and should be cancelled right away.
+        synchronized boolean register(Copy copy, Runnable cancel) {
+            if (done)
+                return false;
+            copy.cancels.add(cancel);
+            return true;
+        }
+    }
+
+    private static class Copy extends APCallback {
+
+        final Race race;
+
+        final boolean hedge;
+
+        final long sentAt = System.nanoTime();
+
+        final List<Runnable> cancels = new ArrayList<Runnable>(1);
+
+        Copy(Race race, boolean hedge) {
+            this.race = race;
+            this.hedge = hedge;
+        }
+
+        @Override
+        public void success(String result) {
+            if (race.won(this))
+                race.callback.success(result);
+        }
+
+        @Override
+        public void success(Reader response) {
+            if (race.won(this))
+                race.callback.success(response);
+        }
+
+        //  The first copy to answer wins here already, so that only its response is parsed.
+        @Override
+        public Runnable prepare(Reader response) {
+            if (race.won(this))
+                return race.callback.prepare(response);
+            return new Runnable() {
+                @Override
+                public void run() {
+                }
+            };
+        }
+
+        @Override
+        public void failure(Exception e) {
+            race.failed(this, e);
+        }
+
+        @Override
+        public void cancelWith(Runnable cancel) {
+            if (race.register(this, cancel) == false)
+                cancel.run();
+        }
+    }
+
+    @Override
+    public APFuture<String> delete(String url, Map<String, String> headers) {
+        return delegate.delete(url, headers);
+    }
+
+    @Override
+    public void delete(String url, Map<String, String> headers, APCallback callback) {
+        delegate.delete(url, headers, callback);
+    }
+
+    @Override
+    public APFuture<String> put(String url, Map<String, String> headers, String request) {
+        return delegate.put(url, headers, request);
+    }
+
+    @Override
+    public void put(String url, Map<String, String> headers, String request, APCallback callback) {
+        delegate.put(url, headers, request, callback);
+    }
+
+    @Override
+    public void put(String url, Map<String, String> headers, byte[] request, APCallback callback) {
+        delegate.put(url, headers, request, callback);
+    }
+
+    @Override
+    public APFuture<String> post(String url, Map<String, String> headers, String request) {
+        return delegate.post(url, headers, request);
+    }
+
+    @Override
+    public void post(String url, Map<String, String> headers, String request, APCallback callback) {
+        delegate.post(url, headers, request, callback);
+    }
+
+    @Override
+    public void post(String url, Map<String, String> headers, byte[] request, APCallback callback) {
+        delegate.post(url, headers, request, callback);
+    }
+}
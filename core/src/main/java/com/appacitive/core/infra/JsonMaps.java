@@ -0,0 +1,72 @@
+package com.appacitive.core.infra;
+
+import com.appacitive.core.apjson.APJSONArray;
+import com.appacitive.core.apjson.APJSONException;
+import com.appacitive.core.apjson.APJSONObject;
+
+import java.util.*;
+
+/**
+ * Converts between json and the plain maps and lists used by {@link com.appacitive.core.interfaces.Http}.
+ */
+public class JsonMaps {
+
+    public static Map<String, Object> parse(String json) throws APJSONException {
+        return toMap(new APJSONObject(json));
+    }
+
+    public static String stringify(Map<String, Object> map) {
+        return toJson(map).toString();
+    }
+
+    public static Map<String, Object> toMap(APJSONObject jsonObject) {
+        Map<String, Object> map = new LinkedHashMap<String, Object>();
+        Iterator<?> keys = jsonObject.keys();
+        while (keys.hasNext()) {
+            String key = (String) keys.next();
+            map.put(key, fromJson(jsonObject.opt(key)));
+        }
+        return map;
+    }
+
+    public static APJSONObject toJson(Map<String, ?> map) {
+        APJSONObject jsonObject = new APJSONObject();
+        for (Map.Entry<String, ?> entry : map.entrySet()) {
+            try {
+                jsonObject.put(entry.getKey(), toJsonValue(entry.getValue()));
+            } catch (APJSONException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+        return jsonObject;
+    }
+
+    private static Object fromJson(Object value) {
+        if (value instanceof APJSONObject)
+            return toMap((APJSONObject) value);
+        if (value instanceof APJSONArray) {
+            APJSONArray array = (APJSONArray) value;
+            List<Object> list = new ArrayList<Object>(array.length());
+            for (int i = 0; i < array.length(); i++)
+                list.add(fromJson(array.opt(i)));
+            return list;
+        }
+        if (value == APJSONObject.NULL)
+            return null;
+        return value;
+    }
+
+    private static Object toJsonValue(Object value) {
+        if (value == null)
+            return APJSONObject.NULL;
+        if (value instanceof Map)
+            return toJson((Map<String, ?>) value);
+        if (value instanceof Collection) {
+            APJSONArray array = new APJSONArray();
+            for (Object item : (Collection<?>) value)
+                array.put(toJsonValue(item));
+            return array;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,96 @@
+package com.appacitive.core.infra;
+
+import java.io.*;
+
+/**
+ * Reads api responses straight from the response bytes.
+ * <p/>
+ * {@link #open} decodes the (possibly gzipped) body as it is read and skips a byte order mark or anything else in
+ * front of the json object, so a parser can consume the reader directly. {@link #read} collects the object into a
+ * single string for callers that still want one.
+ */
+public class JsonResponse {
+
+    private static final String UTF8 = "UTF-8";
+
+    public static Reader open(InputStream body, String contentEncoding) throws IOException {
+        InputStream stream = Gzip.isGzipped(contentEncoding) ? Gzip.inflate(body) : body;
+        return new ObjectReader(new InputStreamReader(stream, UTF8));
+    }
+
+    public static String read(Reader response) throws IOException {
+        StringBuilder text = new StringBuilder(8192);
+        char[] buffer = new char[4096];
+        try {
+            int read;
+            while ((read = response.read(buffer)) != -1)
+                text.append(buffer, 0, read);
+        } finally {
+            response.close();
+        }
+        //  Drop anything after the end of the object.
+        int end = text.lastIndexOf("}");
+        if (end == -1)
+            throw new IOException("Response is not a json object.");
+        text.setLength(end + 1);
+        return text.toString();
+    }
+
+    //  Skips everything in front of the first '{'.
+    private static class ObjectReader extends FilterReader {
+
+        private boolean started = false;
+
+        ObjectReader(Reader in) {
+            super(in);
+        }
+
+        private boolean start() throws IOException {
+            if (started)
+                return true;
+            int c;
+            while ((c = in.read()) != -1) {
+                if (c == '{') {
+                    started = true;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (started)
+                return in.read();
+            return start() ? '{' : -1;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            if (length == 0)
+                return 0;
+            if (started)
+                return in.read(buffer, offset, length);
+            if (start() == false)
+                return -1;
+            buffer[offset] = '{';
+            if (length == 1)
+                return 1;
+            int read = in.read(buffer, offset + 1, length - 1);
+            return read == -1 ? 1 : read + 1;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = 0;
+            while (skipped < n && read() != -1)
+                skipped++;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.appacitive.core.infra;
+
+import com.appacitive.core.interfaces.AsyncHttp;
+
+import java.io.Reader;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link AsyncHttp} that only hands a request to the wrapped transport once its {@link RequestLimiter} admits it.
+ * A slot is held until the request completes; for a streamed response that is after the callback has read it.
+ */
+public class LimitedAsyncHttp implements AsyncHttp {
+
+    private final AsyncHttp delegate;
+
+    private final RequestLimiter limiter;
+
+    public LimitedAsyncHttp(AsyncHttp delegate, RequestLimiter limiter) {
+        if (delegate == null)
+            throw new NullPointerException("delegate == null");
+        if (limiter == null)
+            throw new NullPointerException("limiter == null");
+        this.delegate = delegate;
+        this.limiter = limiter;
+    }
+
+    public AsyncHttp getDelegate() {
+        return delegate;
+    }
+
+    public RequestLimiter getLimiter() {
+        return limiter;
+    }
+
+    private interface Send {
+        void send(APCallback callback);
+    }
+
+    private void submit(String url, final APCallback callback, final Send send) {
+        final String endpoint = Urls.endpointOf(url);
+        Runnable withdraw = limiter.submit(endpoint, new Runnable() {
+            @Override
+            public void run() {
+                final AtomicBoolean released = new AtomicBoolean(false);
+                APCallback releasing = new APCallback() {
+                    private void release() {
+                        if (released.compareAndSet(false, true))
+                            limiter.release(endpoint);
+                    }
+
+                    @Override
+                    public void success(String result) {
+                        release();
+                        callback.success(result);
+                    }
+
+                    @Override
+                    public void success(Reader response) {
+                        try {
+                            callback.success(response);
+                        } finally {
+                            release();
+                        }
+                    }
+
+                    //  A delivery the transport cannot hand over is reported to failure(Exception) instead, which
+                    //  frees the slot as well.
+                    @Override
+                    public Runnable prepare(Reader response) {
+                        final Runnable rest;
+                        boolean prepared = false;
+                        try {
+                            rest = callback.prepare(response);
+                            prepared = true;
+                        } finally {
+                            if (prepared == false)
+                                release();
+                        }
+                        return new Runnable() {
+                            @Override
+                            public void run() {
+                                release();
+                                rest.run();
+                            }
+                        };
+                    }
+
+                    @Override
+                    public void failure(Exception e) {
+                        release();
+                        callback.failure(e);
+                    }
+
+                    //  An aborted request may never report back, so aborting it frees the slot too.
+                    @Override
+                    public void cancelWith(final Runnable cancel) {
+                        callback.cancelWith(new Abort() {
+                            @Override
+                            public void abort(Exception reason) {
+                                APCallback.abort(cancel, reason);
+                                release();
+                            }
+                        });
+                    }
+                };
+                try {
+                    send.send(releasing);
+                } catch (RuntimeException e) {
+                    //  Queued requests are sent from whichever thread freed the slot, so report it to the callback.
+                    releasing.failure(e);
+                }
+            }
+        }, callback);
+        if (withdraw != null)
+            callback.cancelWith(withdraw);
+    }
+
+    @Override
+    public APFuture<String> get(String url, Map<String, String> headers) {
+        APFuture<String> future = new APFuture<String>();
+        get(url, headers, APCallback.completing(future));
+        return future;
+    }
+
+    @Override
+    public void get(final String url, final Map<String, String> headers, APCallback callback) {
+        submit(url, callback, new Send() {
+            @Override
+            public void send(APCallback callback) {
+                delegate.get(url, headers, callback);
+            }
+        });
+    }
+
+    @Override
+    public APFuture<String> delete(String url, Map<String, String> headers) {
+        APFuture<String> future = new APFuture<String>();
+        delete(url, headers, APCallback.completing(future));
+        return future;
+    }
+
+    @Override
+    public void delete(final String url, final Map<String, String> headers, APCallback callback) {
+        submit(url, callback, new Send() {
+            @Override
+            public void send(APCallback callback) {
+                delegate.delete(url, headers, callback);
+            }
+        });
+    }
+
+    @Override
+    public APFuture<String> put(String url, Map<String, String> headers, String request) {
+        APFuture<String> future = new APFuture<String>();
+        put(url, headers, request, APCallback.completing(future));
+        return future;
+    }
+
+    @Override
+    public void put(final String url, final Map<String, String> headers, final String request, APCallback callback) {
+        submit(url, callback, new Send() {
+            @Override
+            public void send(APCallback callback) {
+                delegate.put(url, headers, request, callback);
+            }
+        });
+    }
+
+    @Override
+    public void put(final String url, final Map<String, String> headers, final byte[] request, APCallback callback) {
+        submit(url, callback, new Send() {
+            @Override
+            public void send(APCallback callback) {
+                delegate.put(url, headers, request, callback);
+            }
+        });
+    }
+
+    @Override
+    public APFuture<String> post(String url, Map<String, String> headers, String request) {
+        APFuture<String> future = new APFuture<String>();
+        post(url, headers, request, APCallback.completing(future));
+        return future;
+    }
+
+    @Override
+    public void post(final String url, final Map<String, String> headers, final String request, APCallback callback) {
+        submit(url, callback, new Send() {
+            @Override
+            public void send(APCallback callback) {
+                delegate.post(url, headers, request, callback);
+            }
+        });
+    }
+
+    @Override
+    public void post(final String url, final Map<String, String> headers, final byte[] request, APCallback callback) {
+        submit(url, callback, new Send() {
+            @Override
+            public void send(APCallback callback) {
+                delegate.post(url, headers, request, callback);
+            }
+        });
+    }
+}
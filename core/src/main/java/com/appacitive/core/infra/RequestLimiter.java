@@ -0,0 +1,227 @@
+package com.appacitive.core.infra;
+
+import com.appacitive.core.exceptions.RequestRejectedException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounds how many requests the sdk has in flight, overall and per endpoint ({@code object}, {@code connection},
+ * {@code user}, {@code push} and so on). Turn it on with
+ * {@link com.appacitive.core.AppacitiveContextBase#setRequestLimiter(RequestLimiter)}, which puts a
+ * {@link LimitedAsyncHttp} in front of the registered transport.
+ * <p/>
+ * A request that finds no free slot waits in a queue of up to {@code maxQueued} requests and is sent, in order, as
+ * soon as a slot frees up. What happens to a request that finds the queue full is decided by the {@link Overflow}
+ * policy. Queue depth and the time spent queued (in ms) are recorded in {@link APMetrics} as {@link #QUEUE_DEPTH}
+ * and {@link #QUEUE_WAIT}, turned away requests as {@link #REJECTED}.
+ */
+public class RequestLimiter {
+
+    public static final String QUEUE_DEPTH = "http.limiter.queue.depth";
+
+    public static final String QUEUE_WAIT = "http.limiter.queue.wait";
+
+    public static final String REJECTED = "http.limiter.rejected";
+
+    public enum Overflow {
+        //  Fails the new request with a RequestRejectedException.
+        REJECT,
+        //  Holds the calling thread until there is room. Do not use it if requests are made from sdk callbacks.
+        BLOCK,
+        //  Fails the oldest queued request to make room for the new one.
+        SHED_OLDEST
+    }
+
+    private final int maxInFlight;
+
+    private final int maxQueued;
+
+    private final Overflow overflow;
+
+    private final Map<String, Integer> endpointLimits = new HashMap<String, Integer>();
+
+    private final Map<String, Integer> endpointInFlight = new HashMap<String, Integer>();
+
+    private final LinkedList<Pending> queue = new LinkedList<Pending>();
+
+    private int inFlight = 0;
+
+    public RequestLimiter(int maxInFlight, int maxQueued, Overflow overflow) {
+        if (maxInFlight <= 0)
+            throw new IllegalArgumentException("maxInFlight must be positive.");
+        if (maxQueued < 0)
+            throw new IllegalArgumentException("maxQueued must not be negative.");
+        if (overflow == null)
+            throw new NullPointerException("overflow == null");
+        this.maxInFlight = maxInFlight;
+        this.maxQueued = maxQueued;
+        this.overflow = overflow;
+    }
+
+    /**
+     * Caps the requests in flight to one endpoint, on top of the overall cap. The endpoint is the first path segment
+     * after the base url, e.g. {@code object} or {@code push}.
+     */
+    public synchronized RequestLimiter setEndpointLimit(String endpoint, int maxInFlight) {
+        if (maxInFlight <= 0)
+            throw new IllegalArgumentException("maxInFlight must be positive.");
+        endpointLimits.put(endpoint, maxInFlight);
+        return this;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    public Overflow getOverflow() {
+        return overflow;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Runs {@code send} once there is a slot for {@code endpoint}, or fails {@code callback} if the request is turned
+     * away. Whoever runs {@code send} must call {@link #release(String)} once the request is done. If the request
+     * has to wait, returns a handler that takes it out of the queue.
+     */
+    Runnable submit(String endpoint, Runnable send, APCallback callback) {
+        final Pending pending = new Pending(endpoint, send, callback);
+        boolean queued = false;
+        Pending shed = null;
+        boolean admitted = false;
+        boolean rejected = false;
+        synchronized (this) {
+            while (true) {
+                if (hasRoom(endpoint)) {
+                    acquire(endpoint);
+                    admitted = true;
+                    break;
+                }
+                if (queue.size() < maxQueued) {
+                    queue.add(pending);
+                    queued = true;
+                    APMetrics.record(QUEUE_DEPTH, queue.size());
+                    break;
+                }
+                if (overflow == Overflow.BLOCK) {
+                    try {
+                        wait();
+                        continue;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                } else if (overflow == Overflow.SHED_OLDEST && queue.isEmpty() == false) {
+                    shed = queue.removeFirst();
+                    queue.add(pending);
+                    queued = true;
+                    break;
+                }
+                rejected = true;
+                break;
+            }
+        }
+        if (shed != null)
+            reject(shed.callback);
+        if (rejected)
+            reject(callback);
+        if (admitted)
+            send.run();
+        if (queued == false)
+            return null;
+        return new Runnable() {
+            @Override
+            public void run() {
+                withdraw(pending);
+            }
+        };
+    }
+
+    private synchronized void withdraw(Pending pending) {
+        if (queue.remove(pending)) {
+            APMetrics.record(QUEUE_DEPTH, queue.size());
+            notifyAll();
+        }
+    }
+
+    void release(String endpoint) {
+        List<Pending> next = new ArrayList<Pending>();
+        synchronized (this) {
+            inFlight--;
+            Integer count = endpointInFlight.get(endpoint);
+            if (count != null && count > 1)
+                endpointInFlight.put(endpoint, count - 1);
+            else
+                endpointInFlight.remove(endpoint);
+            Iterator<Pending> iterator = queue.iterator();
+            while (iterator.hasNext() && inFlight < maxInFlight) {
+                Pending pending = iterator.next();
+                if (hasRoom(pending.endpoint)) {
+                    acquire(pending.endpoint);
+                    iterator.remove();
+                    next.add(pending);
+                }
+            }
+            if (next.isEmpty() == false)
+                APMetrics.record(QUEUE_DEPTH, queue.size());
+            notifyAll();
+        }
+        long now = System.nanoTime();
+        for (Pending pending : next) {
+            APMetrics.record(QUEUE_WAIT, (now - pending.queuedAt) / 1000000.0);
+            pending.send.run();
+        }
+    }
+
+    private boolean hasRoom(String endpoint) {
+        if (inFlight >= maxInFlight)
+            return false;
+        Integer limit = endpointLimits.get(endpoint);
+        if (limit == null)
+            return true;
+        Integer count = endpointInFlight.get(endpoint);
+        return count == null || count < limit;
+    }
+
+    private void acquire(String endpoint) {
+        inFlight++;
+        Integer count = endpointInFlight.get(endpoint);
+        endpointInFlight.put(endpoint, count == null ? 1 : count + 1);
+    }
+
+    private static void reject(APCallback callback) {
+        APMetrics.increment(REJECTED);
+        callback.failure(new RequestRejectedException("Too many requests are waiting to be sent."));
+    }
+
+    private static class Pending {
+
+        final String endpoint;
+
+        final Runnable send;
+
+        final APCallback callback;
+
+        final long queuedAt = System.nanoTime();
+
+        Pending(String endpoint, Runnable send, APCallback callback) {
+            this.endpoint = endpoint;
+            this.send = send;
+            this.callback = callback;
+        }
+    }
+}
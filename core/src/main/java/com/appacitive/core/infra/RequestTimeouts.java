@@ -0,0 +1,44 @@
+package com.appacitive.core.infra;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How long a request may take before it is cancelled and failed with a
+ * {@link com.appacitive.core.exceptions.RequestTimeoutException}. Turn it on with
+ * {@link com.appacitive.core.AppacitiveContextBase#setRequestTimeouts(RequestTimeouts)}, which puts a
+ * {@link DeadlineAsyncHttp} in front of the registered transport.
+ * <p/>
+ * A request gets the deadline of the {@link APCall} it is made in, if that has one; otherwise the timeout set for its
+ * endpoint (see {@link Urls#endpointOf(String)}), or else the default. A timeout of 0 means none. The deadline covers
+ * the whole request, including time spent waiting for a slot and between retries.
+ */
+public class RequestTimeouts {
+
+    private final long defaultTimeoutNanos;
+
+    private final Map<String, Long> endpointTimeoutNanos = new ConcurrentHashMap<String, Long>();
+
+    public RequestTimeouts(long defaultTimeout, TimeUnit unit) {
+        if (defaultTimeout < 0)
+            throw new IllegalArgumentException("defaultTimeout must not be negative.");
+        this.defaultTimeoutNanos = unit.toNanos(defaultTimeout);
+    }
+
+    public RequestTimeouts setEndpointTimeout(String endpoint, long timeout, TimeUnit unit) {
+        if (timeout < 0)
+            throw new IllegalArgumentException("timeout must not be negative.");
+        endpointTimeoutNanos.put(endpoint, unit.toNanos(timeout));
+        return this;
+    }
+
+    public long getTimeout(String endpoint, TimeUnit unit) {
+        return unit.convert(timeoutNanos(endpoint), TimeUnit.NANOSECONDS);
+    }
+
+    long timeoutNanos(String endpoint) {
+        Long timeout = endpointTimeoutNanos.get(endpoint);
+        return timeout == null ? defaultTimeoutNanos : timeout;
+    }
+}
@@ -0,0 +1,111 @@
+package com.appacitive.core.infra;
+
+import com.appacitive.core.exceptions.AppacitiveException;
+
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * When and how often {@link RetryingAsyncHttp} sends a failed request again. Turn it on with
+ * {@link com.appacitive.core.AppacitiveContextBase#setRetryPolicy(RetryPolicy)}.
+ * <p/>
+ * Only requests that are safe to repeat are retried: GETs, and updates guarded by a revision, which the api turns
+ * away if an earlier attempt already went through. Creates, deletes and other calls are never retried, as the api has
+ * no idempotency key to recognise a repeated one by. A request is retried when the transport fails to get a response
+ * for it; a response carrying an error status is passed on as is.
+ * <p/>
+ * The wait before the n-th retry is picked at random between zero and {@code baseDelay * 2^(n-1)}, capped at
+ * {@code maxDelay}, so that clients that failed together do not come back together. Retries are also drawn from a
+ * budget: every first attempt adds {@code budgetRatio} of a retry to it, up to {@code budgetReserve}, and every retry
+ * takes one. Once the budget is spent, failures are passed on until enough new requests top it up again, which keeps
+ * an outage from being multiplied by retries. Retries are counted in {@link APMetrics} as {@link #RETRIES}, and
+ * failures passed on for lack of budget as {@link #BUDGET_EXHAUSTED}.
+ */
+public class RetryPolicy {
+
+    public static final String RETRIES = "http.retry.retries";
+
+    public static final String BUDGET_EXHAUSTED = "http.retry.budget.exhausted";
+
+    private static final Random random = new Random();
+
+    private final int maxAttempts;
+
+    private final long baseDelayNanos;
+
+    private final long maxDelayNanos;
+
+    private volatile double budgetRatio = 0.1;
+
+    private volatile double budgetReserve = 10;
+
+    private double budget = 10;
+
+    public RetryPolicy(int maxAttempts, long baseDelay, long maxDelay, TimeUnit unit) {
+        if (maxAttempts < 1)
+            throw new IllegalArgumentException("maxAttempts must be at least 1.");
+        if (baseDelay <= 0 || maxDelay < baseDelay)
+            throw new IllegalArgumentException("baseDelay must be positive and no more than maxDelay.");
+        this.maxAttempts = maxAttempts;
+        this.baseDelayNanos = unit.toNanos(baseDelay);
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+    }
+
+    /**
+     * Sets how much of a retry each first attempt earns, and how many retries can be saved up. The budget starts
+     * full. Defaults to 0.1 and 10.
+     */
+    public synchronized RetryPolicy setBudget(double ratio, double reserve) {
+        if (ratio < 0 || reserve < 0)
+            throw new IllegalArgumentException("ratio and reserve must not be negative.");
+        this.budgetRatio = ratio;
+        this.budgetReserve = reserve;
+        this.budget = reserve;
+        return this;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public synchronized double getBudget() {
+        return budget;
+    }
+
+    static boolean isIdempotent(String method, String url) {
+        if ("GET".equals(method))
+            return true;
+        if ("PUT".equals(method) || "POST".equals(method))
+            return url.contains("?revision=") || url.contains("&revision=");
+        return false;
+    }
+
+    boolean isTransient(Exception e) {
+        //  Sdk exceptions, like a request turned away by the limiter, would fail the same way again.
+        return e instanceof AppacitiveException == false && e instanceof CancellationException == false;
+    }
+
+    synchronized void attempted() {
+        budget = Math.min(budgetReserve, budget + budgetRatio);
+    }
+
+    synchronized boolean withdraw() {
+        if (budget < 1) {
+            APMetrics.increment(BUDGET_EXHAUSTED);
+            return false;
+        }
+        budget -= 1;
+        APMetrics.increment(RETRIES);
+        return true;
+    }
+
+    long delayNanos(int retry) {
+        long ceiling = baseDelayNanos << Math.min(retry - 1, 30);
+        if (ceiling <= 0 || ceiling > maxDelayNanos)
+            ceiling = maxDelayNanos;
+        synchronized (random) {
+            return (long) (random.nextDouble() * ceiling);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.appacitive.core.infra;
+
+import com.appacitive.core.interfaces.AsyncHttp;
+
+import java.io.Reader;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link AsyncHttp} that sends requests which are safe to repeat again when the wrapped transport fails them, as
+ * its {@link RetryPolicy} allows. Waits between attempts run on the {@link APScheduler}, so nothing is held while
+ * waiting.
+ */
+public class RetryingAsyncHttp implements AsyncHttp {
+
+    private final AsyncHttp delegate;
+
+    private final RetryPolicy policy;
+
+    public RetryingAsyncHttp(AsyncHttp delegate, RetryPolicy policy) {
+        if (delegate == null)
+            throw new NullPointerException("delegate == null");
+        if (policy == null)
+            throw new NullPointerException("policy == null");
+        this.delegate = delegate;
+        this.policy = policy;
+    }
+
+    public AsyncHttp getDelegate() {
+        return delegate;
+    }
+
+    public RetryPolicy getPolicy() {
+        return policy;
+    }
+
+    private interface Send {
+        void send(APCallback callback);
+    }
+
+    private void start(Send send, APCallback callback) {
+        policy.attempted();
+        //  Once the request is cancelled, a retry waiting for its turn is dropped.
+        final AtomicBoolean cancelled = new AtomicBoolean(false);
+        callback.cancelWith(new Runnable() {
+            @Override
+            public void run() {
+                cancelled.set(true);
+            }
+        });
+        attempt(send, callback, 1, cancelled);
+    }
+
+    private void attempt(final Send send, final APCallback callback, final int attempt, final AtomicBoolean cancelled) {
+        APCallback retrying = new APCallback() {
+            @Override
+            public void success(String result) {
+                callback.success(result);
+            }
+
+            @Override
+            public void success(Reader response) {
+                callback.success(response);
+            }
+
+            @Override
+            public Runnable prepare(Reader response) {
+                return callback.prepare(response);
+            }
+
+            @Override
+            public void failure(Exception e) {
+                if (cancelled.get() || attempt >= policy.getMaxAttempts() || policy.isTransient(e) == false || policy.withdraw() == false) {
+                    callback.failure(e);
+                    return;
+                }
+                APScheduler.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (cancelled.get() == false)
+                            attempt(send, callback, attempt + 1, cancelled);
+                    }
+                }, policy.delayNanos(attempt), TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void cancelWith(Runnable cancel) {
+                callback.cancelWith(cancel);
+            }
+        };
+        try {
+            send.send(retrying);
+        } catch (RuntimeException e) {
+            if (attempt == 1)
+                throw e;
+            callback.failure(e);
+        }
+    }
+
+    @Override
+    public APFuture<String> get(String url, Map<String, String> headers) {
+        APFuture<String> future = new APFuture<String>();
+        get(url, headers, APCallback.completing(future));
+        return future;
+    }
+
+    @Override
+    public void get(final String url, final Map<String, String> headers, APCallback callback) {
+        start(new Send() {
+            @Override
+            public void send(APCallback callback) {
+                delegate.get(url, headers, callback);
+            }
+        }, callback);
+    }
+
+    @Override
+    public APFuture<String> delete(String url, Map<String, String> headers) {
+        return delegate.delete(url, headers);
+    }
+
+    @Override
+    public void delete(String url, Map<String, String> headers, APCallback callback) {
+        delegate.delete(url, headers, callback);
+    }
+
+    @Override
+    public APFuture<String> put(String url, Map<String, String> headers, String request) {
+        if (RetryPolicy.isIdempotent("PUT", url) == false)
+            return delegate.put(url, headers, request);
+        APFuture<String> future = new APFuture<String>();
+        put(url, headers, request, APCallback.completing(future));
+        return future;
+    }
+
+    @Override
+    public void put(final String url, final Map<String, String> headers, final String request, APCallback callback) {
+        if (RetryPolicy.isIdempotent("PUT", url) == false) {
+            delegate.put(url, headers, request, callback);
+            return;
+        }
+        start(new Send() {
+            @Override
+            public void send(APCallback callback) {
+                delegate.put(url, headers, request, callback);
+            }
+        }, callback);
+    }
+
+    @Override
+    public void put(final String url, final Map<String, String> headers, final byte[] request, APCallback callback) {
+        if (RetryPolicy.isIdempotent("PUT", url) == false) {
+            delegate.put(url, headers, request, callback);
+            return;
+        }
+        start(new Send() {
+            @Override
+            public void send(APCallback callback) {
+                delegate.put(url, headers, request, callback);
+            }
+        }, callback);
+    }
+
+    @Override
+    public APFuture<String> post(String url, Map<String, String> headers, String request) {
+        if (RetryPolicy.isIdempotent("POST", url) == false)
+            return delegate.post(url, headers, request);
+        APFuture<String> future = new APFuture<String>();
+        post(url, headers, request, APCallback.completing(future));
+        return future;
+    }
+
+    @Override
+    public void post(final String url, final Map<String, String> headers, final String request, APCallback callback) {
+        if (RetryPolicy.isIdempotent("POST", url) == false) {
+            delegate.post(url, headers, request, callback);
+            return;
+        }
+        start(new Send() {
+            @Override
+            public void send(APCallback callback) {
+                delegate.post(url, headers, request, callback);
+            }
+        }, callback);
+    }
+
+    @Override
+    public void post(final String url, final Map<String, String> headers, final byte[] request, APCallback callback) {
+        if (RetryPolicy.isIdempotent("POST", url) == false) {
+            delegate.post(url, headers, request, callback);
+            return;
+        }
+        start(new Send() {
+            @Override
+            public void send(APCallback callback) {
+                delegate.post(url, headers, request, callback);
+            }
+        }, callback);
+    }
+}
@@ -0,0 +1,258 @@
+package com.appacitive.core.infra;
+
+import com.appacitive.core.interfaces.AsyncHttp;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@link AsyncHttp} that lets identical GETs share one call. A GET for the same url with the same headers as one
+ * still in flight does not go out; it is completed from the response of the one in flight. Everything other than
+ * GET goes straight to the wrapped transport. A caller that gives up leaves the call, and the call is aborted once
+ * no caller is left waiting on it.
+ * <p/>
+ * A response with a single caller is streamed to it as usual. When callers share a response, the body is read
+ * once and every caller parses it into entities of its own, so none of them can see another's changes. Turn it on
+ * with {@link com.appacitive.core.AppacitiveContextBase#setSingleFlightGets(boolean)}. Shared calls are counted in
+ * {@link APMetrics} as {@link #SHARED}.
+ */
+public class SingleFlightAsyncHttp implements AsyncHttp {
+
+    public static final String SHARED = "http.singleflight.shared";
+
+    private final AsyncHttp delegate;
+
+    private final Map<String, Flight> inFlight = new HashMap<String, Flight>();
+
+    public SingleFlightAsyncHttp(AsyncHttp delegate) {
+        if (delegate == null)
+            throw new NullPointerException("delegate == null");
+        this.delegate = delegate;
+    }
+
+    public AsyncHttp getDelegate() {
+        return delegate;
+    }
+
+    private static String key(String url, Map<String, String> headers) {
+        StringBuilder key = new StringBuilder(url);
+        if (headers != null) {
+            for (Map.Entry<String, String> header : new TreeMap<String, String>(headers).entrySet())
+                key.append('\n').append(header.getKey()).append(':').append(header.getValue());
+        }
+        return key.toString();
+    }
+
+    //  One shared call and the callers waiting on it. Guarded by inFlight.
+    private static class Flight {
+
+        final String key;
+
+        final List<APCallback> waiting = new ArrayList<APCallback>(2);
+
+        final List<Runnable> cancels = new ArrayList<Runnable>(1);
+
+        boolean over = false;
+
+        //  Why every caller gave up on the call, if they did.
+        Exception abandoned = null;
+
+        Flight(String key) {
+            this.key = key;
+        }
+    }
+
+    //  Ends the flight. Callers that come after this start a new one.
+    private List<APCallback> land(Flight flight) {
+        synchronized (inFlight) {
+            if (inFlight.get(flight.key) == flight)
+                inFlight.remove(flight.key);
+            flight.over = true;
+            List<APCallback> callbacks = new ArrayList<APCallback>(flight.waiting);
+            flight.waiting.clear();
+            return callbacks;
+        }
+    }
+
+    //  A caller gave up. The call is aborted once nobody is left waiting on it.
+    private void leave(Flight flight, APCallback callback, Exception reason) {
+        List<Runnable> cancels;
+        synchronized (inFlight) {
+            if (flight.over || flight.waiting.remove(callback) == false || flight.waiting.isEmpty() == false)
+                return;
+            if (inFlight.get(flight.key) == flight)
+                inFlight.remove(flight.key);
+            flight.over = true;
+            flight.abandoned = reason;
+            cancels = new ArrayList<Runnable>(flight.cancels);
+        }
+        for (Runnable cancel : cancels)
+            APCallback.abort(cancel, reason);
+    }
+
+    @Override
+    public APFuture<String> get(String url, Map<String, String> headers) {
+        APFuture<String> future = new APFuture<String>();
+        get(url, headers, APCallback.completing(future));
+        return future;
+    }
+
+    @Override
+    public void get(String url, Map<String, String> headers, final APCallback callback) {
+        final String key = key(url, headers);
+        final Flight flight;
+        boolean joined = false;
+        synchronized (inFlight) {
+            Flight current = inFlight.get(key);
+            if (current != null) {
+                current.waiting.add(callback);
+                APMetrics.increment(SHARED);
+                flight = current;
+                joined = true;
+            } else {
+                flight = new Flight(key);
+                flight.waiting.add(callback);
+                inFlight.put(key, flight);
+            }
+        }
+        callback.cancelWith(new APCallback.Abort() {
+            @Override
+            public void abort(Exception reason) {
+                leave(flight, callback, reason);
+            }
+        });
+        if (joined)
+            return;
+        try {
+            delegate.get(url, headers, new APCallback() {
+                @Override
+                public void success(String result) {
+                    for (APCallback waiting : land(flight))
+                        waiting.success(result);
+                }
+
+                @Override
+                public void success(Reader response) {
+                    List<APCallback> callbacks = land(flight);
+                    if (callbacks.size() == 1) {
+                        callbacks.get(0).success(response);
+                        return;
+                    }
+                    String result;
+                    try {
+                        result = JsonResponse.read(response);
+                    } catch (IOException e) {
+                        for (APCallback waiting : callbacks)
+                            waiting.failure(e);
+                        return;
+                    }
+                    for (APCallback waiting : callbacks)
+                        waiting.success(result);
+                }
+
+                //  Each caller binds its own entities from the shared body, and all of them do so here.
+                @Override
+                public Runnable prepare(Reader response) {
+                    final List<APCallback> callbacks = land(flight);
+                    if (callbacks.size() == 1)
+                        return callbacks.get(0).prepare(response);
+                    final String result;
+                    try {
+                        result = JsonResponse.read(response);
+                    } catch (final IOException e) {
+                        return new Runnable() {
+                            @Override
+                            public void run() {
+                                for (APCallback waiting : callbacks)
+                                    waiting.failure(e);
+                            }
+                        };
+                    }
+                    final List<Runnable> rest = new ArrayList<Runnable>(callbacks.size());
+                    for (APCallback waiting : callbacks)
+                        rest.add(waiting.prepare(new StringReader(result)));
+                    return new Runnable() {
+                        @Override
+                        public void run() {
+                            for (Runnable delivery : rest)
+                                delivery.run();
+                        }
+                    };
+                }
+
+                @Override
+                public void failure(Exception e) {
+                    for (APCallback waiting : land(flight))
+                        waiting.failure(e);
+                }
+
+                //  The call is shared, so it is only aborted once every caller has given up on it.
+                @Override
+                public void cancelWith(Runnable cancel) {
+                    Exception abandoned;
+                    synchronized (inFlight) {
+                        abandoned = flight.abandoned;
+                        if (flight.over == false)
+                            flight.cancels.add(cancel);
+                    }
+                    if (abandoned != null)
+                        APCallback.abort(cancel, abandoned);
+                }
+            });
+        } catch (RuntimeException e) {
+            //  The call never went out, so fail whoever joined it and let the caller see the exception.
+            List<APCallback> callbacks = land(flight);
+            for (APCallback waiting : callbacks) {
+                if (waiting != callback)
+                    waiting.failure(e);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public APFuture<String> delete(String url, Map<String, String> headers) {
+        return delegate.delete(url, headers);
+    }
+
+    @Override
+    public void delete(String url, Map<String, String> headers, APCallback callback) {
+        delegate.delete(url, headers, callback);
+    }
+
+    @Override
+    public APFuture<String> put(String url, Map<String, String> headers, String request) {
+        return delegate.put(url, headers, request);
+    }
+
+    @Override
+    public void put(String url, Map<String, String> headers, String request, APCallback callback) {
+        delegate.put(url, headers, request, callback);
+    }
+
+    @Override
+    public void put(String url, Map<String, String> headers, byte[] request, APCallback callback) {
+        delegate.put(url, headers, request, callback);
+    }
+
+    @Override
+    public APFuture<String> post(String url, Map<String, String> headers, String request) {
+        return delegate.post(url, headers, request);
+    }
+
+    @Override
+    public void post(String url, Map<String, String> headers, String request, APCallback callback) {
+        delegate.post(url, headers, request, callback);
+    }
+
+    @Override
+    public void post(String url, Map<String, String> headers, byte[] request, APCallback callback) {
+        delegate.post(url, headers, request, callback);
+    }
+}
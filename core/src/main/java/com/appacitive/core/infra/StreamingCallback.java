@@ -0,0 +1,79 @@
+package com.appacitive.core.infra;
+
+import com.appacitive.core.apjson.APJSONException;
+import com.appacitive.core.apjson.APJSONReader;
+import com.appacitive.core.apjson.APJSONToken;
+import com.appacitive.core.exceptions.AppacitiveException;
+import com.appacitive.core.model.AppacitiveStatus;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+/**
+ * Reads an api response envelope straight off the stream. Every top level property other than the status is
+ * handed to {@link #read(String, APJSONReader)}, so entities can be bound without building the json tree.
+ * Once the whole body has been read, {@link #success()} is called if the status was successful and
+ * {@link #failure(Exception)} otherwise. The body is read in {@link #prepare(Reader)}, so a transport can bind the
+ * entities on a background thread and call back on another.
+ */
+public abstract class StreamingCallback extends APCallback {
+
+    /**
+     * Reads the value of a top level property. Return false to have it skipped.
+     */
+    protected abstract boolean read(String name, APJSONReader reader) throws APJSONException, IOException;
+
+    protected abstract void success();
+
+    @Override
+    public void success(String result) {
+        success(new StringReader(result));
+    }
+
+    @Override
+    public void success(Reader response) {
+        prepare(response).run();
+    }
+
+    //  Entities are bound here, so that only success() or failure() is left for the delivering thread.
+    @Override
+    public Runnable prepare(Reader response) {
+        AppacitiveStatus status = null;
+        try {
+            APJSONReader reader = new APJSONReader(response);
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (name.equals("status") && reader.peek() == APJSONToken.BEGIN_OBJECT)
+                    status = new AppacitiveStatus(reader.readObject());
+                else if (reader.peek() == APJSONToken.NULL || read(name, reader) == false)
+                    reader.skipValue();
+            }
+            reader.endObject();
+        } catch (APJSONException e) {
+            return failing(e);
+        } catch (IOException e) {
+            return failing(e);
+        }
+        if (status == null)
+            status = new AppacitiveStatus();
+        if (status.isSuccessful() == false)
+            return failing(new AppacitiveException(status));
+        return new Runnable() {
+            @Override
+            public void run() {
+                success();
+            }
+        };
+    }
+
+    private Runnable failing(final Exception e) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                failure(e);
+            }
+        };
+    }
+}
@@ -7,6 +7,7 @@ import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -41,6 +42,17 @@ public class Url implements Serializable {
 
     @Override
     public String toString() {
+        return build(queryStringParameters);
+    }
+
+    /**
+     * The same url with its query string parameters sorted by name, so that equal requests give equal strings.
+     */
+    public String toCanonicalString() {
+        return build(new TreeMap<String, String>(queryStringParameters));
+    }
+
+    private String build(Map<String, String> queryStringParameters) {
         StringBuilder urlBuilder = new StringBuilder();
         urlBuilder.append(baseUrl).append("/").append(endpoint);
         if(suffix != null)
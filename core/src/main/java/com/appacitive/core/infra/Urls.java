@@ -13,6 +13,29 @@ import java.util.Map;
  */
 public class Urls {
 
+    /**
+     * The endpoint family a url belongs to, i.e. the first path segment after the base url, such as {@code object},
+     * {@code connection}, {@code user}, {@code device}, {@code push} or {@code search}.
+     */
+    public static String endpointOf(String url) {
+        String path = url;
+        String baseUrl = AppacitiveContextBase.baseUrl;
+        if (baseUrl != null && url.startsWith(baseUrl)) {
+            path = url.substring(baseUrl.length());
+        } else {
+            int scheme = url.indexOf("://");
+            if (scheme >= 0) {
+                int slash = url.indexOf('/', scheme + 3);
+                path = slash < 0 ? "" : url.substring(slash);
+            }
+        }
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = start;
+        while (end < path.length() && path.charAt(end) != '/' && path.charAt(end) != '?')
+            end++;
+        return path.substring(start, end);
+    }
+
     public static class ForObject {
         private final static String endpoint = "object";
 
@@ -1,28 +1,38 @@
 package com.appacitive.core.interfaces;
 
 import com.appacitive.core.infra.APCallback;
+import com.appacitive.core.infra.APFuture;
 
 import java.util.Map;
-import java.util.concurrent.Future;
 
 /**
  * Created by sathley.
  */
 public interface AsyncHttp {
 
-    public Future<String> get(String url, Map<String, String> headers);
+    public APFuture<String> get(String url, Map<String, String> headers);
 
     public void get(String url, Map<String, String> headers, APCallback callback);
 
-    public Future<String> delete(String url, Map<String, String> headers);
+    public APFuture<String> delete(String url, Map<String, String> headers);
 
     public void delete(String url, Map<String, String> headers, APCallback callback);
 
-    public Future<String> put(String url, Map<String, String> headers, String request);
+    public APFuture<String> put(String url, Map<String, String> headers, String request);
 
     public void put(String url, Map<String, String> headers, String request, APCallback callback);
 
-    public Future<String> post(String url, Map<String, String> headers, String request);
+    /**
+     * Sends an already encoded utf-8 json body, as produced by {@link com.appacitive.core.apjson.APJSONWriter}.
+     */
+    public void put(String url, Map<String, String> headers, byte[] request, APCallback callback);
+
+    public APFuture<String> post(String url, Map<String, String> headers, String request);
 
     public void post(String url, Map<String, String> headers, String request, APCallback callback);
+
+    /**
+     * Sends an already encoded utf-8 json body, as produced by {@link com.appacitive.core.apjson.APJSONWriter}.
+     */
+    public void post(String url, Map<String, String> headers, byte[] request, APCallback callback);
 }
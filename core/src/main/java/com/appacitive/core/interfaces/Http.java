@@ -5,6 +5,10 @@ import java.util.Map;
 
 /**
  * Created by sathley.
+ * <p/>
+ * Blocking transport of a platform. The sdk itself only sends through {@link AsyncHttp}, so the policies set on
+ * {@link com.appacitive.core.AppacitiveContextBase}, such as retries, deadlines and the circuit breaker, do not
+ * apply to calls made here.
  */
 public interface Http {
     public Map<String, Object> get(String url, Map<String, String> headers) throws IOException;
@@ -3,7 +3,9 @@ package com.appacitive.core.model;
 import com.appacitive.core.apjson.APJSONArray;
 import com.appacitive.core.apjson.APJSONException;
 import com.appacitive.core.apjson.APJSONObject;
+import com.appacitive.core.apjson.APJSONWriter;
 
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -60,6 +62,41 @@ public class Acl {
     }
 
 
+    public synchronized boolean isEmpty()
+    {
+        return userPermissions.isEmpty() && usergroupPermissions.isEmpty();
+    }
+
+    /**
+     * Writes the same json as {@link #getMap()} straight to the writer.
+     */
+    public synchronized void writeTo(APJSONWriter writer) throws APJSONException, IOException
+    {
+        writer.beginArray();
+        writeEntries(writer, userPermissions, "user");
+        writeEntries(writer, usergroupPermissions, "usergroup");
+        writer.endArray();
+    }
+
+    private static void writeEntries(APJSONWriter writer, Map<String, Map<Permission, EnumSet<Access>>> permissions, String type) throws APJSONException, IOException
+    {
+        for (Map.Entry<String, Map<Permission, EnumSet<Access>>> entry : permissions.entrySet())
+        {
+            writer.beginObject();
+            writer.name("sid").value(entry.getKey());
+            writer.name("type").value(type);
+            for(Map.Entry<Permission, EnumSet<Access>> permission : entry.getValue().entrySet())
+            {
+                writer.name(permission.getKey().name()).beginArray();
+                for(Access access : permission.getValue())
+                    writer.value(access.name());
+                writer.endArray();
+            }
+            writer.endObject();
+        }
+    }
+
+
     synchronized void handleUserPermissionChanges(String userKey, Permission permission, Access access)
     {
         Map<Permission, EnumSet<Access>> permissionSet = userPermissions.get(userKey);
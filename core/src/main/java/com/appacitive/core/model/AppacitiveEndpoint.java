@@ -6,9 +6,13 @@ import com.appacitive.core.AppacitiveObject;
 import com.appacitive.core.AppacitiveUser;
 import com.appacitive.core.apjson.APJSONException;
 import com.appacitive.core.apjson.APJSONObject;
+import com.appacitive.core.apjson.APJSONReader;
+import com.appacitive.core.apjson.APJSONToken;
+import com.appacitive.core.apjson.APJSONWriter;
 import com.appacitive.core.infra.APSerializable;
 import com.appacitive.core.infra.SystemDefinedPropertiesHelper;
 
+import java.io.IOException;
 import java.io.Serializable;
 
 /**
@@ -33,6 +37,25 @@ public class AppacitiveEndpoint implements Serializable, APSerializable {
         return nativeMap;
     }
 
+    /**
+     * Writes the same json as {@link #getMap()} straight to the writer.
+     */
+    public void writeMap(APJSONWriter writer) throws APJSONException, IOException {
+        writer.beginObject();
+        if (this.label != null)
+            writer.name("label").value(this.label);
+        if (this.type != null)
+            writer.name("type").value(this.type);
+        writer.name("objectid").value(String.valueOf(this.objectId));
+        if (this.object != null) {
+            writer.name("object");
+            this.object.writeMap(writer);
+        }
+        if (this.name != null && this.name.isEmpty() == false)
+            writer.name("name").value(name);
+        writer.endObject();
+    }
+
     public String label = null;
 
     public String type = null;
@@ -73,4 +96,45 @@ public class AppacitiveEndpoint implements Serializable, APSerializable {
             }
         }
     }
+
+    /**
+     * Streaming counterpart of {@link #setSelf(APJSONObject)}. The embedded object is bound directly when
+     * its type is already known from the endpoint.
+     */
+    public void setSelf(APJSONReader reader) throws APJSONException, IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == APJSONToken.NULL)
+                reader.skipValue();
+            else if (name.equals("label"))
+                this.label = reader.nextString();
+            else if (name.equals("type"))
+                this.type = reader.nextString();
+            else if (name.equals("objectid"))
+                this.objectId = reader.nextLong();
+            else if (name.equals("object")) {
+                if (this.object != null)
+                    this.object.setSelf(reader);
+                else if (this.type != null) {
+                    this.object = newObject(this.type);
+                    this.object.setSelf(reader);
+                } else {
+                    APJSONObject object = reader.readObject();
+                    this.object = newObject(object.optString(SystemDefinedPropertiesHelper.type));
+                    this.object.setSelf(object);
+                }
+            } else
+                reader.skipValue();
+        }
+        reader.endObject();
+    }
+
+    private static AppacitiveObjectBase newObject(String type) {
+        if (type.equals("user"))
+            return new AppacitiveUser();
+        if (type.equals("device"))
+            return new AppacitiveDevice();
+        return new AppacitiveObject(type);
+    }
 }
@@ -4,9 +4,12 @@ import com.appacitive.core.AppacitiveEntity;
 import com.appacitive.core.apjson.APJSONArray;
 import com.appacitive.core.apjson.APJSONException;
 import com.appacitive.core.apjson.APJSONObject;
+import com.appacitive.core.apjson.APJSONReader;
+import com.appacitive.core.apjson.APJSONWriter;
 import com.appacitive.core.infra.APSerializable;
 import com.appacitive.core.infra.SystemDefinedPropertiesHelper;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -49,6 +52,27 @@ public class AppacitiveObjectBase extends AppacitiveEntity implements Serializab
         }
     }
 
+    @Override
+    protected void readProperty(String name, APJSONReader reader) throws APJSONException, IOException {
+        if (name.equals(SystemDefinedPropertiesHelper.typeId))
+            this.typeId = reader.nextLong();
+        else if (name.equals(SystemDefinedPropertiesHelper.type))
+            this.type = reader.nextString();
+        else
+            super.readProperty(name, reader);
+    }
+
+    //  As setSelf(APJSONObject), the type is kept when the response leaves it out.
+    @Override
+    protected synchronized void replaceWith(AppacitiveEntity latest) {
+        super.replaceWith(latest);
+        AppacitiveObjectBase object = (AppacitiveObjectBase) latest;
+        if (object.typeId != 0)
+            this.typeId = object.typeId;
+        if (object.type != null)
+            this.type = object.type;
+    }
+
     public synchronized APJSONObject getMap() throws APJSONException {
         APJSONObject nativeMap = super.getMap();
         nativeMap.put(SystemDefinedPropertiesHelper.type, this.type);
@@ -57,6 +81,61 @@ public class AppacitiveObjectBase extends AppacitiveEntity implements Serializab
         return nativeMap;
     }
 
+    @Override
+    protected AppacitiveEntity newInstance() {
+        return new AppacitiveObjectBase();
+    }
+
+    @Override
+    protected void copyFrom(AppacitiveEntity source) {
+        super.copyFrom(source);
+        AppacitiveObjectBase object = (AppacitiveObjectBase) source;
+        this.type = object.type;
+        this.typeId = object.typeId;
+    }
+
+    @Override
+    protected void writeMapFields(APJSONWriter writer) throws APJSONException, IOException {
+        super.writeMapFields(writer);
+        if (this.type != null)
+            writer.name(SystemDefinedPropertiesHelper.type).value(this.type);
+        writer.name(SystemDefinedPropertiesHelper.typeId).value(String.valueOf(this.typeId));
+        writer.name("__acls");
+        this.accessControl.writeTo(writer);
+    }
+
+    @Override
+    protected void writeUpdateCommandFields(APJSONWriter writer) throws APJSONException, IOException {
+        super.writeUpdateCommandFields(writer);
+        if (this.type != null)
+            writer.name(SystemDefinedPropertiesHelper.type).value(this.type);
+        writer.name(SystemDefinedPropertiesHelper.typeId).value(String.valueOf(this.typeId));
+    }
+
+    @Override
+    protected boolean isWrittenBySubclass(String name, boolean updateCommand) {
+        return name.equals(SystemDefinedPropertiesHelper.type) || name.equals(SystemDefinedPropertiesHelper.typeId)
+                || name.equals("__acls") || super.isWrittenBySubclass(name, updateCommand);
+    }
+
+    /**
+     * Returns the body of an update call, which is the update command along with the acls.
+     */
+    public synchronized byte[] getUpdateRequestBytes() throws APJSONException {
+        APJSONWriter writer = new APJSONWriter();
+        try {
+            writer.beginObject();
+            writeUpdateCommandFields(writer);
+            writer.name("__acls");
+            this.accessControl.writeTo(writer);
+            writer.endObject();
+        } catch (IOException e) {
+            //  Only in-memory output is involved.
+            throw new RuntimeException(e);
+        }
+        return writer.toByteArray();
+    }
+
     @Override
     public synchronized APJSONObject getUpdateCommand() throws APJSONException {
         APJSONObject updateCommand = super.getUpdateCommand();
@@ -4,9 +4,11 @@ import com.appacitive.core.AppacitiveConnection;
 import com.appacitive.core.apjson.APJSONArray;
 import com.appacitive.core.apjson.APJSONException;
 import com.appacitive.core.apjson.APJSONObject;
+import com.appacitive.core.apjson.APJSONWriter;
 import com.appacitive.core.infra.APSerializable;
 import com.appacitive.core.model.containers.*;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -95,7 +97,7 @@ public class BatchCallRequest implements Serializable, APSerializable {
             json.put("nodedeletions", nodeDeletionsArray);
         }
 
-        if(nodeDeletions.size() > 0)
+        if(edgeDeletions.size() > 0)
         {
             APJSONArray edgeDeletionsArray = new APJSONArray();
             for (ConnectionDeleteContainer container : edgeDeletions)
@@ -112,6 +114,95 @@ public class BatchCallRequest implements Serializable, APSerializable {
         return json;
     }
 
+    /**
+     * Writes the same json as {@link #getMap()} straight to the writer.
+     */
+    public void writeMap(APJSONWriter writer) throws APJSONException, IOException {
+        writer.beginObject();
+        if(nodes.size() > 0)
+        {
+            writer.name("nodes").beginArray();
+            for (ObjectContainer container : nodes)
+            {
+                writer.beginObject();
+                if(container.name != null)
+                    writer.name("name").value(container.name);
+                if(container.revision > 0)
+                    writer.name("revision").value(container.revision);
+                writer.name("object");
+                if(container.object.getId() > 0)
+                    container.object.writeUpdateCommand(writer);
+                else
+                    container.object.writeMap(writer);
+                writer.endObject();
+            }
+            writer.endArray();
+        }
+
+        if(edges.size() > 0)
+        {
+            writer.name("edges").beginArray();
+            for(ConnectionContainer container : edges)
+            {
+                writer.beginObject();
+                if(container.name != null)
+                    writer.name("name").value(container.name);
+                if(container.revision > 0)
+                    writer.name("revision").value(container.revision);
+                writer.name("connection");
+                if(container.connection.getId() > 0)
+                    container.connection.writeUpdateCommand(writer);
+                else
+                    container.connection.writeMap(writer);
+                writer.endObject();
+            }
+            writer.endArray();
+        }
+
+        if(nodeDeletions.size() > 0)
+        {
+            writer.name("nodedeletions").beginArray();
+            for (ObjectDeleteContainer container : nodeDeletions)
+            {
+                writer.beginObject();
+                if(container.type != null)
+                    writer.name("type").value(container.type);
+                writer.name("id").value(container.id);
+                writer.name("revision").value(container.revision);
+                writer.name("deleteconnections").value(container.deleteConnections);
+                writer.endObject();
+            }
+            writer.endArray();
+        }
+
+        if(edgeDeletions.size() > 0)
+        {
+            writer.name("edgedeletions").beginArray();
+            for (ConnectionDeleteContainer container : edgeDeletions)
+            {
+                writer.beginObject();
+                if(container.relationType != null)
+                    writer.name("type").value(container.relationType);
+                writer.name("id").value(container.id);
+                writer.name("revision").value(container.revision);
+                writer.endObject();
+            }
+            writer.endArray();
+        }
+        writer.endObject();
+    }
+
+    public byte[] getMapBytes() throws APJSONException {
+        APJSONWriter writer = new APJSONWriter();
+        try {
+            writeMap(writer);
+        } catch (IOException e) {
+            //  Only in-memory output is involved.
+            throw new RuntimeException(e);
+        }
+        return writer.toByteArray();
+    }
+
     public ObjectDeleteContainer deleteNode(String type, long objectId, boolean deleteConnections)
     {
         ObjectDeleteContainer container = new ObjectDeleteContainer();
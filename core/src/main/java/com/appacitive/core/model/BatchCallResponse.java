@@ -30,16 +30,16 @@ public class BatchCallResponse {
             for (int i = 0; i < nodesArray.length(); i++) {
                 this.nodes.add(processNode(nodesArray.optJSONObject(i)));
             }
-        if(edges != null)
+        if(edgesArray != null)
             for (int i = 0; i < edgesArray.length(); i++) {
                 this.edges.add(processEdge(edgesArray.optJSONObject(i)));
             }
-        if(nodeDeletions != null)
+        if(nodeDeletionArray != null)
             for (int i = 0; i < nodeDeletionArray.length(); i++)
             {
                 this.nodeDeletions.add(processNodeDeletion(nodeDeletionArray.optJSONObject(i)));
             }
-        if(edgeDeletions != null)
+        if(edgeDeletionArray != null)
             for (int i = 0; i < edgeDeletionArray.length(); i++)
             {
                 this.edgeDeletions.add(processEdgeDeletion(edgeDeletionArray.optJSONObject(i)));
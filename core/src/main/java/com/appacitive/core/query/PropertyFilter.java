@@ -1,11 +1,8 @@
 package com.appacitive.core.query;
 
+import com.appacitive.core.infra.DateTimeHelper;
 import org.joda.time.DateTime;
-import org.joda.time.format.DateTimeFormat;
-import org.joda.time.format.DateTimeFormatter;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 
 /**
@@ -13,10 +10,6 @@ import java.util.Date;
  */
 public class PropertyFilter extends Filter {
 
-    final static DateFormat dtf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSSSSS'Z'");
-
-    DateTimeFormatter fmt = DateTimeFormat.forPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSSS'Z'");
-
     public PropertyFilter(String propertyName) {
         this.key = propertyName;
     }
@@ -59,13 +52,13 @@ public class PropertyFilter extends Filter {
 
     public synchronized PropertyFilter isEqualTo(Date value) {
         this.operator = "==";
-        this.value = dtf.format(value);
+        this.value = DateTimeHelper.format(value);
         return this;
     }
 
     public synchronized PropertyFilter isEqualTo(DateTime value) {
         this.operator = "==";
-        this.value = fmt.print(value);
+        this.value = DateTimeHelper.format(value);
         return this;
     }
 
@@ -101,13 +94,13 @@ public class PropertyFilter extends Filter {
 
     public synchronized PropertyFilter isNotEqualTo(Date value) {
         this.operator = "<>";
-        this.value = dtf.format(value);
+        this.value = DateTimeHelper.format(value);
         return this;
     }
 
     public synchronized PropertyFilter isNotEqualTo(DateTime value) {
         this.operator = "<>";
-        this.value = fmt.print(value);
+        this.value = DateTimeHelper.format(value);
         return this;
     }
 
@@ -125,13 +118,13 @@ public class PropertyFilter extends Filter {
 
     public synchronized PropertyFilter between(Date minValue, Date maxValue) {
         this.operator = "between";
-        this.value = String.format("(%s,%s)", dtf.format(minValue), dtf.format(maxValue));
+        this.value = String.format("(%s,%s)", DateTimeHelper.format(minValue), DateTimeHelper.format(maxValue));
         return this;
     }
 
     public synchronized PropertyFilter between(DateTime minValue, DateTime maxValue) {
         this.operator = "between";
-        this.value = String.format("(%s,%s)", fmt.print(minValue), fmt.print(maxValue));
+        this.value = String.format("(%s,%s)", DateTimeHelper.format(minValue), DateTimeHelper.format(maxValue));
         return this;
     }
 
@@ -161,13 +154,13 @@ public class PropertyFilter extends Filter {
 
     public synchronized PropertyFilter isGreaterThan(Date value) {
         this.operator = ">";
-        this.value = dtf.format(value);
+        this.value = DateTimeHelper.format(value);
         return this;
     }
 
     public synchronized PropertyFilter isGreaterThan(DateTime value) {
         this.operator = ">";
-        this.value = fmt.print(value);
+        this.value = DateTimeHelper.format(value);
         return this;
     }
 
@@ -197,13 +190,13 @@ public class PropertyFilter extends Filter {
 
     public synchronized PropertyFilter isGreaterThanEqualTo(Date value) {
         this.operator = ">=";
-        this.value = dtf.format(value);
+        this.value = DateTimeHelper.format(value);
         return this;
     }
 
     public synchronized PropertyFilter isGreaterThanEqualTo(DateTime value) {
         this.operator = ">=";
-        this.value = fmt.print(value);
+        this.value = DateTimeHelper.format(value);
         return this;
     }
 
@@ -233,13 +226,13 @@ public class PropertyFilter extends Filter {
 
     public synchronized PropertyFilter isLessThan(Date value) {
         this.operator = "<";
-        this.value = dtf.format(value);
+        this.value = DateTimeHelper.format(value);
         return this;
     }
 
     public synchronized PropertyFilter isLessThan(DateTime value) {
         this.operator = "<";
-        this.value = fmt.print(value);
+        this.value = DateTimeHelper.format(value);
         return this;
     }
 
@@ -269,13 +262,13 @@ public class PropertyFilter extends Filter {
 
     public synchronized PropertyFilter isLessThanEqualTo(Date value) {
         this.operator = "<=";
-        this.value = dtf.format(value);
+        this.value = DateTimeHelper.format(value);
         return this;
     }
 
     public synchronized PropertyFilter isLessThanEqualTo(DateTime value) {
         this.operator = "<=";
-        this.value = fmt.print(value);
+        this.value = DateTimeHelper.format(value);
         return this;
     }
 
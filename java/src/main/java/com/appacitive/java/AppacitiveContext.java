@@ -13,4 +13,8 @@ public class AppacitiveContext extends AppacitiveContextBase {
         AppacitiveContextBase.initialize(apiKey, environment, new JavaPlatform());
     }
 
+    public static synchronized void initialize(String apiKey, Environment environment, ConnectionPoolSettings connectionPoolSettings) {
+        AppacitiveContextBase.initialize(apiKey, environment, new JavaPlatform(connectionPoolSettings));
+    }
+
 }
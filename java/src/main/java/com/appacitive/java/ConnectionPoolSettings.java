@@ -0,0 +1,176 @@
+package com.appacitive.java;
+
+import com.ning.http.client.AsyncHttpClientConfig;
+
+import javax.net.ssl.SSLContext;
+import java.io.Serializable;
+import java.security.GeneralSecurityException;
+
+/**
+ * Connection pool and keep-alive settings for the shared {@link JavaAsyncHttp} client.
+ * One client is created per {@link AppacitiveContext} from these settings and reused by every request.
+ */
+public class ConnectionPoolSettings implements Serializable {
+
+    public ConnectionPoolSettings() {
+    }
+
+    private int maxConnectionsPerHost = 32;
+
+    private int maxConnections = 128;
+
+    private int idleConnectionTimeoutInMs = 60 * 1000;
+
+    private int connectionTimeoutInMs = 10 * 1000;
+
+    private int maxConnectionLifeTimeInMs = -1;
+
+    private boolean keepAlive = true;
+
+    private boolean sslSessionReuse = true;
+
+    private int sslSessionCacheSize = 256;
+
+    private int sslSessionTimeoutInSeconds = 60 * 60;
+
+    private int maxRequestRetry = 0;
+
+    private int responseThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    public ConnectionPoolSettings withMaxConnectionsPerHost(int maxConnectionsPerHost) {
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        return this;
+    }
+
+    public ConnectionPoolSettings withMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+        return this;
+    }
+
+    public ConnectionPoolSettings withIdleConnectionTimeoutInMs(int idleConnectionTimeoutInMs) {
+        this.idleConnectionTimeoutInMs = idleConnectionTimeoutInMs;
+        return this;
+    }
+
+    public ConnectionPoolSettings withConnectionTimeoutInMs(int connectionTimeoutInMs) {
+        this.connectionTimeoutInMs = connectionTimeoutInMs;
+        return this;
+    }
+
+    public ConnectionPoolSettings withMaxConnectionLifeTimeInMs(int maxConnectionLifeTimeInMs) {
+        this.maxConnectionLifeTimeInMs = maxConnectionLifeTimeInMs;
+        return this;
+    }
+
+    public ConnectionPoolSettings withKeepAlive(boolean keepAlive) {
+        this.keepAlive = keepAlive;
+        return this;
+    }
+
+    public ConnectionPoolSettings withSslSessionReuse(boolean sslSessionReuse) {
+        this.sslSessionReuse = sslSessionReuse;
+        return this;
+    }
+
+    public ConnectionPoolSettings withSslSessionCacheSize(int sslSessionCacheSize) {
+        this.sslSessionCacheSize = sslSessionCacheSize;
+        return this;
+    }
+
+    public ConnectionPoolSettings withSslSessionTimeoutInSeconds(int sslSessionTimeoutInSeconds) {
+        this.sslSessionTimeoutInSeconds = sslSessionTimeoutInSeconds;
+        return this;
+    }
+
+    /**
+     * How often the client itself resends a request whose connection closed before a response came back. It does so
+     * for any method, creates included, so this is off by default; see {@link com.appacitive.core.infra.RetryPolicy}
+     * for retrying only the requests that are safe to repeat.
+     */
+    public ConnectionPoolSettings withMaxRequestRetry(int maxRequestRetry) {
+        this.maxRequestRetry = maxRequestRetry;
+        return this;
+    }
+
+    /**
+     * How many threads parse responses and run callbacks, so that neither holds up the client's i/o threads. Zero
+     * runs them on the i/o threads. Not used while an executor is set with
+     * {@link com.appacitive.core.AppacitiveContextBase#setCallbackExecutor(java.util.concurrent.Executor)}.
+     */
+    public ConnectionPoolSettings withResponseThreads(int responseThreads) {
+        this.responseThreads = responseThreads;
+        return this;
+    }
+
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public int getIdleConnectionTimeoutInMs() {
+        return idleConnectionTimeoutInMs;
+    }
+
+    public int getConnectionTimeoutInMs() {
+        return connectionTimeoutInMs;
+    }
+
+    public int getMaxConnectionLifeTimeInMs() {
+        return maxConnectionLifeTimeInMs;
+    }
+
+    public boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    public boolean isSslSessionReuse() {
+        return sslSessionReuse;
+    }
+
+    public int getSslSessionCacheSize() {
+        return sslSessionCacheSize;
+    }
+
+    public int getSslSessionTimeoutInSeconds() {
+        return sslSessionTimeoutInSeconds;
+    }
+
+    public int getMaxRequestRetry() {
+        return maxRequestRetry;
+    }
+
+    public int getResponseThreads() {
+        return responseThreads;
+    }
+
+    AsyncHttpClientConfig.Builder toConfigBuilder() {
+        AsyncHttpClientConfig.Builder builder = new AsyncHttpClientConfig.Builder()
+                .setMaximumConnectionsPerHost(this.maxConnectionsPerHost)
+                .setMaximumConnectionsTotal(this.maxConnections)
+                .setIdleConnectionInPoolTimeoutInMs(this.idleConnectionTimeoutInMs)
+                .setConnectionTimeoutInMs(this.connectionTimeoutInMs)
+                .setMaxConnectionLifeTimeInMs(this.maxConnectionLifeTimeInMs)
+                .setAllowPoolingConnection(this.keepAlive)
+                .setAllowSslConnectionPool(this.keepAlive && this.sslSessionReuse)
+                .setMaxRequestRetry(this.maxRequestRetry);
+
+        //  ning creates its ssl engines without the peer host, so the jdk cannot resume sessions by itself.
+        //  Reuse comes from pooling the tls connections and from sharing one ssl context across the client. The
+        //  context is the client's own, so that sizing its session cache leaves the jvm wide default alone.
+        if (this.sslSessionReuse) {
+            try {
+                SSLContext sslContext = SSLContext.getInstance("TLS");
+                sslContext.init(null, null, null);
+                sslContext.getClientSessionContext().setSessionCacheSize(this.sslSessionCacheSize);
+                sslContext.getClientSessionContext().setSessionTimeout(this.sslSessionTimeoutInSeconds);
+                builder.setSSLContext(sslContext);
+            } catch (GeneralSecurityException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return builder;
+    }
+}
@@ -1,180 +1,244 @@
 package com.appacitive.java;
 
+import com.appacitive.core.AppacitiveContextBase;
 import com.appacitive.core.infra.APCallback;
 import com.appacitive.core.infra.APContainer;
+import com.appacitive.core.infra.APDispatcher;
+import com.appacitive.core.infra.APFuture;
+import com.appacitive.core.infra.Gzip;
+import com.appacitive.core.infra.JsonResponse;
 import com.appacitive.core.interfaces.AsyncHttp;
 import com.appacitive.core.interfaces.Logger;
 import com.ning.http.client.*;
-import com.ning.http.client.listener.TransferCompletionHandler;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.Reader;
 import java.util.Map;
-import java.util.concurrent.Future;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Created by sathley.
  */
-public class JavaAsyncHttp implements AsyncHttp {
+public class JavaAsyncHttp implements AsyncHttp, Closeable {
 
+    private final AsyncHttpClient client;
 
-    private static final String UTF8_BOM = "\uFEFF";
+    private final ExecutorService workers;
 
-    private static String processResponse(String response) {
-        return response.substring(response.indexOf("{"), response.lastIndexOf("}") + 1);
+    public JavaAsyncHttp() {
+        this(new ConnectionPoolSettings());
     }
 
-    @Override
-    public Future<String> get(String url, Map<String, String> headers) {
-        return null;
+    public JavaAsyncHttp(ConnectionPoolSettings settings) {
+        this(new AsyncHttpClient(settings.toConfigBuilder().build()), settings.getResponseThreads());
+    }
+
+    public JavaAsyncHttp(AsyncHttpClient client) {
+        this(client, new ConnectionPoolSettings().getResponseThreads());
+    }
+
+    //  Responses are handed from ning's i/o threads to the workers, which parse them and run the callbacks.
+    public JavaAsyncHttp(AsyncHttpClient client, int responseThreads) {
+        this.client = client;
+        this.workers = responseThreads > 0 ? APDispatcher.newWorkerPool("appacitive-response", responseThreads) : null;
+    }
+
+    public boolean isClosed() {
+        return client.isClosed();
+    }
+
+    Executor getWorkers() {
+        return workers;
     }
 
     @Override
-    public void get(String url, Map<String, String> headers, final APCallback callback) {
-        final Logger logger = APContainer.build(Logger.class);
-        logger.info("GET " + url);
-        AsyncHttpClient client = new AsyncHttpClient();
-        AsyncHttpClient.BoundRequestBuilder builder = client.prepareGet(url);
+    public void close() {
+        if (client.isClosed() == false)
+            client.close();
+        if (workers != null)
+            workers.shutdown();
+    }
+
+    static Reader openBody(Response response) throws IOException {
+        return JsonResponse.open(response.getResponseBodyAsStream(), response.getHeader(Gzip.CONTENT_ENCODING));
+    }
+
+    static String readBody(Response response) throws IOException {
+        try {
+            return JsonResponse.read(openBody(response));
+        } catch (IOException e) {
+            throw new IOException("Unexpected response with status code " + response.getStatusCode() + ".", e);
+        }
+    }
+
+    static AsyncHttpClient.BoundRequestBuilder withHeaders(AsyncHttpClient.BoundRequestBuilder builder, Map<String, String> headers) {
         for (Map.Entry<String, String> header : headers.entrySet()) {
             builder.addHeader(header.getKey(), header.getValue());
         }
+        if (AppacitiveContextBase.isGzipResponsesEnabled())
+            builder.setHeader(Gzip.ACCEPT_ENCODING, Gzip.GZIP);
+        return builder;
+    }
+
+    static AsyncHttpClient.BoundRequestBuilder withBody(AsyncHttpClient.BoundRequestBuilder builder, String payload) {
+        if (AppacitiveContextBase.isGzipRequestsEnabled() && Gzip.shouldCompress(payload)) {
+            builder.setHeader(Gzip.CONTENT_ENCODING, Gzip.GZIP);
+            return builder.setBody(Gzip.compress(payload));
+        }
+        return builder.setBody(payload);
+    }
+
+    static AsyncHttpClient.BoundRequestBuilder withBody(AsyncHttpClient.BoundRequestBuilder builder, byte[] payload) {
+        if (AppacitiveContextBase.isGzipRequestsEnabled() && Gzip.shouldCompress(payload)) {
+            builder.setHeader(Gzip.CONTENT_ENCODING, Gzip.GZIP);
+            return builder.setBody(Gzip.compress(payload));
+        }
+        return builder.setBody(payload);
+    }
 
+    private ListenableFuture<String> execute(AsyncHttpClient.BoundRequestBuilder builder, final APCallback callback) {
+        //  ning reports a failure from onCompleted through onThrowable as well, so deliver only once.
+        final AtomicBoolean delivered = new AtomicBoolean(false);
+        final ListenableFuture<String> request;
         try {
-            builder.execute(new AsyncCompletionHandler<String>() {
+            request = builder.execute(new AsyncCompletionHandler<String>() {
                 @Override
-                public String onCompleted(Response response) throws Exception {
-
-                    String responseString = response.getResponseBody();
-                    if (responseString.startsWith(UTF8_BOM)) {
-                        responseString = responseString.substring(1);
-                    }
-                    callback.success(processResponse(responseString));
-                    return responseString;
+                public String onCompleted(final Response response) throws Exception {
+                    if (delivered.compareAndSet(false, true) == false)
+                        return null;
+                    //  The body is buffered by now, so it can be read from any thread.
+                    APDispatcher.dispatch(workers, new Runnable() {
+                        @Override
+                        public void run() {
+                            Reader body;
+                            try {
+                                body = openBody(response);
+                            } catch (IOException e) {
+                                callback.failure(e);
+                                return;
+                            }
+                            callback.success(body);
+                        }
+                    }, callback);
+                    return null;
                 }
 
-//                    @Override
-//                    public void onThrowable(Throwable throwable) {
-//                        callback.failure(new Exception(throwable));
-//                    }
+                @Override
+                public void onThrowable(Throwable throwable) {
+                    if (delivered.compareAndSet(false, true) == false)
+                        return;
+                    final Exception e = throwable instanceof Exception ? (Exception) throwable : new Exception(throwable);
+                    APDispatcher.dispatch(workers, new Runnable() {
+                        @Override
+                        public void run() {
+                            callback.failure(e);
+                        }
+                    }, callback);
+                }
             });
         } catch (IOException e) {
-            callback.failure(e);
+            if (delivered.compareAndSet(false, true))
+                callback.failure(e);
+            return null;
         }
+        callback.cancelWith(new Runnable() {
+            @Override
+            public void run() {
+                //  ning closes the channel of a cancelled request even when it is done, and by then the channel may
+                //  already be back in the pool serving another request.
+                if (delivered.get() == false && request.isDone() == false)
+                    request.cancel(true);
+            }
+        });
+        return request;
+    }
+
+    private APFuture<String> executeForFuture(AsyncHttpClient.BoundRequestBuilder builder) {
+        final APFuture<String> future = new APFuture<String>();
+        final ListenableFuture<String> request = execute(builder, APCallback.completing(future));
+        if (request != null) {
+            future.onCancel(new Runnable() {
+                @Override
+                public void run() {
+                    if (request.isDone() == false)
+                        request.cancel(true);
+                }
+            });
+        }
+        return future;
     }
 
     @Override
-    public Future<String> delete(String url, Map<String, String> headers) {
-        return null;
+    public APFuture<String> get(String url, Map<String, String> headers) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("GET " + url);
+        return executeForFuture(withHeaders(client.prepareGet(url), headers));
     }
 
     @Override
-    public void delete(String url, Map<String, String> headers, final APCallback callback) {
+    public void get(String url, Map<String, String> headers, final APCallback callback) {
         final Logger logger = APContainer.build(Logger.class);
-        logger.info("DELETE " + url);
-        AsyncHttpClient client = new AsyncHttpClient();
-        AsyncHttpClient.BoundRequestBuilder builder = client.prepareDelete(url);
-        for (Map.Entry<String, String> header : headers.entrySet()) {
-            builder.addHeader(header.getKey(), header.getValue());
-        }
+        logger.info("GET " + url);
+        execute(withHeaders(client.prepareGet(url), headers), callback);
+    }
 
-        try {
-            builder.execute(new AsyncCompletionHandler<String>() {
-                @Override
-                public String onCompleted(Response response) throws Exception {
-
-                    String responseString = response.getResponseBody();
-                    if (responseString.startsWith(UTF8_BOM)) {
-                        responseString = responseString.substring(1);
-                    }
-                    callback.success(processResponse(responseString));
-                    return responseString;
-                }
+    @Override
+    public APFuture<String> delete(String url, Map<String, String> headers) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("DELETE " + url);
+        return executeForFuture(withHeaders(client.prepareDelete(url), headers));
+    }
 
-//                    @Override
-//                    public void onThrowable(Throwable throwable) {
-//                        callback.failure(new Exception(throwable));
-//                    }
-            });
-        } catch (IOException e) {
-            callback.failure(e);
-        }
+    @Override
+    public void delete(String url, Map<String, String> headers, final APCallback callback) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("DELETE " + url);
+        execute(withHeaders(client.prepareDelete(url), headers), callback);
     }
 
     @Override
-    public Future<String> put(String url, Map<String, String> headers, String request) {
-        return null;
+    public APFuture<String> put(String url, Map<String, String> headers, String request) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("PUT " + url);
+        return executeForFuture(withHeaders(withBody(client.preparePut(url), request), headers));
     }
 
     @Override
     public void put(String url, Map<String, String> headers, String request, final APCallback callback) {
         final Logger logger = APContainer.build(Logger.class);
         logger.info("PUT " + url);
-        AsyncHttpClient client = new AsyncHttpClient();
-        AsyncHttpClient.BoundRequestBuilder builder = client.preparePut(url);
-        builder.setBody(request);
-        for (Map.Entry<String, String> header : headers.entrySet()) {
-            builder.addHeader(header.getKey(), header.getValue());
-        }
-
-        try {
-            builder.execute(new AsyncCompletionHandler<String>() {
-                @Override
-                public String onCompleted(Response response) throws Exception {
-
-                    String responseString = response.getResponseBody();
-                    if (responseString.startsWith(UTF8_BOM)) {
-                        responseString = responseString.substring(1);
-                    }
-                    callback.success(processResponse(responseString));
-                    return responseString;
-                }
+        execute(withHeaders(withBody(client.preparePut(url), request), headers), callback);
+    }
 
-//                    @Override
-//                    public void onThrowable(Throwable throwable) {
-//                        callback.failure(new Exception(throwable));
-//                    }
-            });
-        } catch (IOException e) {
-            callback.failure(e);
-        }
+    @Override
+    public void put(String url, Map<String, String> headers, byte[] request, final APCallback callback) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("PUT " + url);
+        execute(withHeaders(withBody(client.preparePut(url), request), headers), callback);
     }
 
     @Override
-    public Future<String> post(String url, Map<String, String> headers, String request) {
-        return null;
+    public APFuture<String> post(String url, Map<String, String> headers, String request) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("POST " + url);
+        return executeForFuture(withHeaders(withBody(client.preparePost(url), request), headers));
     }
 
     @Override
     public void post(String url, Map<String, String> headers, String request, final APCallback callback) {
         final Logger logger = APContainer.build(Logger.class);
         logger.info("POST " + url);
-        AsyncHttpClient client = new AsyncHttpClient();
-        AsyncHttpClient.BoundRequestBuilder builder = client.preparePost(url);
-        builder.setBody(request);
-        for (Map.Entry<String, String> header : headers.entrySet()) {
-            builder.addHeader(header.getKey(), header.getValue());
-        }
-
-        try {
-            builder.execute(new AsyncCompletionHandler<String>() {
-                @Override
-                public String onCompleted(Response response) throws Exception {
-
-                    String responseString = response.getResponseBody();
-                    if (responseString.startsWith(UTF8_BOM)) {
-                        responseString = responseString.substring(1);
-                    }
-                    callback.success(processResponse(responseString));
-                    return responseString;
-                }
+        execute(withHeaders(withBody(client.preparePost(url), request), headers), callback);
+    }
 
-//                    @Override
-//                    public void onThrowable(Throwable throwable) {
-//                        throw throwable;
-//                    }
-            });
-        } catch (IOException e) {
-            callback.failure(e);
-        }
+    @Override
+    public void post(String url, Map<String, String> headers, byte[] request, final APCallback callback) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("POST " + url);
+        execute(withHeaders(withBody(client.preparePost(url), request), headers), callback);
     }
 
 }
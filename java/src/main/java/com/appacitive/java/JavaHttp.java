@@ -0,0 +1,87 @@
+package com.appacitive.java;
+
+import com.appacitive.core.apjson.APJSONException;
+import com.appacitive.core.infra.APContainer;
+import com.appacitive.core.infra.JsonMaps;
+import com.appacitive.core.interfaces.Http;
+import com.appacitive.core.interfaces.Logger;
+import com.ning.http.client.AsyncHttpClient;
+import com.ning.http.client.ListenableFuture;
+import com.ning.http.client.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Blocking transport for server side callers.
+ * <p/>
+ * Requests run on the shared non blocking client and the calling thread only parks until the response
+ * arrives. Nothing on this path holds a monitor, so it scales with virtual threads as well as platform threads.
+ */
+public class JavaHttp implements Http {
+
+    private final AsyncHttpClient client;
+
+    public JavaHttp() {
+        this(new ConnectionPoolSettings());
+    }
+
+    public JavaHttp(ConnectionPoolSettings settings) {
+        this(new AsyncHttpClient(settings.toConfigBuilder().build()));
+    }
+
+    public JavaHttp(AsyncHttpClient client) {
+        this.client = client;
+    }
+
+    private static Map<String, Object> execute(AsyncHttpClient.BoundRequestBuilder builder) throws IOException {
+        ListenableFuture<Response> request = builder.execute();
+        Response response;
+        try {
+            response = request.get();
+        } catch (InterruptedException e) {
+            request.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Request was interrupted.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            throw new IOException(e.getCause());
+        }
+        try {
+            return JsonMaps.parse(JavaAsyncHttp.readBody(response));
+        } catch (APJSONException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public Map<String, Object> get(String url, Map<String, String> headers) throws IOException {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("GET " + url);
+        return execute(JavaAsyncHttp.withHeaders(client.prepareGet(url), headers));
+    }
+
+    @Override
+    public Map<String, Object> delete(String url, Map<String, String> headers) throws IOException {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("DELETE " + url);
+        return execute(JavaAsyncHttp.withHeaders(client.prepareDelete(url), headers));
+    }
+
+    @Override
+    public Map<String, Object> put(String url, Map<String, String> headers, Map<String, Object> payload) throws IOException {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("PUT " + url);
+        return execute(JavaAsyncHttp.withHeaders(JavaAsyncHttp.withBody(client.preparePut(url), JsonMaps.stringify(payload)), headers));
+    }
+
+    @Override
+    public Map<String, Object> post(String url, Map<String, String> headers, Map<String, Object> payload) throws IOException {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("POST " + url);
+        return execute(JavaAsyncHttp.withHeaders(JavaAsyncHttp.withBody(client.preparePost(url), JsonMaps.stringify(payload)), headers));
+    }
+}
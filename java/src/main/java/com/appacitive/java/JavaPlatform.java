@@ -2,23 +2,60 @@ package com.appacitive.java;
 
 import com.appacitive.core.infra.ObjectFactory;
 import com.appacitive.core.interfaces.AsyncHttp;
+import com.appacitive.core.interfaces.Http;
 import com.appacitive.core.interfaces.UserContextProvider;
 import com.appacitive.core.model.Platform;
+import com.ning.http.client.AsyncHttpClient;
 
+import java.io.Closeable;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 /**
  * Created by sathley.
  */
-public class JavaPlatform implements Platform {
-    private static final Map<Class<?>, ObjectFactory<?>> registrations = new ConcurrentHashMap<Class<?>, ObjectFactory<?>>() {{
+public class JavaPlatform implements Platform, Closeable {
+
+    //  One pooled client per platform, shared by every request made through the context.
+    private final JavaAsyncHttp asyncHttp;
+
+    private final JavaHttp http;
+
+    public JavaPlatform() {
+        this(new ConnectionPoolSettings());
+    }
+
+    public JavaPlatform(ConnectionPoolSettings settings) {
+        AsyncHttpClient client = new AsyncHttpClient(settings.toConfigBuilder().build());
+        this.asyncHttp = new JavaAsyncHttp(client, settings.getResponseThreads());
+        this.http = new JavaHttp(client);
+        //  Callbacks that need no response, such as cache hits, run on the same workers as responses.
+        final Executor workers = asyncHttp.getWorkers();
+        if (workers != null) {
+            registrations.put(Executor.class, new ObjectFactory<Executor>() {
+                @Override
+                public Executor get() {
+                    return workers;
+                }
+            });
+        }
+    }
+
+    private final Map<Class<?>, ObjectFactory<?>> registrations = new ConcurrentHashMap<Class<?>, ObjectFactory<?>>() {{
 
         put(AsyncHttp.class, new ObjectFactory<AsyncHttp>() {
             @Override
             public AsyncHttp get() {
-                return new JavaAsyncHttp();
+                return JavaPlatform.this.asyncHttp;
+            }
+        });
+
+        put(Http.class, new ObjectFactory<Http>() {
+            @Override
+            public Http get() {
+                return JavaPlatform.this.http;
             }
         });
 
@@ -40,4 +77,9 @@ public class JavaPlatform implements Platform {
     public synchronized Map<Class<?>, ObjectFactory<?>> getRegistrations() {
         return registrations;
     }
+
+    @Override
+    public synchronized void close() {
+        this.asyncHttp.close();
+    }
 }
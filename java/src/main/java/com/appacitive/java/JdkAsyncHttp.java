@@ -0,0 +1,297 @@
+package com.appacitive.java;
+
+import com.appacitive.core.AppacitiveContextBase;
+import com.appacitive.core.infra.APCallback;
+import com.appacitive.core.infra.APContainer;
+import com.appacitive.core.infra.APDispatcher;
+import com.appacitive.core.infra.APFuture;
+import com.appacitive.core.infra.Gzip;
+import com.appacitive.core.infra.JsonResponse;
+import com.appacitive.core.interfaces.AsyncHttp;
+import com.appacitive.core.interfaces.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * {@link AsyncHttp} on the jdk's own http client (java 11 and above).
+ * <p/>
+ * Requests prefer HTTP/2, so concurrent calls to the api are multiplexed as streams over a single
+ * connection per host instead of each holding a socket of its own. Servers that do not speak HTTP/2
+ * are talked to over HTTP/1.1.
+ */
+public class JdkAsyncHttp implements AsyncHttp, Closeable {
+
+    private final HttpClient client;
+
+    private final ExecutorService workers;
+
+    //  The client's own executor, when this class built the client.
+    private final ExecutorService clientExecutor;
+
+    public JdkAsyncHttp() {
+        this(new ConnectionPoolSettings());
+    }
+
+    public JdkAsyncHttp(ConnectionPoolSettings settings) {
+        this(newClientExecutor(), settings);
+    }
+
+    private JdkAsyncHttp(ExecutorService clientExecutor, ConnectionPoolSettings settings) {
+        this(HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(settings.getConnectionTimeoutInMs()))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(clientExecutor)
+                .build(), settings.getResponseThreads(), clientExecutor);
+    }
+
+    public JdkAsyncHttp(HttpClient client) {
+        this(client, new ConnectionPoolSettings().getResponseThreads());
+    }
+
+    //  Responses are handed from the client's threads to the workers, which read them and run the callbacks.
+    public JdkAsyncHttp(HttpClient client, int responseThreads) {
+        this(client, responseThreads, null);
+    }
+
+    private JdkAsyncHttp(HttpClient client, int responseThreads, ExecutorService clientExecutor) {
+        this.client = client;
+        this.workers = responseThreads > 0 ? APDispatcher.newWorkerPool("appacitive-response", responseThreads) : null;
+        this.clientExecutor = clientExecutor;
+    }
+
+    private static ExecutorService newClientExecutor() {
+        final AtomicInteger counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "appacitive-http-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Releases the client. The jdk's client can only be closed on java 21 and above; before that the executor this
+     * class gave it is shut down, and its selector thread ends once the client is no longer referenced.
+     */
+    @Override
+    public void close() {
+        if (client instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) client).close();
+            } catch (Exception e) {
+                //  HttpClient.close() declares no checked exception.
+            }
+        }
+        if (clientExecutor != null)
+            clientExecutor.shutdown();
+        if (workers != null)
+            workers.shutdown();
+    }
+
+    HttpClient getClient() {
+        return client;
+    }
+
+    Executor getWorkers() {
+        return workers;
+    }
+
+    static Reader openBody(HttpResponse<InputStream> response) throws IOException {
+        return JsonResponse.open(response.body(), response.headers().firstValue(Gzip.CONTENT_ENCODING).orElse(null));
+    }
+
+    static String readBody(HttpResponse<InputStream> response) throws IOException {
+        try {
+            return JsonResponse.read(openBody(response));
+        } catch (IOException e) {
+            throw new IOException("Unexpected response with status code " + response.statusCode() + ".", e);
+        }
+    }
+
+    static HttpRequest.Builder newRequest(String url, Map<String, String> headers) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url));
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            builder.header(header.getKey(), header.getValue());
+        }
+        if (AppacitiveContextBase.isGzipResponsesEnabled())
+            builder.setHeader(Gzip.ACCEPT_ENCODING, Gzip.GZIP);
+        return builder;
+    }
+
+    static HttpRequest withBody(HttpRequest.Builder builder, String method, String payload) {
+        if (payload == null)
+            return builder.method(method, HttpRequest.BodyPublishers.noBody()).build();
+        if (AppacitiveContextBase.isGzipRequestsEnabled() && Gzip.shouldCompress(payload)) {
+            builder.setHeader(Gzip.CONTENT_ENCODING, Gzip.GZIP);
+            return builder.method(method, HttpRequest.BodyPublishers.ofByteArray(Gzip.compress(payload))).build();
+        }
+        return builder.method(method, HttpRequest.BodyPublishers.ofString(payload)).build();
+    }
+
+    static HttpRequest withBody(HttpRequest.Builder builder, String method, byte[] payload) {
+        if (payload == null)
+            return builder.method(method, HttpRequest.BodyPublishers.noBody()).build();
+        if (AppacitiveContextBase.isGzipRequestsEnabled() && Gzip.shouldCompress(payload)) {
+            builder.setHeader(Gzip.CONTENT_ENCODING, Gzip.GZIP);
+            payload = Gzip.compress(payload);
+        }
+        return builder.method(method, HttpRequest.BodyPublishers.ofByteArray(payload)).build();
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            //  Nothing left to release.
+        }
+    }
+
+    //  Completes once the headers are in; the body is then read from the network as the callback consumes it.
+    private CompletableFuture<HttpResponse<InputStream>> execute(HttpRequest request, final APCallback callback) {
+        final CompletableFuture<HttpResponse<InputStream>> response = client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+        response.whenComplete(new BiConsumer<HttpResponse<InputStream>, Throwable>() {
+            @Override
+            public void accept(final HttpResponse<InputStream> result, Throwable throwable) {
+                if (throwable != null) {
+                    Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+                    final Exception e = cause instanceof Exception ? (Exception) cause : new Exception(cause);
+                    APDispatcher.dispatch(workers, new Runnable() {
+                        @Override
+                        public void run() {
+                            callback.failure(e);
+                        }
+                    }, callback);
+                    return;
+                }
+                boolean dispatched = APDispatcher.dispatch(workers, new Runnable() {
+                    @Override
+                    public void run() {
+                        Reader body;
+                        try {
+                            body = openBody(result);
+                        } catch (IOException e) {
+                            callback.failure(e);
+                            return;
+                        }
+                        try {
+                            callback.success(body);
+                        } finally {
+                            closeQuietly(body);
+                        }
+                    }
+                }, callback);
+                if (dispatched == false)
+                    closeQuietly(result.body());
+            }
+        });
+        callback.cancelWith(new Runnable() {
+            @Override
+            public void run() {
+                response.cancel(true);
+            }
+        });
+        return response;
+    }
+
+    private APFuture<String> executeForFuture(HttpRequest request) {
+        final APFuture<String> future = new APFuture<String>();
+        final CompletableFuture<HttpResponse<InputStream>> response = execute(request, APCallback.completing(future));
+        future.onCancel(new Runnable() {
+            @Override
+            public void run() {
+                response.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public APFuture<String> get(String url, Map<String, String> headers) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("GET " + url);
+        return executeForFuture(newRequest(url, headers).GET().build());
+    }
+
+    @Override
+    public void get(String url, Map<String, String> headers, APCallback callback) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("GET " + url);
+        execute(newRequest(url, headers).GET().build(), callback);
+    }
+
+    @Override
+    public APFuture<String> delete(String url, Map<String, String> headers) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("DELETE " + url);
+        return executeForFuture(newRequest(url, headers).DELETE().build());
+    }
+
+    @Override
+    public void delete(String url, Map<String, String> headers, APCallback callback) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("DELETE " + url);
+        execute(newRequest(url, headers).DELETE().build(), callback);
+    }
+
+    @Override
+    public APFuture<String> put(String url, Map<String, String> headers, String request) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("PUT " + url);
+        return executeForFuture(withBody(newRequest(url, headers), "PUT", request));
+    }
+
+    @Override
+    public void put(String url, Map<String, String> headers, String request, APCallback callback) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("PUT " + url);
+        execute(withBody(newRequest(url, headers), "PUT", request), callback);
+    }
+
+    @Override
+    public void put(String url, Map<String, String> headers, byte[] request, APCallback callback) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("PUT " + url);
+        execute(withBody(newRequest(url, headers), "PUT", request), callback);
+    }
+
+    @Override
+    public APFuture<String> post(String url, Map<String, String> headers, String request) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("POST " + url);
+        return executeForFuture(withBody(newRequest(url, headers), "POST", request));
+    }
+
+    @Override
+    public void post(String url, Map<String, String> headers, String request, APCallback callback) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("POST " + url);
+        execute(withBody(newRequest(url, headers), "POST", request), callback);
+    }
+
+    @Override
+    public void post(String url, Map<String, String> headers, byte[] request, APCallback callback) {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("POST " + url);
+        execute(withBody(newRequest(url, headers), "POST", request), callback);
+    }
+}
@@ -0,0 +1,70 @@
+package com.appacitive.java;
+
+import com.appacitive.core.apjson.APJSONException;
+import com.appacitive.core.infra.APContainer;
+import com.appacitive.core.infra.JsonMaps;
+import com.appacitive.core.interfaces.Http;
+import com.appacitive.core.interfaces.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+
+/**
+ * Blocking counterpart of {@link JdkAsyncHttp}, sharing its client and connections.
+ */
+public class JdkHttp implements Http {
+
+    private final HttpClient client;
+
+    public JdkHttp(HttpClient client) {
+        this.client = client;
+    }
+
+    private Map<String, Object> execute(HttpRequest request) throws IOException {
+        HttpResponse<InputStream> response;
+        try {
+            response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Request was interrupted.");
+        }
+        try {
+            return JsonMaps.parse(JdkAsyncHttp.readBody(response));
+        } catch (APJSONException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public Map<String, Object> get(String url, Map<String, String> headers) throws IOException {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("GET " + url);
+        return execute(JdkAsyncHttp.newRequest(url, headers).GET().build());
+    }
+
+    @Override
+    public Map<String, Object> delete(String url, Map<String, String> headers) throws IOException {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("DELETE " + url);
+        return execute(JdkAsyncHttp.newRequest(url, headers).DELETE().build());
+    }
+
+    @Override
+    public Map<String, Object> put(String url, Map<String, String> headers, Map<String, Object> payload) throws IOException {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("PUT " + url);
+        return execute(JdkAsyncHttp.withBody(JdkAsyncHttp.newRequest(url, headers), "PUT", JsonMaps.stringify(payload)));
+    }
+
+    @Override
+    public Map<String, Object> post(String url, Map<String, String> headers, Map<String, Object> payload) throws IOException {
+        final Logger logger = APContainer.build(Logger.class);
+        logger.info("POST " + url);
+        return execute(JdkAsyncHttp.withBody(JdkAsyncHttp.newRequest(url, headers), "POST", JsonMaps.stringify(payload)));
+    }
+}
@@ -0,0 +1,83 @@
+package com.appacitive.java;
+
+import com.appacitive.core.infra.ObjectFactory;
+import com.appacitive.core.interfaces.AsyncHttp;
+import com.appacitive.core.interfaces.Http;
+import com.appacitive.core.interfaces.UserContextProvider;
+import com.appacitive.core.model.Platform;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Platform that sends requests through the jdk's HTTP/2 capable client instead of the ning client.
+ * Requires java 11 or above. Select it with
+ * {@code AppacitiveContext.initialize(apiKey, environment, new JdkHttpPlatform())}.
+ */
+public class JdkHttpPlatform implements Platform, Closeable {
+
+    private final JdkAsyncHttp asyncHttp;
+
+    private final JdkHttp http;
+
+    public JdkHttpPlatform() {
+        this(new ConnectionPoolSettings());
+    }
+
+    public JdkHttpPlatform(ConnectionPoolSettings settings) {
+        this.asyncHttp = new JdkAsyncHttp(settings);
+        this.http = new JdkHttp(asyncHttp.getClient());
+        //  Callbacks that need no response, such as cache hits, run on the same workers as responses.
+        final Executor workers = asyncHttp.getWorkers();
+        if (workers != null) {
+            registrations.put(Executor.class, new ObjectFactory<Executor>() {
+                @Override
+                public Executor get() {
+                    return workers;
+                }
+            });
+        }
+    }
+
+    private final Map<Class<?>, ObjectFactory<?>> registrations = new ConcurrentHashMap<Class<?>, ObjectFactory<?>>() {{
+
+        put(AsyncHttp.class, new ObjectFactory<AsyncHttp>() {
+            @Override
+            public AsyncHttp get() {
+                return JdkHttpPlatform.this.asyncHttp;
+            }
+        });
+
+        put(Http.class, new ObjectFactory<Http>() {
+            @Override
+            public Http get() {
+                return JdkHttpPlatform.this.http;
+            }
+        });
+
+        put(com.appacitive.core.interfaces.Logger.class, new ObjectFactory<com.appacitive.core.interfaces.Logger>() {
+            @Override
+            public com.appacitive.core.interfaces.Logger get() {
+                return new JavaLogger();
+            }
+        });
+
+        put(UserContextProvider.class, new ObjectFactory<UserContextProvider>() {
+            @Override
+            public UserContextProvider get() {
+                return new StaticUserContextProvider();
+            }
+        });
+    }};
+
+    public synchronized Map<Class<?>, ObjectFactory<?>> getRegistrations() {
+        return registrations;
+    }
+
+    @Override
+    public synchronized void close() {
+        this.asyncHttp.close();
+    }
+}
@@ -8,39 +8,38 @@ import com.appacitive.core.interfaces.UserContextProvider;
  */
 public class StaticUserContextProvider implements UserContextProvider {
 
-    private static String userToken;
+    private static volatile String userToken;
 
-    private static AppacitiveUser loggedInUser;
+    private static volatile AppacitiveUser loggedInUser;
 
-    private static double[] currentGeoCoordinates = new double[2];
+    private static volatile double[] currentGeoCoordinates = new double[2];
     @Override
-    public synchronized String getCurrentlyLoggedInUserToken() {
+    public String getCurrentlyLoggedInUserToken() {
         return StaticUserContextProvider.userToken;
     }
 
     @Override
-    public synchronized void setCurrentlyLoggedInUserToken(String userToken) {
+    public void setCurrentlyLoggedInUserToken(String userToken) {
         StaticUserContextProvider.userToken = userToken;
     }
 
     @Override
-    public synchronized AppacitiveUser getLoggedInUser() {
+    public AppacitiveUser getLoggedInUser() {
         return StaticUserContextProvider.loggedInUser;
     }
 
     @Override
-    public synchronized void setLoggedInUser(AppacitiveUser loggedInUser) {
+    public void setLoggedInUser(AppacitiveUser loggedInUser) {
         StaticUserContextProvider.loggedInUser = loggedInUser;
     }
 
     @Override
-    public synchronized void setCurrentLocation(Double latitude, Double longitude) {
-        StaticUserContextProvider.currentGeoCoordinates[0] = latitude;
-        StaticUserContextProvider.currentGeoCoordinates[1] = longitude;
+    public void setCurrentLocation(Double latitude, Double longitude) {
+        StaticUserContextProvider.currentGeoCoordinates = new double[]{latitude, longitude};
     }
 
     @Override
-    public synchronized double[] getCurrentLocation() {
+    public double[] getCurrentLocation() {
         return currentGeoCoordinates;
     }
 }
@@ -0,0 +1,113 @@
+package com.appacitive.java;
+
+import com.appacitive.core.apjson.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.Reader;
+import java.io.StringReader;
+
+/**
+ * Created by sathley.
+ */
+public class APJSONReaderTest {
+
+    private static final String json = "{\"objects\":[{\"__id\":\"1\",\"name\":\"a \\\"quoted\\\" \\u00e9\",\"score\":12," +
+            "\"big\":12345678901,\"ratio\":-1.5e2,\"active\":true,\"tags\":[\"x\",\"y\"],\"geo\":null}]," +
+            "\"paginginfo\":{\"pagenumber\":1},\"status\":{\"code\":\"200\"}}";
+
+    @Test
+    public void matchesTokenerTest() throws Exception {
+        APJSONObject expected = new APJSONObject(json);
+        APJSONObject actual = new APJSONReader(new StringReader(json)).readObject();
+        Assert.assertEquals(expected.toString(), actual.toString());
+        APJSONObject object = actual.getJSONArray("objects").getJSONObject(0);
+        Assert.assertEquals(Integer.class, object.get("score").getClass());
+        Assert.assertEquals(Long.class, object.get("big").getClass());
+        Assert.assertEquals(Double.class, object.get("ratio").getClass());
+        Assert.assertTrue(object.isNull("geo"));
+        Assert.assertEquals("a \"quoted\" \u00e9", object.getString("name"));
+    }
+
+    @Test
+    public void tokenStreamTest() throws Exception {
+        APJSONReader reader = new APJSONReader(new ByteArrayInputStream(json.getBytes("UTF-8")));
+        Assert.assertEquals(APJSONToken.BEGIN_OBJECT, reader.peek());
+        reader.beginObject();
+        Assert.assertEquals("objects", reader.nextName());
+        reader.beginArray();
+        reader.beginObject();
+        Assert.assertEquals("__id", reader.nextName());
+        Assert.assertEquals("1", reader.nextString());
+        Assert.assertEquals("name", reader.nextName());
+        reader.skipValue();
+        Assert.assertEquals("score", reader.nextName());
+        Assert.assertEquals(APJSONToken.NUMBER, reader.peek());
+        Assert.assertEquals(12, reader.nextInt());
+        Assert.assertEquals("big", reader.nextName());
+        Assert.assertEquals(12345678901L, reader.nextLong());
+        Assert.assertEquals("ratio", reader.nextName());
+        Assert.assertEquals(-150d, reader.nextDouble(), 0);
+        Assert.assertEquals("active", reader.nextName());
+        Assert.assertTrue(reader.nextBoolean());
+        Assert.assertEquals("tags", reader.nextName());
+        reader.skipValue();
+        Assert.assertEquals("geo", reader.nextName());
+        reader.nextNull();
+        Assert.assertFalse(reader.hasNext());
+        reader.endObject();
+        reader.endArray();
+        Assert.assertEquals("paginginfo", reader.nextName());
+        reader.skipValue();
+        Assert.assertEquals("status", reader.nextName());
+        reader.skipValue();
+        reader.endObject();
+        Assert.assertEquals(APJSONToken.END_DOCUMENT, reader.peek());
+        reader.close();
+    }
+
+    @Test
+    public void smallBufferReadsTest() throws Exception {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < 2000; i++) {
+            if (i > 0)
+                builder.append(",");
+            builder.append("{\"name\":\"player\\t").append(i).append("\",\"score\":").append(i).append("}");
+        }
+        builder.append("]");
+        //  Hands out a few characters at a time so tokens straddle buffer refills.
+        Reader trickle = new StringReader(builder.toString()) {
+            @Override
+            public int read(char[] buffer, int offset, int length) throws java.io.IOException {
+                return super.read(buffer, offset, Math.min(length, 7));
+            }
+        };
+        APJSONReader reader = new APJSONReader(trickle);
+        reader.beginArray();
+        int count = 0;
+        while (reader.hasNext()) {
+            APJSONObject object = reader.readObject();
+            Assert.assertEquals("player\t" + count, object.getString("name"));
+            Assert.assertEquals(count, object.getInt("score"));
+            count++;
+        }
+        reader.endArray();
+        Assert.assertEquals(2000, count);
+    }
+
+    @Test
+    public void malformedInputTest() throws Exception {
+        String[] malformed = new String[]{"{\"a\":1,}", "{\"a\" 1}", "{a:1}", "[1 2]", "{\"a\":\"b", "{\"a\":tru}", "{} {}"};
+        for (String input : malformed) {
+            try {
+                APJSONReader reader = new APJSONReader(new StringReader(input));
+                reader.readObject();
+                reader.peek();
+                Assert.fail("Expected failure for " + input);
+            } catch (APJSONException e) {
+                //  expected
+            }
+        }
+    }
+}
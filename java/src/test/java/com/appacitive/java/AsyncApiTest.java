@@ -0,0 +1,122 @@
+package com.appacitive.java;
+
+import com.appacitive.core.AppacitiveContextBase;
+import com.appacitive.core.AppacitiveObject;
+import com.appacitive.core.exceptions.AppacitiveException;
+import com.appacitive.core.infra.APFunction;
+import com.appacitive.core.infra.APFuture;
+import com.appacitive.core.infra.RequestLimiter;
+import com.appacitive.core.model.Environment;
+import com.appacitive.core.model.PagedList;
+import org.junit.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by sathley.
+ */
+public class AsyncApiTest {
+
+    private static StandInServer server;
+
+    private static String originalBaseUrl;
+
+    @BeforeClass
+    public static void oneTimeSetUp() throws Exception {
+        server = new StandInServer();
+        originalBaseUrl = AppacitiveContextBase.baseUrl;
+        AppacitiveContextBase.initialize(Keys.masterKey, Environment.sandbox, new JavaPlatform());
+        AppacitiveContextBase.setBaseUrl(server.getBaseUrl());
+    }
+
+    @AfterClass
+    public static void oneTimeTearDown() {
+        AppacitiveContextBase.setBaseUrl(originalBaseUrl);
+        server.stop();
+    }
+
+    @Before
+    public void beforeTest() {
+        server.reset();
+    }
+
+    @After
+    public void afterTest() {
+        AppacitiveContextBase.setRequestLimiter(null);
+    }
+
+    private static String objectJson(long id, String name) {
+        return "{\"__id\":\"" + id + "\",\"__type\":\"player\",\"__revision\":\"1\",\"name\":\"" + name + "\"}";
+    }
+
+    @Test
+    public void getAsyncTest() throws Exception {
+        server.respond("/object/player/7", "{\"object\":" + objectJson(7, "seven") + ",\"status\":{\"code\":\"200\"}}");
+        String name = AppacitiveObject.getAsync("player", 7, null).map(new APFunction<AppacitiveObject, String>() {
+            @Override
+            public String apply(AppacitiveObject object) {
+                return object.getPropertyAsString("name");
+            }
+        }).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals("seven", name);
+    }
+
+    @Test
+    public void failedStatusFailsFutureTest() throws Exception {
+        server.respond("/object/player/8", "{\"status\":{\"code\":\"404\",\"message\":\"Object not found.\"}}");
+        try {
+            AppacitiveObject.getAsync("player", 8, null).get(10, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof AppacitiveException);
+            Assert.assertEquals("404", ((AppacitiveException) e.getCause()).getCode());
+        }
+    }
+
+    @Test
+    public void pipelinedFindThenMultiGetTest() throws Exception {
+        server.respond("/object/player/find/all", "{\"objects\":[" + objectJson(1, "one") + "," + objectJson(2, "two") + "],\"paginginfo\":{\"pagenumber\":1,\"pagesize\":20,\"totalrecords\":2},\"status\":{\"code\":\"200\"}}");
+        server.respond("/object/player/multiget", "{\"objects\":[" + objectJson(1, "one") + "," + objectJson(2, "two") + "],\"status\":{\"code\":\"200\"}}");
+
+        List<AppacitiveObject> objects = AppacitiveObject.findAsync("player", null, null).flatMap(new APFunction<PagedList<AppacitiveObject>, APFuture<List<AppacitiveObject>>>() {
+            @Override
+            public APFuture<List<AppacitiveObject>> apply(PagedList<AppacitiveObject> page) {
+                List<Long> ids = new ArrayList<Long>();
+                for (AppacitiveObject object : page.results)
+                    ids.add(object.getId());
+                return AppacitiveObject.multiGetAsync("player", ids, null);
+            }
+        }).get(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(2, objects.size());
+        Assert.assertEquals("two", objects.get(1).getPropertyAsString("name"));
+    }
+
+    @Test
+    public void fanOutAndJoinTest() throws Exception {
+        List<APFuture<AppacitiveObject>> futures = new ArrayList<APFuture<AppacitiveObject>>();
+        for (int i = 1; i <= 20; i++) {
+            server.respond("/object/player/" + i, "{\"object\":" + objectJson(i, "p" + i) + ",\"status\":{\"code\":\"200\"}}");
+            futures.add(AppacitiveObject.getAsync("player", i, null));
+        }
+        List<AppacitiveObject> objects = APFuture.allOf(futures).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(20, objects.size());
+        for (int i = 0; i < objects.size(); i++)
+            Assert.assertEquals(i + 1, objects.get(i).getId());
+    }
+
+    @Test
+    public void cancelAbortsRequestTest() throws Exception {
+        //  With a single slot, the second get is only let through once the first request was aborted.
+        AppacitiveContextBase.setRequestLimiter(new RequestLimiter(1, 0, RequestLimiter.Overflow.REJECT));
+        server.respond("/object/player/", "{\"object\":" + objectJson(1, "one") + ",\"status\":{\"code\":\"200\"}}");
+        server.setDelayInMs(2000);
+        APFuture<AppacitiveObject> first = AppacitiveObject.getAsync("player", 1, null);
+        Assert.assertTrue(first.cancel(true));
+        server.setDelayInMs(0);
+        Assert.assertEquals("one", AppacitiveObject.getAsync("player", 1, null).get(1, TimeUnit.SECONDS).getPropertyAsString("name"));
+    }
+}
@@ -0,0 +1,166 @@
+package com.appacitive.java;
+
+import com.appacitive.core.AppacitiveBatchWriter;
+import com.appacitive.core.AppacitiveContextBase;
+import com.appacitive.core.AppacitiveObject;
+import com.appacitive.core.apjson.APJSONArray;
+import com.appacitive.core.apjson.APJSONObject;
+import com.appacitive.core.exceptions.AppacitiveException;
+import com.appacitive.core.infra.APFuture;
+import com.appacitive.core.model.Environment;
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.*;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Created by sathley.
+ */
+public class BatchWriterTest {
+
+    private static StandInServer server;
+
+    private static String originalBaseUrl;
+
+    private final List<APJSONObject> requests = new CopyOnWriteArrayList<APJSONObject>();
+
+    private final AtomicLong ids = new AtomicLong(100);
+
+    private final Map<Long, APJSONObject> stored = new ConcurrentHashMap<Long, APJSONObject>();
+
+    @BeforeClass
+    public static void oneTimeSetUp() throws Exception {
+        server = new StandInServer();
+        originalBaseUrl = AppacitiveContextBase.baseUrl;
+        AppacitiveContextBase.initialize(Keys.masterKey, Environment.sandbox, new JavaPlatform());
+        AppacitiveContextBase.setBaseUrl(server.getBaseUrl());
+    }
+
+    @AfterClass
+    public static void oneTimeTearDown() {
+        AppacitiveContextBase.setBaseUrl(originalBaseUrl);
+        server.stop();
+    }
+
+    @Before
+    public void beforeTest() {
+        server.reset();
+        AppacitiveContextBase.setBatchWriter(new AppacitiveBatchWriter(50, TimeUnit.MILLISECONDS, 100));
+        //  Answers every node with the stored object, updated with what was sent and given the next revision.
+        server.respond("/multi", new StandInServer.Responder() {
+            @Override
+            public String respond(HttpExchange exchange, String requestBody) {
+                try {
+                    APJSONObject request = new APJSONObject(requestBody);
+                    requests.add(request);
+                    APJSONArray nodes = new APJSONArray();
+                    APJSONArray sent = request.optJSONArray("nodes");
+                    for (int i = 0; sent != null && i < sent.length(); i++) {
+                        APJSONObject object = sent.getJSONObject(i).getJSONObject("object");
+                        long id = object.has("__id") ? object.getLong("__id") : ids.incrementAndGet();
+                        APJSONObject merged = stored.containsKey(id) ? stored.get(id) : new APJSONObject();
+                        Iterator keys = object.keys();
+                        while (keys.hasNext()) {
+                            String key = (String) keys.next();
+                            merged.put(key, object.get(key));
+                        }
+                        object = merged;
+                        object.put("__id", String.valueOf(id));
+                        stored.put(id, object);
+                        object.put("__revision", String.valueOf(sent.getJSONObject(i).optLong("revision") + 1));
+                        nodes.put(new APJSONObject().put("name", sent.getJSONObject(i).getString("name")).put("object", object));
+                    }
+                    return new APJSONObject().put("nodes", nodes).put("status", new APJSONObject().put("code", "200")).toString();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+    }
+
+    @After
+    public void afterTest() {
+        AppacitiveContextBase.setBatchWriter(null);
+    }
+
+    private static AppacitiveObject newPlayer(String name) {
+        AppacitiveObject object = new AppacitiveObject("player");
+        object.setStringProperty("name", name);
+        return object;
+    }
+
+    @Test
+    public void writesShareOneCallTest() throws Exception {
+        AppacitiveObject first = newPlayer("one");
+        AppacitiveObject second = newPlayer("two");
+        APFuture<AppacitiveObject> firstCreate = first.createAsync();
+        APFuture<AppacitiveObject> secondCreate = second.createAsync();
+        APFuture<Void> delete = AppacitiveObject.deleteAsync("player", 7, true);
+        firstCreate.get(10, TimeUnit.SECONDS);
+        secondCreate.get(10, TimeUnit.SECONDS);
+        delete.get(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(1, requests.size());
+        Assert.assertEquals(2, requests.get(0).getJSONArray("nodes").length());
+        Assert.assertEquals(7, requests.get(0).getJSONArray("nodedeletions").getJSONObject(0).getLong("id"));
+        Assert.assertTrue(first.getId() > 100);
+        Assert.assertTrue(second.getId() > 100);
+        Assert.assertTrue(first.getId() != second.getId());
+        Assert.assertEquals("two", second.getPropertyAsString("name"));
+    }
+
+    @Test
+    public void writesToOneEntityKeepTheirOrderTest() throws Exception {
+        AppacitiveObject object = newPlayer("one");
+        APFuture<AppacitiveObject> create = object.createAsync();
+        object.setStringProperty("name", "renamed");
+        APFuture<AppacitiveObject> update = object.updateAsync(false);
+        create.get(10, TimeUnit.SECONDS);
+        update.get(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(2, requests.size());
+        APJSONObject updateNode = requests.get(1).getJSONArray("nodes").getJSONObject(0).getJSONObject("object");
+        Assert.assertEquals(String.valueOf(object.getId()), updateNode.getString("__id"));
+        Assert.assertEquals("renamed", object.getPropertyAsString("name"));
+    }
+
+    @Test
+    public void slowCreateIsAppliedBeforeTheUpdateIsSentTest() throws Exception {
+        //  The update's batch is sealed by the window while the create is still in flight.
+        server.setDelayInMs(200);
+        AppacitiveObject object = newPlayer("one");
+        APFuture<AppacitiveObject> create = object.createAsync();
+        object.setStringProperty("name", "renamed");
+        APFuture<AppacitiveObject> update = object.updateAsync(false);
+        create.get(10, TimeUnit.SECONDS);
+        update.get(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(2, requests.size());
+        APJSONObject updateNode = requests.get(1).getJSONArray("nodes").getJSONObject(0).getJSONObject("object");
+        Assert.assertEquals(String.valueOf(object.getId()), updateNode.getString("__id"));
+        Assert.assertEquals(1, stored.size());
+    }
+
+    @Test
+    public void failedCallFailsEveryWriteTest() throws Exception {
+        server.respond("/multi", "{\"status\":{\"code\":\"400\",\"message\":\"Bad batch.\"}}");
+        APFuture<AppacitiveObject> first = newPlayer("one").createAsync();
+        APFuture<AppacitiveObject> second = newPlayer("two").createAsync();
+        for (APFuture<AppacitiveObject> future : new APFuture[]{first, second}) {
+            try {
+                future.get(10, TimeUnit.SECONDS);
+                Assert.fail();
+            } catch (ExecutionException e) {
+                Assert.assertEquals("400", ((AppacitiveException) e.getCause()).getCode());
+            }
+        }
+        Assert.assertEquals(1, server.getRequestCount("/multi"));
+    }
+}
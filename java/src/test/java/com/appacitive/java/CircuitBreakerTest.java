@@ -0,0 +1,122 @@
+package com.appacitive.java;
+
+import com.appacitive.core.AppacitiveConnection;
+import com.appacitive.core.AppacitiveContextBase;
+import com.appacitive.core.AppacitiveObject;
+import com.appacitive.core.exceptions.CircuitOpenException;
+import com.appacitive.core.infra.CircuitBreaker;
+import com.appacitive.core.model.Environment;
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by sathley.
+ */
+public class CircuitBreakerTest {
+
+    private static StandInServer server;
+
+    private static String originalBaseUrl;
+
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+
+    private final List<String> changes = new CopyOnWriteArrayList<String>();
+
+    private CircuitBreaker breaker;
+
+    @BeforeClass
+    public static void oneTimeSetUp() throws Exception {
+        server = new StandInServer();
+        originalBaseUrl = AppacitiveContextBase.baseUrl;
+        AppacitiveContextBase.initialize(Keys.masterKey, Environment.sandbox, new JavaPlatform());
+        AppacitiveContextBase.setBaseUrl(server.getBaseUrl());
+    }
+
+    @AfterClass
+    public static void oneTimeTearDown() {
+        AppacitiveContextBase.setBaseUrl(originalBaseUrl);
+        server.stop();
+    }
+
+    @Before
+    public void beforeTest() {
+        server.reset();
+        server.respond("/object/player", new StandInServer.Responder() {
+            @Override
+            public String respond(HttpExchange exchange, String requestBody) throws IOException {
+                //  Drops the connection without an answer.
+                if (failuresLeft.getAndDecrement() > 0)
+                    throw new IOException("Dropped.");
+                return "{\"object\":{\"__id\":\"1\",\"__type\":\"player\",\"__revision\":\"1\"},\"status\":{\"code\":\"200\"}}";
+            }
+        });
+        server.respond("/connection/friend/", "{\"connection\":{\"__id\":\"2\",\"__relationtype\":\"friend\",\"__revision\":\"1\"},\"status\":{\"code\":\"200\"}}");
+        breaker = new CircuitBreaker(2, 200, TimeUnit.MILLISECONDS);
+        breaker.addListener(new CircuitBreaker.Listener() {
+            @Override
+            public void onStateChange(String endpoint, CircuitBreaker.State from, CircuitBreaker.State to) {
+                changes.add(endpoint + ":" + from + ">" + to);
+            }
+        });
+        AppacitiveContextBase.setCircuitBreaker(breaker);
+    }
+
+    @After
+    public void afterTest() {
+        AppacitiveContextBase.setCircuitBreaker(null);
+    }
+
+    private static Exception failureOf(String type) throws Exception {
+        try {
+            AppacitiveObject.getAsync(type, 1, null).get(10, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            return (Exception) e.getCause();
+        }
+        return null;
+    }
+
+    private void open() throws Exception {
+        failuresLeft.set(2);
+        Assert.assertNotNull(failureOf("player"));
+        Assert.assertNotNull(failureOf("player"));
+        Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getState("object"));
+    }
+
+    @Test
+    public void openCircuitFailsFastTest() throws Exception {
+        open();
+        Assert.assertTrue(failureOf("player") instanceof CircuitOpenException);
+        Assert.assertEquals(2, server.getRequestCount());
+
+        //  Other endpoints are not affected.
+        Assert.assertEquals(2, AppacitiveConnection.getAsync("friend", 2, null).get(10, TimeUnit.SECONDS).getId());
+        Assert.assertEquals("[object:CLOSED>OPEN]", changes.toString());
+    }
+
+    @Test
+    public void successfulProbeClosesCircuitTest() throws Exception {
+        open();
+        Thread.sleep(250);
+        Assert.assertNull(failureOf("player"));
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState("object"));
+        Assert.assertEquals("[object:CLOSED>OPEN, object:OPEN>HALF_OPEN, object:HALF_OPEN>CLOSED]", changes.toString());
+    }
+
+    @Test
+    public void failedProbeOpensCircuitAgainTest() throws Exception {
+        open();
+        Thread.sleep(250);
+        failuresLeft.set(1);
+        Assert.assertFalse(failureOf("player") instanceof CircuitOpenException);
+        Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getState("object"));
+        Assert.assertTrue(failureOf("player") instanceof CircuitOpenException);
+        Assert.assertEquals(3, server.getRequestCount());
+    }
+}
@@ -0,0 +1,84 @@
+package com.appacitive.java;
+
+import com.appacitive.core.infra.DateTimeHelper;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ * Created by sathley.
+ */
+public class DateTimeHelperTest {
+
+    private static final String[] zones = {"UTC", "Asia/Kolkata", "America/New_York", "Australia/Lord_Howe"};
+
+    private TimeZone originalZone;
+
+    private DateTimeZone originalJodaZone;
+
+    @Before
+    public void beforeTest() {
+        originalZone = TimeZone.getDefault();
+        originalJodaZone = DateTimeZone.getDefault();
+    }
+
+    @After
+    public void afterTest() {
+        TimeZone.setDefault(originalZone);
+        DateTimeZone.setDefault(originalJodaZone);
+    }
+
+    private static void useZone(String id) {
+        TimeZone.setDefault(TimeZone.getTimeZone(id));
+        DateTimeZone.setDefault(DateTimeZone.forID(id));
+    }
+
+    @Test
+    public void matchesFormattersTest() throws Exception {
+        Random random = new Random(7);
+        for (String zone : zones) {
+            useZone(zone);
+            DateFormat dateFormat = new SimpleDateFormat(DateTimeHelper.PATTERN);
+            DateTimeFormatter jodaFormat = DateTimeFormat.forPattern(DateTimeHelper.PATTERN);
+            for (int i = 0; i < 5000; i++) {
+                //  Roughly 1900 to 2100.
+                long millis = (random.nextLong() % 4000000000000L) + 2000000000000L;
+                Date date = new Date(millis);
+                String text = dateFormat.format(date);
+                Assert.assertEquals(text, DateTimeHelper.format(date));
+                Assert.assertEquals(dateFormat.parse(text), DateTimeHelper.parseDate(text));
+
+                DateTime dateTime = new DateTime(millis);
+                String jodaText = jodaFormat.print(dateTime);
+                Assert.assertEquals(jodaText, DateTimeHelper.format(dateTime));
+                Assert.assertEquals(jodaFormat.parseDateTime(jodaText), DateTimeHelper.parseDateTime(jodaText));
+            }
+        }
+    }
+
+    @Test
+    public void serverStringsTest() throws Exception {
+        String[] values = {"2014-05-12T10:24:11.1234567Z", "2014-05-12T10:24:11.0000000Z", "2016-02-29T23:59:59.9999999Z",
+                "2014-03-09T02:30:00.0000000Z", "2014-11-02T01:30:00.0000000Z", "2014-02-30T10:24:11.0000000Z", "1500-01-01T00:00:00.0000000Z"};
+        for (String zone : zones) {
+            useZone(zone);
+            DateFormat dateFormat = new SimpleDateFormat(DateTimeHelper.PATTERN);
+            for (String value : values)
+                Assert.assertEquals(value, dateFormat.parse(value), DateTimeHelper.parseDate(value));
+        }
+        useZone("UTC");
+        Assert.assertEquals(new DateTime(2014, 5, 12, 10, 24, 11, 123), DateTimeHelper.parseDateTime(values[0]));
+        Assert.assertEquals("2014-05-12T10:24:11.1230000Z", DateTimeHelper.format(new DateTime(2014, 5, 12, 10, 24, 11, 123)));
+    }
+}
@@ -0,0 +1,162 @@
+package com.appacitive.java;
+
+import com.appacitive.core.AppacitiveContextBase;
+import com.appacitive.core.AppacitiveObject;
+import com.appacitive.core.exceptions.CircuitOpenException;
+import com.appacitive.core.exceptions.RequestTimeoutException;
+import com.appacitive.core.infra.APCall;
+import com.appacitive.core.infra.APFuture;
+import com.appacitive.core.infra.CircuitBreaker;
+import com.appacitive.core.infra.RequestTimeouts;
+import com.appacitive.core.model.Environment;
+import org.junit.*;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by sathley.
+ */
+public class DeadlineTest {
+
+    private static StandInServer server;
+
+    private static String originalBaseUrl;
+
+    @BeforeClass
+    public static void oneTimeSetUp() throws Exception {
+        server = new StandInServer();
+        originalBaseUrl = AppacitiveContextBase.baseUrl;
+        AppacitiveContextBase.initialize(Keys.masterKey, Environment.sandbox, new JavaPlatform());
+        AppacitiveContextBase.setBaseUrl(server.getBaseUrl());
+    }
+
+    @AfterClass
+    public static void oneTimeTearDown() {
+        AppacitiveContextBase.setBaseUrl(originalBaseUrl);
+        server.stop();
+    }
+
+    @Before
+    public void beforeTest() {
+        server.reset();
+        server.respond("/object/player/", "{\"object\":{\"__id\":\"1\",\"__type\":\"player\",\"__revision\":\"1\"},\"status\":{\"code\":\"200\"}}");
+        server.setDelayInMs(400);
+    }
+
+    @After
+    public void afterTest() {
+        AppacitiveContextBase.setRequestTimeouts(null);
+        AppacitiveContextBase.setCircuitBreaker(null);
+        AppacitiveContextBase.setSingleFlightGets(false);
+    }
+
+    private static Exception failureOf(APFuture<?> future) throws Exception {
+        try {
+            future.get(10, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            return (Exception) e.getCause();
+        }
+        return null;
+    }
+
+    @Test
+    public void slowRequestTimesOutTest() throws Exception {
+        AppacitiveContextBase.setRequestTimeouts(new RequestTimeouts(100, TimeUnit.MILLISECONDS));
+        long start = System.nanoTime();
+        Exception failure = failureOf(AppacitiveObject.getAsync("player", 1, null));
+        Assert.assertTrue(failure instanceof RequestTimeoutException);
+        Assert.assertEquals(100, ((RequestTimeoutException) failure).getTimeoutInMs());
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 400);
+    }
+
+    @Test
+    public void endpointTimeoutOverridesDefaultTest() throws Exception {
+        AppacitiveContextBase.setRequestTimeouts(new RequestTimeouts(100, TimeUnit.MILLISECONDS).setEndpointTimeout("object", 5, TimeUnit.SECONDS));
+        Assert.assertNull(failureOf(AppacitiveObject.getAsync("player", 1, null)));
+    }
+
+    @Test
+    public void timeoutsOpenTheCircuitTest() throws Exception {
+        AppacitiveContextBase.setRequestTimeouts(new RequestTimeouts(100, TimeUnit.MILLISECONDS));
+        AppacitiveContextBase.setCircuitBreaker(new CircuitBreaker(2, 10, TimeUnit.SECONDS));
+        Assert.assertTrue(failureOf(AppacitiveObject.getAsync("player", 1, null)) instanceof RequestTimeoutException);
+        Assert.assertTrue(failureOf(AppacitiveObject.getAsync("player", 2, null)) instanceof RequestTimeoutException);
+        Assert.assertTrue(failureOf(AppacitiveObject.getAsync("player", 3, null)) instanceof CircuitOpenException);
+        Assert.assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void callDeadlineTest() throws Exception {
+        APCall call = APCall.begin(100, TimeUnit.MILLISECONDS);
+        APFuture<AppacitiveObject> future;
+        try {
+            future = AppacitiveObject.getAsync("player", 1, null);
+        } finally {
+            call.end();
+        }
+        Assert.assertTrue(failureOf(future) instanceof RequestTimeoutException);
+        Assert.assertNull(failureOf(AppacitiveObject.getAsync("player", 1, null)));
+    }
+
+    private static void awaitRequests(int count) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (server.getRequestCount() < count && System.currentTimeMillis() < deadline)
+            Thread.sleep(5);
+        Assert.assertEquals(count, server.getRequestCount());
+    }
+
+    @Test
+    public void cancelledCallFailsItsRequestsTest() throws Exception {
+        APCall call = APCall.begin();
+        try {
+            APFuture<AppacitiveObject> inFlight = AppacitiveObject.getAsync("player", 1, null);
+            awaitRequests(1);
+            call.cancel();
+            Assert.assertTrue(failureOf(inFlight) instanceof CancellationException);
+            Assert.assertTrue(failureOf(AppacitiveObject.getAsync("player", 1, null)) instanceof CancellationException);
+        } finally {
+            call.end();
+        }
+        Assert.assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void sharedGetOutlivesOneCancelledCallTest() throws Exception {
+        AppacitiveContextBase.setSingleFlightGets(true);
+        APCall first = APCall.begin();
+        APFuture<AppacitiveObject> cancelled;
+        try {
+            cancelled = AppacitiveObject.getAsync("player", 1, null);
+        } finally {
+            first.end();
+        }
+        APFuture<AppacitiveObject> kept = AppacitiveObject.getAsync("player", 1, null);
+        awaitRequests(1);
+        first.cancel();
+        Assert.assertTrue(failureOf(cancelled) instanceof CancellationException);
+        Assert.assertNull(failureOf(kept));
+    }
+
+    @Test
+    public void sharedGetIsAbortedWithItsLastCallTest() throws Exception {
+        AppacitiveContextBase.setSingleFlightGets(true);
+        APCall call = APCall.begin();
+        APFuture<AppacitiveObject> first;
+        APFuture<AppacitiveObject> second;
+        try {
+            first = AppacitiveObject.getAsync("player", 1, null);
+            second = AppacitiveObject.getAsync("player", 1, null);
+        } finally {
+            call.end();
+        }
+        awaitRequests(1);
+        call.cancel();
+        Assert.assertTrue(failureOf(first) instanceof CancellationException);
+        Assert.assertTrue(failureOf(second) instanceof CancellationException);
+        server.setDelayInMs(0);
+        Assert.assertNull(failureOf(AppacitiveObject.getAsync("player", 1, null)));
+        Assert.assertEquals(2, server.getRequestCount());
+    }
+}
@@ -0,0 +1,197 @@
+package com.appacitive.java;
+
+import com.appacitive.core.*;
+import com.appacitive.core.apjson.APJSONObject;
+import com.appacitive.core.apjson.APJSONReader;
+import com.appacitive.core.exceptions.AppacitiveException;
+import com.appacitive.core.model.ConnectedObjectsResponse;
+import com.appacitive.core.model.Environment;
+import com.appacitive.core.model.PagedList;
+import com.appacitive.core.query.AppacitiveQuery;
+import org.junit.*;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by sathley.
+ */
+public class EntityBindingTest {
+
+    private static StandInServer server;
+
+    private static String originalBaseUrl;
+
+    @BeforeClass
+    public static void oneTimeSetUp() throws Exception {
+        server = new StandInServer();
+        originalBaseUrl = AppacitiveContextBase.baseUrl;
+        AppacitiveContextBase.initialize(Keys.masterKey, Environment.sandbox, new JavaPlatform());
+        AppacitiveContextBase.setBaseUrl(server.getBaseUrl());
+    }
+
+    @AfterClass
+    public static void oneTimeTearDown() {
+        AppacitiveContextBase.setBaseUrl(originalBaseUrl);
+        server.stop();
+    }
+
+    @Before
+    public void beforeTest() {
+        server.reset();
+    }
+
+    private static String objectJson(long id, String type) {
+        return "{\"__id\":\"" + id + "\",\"__type\":\"" + type + "\",\"__typeid\":\"42\",\"__revision\":\"3\",\"__createdby\":\"System\"," +
+                "\"__lastmodifiedby\":\"admin\",\"__utcdatecreated\":\"2014-05-12T10:24:11.0000000Z\",\"__utclastupdateddate\":\"2014-05-13T10:24:11.0000000Z\"," +
+                "\"__tags\":[\"red\",\"blue\"],\"__attributes\":{\"source\":\"import\"},\"__acls\":[]," +
+                "\"name\":\"player " + id + "\",\"score\":12,\"ratio\":1.5,\"active\":true,\"aliases\":[\"a\",\"b\"]}";
+    }
+
+    private static String connectionJson(long id) {
+        return "{\"__id\":\"" + id + "\",\"__relationtype\":\"friend\",\"__relationid\":\"9\",\"__revision\":\"1\",\"since\":\"2014\"," +
+                "\"__endpointa\":{\"label\":\"me\",\"type\":\"user\",\"objectid\":\"1\",\"object\":" + objectJson(1, "user") + "}," +
+                "\"__endpointb\":{\"label\":\"you\",\"type\":\"player\",\"objectid\":\"2\"}}";
+    }
+
+    private static void assertSameEntity(AppacitiveEntity expected, AppacitiveEntity actual) throws Exception {
+        Assert.assertEquals(expected.getId(), actual.getId());
+        Assert.assertEquals(expected.getRevision(), actual.getRevision());
+        Assert.assertEquals(expected.getCreatedBy(), actual.getCreatedBy());
+        Assert.assertEquals(expected.getLastModifiedBy(), actual.getLastModifiedBy());
+        Assert.assertEquals(expected.getUtcDateCreated(), actual.getUtcDateCreated());
+        Assert.assertEquals(expected.getUtcLastUpdated(), actual.getUtcLastUpdated());
+        Assert.assertEquals(expected.getAllTags(), actual.getAllTags());
+        Assert.assertEquals(expected.getAllAttributes(), actual.getAllAttributes());
+        Assert.assertEquals(expected.getMap().toString(), actual.getMap().toString());
+    }
+
+    @Test
+    public void objectBindingMatchesTreeTest() throws Exception {
+        AppacitiveObject expected = new AppacitiveObject("player");
+        expected.setSelf(new APJSONObject(objectJson(5, "player")));
+        //  The tree path cannot hold null properties, so only the streamed one is given a null.
+        String json = objectJson(5, "player");
+        String withNull = json.substring(0, json.length() - 1) + ",\"geo\":null}";
+        AppacitiveObject actual = new AppacitiveObject("player");
+        actual.setSelf(new APJSONReader(new StringReader(withNull)));
+        assertSameEntity(expected, actual);
+        Assert.assertEquals(42, actual.getTypeId());
+        Assert.assertEquals(Arrays.asList("a", "b"), actual.getPropertyAsMultiValuedString("aliases"));
+        Assert.assertNull(actual.getPropertyAsString("geo"));
+    }
+
+    @Test
+    public void connectionBindingMatchesTreeTest() throws Exception {
+        AppacitiveConnection expected = new AppacitiveConnection("friend");
+        expected.setSelf(new APJSONObject(connectionJson(8)));
+        AppacitiveConnection actual = new AppacitiveConnection("friend");
+        actual.setSelf(new APJSONReader(new StringReader(connectionJson(8))));
+        assertSameEntity(expected, actual);
+        Assert.assertEquals(9, actual.getRelationId());
+        Assert.assertTrue(actual.endpointA.object instanceof AppacitiveUser);
+        assertSameEntity(expected.endpointA.object, actual.endpointA.object);
+        Assert.assertEquals(2, actual.endpointB.objectId);
+        Assert.assertNull(actual.endpointB.object);
+    }
+
+    @Test
+    public void findBindsEachObjectTest() throws Exception {
+        server.respond("/object/player/find", "{\"objects\":[" + objectJson(1, "player") + "," + objectJson(2, "player") + "]," +
+                "\"paginginfo\":{\"pagenumber\":1,\"pagesize\":20,\"totalrecords\":2},\"status\":{\"code\":\"200\"}}");
+        PagedList<AppacitiveObject> page = AppacitiveObject.findAsync("player", new AppacitiveQuery(), null).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(2, page.results.size());
+        Assert.assertEquals(2, page.results.get(1).getId());
+        Assert.assertEquals("player 2", page.results.get(1).getPropertyAsString("name"));
+        Assert.assertEquals(2, page.pagingInfo.totalRecords);
+    }
+
+    @Test
+    public void multiGetUsersTest() throws Exception {
+        server.respond("/object/user/multiget", "{\"status\":{\"code\":\"200\"},\"objects\":[" + objectJson(3, "user") + "]}");
+        List<AppacitiveUser> users = AppacitiveUser.multiGetAsync(Arrays.asList(3L), null).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(1, users.size());
+        Assert.assertEquals("user", users.get(0).getType());
+    }
+
+    @Test
+    public void updateBindsIntoSameInstanceTest() throws Exception {
+        server.respond("/object/player/5", "{\"object\":" + objectJson(5, "player") + ",\"status\":{\"code\":\"200\"}}");
+        AppacitiveObject player = new AppacitiveObject("player", 5);
+        player.setStringProperty("name", "renamed");
+        Assert.assertSame(player, player.updateAsync(false).get(10, TimeUnit.SECONDS));
+
+        AppacitiveObject expected = new AppacitiveObject("player");
+        expected.setSelf(new APJSONObject(objectJson(5, "player")));
+        assertSameEntity(expected, player);
+        Assert.assertEquals(42, player.getTypeId());
+        //  The change went with the update and is no longer pending.
+        Assert.assertFalse(player.getUpdateCommand().has("name"));
+    }
+
+    @Test
+    public void failedUpdateLeavesInstanceTest() throws Exception {
+        //  The object comes before the status, so it is read before the update is known to have failed.
+        server.respond("/object/player/5", "{\"object\":" + objectJson(5, "player") + ",\"status\":{\"code\":\"400\",\"message\":\"stale\"}}");
+        AppacitiveObject player = new AppacitiveObject("player", 5);
+        player.setStringProperty("name", "renamed");
+        try {
+            player.updateAsync(false).get(10, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertEquals("400", ((AppacitiveException) e.getCause()).getCode());
+        }
+        Assert.assertEquals("renamed", player.getPropertyAsString("name"));
+        Assert.assertEquals(0, player.getRevision());
+    }
+
+    @Test
+    public void createUpdatesEndpointObjectTest() throws Exception {
+        server.respond("/connection/friend", "{\"connection\":" + connectionJson(8) + ",\"status\":{\"code\":\"200\"}}");
+        AppacitiveUser me = new AppacitiveUser();
+        AppacitiveConnection connection = new AppacitiveConnection("friend").fromNewUser("me", me).toExistingObject("you", 2);
+        Assert.assertSame(connection, connection.createAsync().get(10, TimeUnit.SECONDS));
+
+        AppacitiveConnection expected = new AppacitiveConnection("friend");
+        expected.setSelf(new APJSONObject(connectionJson(8)));
+        assertSameEntity(expected, connection);
+        Assert.assertSame(me, connection.endpointA.object);
+        assertSameEntity(expected.endpointA.object, me);
+        Assert.assertEquals(2, connection.endpointB.objectId);
+    }
+
+    @Test
+    public void connectedObjectsBindEdgeTest() throws Exception {
+        String node = objectJson(2, "player");
+        node = node.substring(0, node.length() - 1) + ",\"__edge\":" + connectionJson(8) + "}";
+        server.respond("/connection/friend/player/1/find", "{\"parent\":\"player\",\"nodes\":[" + node + "," + objectJson(3, "player") + "]," +
+                "\"paginginfo\":{\"pagenumber\":1,\"pagesize\":20,\"totalrecords\":2},\"status\":{\"code\":\"200\"}}");
+        ConnectedObjectsResponse response = AppacitiveObject.getConnectedObjectsAsync("friend", "player", 1, null, null).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals("player", response.parent);
+        Assert.assertEquals(2, response.pagingInfo.totalRecords);
+        Assert.assertEquals(2, response.results.size());
+
+        AppacitiveObject expected = new AppacitiveObject("player");
+        expected.setSelf(new APJSONObject(objectJson(2, "player")));
+        assertSameEntity(expected, response.results.get(0).object);
+        Assert.assertEquals(8, response.results.get(0).connection.getId());
+        Assert.assertEquals(9, response.results.get(0).connection.getRelationId());
+        Assert.assertNull(response.results.get(1).connection);
+        Assert.assertEquals(3, response.results.get(1).object.getId());
+    }
+
+    @Test
+    public void failedStatusTest() throws Exception {
+        server.respond("/device/", "{\"device\":null,\"status\":{\"code\":\"404\",\"message\":\"not found\"}}");
+        try {
+            AppacitiveDevice.getAsync(4).get(10, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof AppacitiveException);
+            Assert.assertEquals("404", ((AppacitiveException) e.getCause()).getCode());
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.appacitive.java;
+
+import com.appacitive.core.AppacitiveConnection;
+import com.appacitive.core.AppacitiveContextBase;
+import com.appacitive.core.AppacitiveEntityCache;
+import com.appacitive.core.AppacitiveObject;
+import com.appacitive.core.infra.APFuture;
+import com.appacitive.core.model.Callback;
+import com.appacitive.core.model.Environment;
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Created by sathley.
+ */
+public class EntityCacheTest {
+
+    private static StandInServer server;
+
+    private static String originalBaseUrl;
+
+    private AppacitiveEntityCache cache;
+
+    @BeforeClass
+    public static void oneTimeSetUp() throws Exception {
+        server = new StandInServer();
+        originalBaseUrl = AppacitiveContextBase.baseUrl;
+        AppacitiveContextBase.initialize(Keys.masterKey, Environment.sandbox, new JavaPlatform());
+        AppacitiveContextBase.setBaseUrl(server.getBaseUrl());
+    }
+
+    @AfterClass
+    public static void oneTimeTearDown() {
+        AppacitiveContextBase.setBaseUrl(originalBaseUrl);
+        server.stop();
+    }
+
+    @Before
+    public void beforeTest() {
+        server.reset();
+        cache = new AppacitiveEntityCache(100, 1, TimeUnit.MINUTES);
+        AppacitiveContextBase.setEntityCache(cache);
+    }
+
+    @After
+    public void afterTest() {
+        AppacitiveContextBase.setEntityCache(null);
+    }
+
+    private static String objectJson(long id, long revision, String name) {
+        return "{\"__id\":\"" + id + "\",\"__type\":\"player\",\"__revision\":\"" + revision + "\",\"name\":\"" + name + "\"}";
+    }
+
+    private static String objectResponse(long id, long revision, String name) {
+        return "{\"object\":" + objectJson(id, revision, name) + ",\"status\":{\"code\":\"200\"}}";
+    }
+
+    @Test
+    public void getIsCachedTest() throws Exception {
+        server.respond("/object/player/7", objectResponse(7, 1, "seven"));
+        AppacitiveObject first = AppacitiveObject.getAsync("player", 7, null).get(10, TimeUnit.SECONDS);
+        AppacitiveObject second = AppacitiveObject.getAsync("player", 7, null).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(1, server.getRequestCount("/object/player/7"));
+        Assert.assertEquals("seven", second.getPropertyAsString("name"));
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+
+        //  Changes to a returned instance stay out of the cache.
+        second.setStringProperty("name", "changed");
+        Assert.assertEquals("seven", AppacitiveObject.getAsync("player", 7, null).get(10, TimeUnit.SECONDS).getPropertyAsString("name"));
+
+        //  A field list always goes to the api.
+        AppacitiveObject.getAsync("player", 7, Arrays.asList("name")).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(2, server.getRequestCount("/object/player/7"));
+    }
+
+    @Test
+    public void multiGetMergesCachedTest() throws Exception {
+        server.respond("/object/player/2", objectResponse(2, 1, "two"));
+        server.respond("/object/player/multiget/1,3", "{\"objects\":[" + objectJson(3, 1, "three") + "," + objectJson(1, 1, "one") + "],\"status\":{\"code\":\"200\"}}");
+        AppacitiveObject.getAsync("player", 2, null).get(10, TimeUnit.SECONDS);
+
+        List<AppacitiveObject> objects = AppacitiveObject.multiGetAsync("player", Arrays.asList(1L, 2L, 3L), null).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(3, objects.size());
+        Assert.assertEquals("one", objects.get(0).getPropertyAsString("name"));
+        Assert.assertEquals("two", objects.get(1).getPropertyAsString("name"));
+        Assert.assertEquals("three", objects.get(2).getPropertyAsString("name"));
+        Assert.assertEquals(1, server.getRequestCount("/object/player/multiget/1,3"));
+
+        //  Everything is cached now.
+        objects = AppacitiveObject.multiGetAsync("player", Arrays.asList(3L, 1L), null).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(3, objects.get(0).getId());
+        Assert.assertEquals(1, server.getRequestCount("/object/player/multiget/1,3"));
+    }
+
+    @Test
+    public void olderRevisionIsRejectedTest() throws Exception {
+        server.respond("/object/player/5", objectResponse(5, 2, "new"));
+        AppacitiveObject.getAsync("player", 5, null).get(10, TimeUnit.SECONDS);
+
+        server.reset();
+        server.respond("/object/player/5", objectResponse(5, 1, "old"));
+        AppacitiveObject stale = new AppacitiveObject("player");
+        stale.setId(5);
+        stale.fetchLatestAsync().get(10, TimeUnit.SECONDS);
+        Assert.assertEquals("old", stale.getPropertyAsString("name"));
+        Assert.assertEquals("new", AppacitiveObject.getAsync("player", 5, null).get(10, TimeUnit.SECONDS).getPropertyAsString("name"));
+    }
+
+    @Test
+    public void deleteEvictsTest() throws Exception {
+        server.respond("/object/player/4", objectResponse(4, 1, "four"));
+        server.respond("/connection/friend/9", "{\"connection\":{\"__id\":\"9\",\"__relationtype\":\"friend\",\"__revision\":\"1\",\"since\":\"2014\"},\"status\":{\"code\":\"200\"}}");
+        AppacitiveObject.getAsync("player", 4, null).get(10, TimeUnit.SECONDS);
+        AppacitiveConnection.getAsync("friend", 9, null).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals("2014", AppacitiveConnection.getAsync("friend", 9, null).get(10, TimeUnit.SECONDS).getPropertyAsString("since"));
+
+        AppacitiveObject.deleteAsync("player", 4, false).get(10, TimeUnit.SECONDS);
+        AppacitiveConnection.deleteAsync("friend", 9).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(0, cache.size());
+    }
+
+    private static String connectionResponse(long id, long objectIdA, long objectIdB) {
+        return "{\"connection\":{\"__id\":\"" + id + "\",\"__relationtype\":\"friend\",\"__revision\":\"1\"," +
+                "\"__endpointa\":{\"label\":\"a\",\"type\":\"player\",\"objectid\":\"" + objectIdA + "\"}," +
+                "\"__endpointb\":{\"label\":\"b\",\"type\":\"player\",\"objectid\":\"" + objectIdB + "\"}},\"status\":{\"code\":\"200\"}}";
+    }
+
+    @Test
+    public void deleteWithConnectionsEvictsThemTest() throws Exception {
+        server.respond("/object/player/4", objectResponse(4, 1, "four"));
+        server.respond("/connection/friend/9", connectionResponse(9, 4, 5));
+        server.respond("/connection/friend/10", connectionResponse(10, 5, 6));
+        AppacitiveConnection.getAsync("friend", 9, null).get(10, TimeUnit.SECONDS);
+        AppacitiveConnection.getAsync("friend", 10, null).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(2, cache.size());
+
+        AppacitiveObject.deleteAsync("player", 4, true).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(1, cache.size());
+        AppacitiveConnection.getAsync("friend", 10, null).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(1, server.getRequestCount("/connection/friend/10"));
+    }
+
+    @Test
+    public void evictionTest() throws Exception {
+        AppacitiveEntityCache small = new AppacitiveEntityCache(2, 50, TimeUnit.MILLISECONDS);
+        AppacitiveContextBase.setEntityCache(small);
+        for (long id = 1; id <= 3; id++)
+            server.respond("/object/player/" + id, objectResponse(id, 1, "p" + id));
+        for (long id = 1; id <= 3; id++)
+            AppacitiveObject.getAsync("player", id, null).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(2, small.size());
+        Assert.assertEquals(1, small.getEvictionCount());
+
+        Thread.sleep(100);
+        small.purgeExpired();
+        Assert.assertEquals(0, small.size());
+    }
+
+    @Test
+    public void hitIsDeliveredLikeAResponseTest() throws Exception {
+        server.respond("/object/player/3", objectResponse(3, 1, "three"));
+        AppacitiveObject.getAsync("player", 3, null).get(10, TimeUnit.SECONDS);
+        final AtomicReference<String> thread = new AtomicReference<String>();
+        final CountDownLatch done = new CountDownLatch(1);
+        AppacitiveObject.getInBackground("player", 3, null, new Callback<AppacitiveObject>() {
+            @Override
+            public void success(AppacitiveObject result) {
+                thread.set(Thread.currentThread().getName());
+                done.countDown();
+            }
+        });
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertTrue(thread.get().startsWith("appacitive-response"));
+    }
+
+    @Test
+    public void getInFlightDuringDeleteIsNotStoredTest() throws Exception {
+        final CountDownLatch deleted = new CountDownLatch(1);
+        server.respond("/object/player/8", new StandInServer.Responder() {
+            @Override
+            public String respond(HttpExchange exchange, String requestBody) {
+                if (exchange.getRequestMethod().equals("GET")) {
+                    try {
+                        deleted.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return objectResponse(8, 1, "eight");
+            }
+        });
+        APFuture<AppacitiveObject> get = AppacitiveObject.getAsync("player", 8, null);
+        AppacitiveObject.deleteAsync("player", 8, true).get(10, TimeUnit.SECONDS);
+        deleted.countDown();
+        get.get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(0, cache.size());
+
+        //  Nor is a connection to it.
+        server.respond("/connection/friend/11", connectionResponse(11, 8, 5));
+        AppacitiveConnection.getAsync("friend", 11, null).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(0, cache.size());
+    }
+}
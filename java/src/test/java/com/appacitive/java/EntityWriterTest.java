@@ -0,0 +1,146 @@
+package com.appacitive.java;
+
+import com.appacitive.core.AppacitiveConnection;
+import com.appacitive.core.AppacitiveContextBase;
+import com.appacitive.core.AppacitiveObject;
+import com.appacitive.core.apjson.APJSONObject;
+import com.appacitive.core.infra.JsonMaps;
+import com.appacitive.core.model.BatchCallRequest;
+import com.appacitive.core.model.Environment;
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.*;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Created by sathley.
+ */
+public class EntityWriterTest {
+
+    private static StandInServer server;
+
+    private static String originalBaseUrl;
+
+    @BeforeClass
+    public static void oneTimeSetUp() throws Exception {
+        server = new StandInServer();
+        originalBaseUrl = AppacitiveContextBase.baseUrl;
+        AppacitiveContextBase.initialize(Keys.masterKey, Environment.sandbox, new JavaPlatform());
+        AppacitiveContextBase.setBaseUrl(server.getBaseUrl());
+    }
+
+    @AfterClass
+    public static void oneTimeTearDown() {
+        AppacitiveContextBase.setBaseUrl(originalBaseUrl);
+        server.stop();
+    }
+
+    @Before
+    public void beforeTest() {
+        server.reset();
+    }
+
+    private static AppacitiveObject newObject() {
+        AppacitiveObject object = new AppacitiveObject("player");
+        object.setStringProperty("name", "\"quoted\" / été 😀\n");
+        object.setIntProperty("score", 12);
+        object.setDoubleProperty("ratio", 1.5);
+        object.setBoolProperty("active", true);
+        object.setDateTimeProperty("joined", new Date(1400000000000L));
+        object.setGeoProperty("location", new double[]{18.5, 73.8});
+        object.setPropertyAsMultiValued("aliases", Arrays.asList("a", "b"));
+        object.addTags(Arrays.asList("red", "blue"));
+        object.setAttribute("source", "import");
+        object.accessControl.allowReadByUser(7);
+        return object;
+    }
+
+    private static void assertSameJson(APJSONObject expected, byte[] actual) throws Exception {
+        Assert.assertEquals(JsonMaps.parse(expected.toString()), JsonMaps.parse(new String(actual, "UTF-8")));
+    }
+
+    @Test
+    public void objectMapTest() throws Exception {
+        AppacitiveObject object = newObject();
+        assertSameJson(object.getMap(), object.getMapBytes());
+    }
+
+    @Test
+    public void connectionMapTest() throws Exception {
+        AppacitiveConnection connection = new AppacitiveConnection("friend").fromNewObject("me", newObject()).toExistingObject("you", 2);
+        connection.setStringProperty("since", "2014");
+        assertSameJson(connection.getMap(), connection.getMapBytes());
+    }
+
+    @Test
+    public void updateCommandTest() throws Exception {
+        AppacitiveObject object = new AppacitiveObject("player");
+        object.setId(5);
+        object.setStringProperty("name", "player 5");
+        object.incrementIntegerProperty("score", 2);
+        object.decrementDecimalProperty("ratio", 0.5);
+        object.addItemsToMultiValuedProperty("aliases", Arrays.asList("c"));
+        object.removeItemsFromMultiValuedProperty("aliases", Arrays.asList("a"));
+        object.addTag("green");
+        object.removeTag("red");
+        object.setAttribute("source", "manual");
+        assertSameJson(object.getUpdateCommand(), object.getUpdateCommandBytes());
+    }
+
+    @Test
+    public void batchTest() throws Exception {
+        BatchCallRequest request = new BatchCallRequest();
+        AppacitiveObject existing = new AppacitiveObject("player");
+        existing.setId(9);
+        existing.setStringProperty("name", "player 9");
+        request.addNode(newObject(), "new");
+        request.addNodeWithRevision(existing, "existing");
+        request.addEdge(new AppacitiveConnection("friend").toExistingObject("you", 2), "edge", "me", "new", null, null);
+        request.deleteNode("player", 3, true);
+        request.deleteEdge("friend", 4, 2);
+        assertSameJson(request.getMap(), request.getMapBytes());
+        Assert.assertTrue(request.getMap().has("edgedeletions"));
+    }
+
+    @Test
+    public void createSendsBytesTest() throws Exception {
+        final AtomicReference<String> received = new AtomicReference<String>();
+        server.respond("/object/player", new StandInServer.Responder() {
+            @Override
+            public String respond(HttpExchange exchange, String requestBody) {
+                received.set(requestBody);
+                return "{\"object\":{\"__id\":\"11\",\"__type\":\"player\",\"__revision\":\"1\"},\"status\":{\"code\":\"200\"}}";
+            }
+        });
+        AppacitiveObject object = newObject();
+        APJSONObject expected = object.getMap();
+        object.createAsync().get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(JsonMaps.parse(expected.toString()), JsonMaps.parse(received.get()));
+        Assert.assertEquals(11, object.getId());
+    }
+
+    @Test
+    public void connectionUpdateLeavesOutRelationFieldsTest() throws Exception {
+        final AtomicReference<String> received = new AtomicReference<String>();
+        server.respond("/connection/friend/4", new StandInServer.Responder() {
+            @Override
+            public String respond(HttpExchange exchange, String requestBody) {
+                received.set(requestBody);
+                return "{\"connection\":{\"__id\":\"4\",\"__relationtype\":\"friend\",\"__revision\":\"2\"},\"status\":{\"code\":\"200\"}}";
+            }
+        });
+        AppacitiveConnection connection = new AppacitiveConnection("friend");
+        connection.setId(4);
+        connection.setStringProperty("since", "2015");
+        connection.incrementIntegerProperty("meetings", 1);
+        Map<String, Object> expected = JsonMaps.parse(connection.getUpdateCommand().toString());
+        expected.remove("__relationtype");
+        expected.remove("__relationid");
+        connection.updateAsync(false).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(expected, JsonMaps.parse(received.get()));
+    }
+}
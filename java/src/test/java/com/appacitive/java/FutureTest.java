@@ -0,0 +1,117 @@
+package com.appacitive.java;
+
+import com.appacitive.core.infra.APFunction;
+import com.appacitive.core.infra.APFuture;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Created by sathley.
+ */
+public class FutureTest {
+
+    @Test
+    public void mapAndFlatMapTest() throws Exception {
+        APFuture<String> source = new APFuture<String>();
+        APFuture<Integer> length = source.map(new APFunction<String, Integer>() {
+            @Override
+            public Integer apply(String value) {
+                return value.length();
+            }
+        });
+        APFuture<String> chained = length.flatMap(new APFunction<Integer, APFuture<String>>() {
+            @Override
+            public APFuture<String> apply(Integer value) {
+                return APFuture.completed("length " + value);
+            }
+        });
+        Assert.assertFalse(chained.isDone());
+        source.complete("hello");
+        Assert.assertEquals(Integer.valueOf(5), length.get());
+        Assert.assertEquals("length 5", chained.get());
+    }
+
+    @Test
+    public void failurePropagatesTest() throws Exception {
+        APFuture<String> source = new APFuture<String>();
+        APFuture<Integer> mapped = source.map(new APFunction<String, Integer>() {
+            @Override
+            public Integer apply(String value) {
+                return value.length();
+            }
+        });
+        source.fail(new IllegalStateException("boom"));
+        try {
+            mapped.get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void cancelPropagatesUpstreamTest() throws Exception {
+        final AtomicBoolean requestCancelled = new AtomicBoolean(false);
+        APFuture<String> source = new APFuture<String>().onCancel(new Runnable() {
+            @Override
+            public void run() {
+                requestCancelled.set(true);
+            }
+        });
+        APFuture<Integer> mapped = source.map(new APFunction<String, Integer>() {
+            @Override
+            public Integer apply(String value) {
+                return value.length();
+            }
+        });
+        Assert.assertTrue(mapped.cancel(true));
+        Assert.assertTrue(source.isCancelled());
+        Assert.assertTrue(requestCancelled.get());
+        try {
+            mapped.get();
+            Assert.fail();
+        } catch (CancellationException e) {
+        }
+    }
+
+    @Test
+    public void timeoutAbortsRequestTest() throws Exception {
+        final AtomicBoolean requestCancelled = new AtomicBoolean(false);
+        APFuture<String> future = new APFuture<String>().onCancel(new Runnable() {
+            @Override
+            public void run() {
+                requestCancelled.set(true);
+            }
+        }).withTimeout(50, TimeUnit.MILLISECONDS);
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        Assert.assertTrue(requestCancelled.get());
+    }
+
+    @Test
+    public void allOfTest() throws Exception {
+        List<APFuture<Integer>> futures = new ArrayList<APFuture<Integer>>();
+        for (int i = 0; i < 50; i++)
+            futures.add(new APFuture<Integer>());
+        APFuture<List<Integer>> all = APFuture.allOf(futures);
+        for (int i = futures.size() - 1; i >= 0; i--) {
+            Assert.assertFalse(all.isDone());
+            futures.get(i).complete(i);
+        }
+        List<Integer> results = all.get();
+        for (int i = 0; i < results.size(); i++)
+            Assert.assertEquals(Integer.valueOf(i), results.get(i));
+    }
+}
@@ -0,0 +1,145 @@
+package com.appacitive.java;
+
+import com.appacitive.core.AppacitiveContextBase;
+import com.appacitive.core.infra.APMetrics;
+import com.appacitive.core.infra.Gzip;
+import com.appacitive.core.interfaces.AsyncHttp;
+import com.appacitive.core.model.Environment;
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.*;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by sathley.
+ */
+public class GzipTest {
+
+    private static StandInServer server;
+
+    private static JavaAsyncHttp http;
+
+    private final Map<String, String> headers = new HashMap<String, String>();
+
+    @BeforeClass
+    public static void oneTimeSetUp() throws Exception {
+        AppacitiveContextBase.initialize(Keys.masterKey, Environment.sandbox, new JavaPlatform());
+        server = new StandInServer();
+        http = new JavaAsyncHttp();
+    }
+
+    @AfterClass
+    public static void oneTimeTearDown() {
+        AppacitiveContextBase.setGzipEnabled(false, false);
+        http.close();
+        server.stop();
+    }
+
+    @Before
+    public void beforeTest() {
+        server.reset();
+        APMetrics.reset();
+    }
+
+    private static String largeJson() {
+        StringBuilder objects = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            if (i > 0)
+                objects.append(",");
+            objects.append("{\"__id\":\"").append(i).append("\",\"__type\":\"player\",\"name\":\"player ").append(i).append("\"}");
+        }
+        return "{\"objects\":[" + objects + "],\"status\":{\"code\":\"200\"}}";
+    }
+
+    @Test
+    public void gzippedResponseTest() throws Exception {
+        AppacitiveContextBase.setGzipEnabled(true, false);
+        String body = largeJson();
+        server.setGzipResponses(true);
+        server.respond("/object/player/find/all", body);
+
+        Assert.assertEquals(body, http.get(server.getBaseUrl() + "/object/player/find/all", headers).get(10, TimeUnit.SECONDS));
+
+        APMetrics.Stat ratio = APMetrics.get(Gzip.RESPONSE_RATIO);
+        Assert.assertEquals(1, ratio.getCount());
+        Assert.assertTrue(ratio.getMax() > 5);
+        Assert.assertEquals(1, APMetrics.get(Gzip.RESPONSE_TIME).getCount());
+    }
+
+    @Test
+    public void contentEncodingIgnoresDefaultLocaleTest() {
+        Locale locale = Locale.getDefault();
+        //  Lower casing "GZIP" in turkish gives a dotless i.
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            Assert.assertTrue(Gzip.isGzipped("GZIP"));
+            Assert.assertTrue(Gzip.isGzipped("x-Gzip"));
+            Assert.assertFalse(Gzip.isGzipped("identity"));
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    @Test
+    public void responsesAreNotGzippedUnlessEnabledTest() throws Exception {
+        AppacitiveContextBase.setGzipEnabled(false, false);
+        server.setGzipResponses(true);
+        server.respond("/object/player/find/all", largeJson());
+
+        http.get(server.getBaseUrl() + "/object/player/find/all", headers).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(0, APMetrics.get(Gzip.RESPONSE_RATIO).getCount());
+    }
+
+    @Test
+    public void gzippedRequestTest() throws Exception {
+        AppacitiveContextBase.setGzipEnabled(false, true);
+        final String[] received = new String[2];
+        server.respond("/batch", new StandInServer.Responder() {
+            @Override
+            public String respond(HttpExchange exchange, String requestBody) {
+                received[0] = exchange.getRequestHeaders().getFirst("Content-Encoding");
+                received[1] = requestBody;
+                return "{\"status\":{\"code\":\"200\"}}";
+            }
+        });
+        String payload = largeJson();
+        http.post(server.getBaseUrl() + "/batch", headers, payload).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals("gzip", received[0]);
+        Assert.assertEquals(payload, received[1]);
+        Assert.assertEquals(1, APMetrics.get(Gzip.REQUEST_RATIO).getCount());
+
+        //  Small payloads are sent as they are.
+        http.post(server.getBaseUrl() + "/batch", headers, "{\"a\":1}").get(10, TimeUnit.SECONDS);
+        Assert.assertNull(received[0]);
+        Assert.assertEquals(1, APMetrics.get(Gzip.REQUEST_RATIO).getCount());
+    }
+
+    @Test
+    public void jdkClientGzipTest() throws Exception {
+        AppacitiveContextBase.setGzipEnabled(true, true);
+        final String[] received = new String[2];
+        String body = largeJson();
+        server.setGzipResponses(true);
+        server.respond("/batch", new StandInServer.Responder() {
+            @Override
+            public String respond(HttpExchange exchange, String requestBody) {
+                received[0] = exchange.getRequestHeaders().getFirst("Content-Encoding");
+                received[1] = requestBody;
+                return largeJson();
+            }
+        });
+        JdkAsyncHttp jdkHttp = new JdkAsyncHttp();
+        try {
+            Assert.assertEquals(body, jdkHttp.post(server.getBaseUrl() + "/batch", headers, body).get(10, TimeUnit.SECONDS));
+        } finally {
+            jdkHttp.close();
+        }
+        Assert.assertEquals("gzip", received[0]);
+        Assert.assertEquals(body, received[1]);
+        Assert.assertEquals(1, APMetrics.get(Gzip.REQUEST_RATIO).getCount());
+        Assert.assertEquals(1, APMetrics.get(Gzip.RESPONSE_RATIO).getCount());
+    }
+}
@@ -0,0 +1,73 @@
+package com.appacitive.java;
+
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.server.*;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local stand-in server that speaks cleartext HTTP/2 as well as HTTP/1.1, answering every request
+ * with the same body. Remembers the client ports it was called from, to tell how many connections were used.
+ */
+public class H2cStandInServer {
+
+    private final Server server;
+
+    private final ServerConnector connector;
+
+    private final Set<Integer> remotePorts = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+
+    private volatile long delayInMs = 0;
+
+    public H2cStandInServer(final String body) throws Exception {
+        server = new Server();
+        HttpConfiguration configuration = new HttpConfiguration();
+        connector = new ServerConnector(server, new HttpConnectionFactory(configuration), new HTTP2CServerConnectionFactory(configuration));
+        connector.setHost("127.0.0.1");
+        connector.setPort(0);
+        server.addConnector(connector);
+        server.setHandler(new AbstractHandler() {
+            @Override
+            public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response) throws IOException {
+                remotePorts.add(request.getRemotePort());
+                if (delayInMs > 0) {
+                    try {
+                        Thread.sleep(delayInMs);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                response.setContentType("application/json");
+                response.getOutputStream().write(body.getBytes("UTF-8"));
+                baseRequest.setHandled(true);
+            }
+        });
+        server.start();
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + connector.getLocalPort();
+    }
+
+    public void setDelayInMs(long delayInMs) {
+        this.delayInMs = delayInMs;
+    }
+
+    public int getConnectionCount() {
+        return remotePorts.size();
+    }
+
+    public void resetConnectionCount() {
+        remotePorts.clear();
+    }
+
+    public void stop() throws Exception {
+        server.stop();
+    }
+}
@@ -0,0 +1,106 @@
+package com.appacitive.java;
+
+import com.appacitive.core.AppacitiveContextBase;
+import com.appacitive.core.AppacitiveObject;
+import com.appacitive.core.infra.APMetrics;
+import com.appacitive.core.infra.HedgePolicy;
+import com.appacitive.core.model.Environment;
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by sathley.
+ */
+public class HedgingTest {
+
+    private static StandInServer server;
+
+    private static String originalBaseUrl;
+
+    private final AtomicInteger slowLeft = new AtomicInteger();
+
+    @BeforeClass
+    public static void oneTimeSetUp() throws Exception {
+        server = new StandInServer();
+        originalBaseUrl = AppacitiveContextBase.baseUrl;
+        AppacitiveContextBase.initialize(Keys.masterKey, Environment.sandbox, new JavaPlatform());
+        AppacitiveContextBase.setBaseUrl(server.getBaseUrl());
+    }
+
+    @AfterClass
+    public static void oneTimeTearDown() {
+        AppacitiveContextBase.setBaseUrl(originalBaseUrl);
+        server.stop();
+    }
+
+    @Before
+    public void beforeTest() {
+        server.reset();
+        APMetrics.reset();
+        server.respond("/object/player", new StandInServer.Responder() {
+            @Override
+            public String respond(HttpExchange exchange, String requestBody) throws IOException {
+                if (slowLeft.getAndDecrement() > 0) {
+                    try {
+                        Thread.sleep(1500);
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                }
+                return "{\"object\":{\"__id\":\"1\",\"__type\":\"player\",\"__revision\":\"1\"},\"status\":{\"code\":\"200\"}}";
+            }
+        });
+    }
+
+    @After
+    public void afterTest() {
+        AppacitiveContextBase.setHedgePolicy(null);
+    }
+
+    @Test
+    public void slowGetIsHedgedTest() throws Exception {
+        AppacitiveContextBase.setHedgePolicy(new HedgePolicy(95, 100, TimeUnit.MILLISECONDS));
+        slowLeft.set(1);
+        long start = System.nanoTime();
+        Assert.assertEquals(1, AppacitiveObject.getAsync("player", 1, null).get(10, TimeUnit.SECONDS).getId());
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        Assert.assertEquals(2, server.getRequestCount());
+        Assert.assertEquals(1, APMetrics.get(HedgePolicy.HEDGES).getCount());
+        Assert.assertEquals(1, APMetrics.get(HedgePolicy.WINS).getCount());
+    }
+
+    @Test
+    public void fastGetIsNotHedgedTest() throws Exception {
+        AppacitiveContextBase.setHedgePolicy(new HedgePolicy(95, 500, TimeUnit.MILLISECONDS));
+        for (int i = 0; i < 5; i++)
+            AppacitiveObject.getAsync("player", 1, null).get(10, TimeUnit.SECONDS);
+        Thread.sleep(600);
+        Assert.assertEquals(5, server.getRequestCount());
+        Assert.assertEquals(0, APMetrics.get(HedgePolicy.HEDGES).getCount());
+    }
+
+    @Test
+    public void budgetCapsHedgesTest() throws Exception {
+        AppacitiveContextBase.setHedgePolicy(new HedgePolicy(95, 100, TimeUnit.MILLISECONDS).setBudget(0, 0));
+        slowLeft.set(1);
+        AppacitiveObject.getAsync("player", 1, null).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void delayFollowsPrimaryWhenHedgeWinsTest() throws Exception {
+        HedgePolicy policy = new HedgePolicy(50, 100, TimeUnit.MILLISECONDS).setBudget(1, 100);
+        AppacitiveContextBase.setHedgePolicy(policy);
+        for (int i = 0; i < 20; i++) {
+            slowLeft.set(1);
+            AppacitiveObject.getAsync("player", 1, null).get(10, TimeUnit.SECONDS);
+        }
+        Assert.assertEquals(20, APMetrics.get(HedgePolicy.WINS).getCount());
+        //  Learning from the winning hedges would have brought the delay down to their few milliseconds.
+        Assert.assertTrue(policy.getDelay("object", TimeUnit.MILLISECONDS) >= 100);
+    }
+}
@@ -0,0 +1,274 @@
+package com.appacitive.java;
+
+import com.appacitive.core.AppacitiveContextBase;
+import com.appacitive.core.infra.APCallback;
+import com.appacitive.core.infra.APContainer;
+import com.appacitive.core.infra.APDispatcher;
+import com.appacitive.core.infra.APFuture;
+import com.appacitive.core.infra.APMetrics;
+import com.appacitive.core.infra.DeadlineAsyncHttp;
+import com.appacitive.core.interfaces.AsyncHttp;
+import com.appacitive.core.model.Environment;
+import com.ning.http.client.AsyncHttpClient;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.*;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Created by sathley.
+ */
+public class JavaAsyncHttpTest {
+
+    private static HttpServer server;
+
+    private static String baseUrl;
+
+    private static final Set<Integer> remotePorts = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+
+    @BeforeClass
+    public static void oneTimeSetUp() throws IOException {
+        AppacitiveContext.initialize(Keys.masterKey, Environment.sandbox);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                remotePorts.add(exchange.getRemoteAddress().getPort());
+                if (exchange.getRequestURI().getPath().startsWith("/slow")) {
+                    try {
+                        Thread.sleep(2000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                byte[] body = "{\"status\":{\"code\":\"200\"}}".getBytes("UTF-8");
+                exchange.sendResponseHeaders(200, body.length);
+                OutputStream os = exchange.getResponseBody();
+                os.write(body);
+                os.close();
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterClass
+    public static void oneTimeTearDown() {
+        server.stop(0);
+    }
+
+    @Before
+    public void beforeTest() {
+        remotePorts.clear();
+    }
+
+    private void getAndWait(AsyncHttp asyncHttp) throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        asyncHttp.get(baseUrl + "/object/test/1", new HashMap<String, String>(), new APCallback() {
+            @Override
+            public void success(String result) {
+                latch.countDown();
+            }
+
+            @Override
+            public void failure(Exception e) {
+                latch.countDown();
+            }
+        });
+        Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void sequentialRequestsReuseConnectionTest() throws InterruptedException {
+        JavaAsyncHttp asyncHttp = new JavaAsyncHttp(new ConnectionPoolSettings().withMaxConnectionsPerHost(4));
+        try {
+            for (int i = 0; i < 20; i++)
+                getAndWait(asyncHttp);
+            Assert.assertEquals(1, remotePorts.size());
+        } finally {
+            asyncHttp.close();
+        }
+    }
+
+    @Test
+    public void contextSharesOneClientTest() {
+        AppacitiveContext.initialize(Keys.masterKey, Environment.sandbox, new ConnectionPoolSettings());
+        AsyncHttp first = APContainer.build(AsyncHttp.class);
+        AsyncHttp second = APContainer.build(AsyncHttp.class);
+        Assert.assertSame(first, second);
+
+        AppacitiveContextBase.close();
+        Assert.assertTrue(((JavaAsyncHttp) ((DeadlineAsyncHttp) first).getDelegate()).isClosed());
+        Assert.assertFalse(AppacitiveContextBase.isInitialized());
+    }
+
+    @Test
+    public void sslSessionCacheLeavesDefaultContextAloneTest() throws Exception {
+        SSLContext defaultContext = SSLContext.getDefault();
+        int size = defaultContext.getClientSessionContext().getSessionCacheSize();
+        int timeout = defaultContext.getClientSessionContext().getSessionTimeout();
+
+        SSLContext sslContext = new ConnectionPoolSettings().withSslSessionCacheSize(size + 7)
+                .withSslSessionTimeoutInSeconds(timeout + 7).toConfigBuilder().build().getSSLContext();
+        Assert.assertNotSame(defaultContext, sslContext);
+        Assert.assertEquals(size + 7, sslContext.getClientSessionContext().getSessionCacheSize());
+        Assert.assertEquals(size, defaultContext.getClientSessionContext().getSessionCacheSize());
+        Assert.assertEquals(timeout, defaultContext.getClientSessionContext().getSessionTimeout());
+    }
+
+    @Test
+    public void futureGetTest() throws Exception {
+        JavaAsyncHttp asyncHttp = new JavaAsyncHttp();
+        try {
+            List<APFuture<String>> futures = new ArrayList<APFuture<String>>();
+            for (int i = 0; i < 10; i++)
+                futures.add(asyncHttp.get(baseUrl + "/object/test/" + i, new HashMap<String, String>()));
+            List<String> results = APFuture.allOf(futures).get(10, TimeUnit.SECONDS);
+            Assert.assertEquals(10, results.size());
+            for (String result : results)
+                Assert.assertEquals("{\"status\":{\"code\":\"200\"}}", result);
+        } finally {
+            asyncHttp.close();
+        }
+    }
+
+    @Test
+    public void futureTimeoutTest() throws Exception {
+        JavaAsyncHttp asyncHttp = new JavaAsyncHttp();
+        try {
+            APFuture<String> future = asyncHttp.get(baseUrl + "/slow", new HashMap<String, String>()).withTimeout(100, TimeUnit.MILLISECONDS);
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                Assert.fail("Expected the request to time out.");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof TimeoutException);
+            }
+        } finally {
+            asyncHttp.close();
+        }
+    }
+
+    @Test
+    public void slowCallbackDoesNotHoldUpOtherResponsesTest() throws Exception {
+        JavaAsyncHttp asyncHttp = new JavaAsyncHttp(new AsyncHttpClient(), 2);
+        final CountDownLatch release = new CountDownLatch(1);
+        try {
+            asyncHttp.get(baseUrl + "/object/test/1", new HashMap<String, String>(), new APCallback() {
+                @Override
+                public void success(String result) {
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            final List<String> threads = Collections.synchronizedList(new ArrayList<String>());
+            final CountDownLatch done = new CountDownLatch(1);
+            asyncHttp.get(baseUrl + "/object/test/2", new HashMap<String, String>(), new APCallback() {
+                @Override
+                public void success(String result) {
+                    threads.add(Thread.currentThread().getName());
+                    done.countDown();
+                }
+            });
+            Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+            Assert.assertTrue(threads.get(0).startsWith("appacitive-response"));
+        } finally {
+            release.countDown();
+            asyncHttp.close();
+        }
+    }
+
+    @Test
+    public void callbackExecutorTest() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                return new Thread(runnable, "caller-executor");
+            }
+        });
+        AppacitiveContextBase.setCallbackExecutor(executor);
+        APMetrics.reset();
+        JavaAsyncHttp asyncHttp = new JavaAsyncHttp();
+        try {
+            final String[] thread = new String[1];
+            final CountDownLatch done = new CountDownLatch(1);
+            asyncHttp.get(baseUrl + "/object/test/1", new HashMap<String, String>(), new APCallback() {
+                @Override
+                public void success(String result) {
+                    thread[0] = Thread.currentThread().getName();
+                    done.countDown();
+                }
+            });
+            Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+            Assert.assertEquals("caller-executor", thread[0]);
+            Assert.assertEquals(1, APMetrics.get(APDispatcher.QUEUE_WAIT).getCount());
+        } finally {
+            AppacitiveContextBase.setCallbackExecutor(null);
+            asyncHttp.close();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void rejectedCallbackGoesToWorkersTest() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.shutdown();
+        AppacitiveContextBase.setCallbackExecutor(executor);
+        JavaAsyncHttp asyncHttp = new JavaAsyncHttp();
+        try {
+            final String[] thread = new String[1];
+            final CountDownLatch done = new CountDownLatch(1);
+            asyncHttp.get(baseUrl + "/object/test/1", new HashMap<String, String>(), new APCallback() {
+                @Override
+                public void success(String result) {
+                    thread[0] = Thread.currentThread().getName();
+                    done.countDown();
+                }
+            });
+            Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+            Assert.assertTrue(thread[0].startsWith("appacitive-response"));
+        } finally {
+            AppacitiveContextBase.setCallbackExecutor(null);
+            asyncHttp.close();
+        }
+    }
+
+    @Test
+    public void rejectedCallbackFailsTest() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.shutdown();
+        AppacitiveContextBase.setCallbackExecutor(executor);
+        JavaAsyncHttp asyncHttp = new JavaAsyncHttp(new AsyncHttpClient(), 0);
+        try {
+            final Exception[] failure = new Exception[1];
+            final CountDownLatch done = new CountDownLatch(1);
+            asyncHttp.get(baseUrl + "/object/test/1", new HashMap<String, String>(), new APCallback() {
+                @Override
+                public void success(String result) {
+                    done.countDown();
+                }
+
+                @Override
+                public void failure(Exception e) {
+                    failure[0] = e;
+                    done.countDown();
+                }
+            });
+            Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+            Assert.assertTrue(failure[0] instanceof RejectedExecutionException);
+        } finally {
+            AppacitiveContextBase.setCallbackExecutor(null);
+            asyncHttp.close();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.appacitive.java;
+
+import com.appacitive.core.AppacitiveContextBase;
+import com.appacitive.core.AppacitiveObject;
+import com.appacitive.core.exceptions.AppacitiveException;
+import com.appacitive.core.infra.APContainer;
+import com.appacitive.core.interfaces.Http;
+import com.appacitive.core.model.Environment;
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.*;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Created by sathley.
+ */
+public class JavaHttpTest {
+
+    private static StandInServer server;
+
+    private static String originalBaseUrl;
+
+    @BeforeClass
+    public static void oneTimeSetUp() throws Exception {
+        server = new StandInServer();
+        originalBaseUrl = AppacitiveContextBase.baseUrl;
+        AppacitiveContextBase.initialize(Keys.masterKey, Environment.sandbox, new JavaPlatform());
+        AppacitiveContextBase.setBaseUrl(server.getBaseUrl());
+    }
+
+    @AfterClass
+    public static void oneTimeTearDown() {
+        AppacitiveContextBase.setBaseUrl(originalBaseUrl);
+        server.stop();
+    }
+
+    @Before
+    public void beforeTest() {
+        server.reset();
+    }
+
+    @Test
+    public void getTest() throws Exception {
+        server.respond("/object/player/1", "{\"object\":{\"__id\":\"1\",\"tags\":[\"a\",\"b\"]},\"status\":{\"code\":\"200\"}}");
+        Http http = APContainer.build(Http.class);
+        Map<String, Object> response = http.get(server.getBaseUrl() + "/object/player/1", new HashMap<String, String>());
+        Map<String, Object> object = (Map<String, Object>) response.get("object");
+        Assert.assertEquals("1", object.get("__id"));
+        Assert.assertEquals(Arrays.asList("a", "b"), object.get("tags"));
+    }
+
+    @Test
+    public void postSendsJsonPayloadTest() throws Exception {
+        server.respond("/echo", new StandInServer.Responder() {
+            @Override
+            public String respond(HttpExchange exchange, String requestBody) {
+                return "{\"echo\":" + requestBody + "}";
+            }
+        });
+        Map<String, Object> payload = new HashMap<String, Object>();
+        payload.put("name", "x");
+        payload.put("scores", Arrays.asList(1, 2));
+        Map<String, Object> response = APContainer.<Http>build(Http.class).post(server.getBaseUrl() + "/echo", new HashMap<String, String>(), payload);
+        Assert.assertEquals(payload, response.get("echo"));
+    }
+
+    @Test(expected = IOException.class)
+    public void nonJsonResponseTest() throws Exception {
+        server.respond("/html", "<html></html>");
+        APContainer.<Http>build(Http.class).get(server.getBaseUrl() + "/html", new HashMap<String, String>());
+    }
+
+    @Test
+    public void concurrentBlockingCallersTest() throws Exception {
+        server.respond("/object/player/", "{\"status\":{\"code\":\"200\"}}");
+        server.setDelayInMs(20);
+        final Http http = APContainer.build(Http.class);
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        List<Future<Map<String, Object>>> results = new ArrayList<Future<Map<String, Object>>>();
+        for (int i = 0; i < 64; i++) {
+            final String url = server.getBaseUrl() + "/object/player/" + i;
+            results.add(executor.submit(new Callable<Map<String, Object>>() {
+                @Override
+                public Map<String, Object> call() throws Exception {
+                    return http.get(url, new HashMap<String, String>());
+                }
+            }));
+        }
+        for (Future<Map<String, Object>> result : results)
+            Assert.assertNotNull(result.get(10, TimeUnit.SECONDS).get("status"));
+        executor.shutdown();
+        Assert.assertEquals(64, server.getRequestCount());
+    }
+
+    @Test
+    public void blockingEntityApiTest() {
+        server.respond("/object/player/5", "{\"object\":{\"__id\":\"5\",\"__type\":\"player\",\"name\":\"five\"},\"status\":{\"code\":\"200\"}}");
+        server.respond("/object/player/6", "{\"status\":{\"code\":\"404\",\"message\":\"Object not found.\"}}");
+        AppacitiveObject object = AppacitiveObject.getAsync("player", 5, null).await();
+        Assert.assertEquals("five", object.getPropertyAsString("name"));
+        try {
+            AppacitiveObject.getAsync("player", 6, null).await();
+            Assert.fail();
+        } catch (AppacitiveException e) {
+            Assert.assertEquals("404", e.getCode());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.appacitive.java;
+
+import com.appacitive.core.AppacitiveContextBase;
+import com.appacitive.core.infra.APCallback;
+import com.appacitive.core.infra.APFuture;
+import com.appacitive.core.model.Environment;
+import org.junit.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.jayway.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.notNullValue;
+
+/**
+ * Created by sathley.
+ */
+public class JdkAsyncHttpTest {
+
+    private static H2cStandInServer server;
+
+    private final Map<String, String> headers = new HashMap<String, String>();
+
+    @BeforeClass
+    public static void oneTimeSetUp() throws Exception {
+        AppacitiveContextBase.initialize(Keys.masterKey, Environment.sandbox, new JdkHttpPlatform());
+        server = new H2cStandInServer("{\"status\":{\"code\":\"200\"}}");
+    }
+
+    @AfterClass
+    public static void oneTimeTearDown() throws Exception {
+        server.stop();
+    }
+
+    @Before
+    public void beforeTest() {
+        server.resetConnectionCount();
+        server.setDelayInMs(0);
+    }
+
+    @Test
+    public void callbackTest() {
+        final AtomicReference<String> response = new AtomicReference<String>();
+        new JdkAsyncHttp().get(server.getBaseUrl() + "/object/player/1", headers, new APCallback() {
+            @Override
+            public void success(String result) {
+                response.set(result);
+            }
+
+            @Override
+            public void failure(Exception e) {
+                response.set(e.getMessage());
+            }
+        });
+        await().atMost(10, TimeUnit.SECONDS).untilAtomic(response, notNullValue());
+        Assert.assertEquals("{\"status\":{\"code\":\"200\"}}", response.get());
+    }
+
+    @Test
+    public void callbackRunsOnResponseThreadTest() {
+        final AtomicReference<String> thread = new AtomicReference<String>();
+        JdkAsyncHttp http = new JdkAsyncHttp();
+        http.get(server.getBaseUrl() + "/object/player/1", headers, new APCallback() {
+            @Override
+            public void success(String result) {
+                thread.set(Thread.currentThread().getName());
+            }
+
+            @Override
+            public void failure(Exception e) {
+                thread.set(e.getMessage());
+            }
+        });
+        await().atMost(10, TimeUnit.SECONDS).untilAtomic(thread, notNullValue());
+        Assert.assertTrue(thread.get().startsWith("appacitive-response"));
+        http.close();
+    }
+
+    @Test
+    public void concurrentRequestsShareOneConnectionTest() throws Exception {
+        JdkAsyncHttp http = new JdkAsyncHttp();
+        //  The first request upgrades the connection to HTTP/2, later ones are multiplexed over it.
+        http.get(server.getBaseUrl() + "/object/player/0", headers).get(10, TimeUnit.SECONDS);
+        server.setDelayInMs(200);
+        List<APFuture<String>> futures = new ArrayList<APFuture<String>>();
+        for (int i = 1; i <= 50; i++)
+            futures.add(http.get(server.getBaseUrl() + "/object/player/" + i, headers));
+        Assert.assertEquals(50, APFuture.allOf(futures).get(10, TimeUnit.SECONDS).size());
+        Assert.assertEquals(1, server.getConnectionCount());
+    }
+
+    @Test
+    public void ningClientOpensConnectionPerConcurrentRequestTest() throws Exception {
+        JavaAsyncHttp http = new JavaAsyncHttp();
+        try {
+            server.setDelayInMs(200);
+            List<APFuture<String>> futures = new ArrayList<APFuture<String>>();
+            for (int i = 1; i <= 10; i++)
+                futures.add(http.get(server.getBaseUrl() + "/object/player/" + i, headers));
+            APFuture.allOf(futures).get(10, TimeUnit.SECONDS);
+            Assert.assertEquals(10, server.getConnectionCount());
+        } finally {
+            http.close();
+        }
+    }
+
+    @Test
+    public void closeReleasesClientTest() {
+        JdkAsyncHttp http = new JdkAsyncHttp();
+        http.close();
+        ExecutorService executor = (ExecutorService) http.getClient().executor().get();
+        Assert.assertTrue(executor.isShutdown());
+    }
+}
@@ -0,0 +1,152 @@
+package com.appacitive.java;
+
+import com.appacitive.core.AppacitiveConnection;
+import com.appacitive.core.AppacitiveContextBase;
+import com.appacitive.core.AppacitiveObject;
+import com.appacitive.core.AppacitiveQueryCache;
+import com.appacitive.core.infra.APFuture;
+import com.appacitive.core.infra.Url;
+import com.appacitive.core.model.Environment;
+import com.appacitive.core.model.PagedList;
+import com.appacitive.core.query.AppacitiveQuery;
+import org.junit.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by sathley.
+ */
+public class QueryCacheTest {
+
+    private static StandInServer server;
+
+    private static String originalBaseUrl;
+
+    private AppacitiveQueryCache cache;
+
+    @BeforeClass
+    public static void oneTimeSetUp() throws Exception {
+        server = new StandInServer();
+        originalBaseUrl = AppacitiveContextBase.baseUrl;
+        AppacitiveContextBase.initialize(Keys.masterKey, Environment.sandbox, new JavaPlatform());
+        AppacitiveContextBase.setBaseUrl(server.getBaseUrl());
+    }
+
+    @AfterClass
+    public static void oneTimeTearDown() {
+        AppacitiveContextBase.setBaseUrl(originalBaseUrl);
+        server.stop();
+    }
+
+    @Before
+    public void beforeTest() {
+        server.reset();
+        cache = new AppacitiveQueryCache(100, 1, TimeUnit.MINUTES);
+        AppacitiveContextBase.setQueryCache(cache);
+    }
+
+    @After
+    public void afterTest() {
+        AppacitiveContextBase.setQueryCache(null);
+    }
+
+    private static String findResponse(String name) {
+        return "{\"objects\":[{\"__id\":\"1\",\"__type\":\"player\",\"__revision\":\"1\",\"name\":\"" + name + "\"}]," +
+                "\"paginginfo\":{\"pagenumber\":1,\"pagesize\":20,\"totalrecords\":1},\"status\":{\"code\":\"200\"}}";
+    }
+
+    private static AppacitiveQuery query() {
+        AppacitiveQuery query = new AppacitiveQuery();
+        query.pageNumber = 1;
+        query.pageSize = 20;
+        query.orderBy = "name";
+        return query;
+    }
+
+    @Test
+    public void findIsCachedTest() throws Exception {
+        server.respond("/object/player/find/all", findResponse("one"));
+        AppacitiveObject.findAsync("player", query(), null).get(10, TimeUnit.SECONDS);
+        PagedList<AppacitiveObject> second = AppacitiveObject.findAsync("player", query(), null).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(1, server.getRequestCount("/object/player/find/all"));
+        Assert.assertEquals("one", second.results.get(0).getPropertyAsString("name"));
+        Assert.assertEquals(1, second.pagingInfo.totalRecords);
+        Assert.assertEquals(1, cache.getHitCount());
+
+        //  Another page is another entry.
+        AppacitiveQuery nextPage = query();
+        nextPage.pageNumber = 2;
+        AppacitiveObject.findAsync("player", nextPage, null).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(2, server.getRequestCount("/object/player/find/all"));
+    }
+
+    @Test
+    public void writeInvalidatesTypeTest() throws Exception {
+        server.respond("/object/player/find/all", findResponse("one"));
+        server.respond("/connection/friend/find/all", "{\"connections\":[],\"status\":{\"code\":\"200\"}}");
+        server.respond("/object/player", "{\"object\":{\"__id\":\"2\",\"__type\":\"player\",\"__revision\":\"1\"},\"status\":{\"code\":\"200\"}}");
+        AppacitiveObject.findAsync("player", query(), null).get(10, TimeUnit.SECONDS);
+        AppacitiveConnection.findAsync("friend", query(), null).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(2, cache.size());
+
+        new AppacitiveObject("player").createAsync().get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(1, cache.size());
+        AppacitiveObject.findAsync("player", query(), null).get(10, TimeUnit.SECONDS);
+        AppacitiveConnection.findAsync("friend", query(), null).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(2, server.getRequestCount("/object/player/find/all"));
+        Assert.assertEquals(1, server.getRequestCount("/connection/friend/find/all"));
+    }
+
+    @Test
+    public void deleteWithConnectionsInvalidatesEveryRelationTest() throws Exception {
+        server.respond("/connection/friend/find/all", "{\"connections\":[],\"status\":{\"code\":\"200\"}}");
+        server.respond("/connection/follows/find/all", "{\"connections\":[],\"status\":{\"code\":\"200\"}}");
+        server.respond("/object/player/4", "{\"status\":{\"code\":\"200\"}}");
+        AppacitiveConnection.findAsync("friend", query(), null).get(10, TimeUnit.SECONDS);
+        AppacitiveConnection.findAsync("follows", query(), null).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(2, cache.size());
+
+        AppacitiveObject.deleteAsync("player", 4, false).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(2, cache.size());
+        AppacitiveObject.deleteAsync("player", 4, true).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void findInFlightDuringWriteIsNotStoredTest() throws Exception {
+        server.respond("/object/player/find/all", findResponse("old"));
+        server.setDelayInMs(300);
+        APFuture<PagedList<AppacitiveObject>> find = AppacitiveObject.findAsync("player", query(), null);
+        cache.invalidate("player");
+        find.get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void timeToLivePerTypeTest() throws Exception {
+        cache.setTimeToLive("player", 50, TimeUnit.MILLISECONDS);
+        server.respond("/object/player/find/all", findResponse("one"));
+        AppacitiveObject.findAsync("player", query(), null).get(10, TimeUnit.SECONDS);
+        Thread.sleep(100);
+        AppacitiveObject.findAsync("player", query(), null).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(2, server.getRequestCount("/object/player/find/all"));
+        Assert.assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    public void canonicalUrlTest() {
+        Map<String, String> first = new LinkedHashMap<String, String>();
+        first.put("pSize", "20");
+        first.put("orderBy", "name");
+        Map<String, String> second = new LinkedHashMap<String, String>();
+        second.put("orderBy", "name");
+        second.put("pSize", "20");
+        Url a = new Url("http://host", "object", "player/find/all", first);
+        Url b = new Url("http://host", "object", "player/find/all", second);
+        Assert.assertNotEquals(a.toString(), b.toString());
+        Assert.assertEquals(a.toCanonicalString(), b.toCanonicalString());
+        Assert.assertEquals("http://host/object/player/find/all?orderBy=name&pSize=20", a.toCanonicalString());
+    }
+}
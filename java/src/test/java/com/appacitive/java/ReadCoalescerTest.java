@@ -0,0 +1,137 @@
+package com.appacitive.java;
+
+import com.appacitive.core.AppacitiveConnection;
+import com.appacitive.core.AppacitiveContextBase;
+import com.appacitive.core.AppacitiveObject;
+import com.appacitive.core.AppacitiveReadCoalescer;
+import com.appacitive.core.exceptions.AppacitiveException;
+import com.appacitive.core.exceptions.RequestTimeoutException;
+import com.appacitive.core.infra.APCall;
+import com.appacitive.core.infra.APFuture;
+import com.appacitive.core.model.Environment;
+import org.junit.*;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by sathley.
+ */
+public class ReadCoalescerTest {
+
+    private static StandInServer server;
+
+    private static String originalBaseUrl;
+
+    @BeforeClass
+    public static void oneTimeSetUp() throws Exception {
+        server = new StandInServer();
+        originalBaseUrl = AppacitiveContextBase.baseUrl;
+        AppacitiveContextBase.initialize(Keys.masterKey, Environment.sandbox, new JavaPlatform());
+        AppacitiveContextBase.setBaseUrl(server.getBaseUrl());
+    }
+
+    @AfterClass
+    public static void oneTimeTearDown() {
+        AppacitiveContextBase.setBaseUrl(originalBaseUrl);
+        server.stop();
+    }
+
+    @Before
+    public void beforeTest() {
+        server.reset();
+        AppacitiveContextBase.setReadCoalescer(new AppacitiveReadCoalescer(50, TimeUnit.MILLISECONDS, 100));
+    }
+
+    @After
+    public void afterTest() {
+        AppacitiveContextBase.setReadCoalescer(null);
+    }
+
+    private static String objectJson(long id) {
+        return "{\"__id\":\"" + id + "\",\"__type\":\"player\",\"__revision\":\"1\",\"name\":\"p" + id + "\"}";
+    }
+
+    @Test
+    public void getsShareOneMultiGetTest() throws Exception {
+        server.respond("/object/player/multiget/1,2,3", "{\"objects\":[" + objectJson(3) + "," + objectJson(1) + "," + objectJson(2) + "],\"status\":{\"code\":\"200\"}}");
+        APFuture<AppacitiveObject> one = AppacitiveObject.getAsync("player", 1, null);
+        APFuture<AppacitiveObject> two = AppacitiveObject.getAsync("player", 2, null);
+        APFuture<AppacitiveObject> three = AppacitiveObject.getAsync("player", 3, null);
+        APFuture<AppacitiveObject> twoAgain = AppacitiveObject.getAsync("player", 2, null);
+        Assert.assertEquals("p1", one.get(10, TimeUnit.SECONDS).getPropertyAsString("name"));
+        Assert.assertEquals("p2", two.get(10, TimeUnit.SECONDS).getPropertyAsString("name"));
+        Assert.assertEquals("p3", three.get(10, TimeUnit.SECONDS).getPropertyAsString("name"));
+        Assert.assertEquals(2, twoAgain.get(10, TimeUnit.SECONDS).getId());
+        Assert.assertNotSame(two.get(), twoAgain.get());
+        Assert.assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void missingIdFailsTest() throws Exception {
+        server.respond("/object/player/multiget/4,5", "{\"objects\":[" + objectJson(4) + "],\"status\":{\"code\":\"200\"}}");
+        APFuture<AppacitiveObject> found = AppacitiveObject.getAsync("player", 4, null);
+        APFuture<AppacitiveObject> missing = AppacitiveObject.getAsync("player", 5, null);
+        Assert.assertEquals(4, found.get(10, TimeUnit.SECONDS).getId());
+        try {
+            missing.get(10, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertEquals("404", ((AppacitiveException) e.getCause()).getCode());
+        }
+    }
+
+    @Test
+    public void singleLookupUsesGetTest() throws Exception {
+        server.respond("/connection/friend/9", "{\"connection\":{\"__id\":\"9\",\"__relationtype\":\"friend\",\"__revision\":\"1\"},\"status\":{\"code\":\"200\"}}");
+        Assert.assertEquals(9, AppacitiveConnection.getAsync("friend", 9, null).get(10, TimeUnit.SECONDS).getId());
+        Assert.assertEquals(1, server.getRequestCount("/connection/friend/9"));
+    }
+
+    @Test
+    public void fullBatchIsSentRightAwayTest() throws Exception {
+        AppacitiveContextBase.setReadCoalescer(new AppacitiveReadCoalescer(1, TimeUnit.MINUTES, 2));
+        server.respond("/object/player/multiget/6,7", "{\"objects\":[" + objectJson(6) + "," + objectJson(7) + "],\"status\":{\"code\":\"200\"}}");
+        APFuture<AppacitiveObject> six = AppacitiveObject.getAsync("player", 6, null);
+        APFuture<AppacitiveObject> seven = AppacitiveObject.getAsync("player", 7, null);
+        Assert.assertEquals(6, six.get(10, TimeUnit.SECONDS).getId());
+        Assert.assertEquals(7, seven.get(10, TimeUnit.SECONDS).getId());
+    }
+
+    @Test
+    public void cancelledLookupLeavesBatchTest() throws Exception {
+        server.respond("/object/player/multiget/10,12", "{\"objects\":[" + objectJson(10) + "," + objectJson(12) + "],\"status\":{\"code\":\"200\"}}");
+        APFuture<AppacitiveObject> ten = AppacitiveObject.getAsync("player", 10, null);
+        APFuture<AppacitiveObject> eleven = AppacitiveObject.getAsync("player", 11, null);
+        APFuture<AppacitiveObject> twelve = AppacitiveObject.getAsync("player", 12, null);
+        eleven.cancel(true);
+        try {
+            eleven.get(10, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (CancellationException e) {
+        }
+        Assert.assertEquals(10, ten.get(10, TimeUnit.SECONDS).getId());
+        Assert.assertEquals(12, twelve.get(10, TimeUnit.SECONDS).getId());
+        Assert.assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void callDeadlineFailsLookupTest() throws Exception {
+        AppacitiveContextBase.setReadCoalescer(new AppacitiveReadCoalescer(1, TimeUnit.MINUTES, 100));
+        APFuture<AppacitiveObject> future;
+        APCall call = APCall.begin(100, TimeUnit.MILLISECONDS);
+        try {
+            future = AppacitiveObject.getAsync("player", 13, null);
+        } finally {
+            call.end();
+        }
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof RequestTimeoutException);
+        }
+        Assert.assertEquals(0, server.getRequestCount());
+    }
+}
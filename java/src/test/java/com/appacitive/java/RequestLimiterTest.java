@@ -0,0 +1,186 @@
+package com.appacitive.java;
+
+import com.appacitive.core.AppacitiveConnection;
+import com.appacitive.core.AppacitiveContextBase;
+import com.appacitive.core.AppacitiveObject;
+import com.appacitive.core.exceptions.RequestRejectedException;
+import com.appacitive.core.infra.APCallback;
+import com.appacitive.core.infra.APFuture;
+import com.appacitive.core.infra.LimitedAsyncHttp;
+import com.appacitive.core.infra.RequestLimiter;
+import com.appacitive.core.interfaces.AsyncHttp;
+import com.appacitive.core.model.Environment;
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.*;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by sathley.
+ */
+public class RequestLimiterTest {
+
+    private static StandInServer server;
+
+    private static String originalBaseUrl;
+
+    private final AtomicInteger running = new AtomicInteger();
+
+    private final AtomicInteger mostRunning = new AtomicInteger();
+
+    @BeforeClass
+    public static void oneTimeSetUp() throws Exception {
+        server = new StandInServer();
+        originalBaseUrl = AppacitiveContextBase.baseUrl;
+        AppacitiveContextBase.initialize(Keys.masterKey, Environment.sandbox, new JavaPlatform());
+        AppacitiveContextBase.setBaseUrl(server.getBaseUrl());
+    }
+
+    @AfterClass
+    public static void oneTimeTearDown() {
+        AppacitiveContextBase.setBaseUrl(originalBaseUrl);
+        server.stop();
+    }
+
+    @Before
+    public void beforeTest() {
+        server.reset();
+        server.respond("/object/player/", counting("{\"object\":{\"__id\":\"1\",\"__type\":\"player\",\"__revision\":\"1\"},\"status\":{\"code\":\"200\"}}"));
+        server.respond("/connection/friend/", "{\"connection\":{\"__id\":\"2\",\"__relationtype\":\"friend\",\"__revision\":\"1\"},\"status\":{\"code\":\"200\"}}");
+    }
+
+    @After
+    public void afterTest() {
+        AppacitiveContextBase.setRequestLimiter(null);
+    }
+
+    //  Answers slowly and keeps track of how many requests were being answered at once.
+    private StandInServer.Responder counting(final String body) {
+        return new StandInServer.Responder() {
+            @Override
+            public String respond(HttpExchange exchange, String requestBody) {
+                int now = running.incrementAndGet();
+                while (true) {
+                    int most = mostRunning.get();
+                    if (now <= most || mostRunning.compareAndSet(most, now))
+                        break;
+                }
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                }
+                return body;
+            }
+        };
+    }
+
+    @Test
+    public void requestsBeyondTheLimitWaitTest() throws Exception {
+        RequestLimiter limiter = new RequestLimiter(2, 10, RequestLimiter.Overflow.REJECT);
+        AppacitiveContextBase.setRequestLimiter(limiter);
+        List<APFuture<AppacitiveObject>> futures = new ArrayList<APFuture<AppacitiveObject>>();
+        for (int i = 0; i < 6; i++)
+            futures.add(AppacitiveObject.getAsync("player", 1, null));
+        for (APFuture<AppacitiveObject> future : futures)
+            Assert.assertEquals(1, future.get(10, TimeUnit.SECONDS).getId());
+        Assert.assertEquals(6, server.getRequestCount());
+        Assert.assertEquals(2, mostRunning.get());
+        Assert.assertEquals(0, limiter.getQueueDepth());
+    }
+
+    @Test
+    public void fullQueueRejectsTest() throws Exception {
+        AppacitiveContextBase.setRequestLimiter(new RequestLimiter(1, 0, RequestLimiter.Overflow.REJECT));
+        APFuture<AppacitiveObject> first = AppacitiveObject.getAsync("player", 1, null);
+        APFuture<AppacitiveObject> second = AppacitiveObject.getAsync("player", 1, null);
+        try {
+            second.get(10, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof RequestRejectedException);
+        }
+        Assert.assertEquals(1, first.get(10, TimeUnit.SECONDS).getId());
+        Assert.assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void shedDropsTheOldestWaitingTest() throws Exception {
+        AppacitiveContextBase.setRequestLimiter(new RequestLimiter(1, 1, RequestLimiter.Overflow.SHED_OLDEST));
+        APFuture<AppacitiveObject> first = AppacitiveObject.getAsync("player", 1, null);
+        APFuture<AppacitiveObject> shed = AppacitiveObject.getAsync("player", 1, null);
+        APFuture<AppacitiveObject> last = AppacitiveObject.getAsync("player", 1, null);
+        try {
+            shed.get(10, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof RequestRejectedException);
+        }
+        Assert.assertEquals(1, first.get(10, TimeUnit.SECONDS).getId());
+        Assert.assertEquals(1, last.get(10, TimeUnit.SECONDS).getId());
+        Assert.assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void endpointLimitLeavesOtherEndpointsAloneTest() throws Exception {
+        AppacitiveContextBase.setRequestLimiter(new RequestLimiter(4, 10, RequestLimiter.Overflow.BLOCK).setEndpointLimit("object", 1));
+        APFuture<AppacitiveObject> first = AppacitiveObject.getAsync("player", 1, null);
+        APFuture<AppacitiveObject> second = AppacitiveObject.getAsync("player", 1, null);
+        APFuture<AppacitiveConnection> connection = AppacitiveConnection.getAsync("friend", 2, null);
+        Assert.assertEquals(2, connection.get(10, TimeUnit.SECONDS).getId());
+        Assert.assertFalse(second.isDone());
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(1, mostRunning.get());
+    }
+
+    @Test
+    public void failedOrDroppedDeliveryFreesTheSlotTest() throws Exception {
+        //  Stands in for a transport, keeping the callbacks it is given instead of sending anything.
+        final List<APCallback> sent = new ArrayList<APCallback>();
+        AsyncHttp transport = (AsyncHttp) Proxy.newProxyInstance(AsyncHttp.class.getClassLoader(), new Class<?>[]{AsyncHttp.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                sent.add((APCallback) args[args.length - 1]);
+                return null;
+            }
+        });
+        RequestLimiter limiter = new RequestLimiter(1, 10, RequestLimiter.Overflow.BLOCK);
+        LimitedAsyncHttp limited = new LimitedAsyncHttp(transport, limiter);
+        String url = server.getBaseUrl() + "/object/player/1";
+
+        limited.get(url, new HashMap<String, String>(), new APCallback() {
+            @Override
+            public Runnable prepare(Reader response) {
+                throw new IllegalStateException("unreadable");
+            }
+        });
+        try {
+            sent.get(0).prepare(new StringReader("{}"));
+            Assert.fail();
+        } catch (IllegalStateException e) {
+        }
+        Assert.assertEquals(0, limiter.getInFlight());
+
+        //  The delivery is prepared but never run, as when the callback executor rejects it.
+        limited.get(url, new HashMap<String, String>(), new APCallback() {
+        });
+        sent.get(1).prepare(new StringReader("{}"));
+        Assert.assertEquals(1, limiter.getInFlight());
+        sent.get(1).failure(new RejectedExecutionException());
+        Assert.assertEquals(0, limiter.getInFlight());
+    }
+}
@@ -0,0 +1,118 @@
+package com.appacitive.java;
+
+import com.appacitive.core.AppacitiveContextBase;
+import com.appacitive.core.AppacitiveObject;
+import com.appacitive.core.infra.APFuture;
+import com.appacitive.core.infra.RetryPolicy;
+import com.appacitive.core.model.Environment;
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.*;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by sathley.
+ */
+public class RetryTest {
+
+    private static StandInServer server;
+
+    private static String originalBaseUrl;
+
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+
+    @BeforeClass
+    public static void oneTimeSetUp() throws Exception {
+        server = new StandInServer();
+        originalBaseUrl = AppacitiveContextBase.baseUrl;
+        AppacitiveContextBase.initialize(Keys.masterKey, Environment.sandbox, new JavaPlatform());
+        AppacitiveContextBase.setBaseUrl(server.getBaseUrl());
+    }
+
+    @AfterClass
+    public static void oneTimeTearDown() {
+        AppacitiveContextBase.setBaseUrl(originalBaseUrl);
+        server.stop();
+    }
+
+    @Before
+    public void beforeTest() {
+        server.reset();
+        server.respond("/object/player", new StandInServer.Responder() {
+            @Override
+            public String respond(HttpExchange exchange, String requestBody) throws IOException {
+                //  Drops the connection without an answer.
+                if (failuresLeft.getAndDecrement() > 0)
+                    throw new IOException("Dropped.");
+                return "{\"object\":{\"__id\":\"1\",\"__type\":\"player\",\"__revision\":\"2\"},\"status\":{\"code\":\"200\"}}";
+            }
+        });
+        AppacitiveContextBase.setRetryPolicy(new RetryPolicy(3, 10, 50, TimeUnit.MILLISECONDS));
+    }
+
+    @After
+    public void afterTest() {
+        AppacitiveContextBase.setRetryPolicy(null);
+    }
+
+    @Test
+    public void getIsRetriedTest() throws Exception {
+        failuresLeft.set(2);
+        Assert.assertEquals(1, AppacitiveObject.getAsync("player", 1, null).get(10, TimeUnit.SECONDS).getId());
+        Assert.assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    public void giveUpAfterMaxAttemptsTest() throws Exception {
+        failuresLeft.set(5);
+        try {
+            AppacitiveObject.getAsync("player", 1, null).get(10, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertEquals(3, server.getRequestCount());
+        }
+    }
+
+    @Test
+    public void createIsNotRetriedTest() throws Exception {
+        failuresLeft.set(1);
+        AppacitiveObject object = new AppacitiveObject("player");
+        try {
+            object.createAsync().get(10, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertEquals(1, server.getRequestCount());
+        }
+    }
+
+    @Test
+    public void onlyRevisionGuardedUpdateIsRetriedTest() throws Exception {
+        AppacitiveObject object = AppacitiveObject.getAsync("player", 1, null).get(10, TimeUnit.SECONDS);
+        failuresLeft.set(1);
+        object.updateAsync(true).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(3, server.getRequestCount());
+
+        failuresLeft.set(1);
+        try {
+            object.updateAsync(false).get(10, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertEquals(4, server.getRequestCount());
+        }
+    }
+
+    @Test
+    public void emptyBudgetStopsRetriesTest() throws Exception {
+        AppacitiveContextBase.setRetryPolicy(new RetryPolicy(3, 10, 50, TimeUnit.MILLISECONDS).setBudget(0, 1));
+        failuresLeft.set(5);
+        try {
+            AppacitiveObject.getAsync("player", 1, null).get(10, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertEquals(2, server.getRequestCount());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.appacitive.java;
+
+import com.appacitive.core.AppacitiveContextBase;
+import com.appacitive.core.AppacitiveObject;
+import com.appacitive.core.infra.APContainer;
+import com.appacitive.core.infra.APFuture;
+import com.appacitive.core.infra.DeadlineAsyncHttp;
+import com.appacitive.core.infra.SingleFlightAsyncHttp;
+import com.appacitive.core.interfaces.AsyncHttp;
+import com.appacitive.core.model.Environment;
+import org.junit.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by sathley.
+ */
+public class SingleFlightTest {
+
+    private static StandInServer server;
+
+    private static String originalBaseUrl;
+
+    @BeforeClass
+    public static void oneTimeSetUp() throws Exception {
+        server = new StandInServer();
+        originalBaseUrl = AppacitiveContextBase.baseUrl;
+        AppacitiveContextBase.initialize(Keys.masterKey, Environment.sandbox, new JavaPlatform());
+        AppacitiveContextBase.setBaseUrl(server.getBaseUrl());
+    }
+
+    @AfterClass
+    public static void oneTimeTearDown() {
+        AppacitiveContextBase.setBaseUrl(originalBaseUrl);
+        server.stop();
+    }
+
+    @Before
+    public void beforeTest() {
+        server.reset();
+        AppacitiveContextBase.setSingleFlightGets(true);
+    }
+
+    @After
+    public void afterTest() {
+        AppacitiveContextBase.setSingleFlightGets(false);
+    }
+
+    private static String objectResponse(long id) {
+        return "{\"object\":{\"__id\":\"" + id + "\",\"__type\":\"player\",\"__revision\":\"1\",\"name\":\"p" + id + "\"},\"status\":{\"code\":\"200\"}}";
+    }
+
+    @Test
+    public void identicalGetsShareOneCallTest() throws Exception {
+        server.respond("/object/player/", objectResponse(1));
+        server.setDelayInMs(200);
+        List<APFuture<AppacitiveObject>> futures = new ArrayList<APFuture<AppacitiveObject>>();
+        for (int i = 0; i < 5; i++)
+            futures.add(AppacitiveObject.getAsync("player", 1, null));
+        AppacitiveObject first = futures.get(0).get(10, TimeUnit.SECONDS);
+        for (APFuture<AppacitiveObject> future : futures) {
+            AppacitiveObject object = future.get(10, TimeUnit.SECONDS);
+            Assert.assertEquals("p1", object.getPropertyAsString("name"));
+            if (future != futures.get(0))
+                Assert.assertNotSame(first, object);
+        }
+        Assert.assertEquals(1, server.getRequestCount());
+
+        //  Once landed, the next get goes out again.
+        AppacitiveObject.getAsync("player", 1, null).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void differentUrlsAreNotSharedTest() throws Exception {
+        server.respond("/object/player/", objectResponse(2));
+        server.setDelayInMs(100);
+        APFuture<AppacitiveObject> first = AppacitiveObject.getAsync("player", 2, null);
+        APFuture<AppacitiveObject> second = AppacitiveObject.getAsync("player", 3, null);
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(2, server.getRequestCount());
+    }
+
+    //  Requests always pass the deadline wrapper first.
+    private static AsyncHttp underDeadline() {
+        return ((DeadlineAsyncHttp) APContainer.build(AsyncHttp.class)).getDelegate();
+    }
+
+    @Test
+    public void turningOffRestoresTransportTest() {
+        Assert.assertTrue(underDeadline() instanceof SingleFlightAsyncHttp);
+        AppacitiveContextBase.setSingleFlightGets(true);
+        Assert.assertFalse(((SingleFlightAsyncHttp) underDeadline()).getDelegate() instanceof SingleFlightAsyncHttp);
+        AppacitiveContextBase.setSingleFlightGets(false);
+        Assert.assertTrue(underDeadline() instanceof JavaAsyncHttp);
+    }
+}
@@ -0,0 +1,151 @@
+package com.appacitive.java;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local stand-in for the appacitive api, used by tests that must not depend on the live service.
+ * Responses are registered per path prefix; the longest matching prefix wins.
+ */
+public class StandInServer {
+
+    public interface Responder {
+        public String respond(HttpExchange exchange, String requestBody) throws IOException;
+    }
+
+    private final HttpServer server;
+
+    private final Map<String, Responder> responders = new ConcurrentSkipListMap<String, Responder>();
+
+    private final ConcurrentHashMap<String, AtomicInteger> requestCounts = new ConcurrentHashMap<String, AtomicInteger>();
+
+    private final AtomicInteger totalRequests = new AtomicInteger();
+
+    private volatile long delayInMs = 0;
+
+    private volatile boolean gzipResponses = false;
+
+    public StandInServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                handleExchange(exchange);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public StandInServer respond(String pathPrefix, final String body) {
+        return respond(pathPrefix, new Responder() {
+            @Override
+            public String respond(HttpExchange exchange, String requestBody) {
+                return body;
+            }
+        });
+    }
+
+    public StandInServer respond(String pathPrefix, Responder responder) {
+        responders.put(pathPrefix, responder);
+        return this;
+    }
+
+    public void setDelayInMs(long delayInMs) {
+        this.delayInMs = delayInMs;
+    }
+
+    //  Compresses responses to requests that accept gzip.
+    public void setGzipResponses(boolean gzipResponses) {
+        this.gzipResponses = gzipResponses;
+    }
+
+    public int getRequestCount() {
+        return totalRequests.get();
+    }
+
+    public int getRequestCount(String pathPrefix) {
+        AtomicInteger count = requestCounts.get(pathPrefix);
+        return count == null ? 0 : count.get();
+    }
+
+    public void reset() {
+        responders.clear();
+        requestCounts.clear();
+        totalRequests.set(0);
+        delayInMs = 0;
+        gzipResponses = false;
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    private void handleExchange(HttpExchange exchange) throws IOException {
+        InputStream requestStream = exchange.getRequestBody();
+        if ("gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding")))
+            requestStream = new GZIPInputStream(requestStream);
+        String requestBody = read(requestStream);
+        String path = exchange.getRequestURI().getPath();
+        String match = null;
+        for (String prefix : responders.keySet()) {
+            if (path.startsWith(prefix) && (match == null || prefix.length() > match.length()))
+                match = prefix;
+        }
+        totalRequests.incrementAndGet();
+        if (match != null) {
+            requestCounts.putIfAbsent(match, new AtomicInteger());
+            requestCounts.get(match).incrementAndGet();
+        }
+        if (delayInMs > 0) {
+            try {
+                Thread.sleep(delayInMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        String body = match == null ? "{\"status\":{\"code\":\"404\",\"message\":\"Not found.\"}}" : responders.get(match).respond(exchange, requestBody);
+        byte[] bytes = body.getBytes("UTF-8");
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (gzipResponses && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            GZIPOutputStream gzip = new GZIPOutputStream(compressed);
+            gzip.write(bytes);
+            gzip.close();
+            bytes = compressed.toByteArray();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        OutputStream os = exchange.getResponseBody();
+        os.write(bytes);
+        os.close();
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1)
+            out.write(buffer, 0, read);
+        return out.toString("UTF-8");
+    }
+}
@@ -0,0 +1,105 @@
+package com.appacitive.java;
+
+import com.appacitive.core.AppacitiveContextBase;
+import com.appacitive.core.infra.APCallback;
+import com.appacitive.core.infra.APMetrics;
+import com.appacitive.core.infra.Gzip;
+import com.appacitive.core.model.Environment;
+import org.junit.*;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by sathley.
+ */
+public class StreamingResponseTest {
+
+    private static StandInServer server;
+
+    private static JavaAsyncHttp http;
+
+    private final Map<String, String> headers = new HashMap<String, String>();
+
+    @BeforeClass
+    public static void oneTimeSetUp() throws Exception {
+        AppacitiveContextBase.initialize(Keys.masterKey, Environment.sandbox, new JavaPlatform());
+        server = new StandInServer();
+        http = new JavaAsyncHttp();
+    }
+
+    @AfterClass
+    public static void oneTimeTearDown() {
+        AppacitiveContextBase.setGzipEnabled(false, false);
+        http.close();
+        server.stop();
+    }
+
+    @Before
+    public void beforeTest() {
+        server.reset();
+        APMetrics.reset();
+    }
+
+    private static String readFully(Reader reader) throws IOException {
+        StringBuilder text = new StringBuilder();
+        int c;
+        while ((c = reader.read()) != -1)
+            text.append((char) c);
+        return text.toString();
+    }
+
+    @Test
+    public void readerStartsAtObjectTest() throws Exception {
+        server.respond("/object", "\uFEFF  {\"status\":{\"code\":\"200\"}}  ");
+        final String[] received = new String[1];
+        final CountDownLatch latch = new CountDownLatch(1);
+        http.get(server.getBaseUrl() + "/object", headers, new APCallback() {
+            @Override
+            public void success(Reader response) {
+                try {
+                    received[0] = readFully(response);
+                } catch (IOException e) {
+                    received[0] = e.getMessage();
+                }
+                latch.countDown();
+            }
+        });
+        Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals("{\"status\":{\"code\":\"200\"}}  ", received[0]);
+    }
+
+    @Test
+    public void stringCallbackGetsTrimmedObjectTest() throws Exception {
+        server.respond("/object", "\uFEFF{\"status\":{\"code\":\"200\"}}\n");
+        Assert.assertEquals("{\"status\":{\"code\":\"200\"}}", http.get(server.getBaseUrl() + "/object", headers).get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void gzippedReaderTest() throws Exception {
+        AppacitiveContextBase.setGzipEnabled(true, false);
+        server.setGzipResponses(true);
+        StringBuilder body = new StringBuilder("{\"objects\":[");
+        for (int i = 0; i < 1000; i++)
+            body.append(i == 0 ? "" : ",").append("{\"__id\":\"").append(i).append("\"}");
+        body.append("]}");
+        server.respond("/object", body.toString());
+        Assert.assertEquals(body.toString(), http.get(server.getBaseUrl() + "/object", headers).get(10, TimeUnit.SECONDS));
+        Assert.assertEquals(1, APMetrics.get(Gzip.RESPONSE_RATIO).getCount());
+    }
+
+    @Test
+    public void nonJsonResponseFailsTest() throws Exception {
+        server.respond("/html", "<html></html>");
+        try {
+            http.get(server.getBaseUrl() + "/html", headers).get(10, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (java.util.concurrent.ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+}
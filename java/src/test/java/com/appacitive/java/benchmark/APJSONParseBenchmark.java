@@ -0,0 +1,94 @@
+package com.appacitive.java.benchmark;
+
+import com.appacitive.core.apjson.APJSONObject;
+import com.appacitive.core.apjson.APJSONReader;
+import com.appacitive.core.apjson.APJSONToken;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the tokener, which needs the whole body as a string, against the streaming reader for small,
+ * medium and large find responses. Both start from the raw utf-8 bytes, as they would off the wire.
+ * {@code readerScan} walks the tokens without building objects, the way a caller consuming a large
+ * result set one entity at a time would.
+ * <p/>
+ * Run the main method with the test classpath, e.g. from the ide.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class APJSONParseBenchmark {
+
+    @Param({"1", "50", "2000"})
+    public int objects;
+
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws Exception {
+        StringBuilder builder = new StringBuilder("{\"objects\":[");
+        for (int i = 0; i < objects; i++) {
+            if (i > 0)
+                builder.append(",");
+            builder.append("{\"__id\":\"").append(100000 + i).append("\",\"__type\":\"player\",\"__revision\":\"2\",")
+                    .append("\"__createdby\":\"System\",\"__utcdatecreated\":\"2014-05-12T10:24:11.0000000Z\",")
+                    .append("\"__tags\":[\"a\",\"b\"],\"__attributes\":{},\"name\":\"player ").append(i)
+                    .append("\",\"score\":").append(i * 7).append(",\"ratio\":").append(i / 3.0).append(",\"active\":true}");
+        }
+        builder.append("],\"paginginfo\":{\"pagenumber\":1,\"pagesize\":").append(objects)
+                .append(",\"totalrecords\":").append(objects).append("},\"status\":{\"code\":\"200\"}}");
+        payload = builder.toString().getBytes("UTF-8");
+    }
+
+    @Benchmark
+    public Object tokener() throws Exception {
+        return new APJSONObject(new String(payload, "UTF-8"));
+    }
+
+    @Benchmark
+    public Object reader() throws Exception {
+        return new APJSONReader(new InputStreamReader(new ByteArrayInputStream(payload), "UTF-8")).readObject();
+    }
+
+    @Benchmark
+    public int readerScan() throws Exception {
+        APJSONReader reader = new APJSONReader(new InputStreamReader(new ByteArrayInputStream(payload), "UTF-8"));
+        int count = 0;
+        APJSONToken token;
+        while ((token = reader.peek()) != APJSONToken.END_DOCUMENT) {
+            switch (token) {
+                case BEGIN_OBJECT:
+                    reader.beginObject();
+                    count++;
+                    break;
+                case END_OBJECT:
+                    reader.endObject();
+                    break;
+                case BEGIN_ARRAY:
+                    reader.beginArray();
+                    break;
+                case END_ARRAY:
+                    reader.endArray();
+                    break;
+                case NAME:
+                    reader.nextName();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        return count;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(APJSONParseBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,86 @@
+package com.appacitive.java.benchmark;
+
+import com.appacitive.core.infra.DateTimeHelper;
+import org.joda.time.DateTime;
+import org.joda.time.format.DateTimeFormat;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the two system dates of each object on a page, the way entity hydration does. {@code simpleDateFormat}
+ * builds a formatter per object as {@code setSelf} used to, {@code jodaFormatter} builds a joda formatter per value
+ * as the joda getters used to, and the other two use {@link DateTimeHelper}. Run with the gc profiler (as the main
+ * method does) and compare {@code gc.alloc.rate.norm}, which is bytes allocated per page.
+ * <p/>
+ * Run the main method with the test classpath, e.g. from the ide.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DateTimeBenchmark {
+
+    @Param({"1000"})
+    public int objects;
+
+    private String[] created;
+
+    private String[] updated;
+
+    @Setup
+    public void setUp() {
+        created = new String[objects];
+        updated = new String[objects];
+        for (int i = 0; i < objects; i++) {
+            created[i] = String.format("2014-05-%02dT10:%02d:11.%07dZ", 1 + i % 28, i % 60, i * 7);
+            updated[i] = String.format("2015-01-%02dT23:%02d:59.%07dZ", 1 + i % 28, i % 60, i * 13);
+        }
+    }
+
+    @Benchmark
+    public void simpleDateFormat(Blackhole blackhole) throws Exception {
+        for (int i = 0; i < objects; i++) {
+            DateFormat dateTimeFormat = new SimpleDateFormat(DateTimeHelper.PATTERN);
+            blackhole.consume(dateTimeFormat.parse(created[i]));
+            blackhole.consume(dateTimeFormat.parse(updated[i]));
+        }
+    }
+
+    @Benchmark
+    public void helper(Blackhole blackhole) throws Exception {
+        for (int i = 0; i < objects; i++) {
+            blackhole.consume(DateTimeHelper.parseDate(created[i]));
+            blackhole.consume(DateTimeHelper.parseDate(updated[i]));
+        }
+    }
+
+    @Benchmark
+    public void jodaFormatter(Blackhole blackhole) {
+        for (int i = 0; i < objects; i++) {
+            blackhole.consume(DateTimeFormat.forPattern(DateTimeHelper.PATTERN).parseDateTime(created[i]));
+            blackhole.consume(DateTimeFormat.forPattern(DateTimeHelper.PATTERN).parseDateTime(updated[i]));
+        }
+    }
+
+    @Benchmark
+    public void jodaHelper(Blackhole blackhole) {
+        for (int i = 0; i < objects; i++) {
+            DateTime dateTime = DateTimeHelper.parseDateTime(created[i]);
+            blackhole.consume(dateTime);
+            blackhole.consume(DateTimeHelper.parseDateTime(updated[i]));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(DateTimeBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build()).run();
+    }
+}
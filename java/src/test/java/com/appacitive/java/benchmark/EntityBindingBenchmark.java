@@ -0,0 +1,94 @@
+package com.appacitive.java.benchmark;
+
+import com.appacitive.core.AppacitiveObject;
+import com.appacitive.core.apjson.APJSONArray;
+import com.appacitive.core.apjson.APJSONObject;
+import com.appacitive.core.apjson.APJSONReader;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binds a page of objects from the raw response bytes, once through the json tree and {@code setSelf(APJSONObject)}
+ * and once straight from the token stream. Run with the gc profiler (as the main method does) and compare
+ * {@code gc.alloc.rate.norm}, which is bytes allocated per page.
+ * <p/>
+ * Run the main method with the test classpath, e.g. from the ide.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityBindingBenchmark {
+
+    @Param({"1", "100", "1000"})
+    public int objects;
+
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws Exception {
+        StringBuilder builder = new StringBuilder("{\"objects\":[");
+        for (int i = 0; i < objects; i++) {
+            if (i > 0)
+                builder.append(",");
+            builder.append("{\"__id\":\"").append(100000 + i).append("\",\"__type\":\"player\",\"__typeid\":\"42\",\"__revision\":\"2\",")
+                    .append("\"__createdby\":\"System\",\"__lastmodifiedby\":\"System\",")
+                    .append("\"__utcdatecreated\":\"2014-05-12T10:24:11.0000000Z\",\"__utclastupdateddate\":\"2014-05-12T10:24:11.0000000Z\",")
+                    .append("\"__tags\":[\"a\",\"b\"],\"__attributes\":{\"source\":\"import\"},\"name\":\"player ").append(i)
+                    .append("\",\"score\":").append(i * 7).append(",\"ratio\":").append(i / 3.0)
+                    .append(",\"active\":true,\"aliases\":[\"x\",\"y\"]}");
+        }
+        builder.append("],\"paginginfo\":{\"pagenumber\":1,\"pagesize\":").append(objects)
+                .append(",\"totalrecords\":").append(objects).append("},\"status\":{\"code\":\"200\"}}");
+        payload = builder.toString().getBytes("UTF-8");
+    }
+
+    @Benchmark
+    public List<AppacitiveObject> tree() throws Exception {
+        APJSONObject jsonObject = new APJSONObject(new String(payload, "UTF-8"));
+        APJSONArray objectsArray = jsonObject.optJSONArray("objects");
+        List<AppacitiveObject> result = new ArrayList<AppacitiveObject>();
+        for (int i = 0; i < objectsArray.length(); i++) {
+            AppacitiveObject object = new AppacitiveObject("player");
+            object.setSelf(objectsArray.optJSONObject(i));
+            result.add(object);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<AppacitiveObject> streaming() throws Exception {
+        APJSONReader reader = new APJSONReader(new InputStreamReader(new ByteArrayInputStream(payload), "UTF-8"));
+        List<AppacitiveObject> result = new ArrayList<AppacitiveObject>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals("objects") == false) {
+                reader.skipValue();
+                continue;
+            }
+            reader.beginArray();
+            while (reader.hasNext()) {
+                AppacitiveObject object = new AppacitiveObject("player");
+                object.setSelf(reader);
+                result.add(object);
+            }
+            reader.endArray();
+        }
+        reader.endObject();
+        return result;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(EntityBindingBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build()).run();
+    }
+}
@@ -0,0 +1,62 @@
+package com.appacitive.java.benchmark;
+
+import com.appacitive.core.AppacitiveObject;
+import com.appacitive.core.model.BatchCallRequest;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes a batch request of new objects to the bytes that go on the wire, once through the json tree and its
+ * string and once through {@code APJSONWriter}. Run with the gc profiler (as the main method does) and compare
+ * {@code gc.alloc.rate.norm}, which is bytes allocated per batch.
+ * <p/>
+ * Run the main method with the test classpath, e.g. from the ide.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntitySerializationBenchmark {
+
+    @Param({"1", "1000"})
+    public int objects;
+
+    private BatchCallRequest request;
+
+    @Setup
+    public void setUp() {
+        request = new BatchCallRequest();
+        for (int i = 0; i < objects; i++) {
+            AppacitiveObject object = new AppacitiveObject("player");
+            object.setStringProperty("name", "player " + i);
+            object.setIntProperty("score", i * 7);
+            object.setDoubleProperty("ratio", i / 3.0);
+            object.setBoolProperty("active", true);
+            object.setPropertyAsMultiValued("aliases", Arrays.asList("x", "y"));
+            object.addTags(Arrays.asList("a", "b"));
+            object.setAttribute("source", "import");
+            request.addNode(object, "node" + i);
+        }
+    }
+
+    @Benchmark
+    public byte[] tree() throws Exception {
+        return request.getMap().toString().getBytes("UTF-8");
+    }
+
+    @Benchmark
+    public byte[] writer() throws Exception {
+        return request.getMapBytes();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(EntitySerializationBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build()).run();
+    }
+}
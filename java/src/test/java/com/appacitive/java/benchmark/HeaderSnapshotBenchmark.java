@@ -0,0 +1,64 @@
+package com.appacitive.java.benchmark;
+
+import com.appacitive.core.AppacitiveContextBase;
+import com.appacitive.core.infra.Headers;
+import com.appacitive.core.model.Environment;
+import com.appacitive.java.JavaPlatform;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headers for a request from 64 threads at once, through the shared snapshot of {@link Headers#assemble()} and through
+ * a map built afresh per request, as it used to be. Run with the gc profiler (as the main method does) and also
+ * compare {@code gc.alloc.rate.norm}, which is bytes allocated per request.
+ * <p/>
+ * Run the main method with the test classpath, e.g. from the ide.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class HeaderSnapshotBenchmark {
+
+    @Setup
+    public void setUp() {
+        AppacitiveContextBase.initialize("benchmark", Environment.sandbox, new JavaPlatform());
+        AppacitiveContextBase.setLoggedInUserToken("token");
+    }
+
+    @TearDown
+    public void tearDown() {
+        AppacitiveContextBase.logout();
+        AppacitiveContextBase.close();
+    }
+
+    @Benchmark
+    public Map<String, String> snapshot() {
+        return Headers.assemble();
+    }
+
+    @Benchmark
+    public Map<String, String> fresh() {
+        Map<String, String> headers = new HashMap<String, String>();
+        headers.put("Appacitive-Apikey", AppacitiveContextBase.getApiKey());
+        headers.put("Appacitive-Environment", AppacitiveContextBase.getEnvironment());
+        headers.put("Content-Type", "application/json");
+        String userToken = AppacitiveContextBase.getLoggedInUserToken();
+        if (userToken != null && userToken.isEmpty() == false)
+            headers.put("Appacitive-User-Auth", userToken);
+        return headers;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(HeaderSnapshotBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build()).run();
+    }
+}
@@ -0,0 +1,111 @@
+package com.appacitive.java.benchmark;
+
+import com.appacitive.core.AppacitiveObject;
+import com.appacitive.core.apjson.APJSONException;
+import com.appacitive.core.apjson.APJSONReader;
+import com.appacitive.core.infra.StreamingCallback;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time the delivering thread, android's main thread under volley, spends on a page of found objects. {@code whole}
+ * parses and binds the page there, as volley used to; {@code prepared} only runs what is left once the page was
+ * bound on the network thread through {@code prepare}. Anything over a frame (about 16ms) is a dropped frame.
+ * <p/>
+ * Run the main method with the test classpath, e.g. from the ide.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MainThreadDeliveryBenchmark {
+
+    @Param({"100", "500"})
+    public int objects;
+
+    private byte[] payload;
+
+    private Runnable delivery;
+
+    private static class FindCallback extends StreamingCallback {
+
+        final List<AppacitiveObject> found = new ArrayList<AppacitiveObject>();
+
+        List<AppacitiveObject> delivered;
+
+        @Override
+        protected boolean read(String name, APJSONReader reader) throws APJSONException, IOException {
+            if (name.equals("objects") == false)
+                return false;
+            reader.beginArray();
+            while (reader.hasNext()) {
+                AppacitiveObject object = new AppacitiveObject("player");
+                object.setSelf(reader);
+                found.add(object);
+            }
+            reader.endArray();
+            return true;
+        }
+
+        @Override
+        protected void success() {
+            delivered = found;
+        }
+
+        @Override
+        public void failure(Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        StringBuilder builder = new StringBuilder("{\"objects\":[");
+        for (int i = 0; i < objects; i++) {
+            if (i > 0)
+                builder.append(",");
+            builder.append("{\"__id\":\"").append(100000 + i).append("\",\"__type\":\"player\",\"__typeid\":\"42\",\"__revision\":\"2\",")
+                    .append("\"__createdby\":\"System\",\"__lastmodifiedby\":\"System\",")
+                    .append("\"__utcdatecreated\":\"2014-05-12T10:24:11.0000000Z\",\"__utclastupdateddate\":\"2014-05-12T10:24:11.0000000Z\",")
+                    .append("\"__tags\":[\"a\",\"b\"],\"__attributes\":{\"source\":\"import\"},\"name\":\"player ").append(i)
+                    .append("\",\"score\":").append(i * 7).append(",\"ratio\":").append(i / 3.0)
+                    .append(",\"active\":true,\"aliases\":[\"x\",\"y\"]}");
+        }
+        builder.append("],\"paginginfo\":{\"pagenumber\":1,\"pagesize\":").append(objects)
+                .append(",\"totalrecords\":").append(objects).append("},\"status\":{\"code\":\"200\"}}");
+        payload = builder.toString().getBytes("UTF-8");
+    }
+
+    //  The network thread's share, kept out of the measurement.
+    @Setup(Level.Invocation)
+    public void prepare() throws Exception {
+        delivery = new FindCallback().prepare(new InputStreamReader(new ByteArrayInputStream(payload), "UTF-8"));
+    }
+
+    @Benchmark
+    public List<AppacitiveObject> whole() throws Exception {
+        FindCallback callback = new FindCallback();
+        callback.success(new InputStreamReader(new ByteArrayInputStream(payload), "UTF-8"));
+        return callback.delivered;
+    }
+
+    @Benchmark
+    public Runnable prepared() {
+        delivery.run();
+        return delivery;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(MainThreadDeliveryBenchmark.class.getSimpleName()).build()).run();
+    }
+}
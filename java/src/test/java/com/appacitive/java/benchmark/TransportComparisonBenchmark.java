@@ -0,0 +1,86 @@
+package com.appacitive.java.benchmark;
+
+import com.appacitive.core.AppacitiveContextBase;
+import com.appacitive.core.infra.APFuture;
+import com.appacitive.core.interfaces.AsyncHttp;
+import com.appacitive.core.model.Environment;
+import com.appacitive.java.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the ning client with the jdk's HTTP/2 client against a local stand-in server that speaks both
+ * HTTP/1.1 and cleartext HTTP/2: throughput of bursts of concurrent requests, and latency of single requests.
+ * <p/>
+ * Run the main method with the test classpath, e.g. from the ide.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransportComparisonBenchmark {
+
+    private static final int CONCURRENT_REQUESTS = 128;
+
+    @Param({"ning", "jdk"})
+    public String transport;
+
+    private H2cStandInServer server;
+
+    private AsyncHttp http;
+
+    private String url;
+
+    private final Map<String, String> headers = new HashMap<String, String>();
+
+    @Setup
+    public void setUp() throws Exception {
+        AppacitiveContextBase.initialize("benchmark", Environment.sandbox, new JavaPlatform());
+        server = new H2cStandInServer("{\"object\":{\"__id\":\"1\",\"__type\":\"player\"},\"status\":{\"code\":\"200\"}}");
+        server.setDelayInMs(2);
+        url = server.getBaseUrl() + "/object/player/1";
+        ConnectionPoolSettings settings = new ConnectionPoolSettings()
+                .withMaxConnectionsPerHost(CONCURRENT_REQUESTS)
+                .withMaxConnections(CONCURRENT_REQUESTS);
+        http = "jdk".equals(transport) ? new JdkAsyncHttp(settings) : new JavaAsyncHttp(settings);
+        http.get(url, headers).get();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        if (http instanceof Closeable)
+            ((Closeable) http).close();
+        server.stop();
+        AppacitiveContextBase.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(CONCURRENT_REQUESTS)
+    public List<String> concurrentThroughput() throws Exception {
+        List<APFuture<String>> futures = new ArrayList<APFuture<String>>(CONCURRENT_REQUESTS);
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++)
+            futures.add(http.get(url, headers));
+        return APFuture.allOf(futures).get();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public String singleRequestLatency() throws Exception {
+        return http.get(url, headers).get();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(TransportComparisonBenchmark.class.getSimpleName()).build()).run();
+    }
+}
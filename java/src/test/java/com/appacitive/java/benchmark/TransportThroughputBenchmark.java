@@ -0,0 +1,135 @@
+package com.appacitive.java.benchmark;
+
+import com.appacitive.core.AppacitiveContextBase;
+import com.appacitive.core.infra.APCallback;
+import com.appacitive.core.infra.APContainer;
+import com.appacitive.core.interfaces.AsyncHttp;
+import com.appacitive.core.interfaces.Http;
+import com.appacitive.core.model.Environment;
+import com.appacitive.java.ConnectionPoolSettings;
+import com.appacitive.java.JavaPlatform;
+import com.appacitive.java.StandInServer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Compares request throughput of the blocking transport, called from virtual threads (platform threads on
+ * jdks without them) and from a small platform thread pool, against the callback transport.
+ * Requests go to a local stand-in server that answers after a short delay.
+ * <p/>
+ * Run the main method with the test classpath, e.g. from the ide.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransportThroughputBenchmark {
+
+    private static final int REQUESTS = 256;
+
+    private static final int PLATFORM_THREADS = 32;
+
+    private StandInServer server;
+
+    private Http http;
+
+    private AsyncHttp asyncHttp;
+
+    private ExecutorService virtualThreads;
+
+    private ExecutorService platformThreads;
+
+    private String url;
+
+    private final Map<String, String> headers = new HashMap<String, String>();
+
+    @Setup
+    public void setUp() throws Exception {
+        AppacitiveContextBase.initialize("benchmark", Environment.sandbox, new JavaPlatform(new ConnectionPoolSettings()
+                .withMaxConnectionsPerHost(REQUESTS)
+                .withMaxConnections(REQUESTS)));
+        server = new StandInServer();
+        server.respond("/", "{\"status\":{\"code\":\"200\"}}");
+        server.setDelayInMs(5);
+        url = server.getBaseUrl() + "/object/player/1";
+        http = APContainer.build(Http.class);
+        asyncHttp = APContainer.build(AsyncHttp.class);
+        virtualThreads = newVirtualThreadExecutor();
+        platformThreads = Executors.newFixedThreadPool(PLATFORM_THREADS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        virtualThreads.shutdownNow();
+        platformThreads.shutdownNow();
+        server.stop();
+        AppacitiveContextBase.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public void callbacks() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            asyncHttp.get(url, headers, new APCallback() {
+                @Override
+                public void success(String result) {
+                    latch.countDown();
+                }
+
+                @Override
+                public void failure(Exception e) {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public void blockingOnVirtualThreads() throws Exception {
+        blocking(virtualThreads);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public void blockingOnPlatformThreads() throws Exception {
+        blocking(platformThreads);
+    }
+
+    private void blocking(ExecutorService executor) throws Exception {
+        List<Future<Map<String, Object>>> results = new ArrayList<Future<Map<String, Object>>>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            results.add(executor.submit(new Callable<Map<String, Object>>() {
+                @Override
+                public Map<String, Object> call() throws Exception {
+                    return http.get(url, headers);
+                }
+            }));
+        }
+        for (Future<Map<String, Object>> result : results)
+            result.get();
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (Exception e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(TransportThroughputBenchmark.class.getSimpleName()).build()).run();
+    }
+}